@@ -1,12 +1,15 @@
 package alien4cloud.plugin.aop;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
-import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -53,6 +56,9 @@ import lombok.extern.slf4j.Slf4j;
  * <li>the bean can be already proxied in the main context: in this case, the annotation should be present at interface level.
  * <li>proxies are applied in the order child contexts are started.
  * </ul>
+ * <p>
+ * Invocations do not take any lock: the target of each proxy is a volatile reference that is replaced once the new target (with the advices of all the started
+ * child contexts) is fully built. Methods are invoked through method handles cached per method.
  */
 @Component
 @Slf4j
@@ -116,11 +122,12 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
         ProxyRegistry proxyRegistry = overridableCandidates.get(bean);
         if (proxyRegistry == null) {
             proxyRegistry = new ProxyRegistry();
-            Object proxy = Proxy.newProxyInstance(bean.getClass().getClassLoader(), bean.getClass().getInterfaces(), new DynamicProxyInvocationHandler(bean));
-            proxyRegistry.proxy = proxy;
             proxyRegistry.target = bean;
             proxyRegistry.original = bean;
             proxyRegistry.beanName = id;
+            Object proxy = Proxy.newProxyInstance(bean.getClass().getClassLoader(), bean.getClass().getInterfaces(),
+                    new DynamicProxyInvocationHandler(proxyRegistry));
+            proxyRegistry.proxy = proxy;
             overridableCandidates.put(bean, proxyRegistry);
         }
     }
@@ -140,7 +147,12 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
             if (log.isDebugEnabled()) {
                 log.debug("context started with id: {}", ctx.getId());
             }
-            decorateProxyCandidate(ctx);
+            Map<ProxyRegistry, Object> targets = Maps.newHashMap();
+            for (ProxyRegistry candidateProxyRegistry : overridableCandidates.values()) {
+                targets.put(candidateProxyRegistry, candidateProxyRegistry.target);
+            }
+            decorateProxyCandidate(ctx, targets);
+            publishTargets(targets);
             detectApplicationListeners(ctx);
         } finally {
             lock.unlock();
@@ -176,14 +188,15 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
             if (removed == null) {
                 log.warn("The stopped context {} can not be found in registered contexts", ctx);
             } else {
-                // reset all proxy candidates (he target become the origin bean)
-                for (ProxyRegistry candidateProxyRegistryEntry : overridableCandidates.values()) {
-                    candidateProxyRegistryEntry.reset();
+                // rebuild proxies from the origin beans with the remaining child contexts, current proxies are used until the new ones are published
+                Map<ProxyRegistry, Object> targets = Maps.newHashMap();
+                for (ProxyRegistry candidateProxyRegistry : overridableCandidates.values()) {
+                    targets.put(candidateProxyRegistry, candidateProxyRegistry.original);
                 }
-                // rebuild proxies with the remaining child contexts
                 for (ApplicationContext childContext : childContexts.values()) {
-                    decorateProxyCandidate(childContext);
+                    decorateProxyCandidate(childContext, targets);
                 }
+                publishTargets(targets);
             }
         } finally {
             lock.unlock();
@@ -226,7 +239,13 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
         }
     }
 
-    private void decorateProxyCandidate(ApplicationContext ctx) {
+    /**
+     * Apply the advices of a child context on the given targets.
+     *
+     * @param ctx The child context.
+     * @param targets The targets of every proxy registry, updated with the adviced beans.
+     */
+    private void decorateProxyCandidate(ApplicationContext ctx, Map<ProxyRegistry, Object> targets) {
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
         // we need to use the child context classLoader
         Thread.currentThread().setContextClassLoader(ctx.getClassLoader());
@@ -234,12 +253,12 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
             AnnotationAwareAspectJAutoProxyCreator annotationAwareAspectJAutoProxyCreator = new AnnotationAwareAspectJAutoProxyCreator();
             DefaultListableBeanFactory lbf = new DefaultListableBeanFactory(ctx);
             annotationAwareAspectJAutoProxyCreator.setBeanFactory(lbf);
-            for (ProxyRegistry candidateProxyRegistry : overridableCandidates.values()) {
-                Object bean = candidateProxyRegistry.target;
-                Object advicedBean = annotationAwareAspectJAutoProxyCreator.postProcessAfterInitialization(bean, candidateProxyRegistry.beanName);
+            for (Entry<ProxyRegistry, Object> targetEntry : targets.entrySet()) {
+                Object bean = targetEntry.getValue();
+                Object advicedBean = annotationAwareAspectJAutoProxyCreator.postProcessAfterInitialization(bean, targetEntry.getKey().beanName);
                 if (bean != advicedBean) {
-                    log.info("The bean with name {} is now proxied by {}", candidateProxyRegistry.beanName, advicedBean);
-                    candidateProxyRegistry.target = advicedBean;
+                    log.info("The bean with name {} is now proxied by {}", targetEntry.getKey().beanName, advicedBean);
+                    targetEntry.setValue(advicedBean);
                 }
             }
         } finally {
@@ -247,6 +266,12 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
         }
     }
 
+    private void publishTargets(Map<ProxyRegistry, Object> targets) {
+        for (Entry<ProxyRegistry, Object> targetEntry : targets.entrySet()) {
+            targetEntry.getKey().target = targetEntry.getValue();
+        }
+    }
+
     /**
      * This {@link InvocationHandler} will invoke methods:
      * <ul>
@@ -254,52 +279,46 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
      * <li>on the original bean if no plugin child context have defined any aspect for it.
      * </ul>
      */
-    private class DynamicProxyInvocationHandler implements InvocationHandler {
+    private static class DynamicProxyInvocationHandler implements InvocationHandler {
+        /** Generic signature of the method handles: (target, arguments) -> result. */
+        private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
 
         /**
-         * The original bean that is eventually overridden.
+         * The registry of the original bean that is eventually overridden.
          */
-        private Object obj;
+        private final ProxyRegistry proxyRegistry;
+
+        /** Method handles for the methods of the proxy interfaces, they apply to any target implementing the interfaces. */
+        private final ConcurrentMap<Method, MethodHandle> methodHandles = Maps.newConcurrentMap();
 
-        public DynamicProxyInvocationHandler(Object obj) {
+        public DynamicProxyInvocationHandler(ProxyRegistry proxyRegistry) {
             super();
-            this.obj = obj;
+            this.proxyRegistry = proxyRegistry;
         }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            lock.lock();
-            Object target = obj;
-            try {
-                ProxyRegistry proxyRegistry = overridableCandidates.get(obj);
-                if (proxyRegistry != null) {
-                    if (log.isDebugEnabled()) {
-                        if (proxyRegistry.target != proxyRegistry.original) {
-                            log.debug("Invoking method <{}> on proxy", method);
-                        } else {
-                            log.debug("Invoking method <{}> on native bean (no proxy found)", method);
-                        }
-                    }
-                    target = proxyRegistry.target;
+            Object target = proxyRegistry.target;
+            if (log.isDebugEnabled()) {
+                if (target != proxyRegistry.original) {
+                    log.debug("Invoking method <{}> on proxy", method);
                 } else {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Invoking method <{}> on native bean (no proxy registry found)", method);
-                    }
+                    log.debug("Invoking method <{}> on native bean (no proxy found)", method);
                 }
-            } finally {
-                lock.unlock();
             }
-            Object result = null;
-            try {
-                result = ReflectionUtils.invokeMethod(method, target, args);
-            } catch (Exception e) {
-                try {
-                    ReflectionUtils.handleReflectionException(e);
-                } catch (UndeclaredThrowableException ute) {
-                    throw ute.getUndeclaredThrowable();
-                }
+            MethodHandle methodHandle = methodHandles.get(method);
+            if (methodHandle == null) {
+                methodHandle = createMethodHandle(method);
+                methodHandles.putIfAbsent(method, methodHandle);
             }
-            return result;
+            // exceptions thrown by the target are propagated as is
+            return methodHandle.invokeExact(target, args);
+        }
+
+        private MethodHandle createMethodHandle(Method method) throws IllegalAccessException {
+            ReflectionUtils.makeAccessible(method);
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+            return methodHandle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
         }
     }
 
@@ -310,16 +329,11 @@ public class ChildContextAspectsManager implements ApplicationListener<Applicati
         /** The dynamic proxy for the bean. */
         private Object proxy;
 
-        /** The target : the original bean eventually proxied by child context aspects. */
-        private Object target;
+        /** The target : the original bean eventually proxied by child context aspects, replaced when child contexts are started or stopped. */
+        private volatile Object target;
 
         /** The original bean that is candidate for being proxied by child context aspects. */
         private Object original;
-
-        /** The target become the origin, like just after main context startup. */
-        public void reset() {
-            this.target = this.original;
-        }
     }
 
 }
@@ -204,6 +204,49 @@ public final class FileUtil {
         });
     }
 
+    /**
+     * Recursively hard link the files of a source directory (or a single file) into a destination, files are copied when the file system cannot link them.
+     * Linked files share their content with the source: they must be replaced (deleted then written) and never modified in place.
+     *
+     * @param source The source directory or file.
+     * @param destination The destination directory or file.
+     * @throws IOException In case something fails.
+     */
+    public static void linkOrCopy(final Path source, final Path destination) throws IOException {
+        if (!Files.isDirectory(source)) {
+            linkOrCopyFile(source, destination);
+            return;
+        }
+        if (Files.notExists(destination)) {
+            Files.createDirectories(destination);
+        }
+
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                linkOrCopyFile(file, destination.resolve(relativizePath(source, file)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destination.resolve(relativizePath(source, dir)));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void linkOrCopyFile(Path source, Path destination) throws IOException {
+        try {
+            Files.createLink(destination, source);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // hard links are not supported by the file system or source and destination are on different file stores
+            Files.copy(source, destination, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
     private static class EraserWalker extends SimpleFileVisitor<Path> {
         private Path[] keepPath;
 
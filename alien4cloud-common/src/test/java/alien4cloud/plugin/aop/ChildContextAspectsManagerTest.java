@@ -0,0 +1,159 @@
+package alien4cloud.plugin.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check that the aspects defined in plugin child contexts are applied to the overridable beans of the main context while the plugin is started.
+ */
+public class ChildContextAspectsManagerTest {
+    private AnnotationConfigApplicationContext mainContext;
+    private ICounter counter;
+
+    @Before
+    public void prepare() {
+        mainContext = new AnnotationConfigApplicationContext(ChildContextAspectsManager.class, Counter.class);
+        counter = mainContext.getBean(ICounter.class);
+        CountingAspect.ADVISED_CALLS.set(0);
+    }
+
+    @After
+    public void cleanup() {
+        mainContext.close();
+    }
+
+    private AnnotationConfigApplicationContext startPluginContext() {
+        AnnotationConfigApplicationContext pluginContext = new AnnotationConfigApplicationContext();
+        pluginContext.setParent(mainContext);
+        pluginContext.register(CountingAspect.class);
+        pluginContext.refresh();
+        pluginContext.start();
+        return pluginContext;
+    }
+
+    @Test
+    public void aspectsShouldBeAppliedWhilePluginIsStarted() {
+        assertEquals(1, counter.increment(1));
+        assertEquals(0, CountingAspect.ADVISED_CALLS.get());
+
+        AnnotationConfigApplicationContext pluginContext = startPluginContext();
+        assertEquals(3, counter.increment(2));
+        assertEquals(1, CountingAspect.ADVISED_CALLS.get());
+
+        pluginContext.stop();
+        pluginContext.close();
+        assertEquals(6, counter.increment(3));
+        assertEquals(1, CountingAspect.ADVISED_CALLS.get());
+    }
+
+    @Test
+    public void remainingPluginsAspectsShouldBeAppliedWhenAPluginIsStopped() {
+        AnnotationConfigApplicationContext firstPluginContext = startPluginContext();
+        AnnotationConfigApplicationContext secondPluginContext = startPluginContext();
+        assertEquals(1, counter.increment(1));
+        assertEquals(2, CountingAspect.ADVISED_CALLS.get());
+
+        firstPluginContext.stop();
+        firstPluginContext.close();
+        assertEquals(2, counter.increment(1));
+        assertEquals(3, CountingAspect.ADVISED_CALLS.get());
+
+        secondPluginContext.stop();
+        secondPluginContext.close();
+        assertEquals(3, counter.increment(1));
+        assertEquals(3, CountingAspect.ADVISED_CALLS.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exceptionsShouldBePropagated() {
+        counter.increment(-1);
+    }
+
+    @Test
+    public void exceptionsShouldBePropagatedThroughPluginAspects() {
+        AnnotationConfigApplicationContext pluginContext = startPluginContext();
+        try {
+            counter.increment(-1);
+            fail("The exception of the target bean should be propagated.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Counter can only be incremented", e.getMessage());
+        } finally {
+            pluginContext.close();
+        }
+        assertEquals(1, CountingAspect.ADVISED_CALLS.get());
+    }
+
+    @Test
+    public void concurrentCallsShouldNotBeLostWhilePluginStartsAndStops() throws Exception {
+        int threads = 4;
+        int callsPerThread = 20000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < callsPerThread; i++) {
+                        counter.increment(1);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                AnnotationConfigApplicationContext pluginContext = startPluginContext();
+                pluginContext.stop();
+                pluginContext.close();
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals((long) threads * callsPerThread + 1, counter.increment(1));
+    }
+
+    // the classes are public as they are proxied by spring.
+    public interface ICounter {
+        long increment(int delta);
+    }
+
+    @Overridable
+    public static class Counter implements ICounter {
+        private final AtomicLong value = new AtomicLong();
+
+        @Override
+        public long increment(int delta) {
+            if (delta < 0) {
+                throw new IllegalArgumentException("Counter can only be incremented");
+            }
+            return value.addAndGet(delta);
+        }
+    }
+
+    @Aspect
+    public static class CountingAspect {
+        static final AtomicLong ADVISED_CALLS = new AtomicLong();
+
+        @Around("execution(long increment(int))")
+        public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+            ADVISED_CALLS.incrementAndGet();
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -33,6 +33,7 @@ import alien4cloud.model.application.Application;
 import alien4cloud.model.common.Tag;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.security.AuthorizationUtil;
+import alien4cloud.security.UserPermissionEvaluator;
 import alien4cloud.security.model.ApplicationRole;
 import alien4cloud.utils.NameValidationUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -153,10 +154,11 @@ public class ApplicationService {
             return null;
         }
         Map<String, Application> applications = Maps.newHashMap();
+        UserPermissionEvaluator permissionEvaluator = AuthorizationUtil.getPermissionEvaluator();
         Iterator<Application> iterator = apps.iterator();
         while (iterator.hasNext()) {
             Application app = iterator.next();
-            if (!AuthorizationUtil.hasAuthorizationForApplication(app, ApplicationRole.values())) {
+            if (!permissionEvaluator.hasAuthorization(app, ApplicationRole.APPLICATION_MANAGER, ApplicationRole.values())) {
                 iterator.remove();
                 continue;
             }
@@ -3,9 +3,6 @@ package alien4cloud.application;
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.utils.AlienConstants.APP_WORKSPACE_PREFIX;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
@@ -20,7 +17,6 @@ import org.alien4cloud.alm.events.BeforeApplicationVersionDeleted;
 import org.alien4cloud.tosca.catalog.ArchiveDelegateType;
 import org.alien4cloud.tosca.catalog.index.ArchiveIndexer;
 import org.alien4cloud.tosca.catalog.index.CsarService;
-import org.alien4cloud.tosca.catalog.repository.ICsarRepositry;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
@@ -28,8 +24,6 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
-import org.springframework.beans.factory.annotation.Required;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.AuthorizationServiceException;
@@ -54,11 +48,9 @@ import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.service.ServiceResource;
 import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.utils.ArtifactUtil;
-import alien4cloud.utils.FileUtil;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.VersionUtil;
 import alien4cloud.utils.version.UpdateApplicationVersionException;
-import lombok.SneakyThrows;
 
 @Service
 public class ApplicationVersionService {
@@ -76,9 +68,6 @@ public class ApplicationVersionService {
     private ApplicationService applicationService;
     @Inject
     private ApplicationEnvironmentService applicationEnvironmentService;
-    @Inject
-    private ICsarRepositry archiveRepositry;
-    private Path tempDirPath;
 
     /**
      * Create a new version for an application based on an existing topology with the default version name.
@@ -250,7 +239,6 @@ public class ApplicationVersionService {
         return topologyServiceCore.getOrFail(archiveId);
     }
 
-    @SneakyThrows
     private ApplicationTopologyVersion createTopologyVersion(String applicationId, String version, String qualifier, String description, Topology topology) {
         String oldArchiveName = topology.getArchiveName();
         String oldArchiveVersion = topology.getArchiveVersion();
@@ -274,15 +262,8 @@ public class ApplicationVersionService {
             checkTopologyReleasable(topology);
         }
         if (oldArchiveName != null && oldArchiveVersion != null) {
-            Path newTopologyTempPath = Files.createTempDirectory(tempDirPath, "a4c");
-            try {
-                // When it's a copy from other topology, we copy artifacts
-                Path originalTopologyArchive = archiveRepositry.getExpandedCSAR(oldArchiveName, oldArchiveVersion);
-                ArtifactUtil.copyCsarArtifacts(originalTopologyArchive, newTopologyTempPath);
-                archiveIndexer.importNewArchive(csar, topology, newTopologyTempPath);
-            } finally {
-                FileUtil.delete(newTopologyTempPath);
-            }
+            // When it's a copy from other topology, artifacts are shared with the original archive, only the new topology yaml is written
+            archiveIndexer.importNewArchive(csar, topology, oldArchiveName, oldArchiveVersion);
         } else {
             archiveIndexer.importNewArchive(csar, topology, null);
         }
@@ -710,10 +691,4 @@ public class ApplicationVersionService {
     public boolean applicationVersionNameExists(String applicationId, String applicationVersionName) {
         return isVersionNameExist(applicationId, applicationVersionName);
     }
-
-    @Required
-    @Value("${directories.alien}/${directories.upload_temp}")
-    public void setTempDirPath(String tempDirPath) throws IOException {
-        this.tempDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath);
-    }
 }
\ No newline at end of file
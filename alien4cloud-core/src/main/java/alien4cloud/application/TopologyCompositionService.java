@@ -7,12 +7,15 @@ import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameCon
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.annotation.Resource;
 
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
 import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
 import org.alien4cloud.tosca.model.templates.Capability;
@@ -25,9 +28,11 @@ import org.alien4cloud.tosca.model.types.NodeType;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 
 import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.CyclicReferenceException;
 import alien4cloud.paas.wf.WorkflowsBuilderService;
@@ -46,6 +51,9 @@ public class TopologyCompositionService {
     @Resource
     private TopologyServiceCore topologyServiceCore;
 
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+
     @Resource
     private WorkflowsBuilderService workflowBuilderService;
 
@@ -251,6 +259,54 @@ public class TopologyCompositionService {
         }
     }
 
+    /**
+     * Get a fingerprint of the dependencies of a topology and of the topologies that are substituted (recursively) in it so that the composition can be
+     * processed again when one of them is updated.
+     * <p>
+     * A substitution type is named after the archive of its topology so the substituted topologies are found from the types of the node templates and the
+     * dependencies without looking up the types: only one request per level of composition is done to get the update dates of the substituted topologies.
+     *
+     * @param topology The topology for which to get the fingerprint of the substituted topologies.
+     * @return The dependencies and the ids and last update dates of the substituted topologies.
+     */
+    public String getCompositionFingerprint(Topology topology) {
+        StringBuilder fingerprint = new StringBuilder();
+        appendSubstitutedTopologies(topology, fingerprint);
+        return fingerprint.toString();
+    }
+
+    private void appendSubstitutedTopologies(Topology topology, StringBuilder fingerprint) {
+        if (topology == null || topology.getDependencies() == null) {
+            return;
+        }
+        Set<String> nodeTypes = Sets.newHashSet();
+        if (topology.getNodeTemplates() != null) {
+            for (NodeTemplate nodeTemplate : topology.getNodeTemplates().values()) {
+                nodeTypes.add(nodeTemplate.getType());
+            }
+        }
+        Set<String> substitutionTopologyIds = Sets.newTreeSet();
+        for (CSARDependency dependency : Ordering.<String> natural().onResultOf(CSARDependency::toString).sortedCopy(topology.getDependencies())) {
+            fingerprint.append(dependency.getName()).append(':').append(dependency.getVersion()).append(':').append(dependency.getHash()).append('/');
+            if (nodeTypes.contains(dependency.getName())) {
+                substitutionTopologyIds.add(Csar.createId(dependency.getName(), dependency.getVersion()));
+            }
+        }
+        if (substitutionTopologyIds.isEmpty()) {
+            return;
+        }
+        List<Topology> children = alienDAO.findByIds(Topology.class, substitutionTopologyIds.toArray(new String[substitutionTopologyIds.size()]));
+        if (children == null) {
+            return;
+        }
+        for (Topology child : children) {
+            fingerprint.append('[').append(child.getId()).append(':').append(child.getLastUpdateDate() == null ? 0 : child.getLastUpdateDate().getTime())
+                    .append('/');
+            appendSubstitutedTopologies(child, fingerprint);
+            fingerprint.append(']');
+        }
+    }
+
     /**
      * Deeply explore this topology to detect if some type must be substituted by the corresponding topology template content and feed the {@link Deque}. <br>
      * BTW, rename the nodes by prefixing all the node names.
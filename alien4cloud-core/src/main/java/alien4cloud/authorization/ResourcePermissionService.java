@@ -10,6 +10,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.alien4cloud.alm.events.AfterPermissionGrantedEvent;
 import org.alien4cloud.alm.events.AfterPermissionRevokedEvent;
 import org.alien4cloud.alm.events.BeforePermissionRevokedEvent;
 import org.apache.commons.collections4.MapUtils;
@@ -78,6 +79,9 @@ public class ResourcePermissionService {
         if (saver != null) {
             saver.save(resource);
         }
+
+        publisher.publishEvent(new AfterPermissionGrantedEvent(this, new BeforePermissionRevokedEvent.OnResource(resource.getClass(), resource.getId()),
+                subjectType, subjects));
     }
 
     /**
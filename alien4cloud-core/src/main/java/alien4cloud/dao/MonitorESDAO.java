@@ -21,6 +21,10 @@ import alien4cloud.paas.model.*;
 public class MonitorESDAO extends ESGenericSearchDAO {
     @Value("${paas_monitor.events_lifetime}")
     private String eventMonitoringTtl;
+    @Value("${paas_monitor.events_refresh_policy:IMMEDIATE}")
+    private RefreshPolicy eventRefreshPolicy;
+    @Value("${paas_monitor.events_refresh_interval_ms:1000}")
+    private long eventRefreshIntervalMs;
 
     /** Initialize the dao after being loaded by spring (Create the indexes). */
     @PostConstruct
@@ -40,6 +44,10 @@ public class MonitorESDAO extends ESGenericSearchDAO {
         initIndices("deployedtopologies", null, DeploymentTopology.class);
         initIndices("deploymentmonitorevents", eventMonitoringTtl, classes);
         initIndices(PaaSDeploymentLog.class.getSimpleName().toLowerCase(), eventMonitoringTtl, PaaSDeploymentLog.class);
+        // monitor events are write heavy and mostly read asynchronously, their refresh can be coalesced.
+        setNearRealTimeRefreshIntervalMs(eventRefreshIntervalMs);
+        setRefreshPolicy("deploymentmonitorevents", eventRefreshPolicy);
+        setRefreshPolicy(PaaSDeploymentLog.class.getSimpleName().toLowerCase(), eventRefreshPolicy);
         initCompleted();
     }
 }
\ No newline at end of file
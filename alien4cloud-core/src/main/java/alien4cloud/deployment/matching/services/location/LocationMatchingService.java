@@ -1,7 +1,12 @@
 package alien4cloud.deployment.matching.services.location;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -14,6 +19,14 @@ import org.springframework.stereotype.Service;
 import alien4cloud.deployment.matching.plugins.ILocationMatcher;
 import alien4cloud.model.application.ApplicationEnvironment;
 import alien4cloud.model.deployment.matching.ILocationMatch;
+import alien4cloud.model.orchestrators.Orchestrator;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.orchestrators.locations.services.LocationSecurityService;
+import alien4cloud.orchestrators.locations.services.LocationService;
+import alien4cloud.orchestrators.services.OrchestratorService;
+import alien4cloud.security.AuthorizationUtil;
+import alien4cloud.security.Subject;
+import alien4cloud.security.model.Role;
 import alien4cloud.topology.TopologyServiceCore;
 
 @Service
@@ -26,6 +39,12 @@ public class LocationMatchingService {
     private LocationMatcherFactoriesRegistry locationMatcherFactoriesRegistry;
     @Resource
     private LocationMatchAuthorizationFilter authorizationFilter;
+    @Inject
+    private LocationSecurityService locationSecurityService;
+    @Inject
+    private OrchestratorService orchestratorService;
+    @Inject
+    private LocationService locationService;
 
     /**
      * Given a topology, return a list of locations on which the topo can be deployed
@@ -35,24 +54,54 @@ public class LocationMatchingService {
      * @return A list of candidates Location Matches.
      */
     public List<ILocationMatch> match(Topology topology, ApplicationEnvironment applicationEnvironment) {
-        List<ILocationMatch> matches;
-        // If no registered matcher id found later on, then match with the default matcher
-        ILocationMatcher matcher = defaultLocationMatcher;
+        List<ILocationMatch> matches = getMatcher().match(topology);
+        // keep only the authorized ones
+        authorizationFilter.filter(matches, applicationEnvironment);
+
+        return CollectionUtils.isEmpty(matches) ? null : matches;
+    }
+
+    /**
+     * Get a fingerprint of the elements that impact the result of the matching of a topology for an environment in the current security context: the
+     * orchestrators, their locations and the subjects used to check the authorizations on the locations.
+     *
+     * @param applicationEnvironment eventually the environment related to the topology to match.
+     * @return The fingerprint of the matching inputs or null if the matching is done by a plugin location matcher which inputs are unknown.
+     */
+    public String getMatchingFingerprint(ApplicationEnvironment applicationEnvironment) {
+        if (getMatcher() != defaultLocationMatcher) {
+            return null;
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(AuthorizationUtil.hasOneRoleIn(Role.ADMIN));
+        Map<Subject, Set<String>> subjects = new TreeMap<>();
+        locationSecurityService.getSubjectsFromContext(applicationEnvironment).forEach((subject, names) -> subjects.put(subject, new TreeSet<>(names)));
+        fingerprint.append(subjects);
+
+        List<Orchestrator> orchestrators = orchestratorService.getAll();
+        if (CollectionUtils.isEmpty(orchestrators)) {
+            return fingerprint.toString();
+        }
+        orchestrators.stream().sorted(Comparator.comparing(Orchestrator::getId))
+                .forEach(orchestrator -> fingerprint.append('/').append(orchestrator.getId()).append(':').append(orchestrator.getState()).append(':')
+                        .append(orchestrator.getPluginId()).append(':').append(orchestrator.getPluginBean()));
+        locationService.getOrchestratorsLocations(orchestrators.stream().map(Orchestrator::getId).collect(Collectors.toSet())).stream()
+                .sorted(Comparator.comparing(Location::getId)).forEach(location -> fingerprint.append('/').append(location.getId()).append(':')
+                        .append(location.getLastUpdateDate() == null ? 0 : location.getLastUpdateDate().getTime()));
+        return fingerprint.toString();
+    }
 
+    private ILocationMatcher getMatcher() {
         // TODO Now we just take the first matcher found. To fix. Later, use the configured matcher
         Map<String, Map<String, ILocationMatcher>> instancesByPlugins = locationMatcherFactoriesRegistry.getInstancesByPlugins();
         if (MapUtils.isNotEmpty(instancesByPlugins)) {
             Map<String, ILocationMatcher> matchers = instancesByPlugins.values().iterator().next();
             if (MapUtils.isNotEmpty(matchers)) {
-                matcher = matchers.values().iterator().next();
+                return matchers.values().iterator().next();
             }
         }
-
-        matches = matcher.match(topology);
-        // keep only the authorized ones
-        authorizationFilter.filter(matches, applicationEnvironment);
-
-        return CollectionUtils.isEmpty(matches) ? null : matches;
+        // If no registered matcher id found, then match with the default matcher
+        return defaultLocationMatcher;
     }
 
     /**
@@ -0,0 +1,259 @@
+package alien4cloud.deployment.matching.services.nodes;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.exceptions.ConstraintValueDoNotMatchPropertyTypeException;
+import org.alien4cloud.tosca.exceptions.ConstraintViolationException;
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.definitions.constraints.IMatchPropertyConstraint;
+import org.alien4cloud.tosca.model.templates.Capability;
+import org.alien4cloud.tosca.model.types.CapabilityType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.normative.types.IPropertyType;
+import org.alien4cloud.tosca.normative.types.ToscaTypes;
+import org.apache.commons.collections4.MapUtils;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.deployment.matching.MatchingFilterDefinition;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import alien4cloud.model.service.ServiceResource;
+import alien4cloud.security.AbstractSecurityEnabledResource;
+import alien4cloud.utils.AlienUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable index of the candidates (on-demand resources and services) of a location for node matching.
+ * <p>
+ * Candidates are bucketed by their type and by each of the types they derive from so that the candidates for a node template are found with a single lookup.
+ * The matching configuration of every candidate is resolved once and its property filters are compiled with the candidate values so that matching a node
+ * only has to validate the node values against the compiled constraints.
+ * </p>
+ */
+@Slf4j
+public class LocationMatchingIndex {
+    /** Version of the location resources, services and matching configuration from which the index has been built. */
+    @Getter
+    private final Object version;
+    /** False if no matching configuration is available for the location (disabled orchestrator), in which case no candidate can match. */
+    @Getter
+    private final boolean matchingEnabled;
+    /** All the types (and their parent types) that can be provided by the location. */
+    @Getter
+    private final Set<String> managedTypes;
+    private final ListMultimap<String, Candidate> candidatesByType = ArrayListMultimap.create();
+
+    /**
+     * Build the matching index of a location.
+     *
+     * @param version The version of the location data used to build the index.
+     * @param locationResources The resources of the location, including the templates of the services available on the location.
+     * @param matchingConfigurations The matching configurations of the location, may be null if the orchestrator is disabled.
+     * @param services The services that are available on the location by id.
+     */
+    public LocationMatchingIndex(Object version, LocationResources locationResources, Map<String, MatchingConfiguration> matchingConfigurations,
+            Map<String, ServiceResource> services) {
+        this.version = version;
+        this.matchingEnabled = matchingConfigurations != null;
+        ImmutableSet.Builder<String> managedTypesBuilder = ImmutableSet.builder();
+        for (NodeType nodeType : locationResources.getNodeTypes().values()) {
+            managedTypesBuilder.add(nodeType.getElementId());
+            managedTypesBuilder.addAll(AlienUtils.safe(nodeType.getDerivedFrom()));
+        }
+        this.managedTypes = managedTypesBuilder.build();
+
+        for (LocationResourceTemplate template : locationResources.getNodeTemplates()) {
+            NodeType candidateType = locationResources.getNodeTypes().get(template.getTemplate().getType());
+            if (candidateType == null) {
+                log.debug("Type <{}> of location resource <{}> is not defined, resource is ignored for matching", template.getTemplate().getType(),
+                        template.getName());
+                continue;
+            }
+            AbstractSecurityEnabledResource securedResource = template.isService() ? services.get(template.getId()) : template;
+            Candidate candidate = new Candidate(template, candidateType, securedResource,
+                    compile(template, candidateType, locationResources.getCapabilityTypes(), matchingConfigurations));
+            candidatesByType.put(candidateType.getElementId(), candidate);
+            for (String parentType : AlienUtils.safe(candidateType.getDerivedFrom())) {
+                candidatesByType.put(parentType, candidate);
+            }
+        }
+    }
+
+    /**
+     * Get the candidates that are of the given type or of a type that derives from it.
+     *
+     * @param type The type of the node template to match.
+     * @return The candidates in the order of the location resources.
+     */
+    public List<Candidate> getCandidates(String type) {
+        return Collections.unmodifiableList(candidatesByType.get(type));
+    }
+
+    private static CompiledMatchingConfiguration compile(LocationResourceTemplate template, NodeType candidateType,
+            Map<String, CapabilityType> capabilityTypes, Map<String, MatchingConfiguration> matchingConfigurations) {
+        MatchingConfiguration matchingConfiguration = getMatchingConfiguration(candidateType, matchingConfigurations);
+        if (matchingConfiguration == null) {
+            return null;
+        }
+        CompiledMatchingConfiguration compiled = new CompiledMatchingConfiguration();
+        compiled.propertyFilters = compile(matchingConfiguration.getProperties(), template.getTemplate().getProperties(), candidateType.getProperties());
+        if (matchingConfiguration.getCapabilities() != null) {
+            for (Map.Entry<String, MatchingFilterDefinition> capabilityFilterEntry : matchingConfiguration.getCapabilities().entrySet()) {
+                Capability candidateCapability = MapUtils.getObject(template.getTemplate().getCapabilities(), capabilityFilterEntry.getKey());
+                if (candidateCapability == null) {
+                    continue;
+                }
+                CapabilityType capabilityType = MapUtils.getObject(capabilityTypes, candidateCapability.getType());
+                compiled.capabilityFilters.put(capabilityFilterEntry.getKey(), compile(capabilityFilterEntry.getValue().getProperties(),
+                        candidateCapability.getProperties(), capabilityType == null ? null : capabilityType.getProperties()));
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Get the matching configuration for the candidate based on its type hierarchy.
+     *
+     * Meaning if a candidateType D derives from (in this order) C, B, A, then we will first look for a matching for D. <br>
+     * If not found, then look for the closest parent matching configuration, and so on until no more parent left.
+     */
+    private static MatchingConfiguration getMatchingConfiguration(NodeType candidateType, Map<String, MatchingConfiguration> matchingConfigurations) {
+        if (MapUtils.isEmpty(matchingConfigurations)) {
+            return null;
+        }
+        MatchingConfiguration config = matchingConfigurations.get(candidateType.getElementId());
+        Iterator<String> parentTypes = AlienUtils.safe(candidateType.getDerivedFrom()).iterator();
+        while (config == null && parentTypes.hasNext()) {
+            config = matchingConfigurations.get(parentTypes.next());
+        }
+        return config;
+    }
+
+    /**
+     * Compile the filters of a matching configuration with the candidate values. A filter is applied only if a scalar value is defined on the candidate.
+     */
+    private static Map<String, CompiledPropertyFilter> compile(Map<String, List<IMatchPropertyConstraint>> sourceFilters,
+            Map<String, AbstractPropertyValue> candidateValues, Map<String, PropertyDefinition> propertyDefinitions) {
+        Map<String, CompiledPropertyFilter> compiledFilters = Maps.newHashMap();
+        for (Map.Entry<String, List<IMatchPropertyConstraint>> filterEntry : AlienUtils.safe(sourceFilters).entrySet()) {
+            AbstractPropertyValue candidateValue = MapUtils.getObject(candidateValues, filterEntry.getKey());
+            PropertyDefinition propertyDefinition = MapUtils.getObject(propertyDefinitions, filterEntry.getKey());
+            if (!(candidateValue instanceof ScalarPropertyValue) || propertyDefinition == null) {
+                continue;
+            }
+            IPropertyType<?> toscaType = ToscaTypes.fromYamlTypeName(propertyDefinition.getType());
+            List<IMatchPropertyConstraint> constraints = Lists.newArrayList();
+            for (IMatchPropertyConstraint constraint : filterEntry.getValue()) {
+                try {
+                    // the configured constraint is shared, a dedicated instance is configured with the candidate value.
+                    IMatchPropertyConstraint candidateConstraint = constraint.getClass().newInstance();
+                    candidateConstraint.setConstraintValue(toscaType, ((ScalarPropertyValue) candidateValue).getValue());
+                    constraints.add(candidateConstraint);
+                } catch (ConstraintValueDoNotMatchPropertyTypeException e) {
+                    log.debug("The value of property for a constraint is not valid.", e);
+                    break;
+                } catch (InstantiationException | IllegalAccessException e) {
+                    throw new IllegalStateException("Unable to create matching constraint of type " + constraint.getClass().getName(), e);
+                }
+            }
+            compiledFilters.put(filterEntry.getKey(), new CompiledPropertyFilter(toscaType, constraints));
+        }
+        return compiledFilters;
+    }
+
+    /**
+     * A location resource or service that can substitute node templates.
+     */
+    @Getter
+    public static class Candidate {
+        private final LocationResourceTemplate template;
+        private final NodeType type;
+        /** The resource on which authorizations are checked: the location resource template or the service resource. */
+        private final AbstractSecurityEnabledResource securedResource;
+        /** Filters of the candidate, null if no matching configuration applies to the candidate type. */
+        private final CompiledMatchingConfiguration matchingConfiguration;
+
+        private Candidate(LocationResourceTemplate template, NodeType type, AbstractSecurityEnabledResource securedResource,
+                CompiledMatchingConfiguration matchingConfiguration) {
+            this.template = template;
+            this.type = type;
+            this.securedResource = securedResource;
+            this.matchingConfiguration = matchingConfiguration;
+        }
+    }
+
+    /**
+     * Matching configuration of a candidate with the constraints configured with the candidate values.
+     */
+    public static class CompiledMatchingConfiguration {
+        private Map<String, CompiledPropertyFilter> propertyFilters;
+        private final Map<String, Map<String, CompiledPropertyFilter>> capabilityFilters = Maps.newHashMap();
+
+        /**
+         * Check that the properties of a node template (and of its capabilities) are matching the filters of the candidate.
+         *
+         * @param nodeProperties The properties of the node template to match.
+         * @param nodeCapabilities The capabilities of the node template to match.
+         * @return True if all the filters are satisfied.
+         */
+        public boolean matches(Map<String, AbstractPropertyValue> nodeProperties, Map<String, Capability> nodeCapabilities) {
+            if (!matches(propertyFilters, nodeProperties)) {
+                return false;
+            }
+            for (Map.Entry<String, Map<String, CompiledPropertyFilter>> capabilityFilterEntry : capabilityFilters.entrySet()) {
+                Capability nodeCapability = MapUtils.getObject(nodeCapabilities, capabilityFilterEntry.getKey());
+                if (nodeCapability != null && !matches(capabilityFilterEntry.getValue(), nodeCapability.getProperties())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matches(Map<String, CompiledPropertyFilter> filters, Map<String, AbstractPropertyValue> values) {
+            for (Map.Entry<String, CompiledPropertyFilter> filterEntry : filters.entrySet()) {
+                AbstractPropertyValue value = MapUtils.getObject(values, filterEntry.getKey());
+                if (value instanceof ScalarPropertyValue && !filterEntry.getValue().matches(((ScalarPropertyValue) value).getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Constraints of a property, configured with the value of the candidate.
+     */
+    private static class CompiledPropertyFilter {
+        private final IPropertyType<?> toscaType;
+        private final List<IMatchPropertyConstraint> constraints;
+
+        private CompiledPropertyFilter(IPropertyType<?> toscaType, List<IMatchPropertyConstraint> constraints) {
+            this.toscaType = toscaType;
+            this.constraints = constraints;
+        }
+
+        private boolean matches(String value) {
+            for (IMatchPropertyConstraint constraint : constraints) {
+                try {
+                    constraint.validate(toscaType, value);
+                } catch (ConstraintViolationException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
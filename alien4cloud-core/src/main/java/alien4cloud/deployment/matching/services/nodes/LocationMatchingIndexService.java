@@ -0,0 +1,261 @@
+package alien4cloud.deployment.matching.services.nodes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.inject.Inject;
+
+import org.alien4cloud.alm.events.AfterPermissionGrantedEvent;
+import org.alien4cloud.alm.events.AfterPermissionRevokedEvent;
+import org.alien4cloud.alm.events.ServiceEvent;
+import org.alien4cloud.alm.service.ServiceResourceService;
+import org.alien4cloud.alm.service.events.ServiceChangedEvent;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveIndexed;
+import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
+import org.alien4cloud.tosca.model.templates.ServiceNodeTemplate;
+import org.alien4cloud.tosca.model.types.CapabilityType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import alien4cloud.model.service.ServiceResource;
+import alien4cloud.orchestrators.locations.events.AfterLocationDeleted;
+import alien4cloud.orchestrators.locations.events.OnLocationResourceChangeEvent;
+import alien4cloud.orchestrators.locations.services.ILocationResourceService;
+import alien4cloud.orchestrators.locations.services.LocationMatchingConfigurationService;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the matching index of every location.
+ * <p>
+ * The index of a location is versioned with the last update date of the location (updated whenever a location resource changes), a generation number
+ * incremented on every service, archive or permission change, the identity of the matching configuration of the location (provided by the orchestrator
+ * plugin instance) and a period number that changes every location_matching.index_ttl_seconds to pick up the changes made by other alien instances in HA
+ * mode. It is rebuilt only when its version changes.
+ * </p>
+ */
+@Slf4j
+@Service
+public class LocationMatchingIndexService {
+    @Inject
+    @Lazy(true)
+    private ILocationResourceService locationResourceService;
+    @Inject
+    private ServiceResourceService serviceResourceService;
+    @Inject
+    private LocationMatchingConfigurationService locationMatchingConfigurationService;
+    @Inject
+    private IToscaTypeSearchService toscaTypeSearchService;
+    @Inject
+    private ICSARRepositorySearchService csarRepoSearchService;
+
+    @Value("${location_matching.index_ttl_seconds:60}")
+    private long indexTtlSeconds;
+
+    private final Map<String, LocationMatchingIndex> indexes = Maps.newConcurrentMap();
+    private final AtomicLong generation = new AtomicLong();
+    /** Identifier of the matching configurations instances, they are compared by identity as plugins load them once. */
+    private final AtomicLong matchingConfigurationsCount = new AtomicLong();
+    private final LoadingCache<Map<String, MatchingConfiguration>, Long> matchingConfigurationsIds = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<Map<String, MatchingConfiguration>, Long>() {
+                @Override
+                public Long load(Map<String, MatchingConfiguration> matchingConfigurations) {
+                    return matchingConfigurationsCount.incrementAndGet();
+                }
+            });
+    private final LoadingCache<String, Lock> locks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, Lock>() {
+        @Override
+        public Lock load(String locationId) {
+            return new ReentrantLock();
+        }
+    });
+
+    /**
+     * Get the matching index of a location, the index is built if the location, its services or its matching configuration have changed.
+     *
+     * @param location The location for which to get the index.
+     * @return The up-to-date matching index of the location.
+     */
+    public LocationMatchingIndex getIndex(Location location) {
+        Map<String, MatchingConfiguration> matchingConfigurations = locationMatchingConfigurationService.getMatchingConfiguration(location);
+        // the generation is read before fetching the services so that a concurrent change leads to a new build.
+        IndexVersion version = getVersion(location, matchingConfigurations);
+        LocationMatchingIndex index = indexes.get(location.getId());
+        if (index != null && version.equals(index.getVersion())) {
+            return index;
+        }
+        Lock lock = locks.getUnchecked(location.getId());
+        lock.lock();
+        try {
+            index = indexes.get(location.getId());
+            if (index == null || !version.equals(index.getVersion())) {
+                long start = System.currentTimeMillis();
+                index = buildIndex(location, version, matchingConfigurations);
+                indexes.put(location.getId(), index);
+                log.debug("Matching index of location <{}> built in {} ms", location.getId(), System.currentTimeMillis() - start);
+            }
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the version of the data from which the matching index of a location is built.
+     *
+     * @param location The location for which to get the index version.
+     * @return The version of the matching index of the location, the index is rebuilt whenever it changes.
+     */
+    public String getIndexVersion(Location location) {
+        return getVersion(location, locationMatchingConfigurationService.getMatchingConfiguration(location)).toString();
+    }
+
+    private IndexVersion getVersion(Location location, Map<String, MatchingConfiguration> matchingConfigurations) {
+        long period = indexTtlSeconds > 0 ? System.currentTimeMillis() / TimeUnit.SECONDS.toMillis(indexTtlSeconds) : 0;
+        return new IndexVersion(location.getLastUpdateDate() == null ? 0 : location.getLastUpdateDate().getTime(), generation.get(),
+                matchingConfigurations == null ? 0 : matchingConfigurationsIds.getUnchecked(matchingConfigurations), period);
+    }
+
+    private LocationMatchingIndex buildIndex(Location location, IndexVersion version, Map<String, MatchingConfiguration> matchingConfigurations) {
+        LocationResources locationResources = locationResourceService.getLocationResources(location);
+        List<ServiceResource> services = serviceResourceService.searchByLocation(location.getId());
+        populateLocationResourcesWithServiceResource(locationResources, services, location.getId());
+        Map<String, ServiceResource> servicesById = Maps.newHashMap();
+        for (ServiceResource serviceResource : services) {
+            servicesById.put(serviceResource.getId(), serviceResource);
+        }
+        return new LocationMatchingIndex(version, locationResources, matchingConfigurations, servicesById);
+    }
+
+    /**
+     * Populate this {@link LocationResources} using these {@link ServiceResource}s in order to make them available as {@link LocationResourceTemplate} for
+     * matching purpose.
+     */
+    private void populateLocationResourcesWithServiceResource(LocationResources locationResources, List<ServiceResource> services, String locationId) {
+        // services of a location often share the same types
+        Map<String, NodeType> serviceTypes = Maps.newHashMap();
+        for (ServiceResource serviceResource : services) {
+            LocationResourceTemplate lrt = new LocationResourceTemplate();
+            lrt.setService(true);
+            lrt.setEnabled(true);
+            // for a service we also want to display the version, so just add it to the name
+            lrt.setName(serviceResource.getName() + ":" + serviceResource.getVersion());
+            lrt.setId(serviceResource.getId());
+
+            ServiceNodeTemplate serviceNodeTemplate = new ServiceNodeTemplate(serviceResource.getNodeInstance());
+            lrt.setTemplate(serviceNodeTemplate);
+            lrt.setLocationId(locationId);
+
+            String serviceTypeName = serviceResource.getNodeInstance().getNodeTemplate().getType();
+            String serviceTypeVersion = serviceResource.getNodeInstance().getTypeVersion();
+            NodeType serviceType = serviceTypes.get(serviceTypeName + ":" + serviceTypeVersion);
+            if (serviceType == null) {
+                serviceType = toscaTypeSearchService.findOrFail(NodeType.class, serviceTypeName, serviceTypeVersion);
+                serviceTypes.put(serviceTypeName + ":" + serviceTypeVersion, serviceType);
+                addCapabilityTypes(locationResources, serviceType);
+            }
+            locationResources.getNodeTypes().put(serviceTypeName, serviceType);
+            List<String> types = Lists.newArrayList(serviceTypeName);
+            types.addAll(serviceType.getDerivedFrom());
+            lrt.setTypes(types);
+
+            locationResources.getNodeTemplates().add(lrt);
+        }
+    }
+
+    private void addCapabilityTypes(LocationResources locationResources, NodeType serviceType) {
+        Csar csar = toscaTypeSearchService.getArchive(serviceType.getArchiveName(), serviceType.getArchiveVersion());
+        Set<CSARDependency> dependencies = Sets.newHashSet();
+        if (csar.getDependencies() != null) {
+            dependencies.addAll(csar.getDependencies());
+        }
+        dependencies.add(new CSARDependency(csar.getName(), csar.getVersion()));
+        if (serviceType.getCapabilities() != null && !serviceType.getCapabilities().isEmpty()) {
+            for (CapabilityDefinition capabilityDefinition : serviceType.getCapabilities()) {
+                locationResources.getCapabilityTypes().put(capabilityDefinition.getType(),
+                        csarRepoSearchService.getRequiredElementInDependencies(CapabilityType.class, capabilityDefinition.getType(), dependencies));
+            }
+        }
+    }
+
+    @EventListener
+    public void onServiceChanged(ServiceChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onServiceEvent(ServiceEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onLocationResourceChanged(OnLocationResourceChangeEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onArchiveIndexed(AfterArchiveIndexed event) {
+        // types of the resources and services may have been updated (snapshot archives).
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onArchiveDeleted(AfterArchiveDeleted event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onPermissionGranted(AfterPermissionGrantedEvent event) {
+        // the authorizations of the indexed resources and services are checked at matching time.
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onPermissionRevoked(AfterPermissionRevokedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onLocationDeleted(AfterLocationDeleted event) {
+        indexes.remove(event.getLocationId());
+    }
+
+    /**
+     * Version of the data from which a location matching index has been built.
+     */
+    @ToString
+    @EqualsAndHashCode
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class IndexVersion {
+        private final long locationLastUpdate;
+        private final long generation;
+        private final long matchingConfigurationsId;
+        private final long period;
+    }
+}
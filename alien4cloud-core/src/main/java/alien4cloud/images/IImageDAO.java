@@ -32,6 +32,15 @@ public interface IImageDAO {
      */
     ImageData readImage(String id, ImageQuality imageQuality);
 
+    /**
+     * Get an image file based on the image id. Small images are kept in memory so that their content is not read from the disk on every request.
+     *
+     * @param id The id of the image to read.
+     * @param imageQuality The level of quality of the image to get.
+     * @return The image file.
+     */
+    ImageFile readImageFile(String id, ImageQuality imageQuality);
+
     /**
      * Delete the given image.
      * 
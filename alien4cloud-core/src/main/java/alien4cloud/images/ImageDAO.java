@@ -7,8 +7,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.annotation.PostConstruct;
@@ -22,6 +25,10 @@ import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
 import alien4cloud.dao.ESGenericIdDAO;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.exception.NotFoundException;
@@ -31,18 +38,35 @@ import alien4cloud.utils.ImageResizeUtil;
 
 /**
  * A dao to store/load images.
+ * <p>
+ * Images are immutable once written (a new image always gets a new id), small image files are kept in a size-bounded cache per quality so that serving icons
+ * does not read the disk.
+ * </p>
  */
 @Slf4j
 @Component("image-dao")
 public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
+    /** All images are stored as png files. */
+    private static final String PNG_MIME = "image/png";
+    /** Approximate memory used by a cached image file besides its content. */
+    private static final int CACHE_ENTRY_OVERHEAD = 256;
+
     @Resource
     private MappingBuilder mappingBuilder;
     private Path rootPath;
 
+    /** Maximum size in bytes of the image files kept in memory for each quality, 0 disables the cache. */
+    @Value("${images.cache.max_size_per_quality:8388608}")
+    private long cacheMaxSizePerQuality = 8388608;
+    /** Images bigger than this size (in bytes) are always read from the disk. */
+    @Value("${images.cache.max_image_size:262144}")
+    private int cacheMaxImageSize = 262144;
+    private final Map<ImageQuality, Cache<String, ImageFile>> imageFiles = Maps.newEnumMap(ImageQuality.class);
+
     @Required
     @Value("${directories.alien}/${directories.images}")
     public void setRootPath(String path) throws IOException {
-        this.rootPath = Paths.get(path).toAbsolutePath();
+        this.rootPath = Paths.get(path).toAbsolutePath().normalize();
         if (!Files.exists(rootPath)) {
             Files.createDirectories(rootPath);
         }
@@ -50,6 +74,7 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
 
     @PostConstruct
     public void initEnvironment() {
+        initCache();
         // init ES annotation scanning
         try {
             mappingBuilder.initialize(ImageData.class.getPackage().getName());
@@ -61,6 +86,14 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
         initCompleted();
     }
 
+    private void initCache() {
+        for (ImageQuality imageQuality : ImageQuality.values()) {
+            imageFiles.put(imageQuality, CacheBuilder.newBuilder().maximumWeight(cacheMaxSizePerQuality)
+                    .weigher((String key, ImageFile imageFile) -> CACHE_ENTRY_OVERHEAD + (imageFile.getData() == null ? 0 : imageFile.getData().length))
+                    .build());
+        }
+    }
+
     @Override
     public String writeImage(byte[] imageBytes) {
         String iconId = UUID.randomUUID().toString();
@@ -105,32 +138,85 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
         } finally {
             fos.close();
         }
+        invalidate(imageId);
         // save in elastic search
         ImageData imageData = new ImageData();
         imageData.setId(imageId);
-        imageData.setMime("image/png");
+        imageData.setMime(PNG_MIME);
         this.save(imageData);
     }
 
     @Override
     public ImageData readImage(final String id, ImageQuality imageQuality) {
-        ImageData imageData = findById(ImageData.class, getImageId(imageQuality, id));
-        if (imageData == null) {
-            throw new NotFoundException("Unable to find image.");
-        }
-        if (imageData.getData() == null) {
+        ImageFile imageFile = readImageFile(id, imageQuality);
+        ImageData imageData = new ImageData();
+        imageData.setId(imageFile.getId());
+        imageData.setMime(imageFile.getMime());
+        if (imageFile.getData() == null) {
             try {
-                imageData.setData(Files.readAllBytes(rootPath.resolve(imageData.getId() + ".png")));
+                imageData.setData(Files.readAllBytes(imageFile.getPath()));
             } catch (IOException e) {
                 throw new NotFoundException("Unable to find image on disk.");
             }
+        } else {
+            imageData.setData(imageFile.getData().clone());
         }
         return imageData;
     }
 
+    @Override
+    public ImageFile readImageFile(final String id, ImageQuality imageQuality) {
+        String imageId = getImageId(imageQuality, id);
+        Cache<String, ImageFile> cache = imageFiles.get(imageQuality);
+        ImageFile imageFile = cache.getIfPresent(imageId);
+        if (imageFile == null) {
+            imageFile = loadImageFile(imageId);
+            cache.put(imageId, imageFile);
+        }
+        return imageFile;
+    }
+
+    private ImageFile loadImageFile(String imageId) {
+        // the file is the reference, the metadata indexed in elastic search are not read as all images are stored as png.
+        Path imagePath = resolveImagePath(imageId);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(imagePath, BasicFileAttributes.class);
+            byte[] data = attributes.size() <= cacheMaxImageSize ? Files.readAllBytes(imagePath) : null;
+            return new ImageFile(imageId, PNG_MIME, imagePath, attributes.size(), attributes.lastModifiedTime().toMillis(), data);
+        } catch (IOException e) {
+            throw new NotFoundException("Unable to find image.");
+        }
+    }
+
+    /**
+     * Get the path of an image file, the id comes from the request so it must not allow to read a file outside of the images directory.
+     *
+     * @param imageId The id of the image (including the quality prefix).
+     * @return The path of the image file.
+     * @throws NotFoundException if the id does not match a file of the images directory.
+     */
+    private Path resolveImagePath(String imageId) {
+        try {
+            Path imagePath = rootPath.resolve(imageId + ".png").normalize();
+            if (rootPath.equals(imagePath.getParent())) {
+                return imagePath;
+            }
+        } catch (InvalidPathException e) {
+            log.debug("Invalid image id <{}>", imageId, e);
+        }
+        throw new NotFoundException("Unable to find image.");
+    }
+
+    private void invalidate(String imageId) {
+        for (Cache<String, ImageFile> cache : imageFiles.values()) {
+            cache.invalidate(imageId);
+        }
+    }
+
     @Override
     public void delete(String id) {
         delete(ImageData.class, id);
+        invalidate(id);
         // delete image from hard drive
         safeDeleteFile(rootPath.resolve(id + ".png"));
     }
@@ -0,0 +1,22 @@
+package alien4cloud.images;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An image file of a given quality, as served to the browsers.
+ */
+@Getter
+@AllArgsConstructor(suppressConstructorProperties = true)
+public class ImageFile {
+    /** Id of the image for the requested quality. */
+    private final String id;
+    private final String mime;
+    private final Path path;
+    private final long length;
+    private final long lastModified;
+    /** Content of the image if small enough to be kept in memory, null otherwise. Must not be modified. */
+    private final byte[] data;
+}
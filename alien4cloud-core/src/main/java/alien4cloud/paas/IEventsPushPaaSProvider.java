@@ -0,0 +1,29 @@
+package alien4cloud.paas;
+
+import java.util.Date;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+
+/**
+ * Optional interface for {@link IPaaSProvider} implementations that are able to push their monitoring events to alien rather than being polled.
+ * <p>
+ * When a provider implements this interface {@link IPaaSProvider#getEventsSince(Date, int, IPaaSCallback)} is not used while the push is active. Pushing
+ * events blocks while alien is not able to ingest them fast enough.
+ * </p>
+ */
+public interface IEventsPushPaaSProvider extends IPaaSProvider {
+    /**
+     * Start to push the monitoring events of the orchestrator. The events that occurred since the given date must be pushed first, then the new events as soon
+     * as they happen. Events must be pushed in time order, from a single thread at a time.
+     *
+     * @param date The date of the last event known by alien.
+     * @param eventsCallback The callback to push events to (onSuccess). Calling onFailure means that the provider is no longer able to push events, alien
+     *            then polls the events using getEventsSince.
+     */
+    void startEventsPush(Date date, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback);
+
+    /**
+     * Stop to push events, called when the orchestrator is disabled.
+     */
+    void stopEventsPush();
+}
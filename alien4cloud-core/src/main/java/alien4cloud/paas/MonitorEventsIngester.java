@@ -0,0 +1,193 @@
+package alien4cloud.paas;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind stage that persists the monitor events of an orchestrator in bulk. Events are buffered in a bounded queue and flushed by a background thread
+ * when the bulk size is reached or when the flush interval expires. When the queue is full {@link #enqueue(AbstractMonitorEvent[])} blocks so that the
+ * polling of the orchestrator slows down instead of dropping events, until the ingester is shut down.
+ */
+@Slf4j
+public class MonitorEventsIngester {
+    private static final long FLUSH_RETRY_SLEEP_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30000;
+    private static final long ENQUEUE_POLL_MS = 500;
+
+    private final IGenericSearchDAO monitorDAO;
+    private final String orchestratorId;
+    private final int maxBulkSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<AbstractMonitorEvent> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /** Rate of events persisted in elasticsearch. */
+    @Getter
+    private final Meter persistedEvents = new Meter();
+    /** Duration of the bulk requests. */
+    @Getter
+    private final Timer flushLatency = new Timer();
+
+    /**
+     * Create and start a new ingester.
+     *
+     * @param monitorDAO The dao in which to save events.
+     * @param orchestratorId The id of the orchestrator that generates the events.
+     * @param queueCapacity The maximum number of events waiting to be persisted.
+     * @param maxBulkSize The maximum number of events saved in a single bulk request.
+     * @param flushIntervalMs The maximum time an event waits in the queue before a flush is triggered.
+     */
+    public MonitorEventsIngester(IGenericSearchDAO monitorDAO, String orchestratorId, int queueCapacity, int maxBulkSize, long flushIntervalMs) {
+        this.monitorDAO = monitorDAO;
+        this.orchestratorId = orchestratorId;
+        this.maxBulkSize = maxBulkSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::ingest, "paas-events-ingester-" + orchestratorId);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Add events to the ingestion queue. This method blocks while the queue is full and the ingester is running, events that cannot be enqueued once the
+     * ingester has been shut down are lost.
+     *
+     * @param events The events to persist.
+     * @throws InterruptedException If the thread is interrupted while waiting for room in the queue.
+     */
+    public void enqueue(AbstractMonitorEvent[] events) throws InterruptedException {
+        for (int i = 0; i < events.length; i++) {
+            while (!running || !queue.offer(events[i], ENQUEUE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    log.error("Ingester for orchestrator {} is stopped, {} events are lost.", orchestratorId, events.length - i);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of events waiting to be persisted.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Register the metrics of this ingester in the given registry.
+     *
+     * @param metricRegistry The registry in which to register metrics.
+     */
+    public void registerMetrics(MetricRegistry metricRegistry) {
+        metricRegistry.register(metricName("queue-depth"), (Gauge<Integer>) this::getQueueDepth);
+        metricRegistry.register(metricName("flush-latency"), flushLatency);
+        metricRegistry.register(metricName("events"), persistedEvents);
+    }
+
+    /**
+     * Remove the metrics of this ingester from the given registry.
+     *
+     * @param metricRegistry The registry from which to remove metrics.
+     */
+    public void unregisterMetrics(MetricRegistry metricRegistry) {
+        metricRegistry.remove(metricName("queue-depth"));
+        metricRegistry.remove(metricName("flush-latency"));
+        metricRegistry.remove(metricName("events"));
+    }
+
+    private String metricName(String name) {
+        return MetricRegistry.name(MonitorEventsIngester.class, orchestratorId, name);
+    }
+
+    /**
+     * Stop the ingester once all pending events have been persisted.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Ingester for orchestrator {} stopped with {} events not persisted.", orchestratorId, queue.size());
+        }
+    }
+
+    private void ingest() {
+        List<AbstractMonitorEvent> batch = Lists.newArrayListWithCapacity(maxBulkSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AbstractMonitorEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                // fill the bulk until it is full or the flush interval expires.
+                while (batch.size() < maxBulkSize) {
+                    if (queue.drainTo(batch, maxBulkSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    AbstractMonitorEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                log.warn("Ingester for orchestrator {} has been interrupted.", orchestratorId);
+                flush(batch);
+                return;
+            }
+        }
+    }
+
+    private void flush(List<AbstractMonitorEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        AbstractMonitorEvent[] events = batch.toArray(new AbstractMonitorEvent[batch.size()]);
+        while (true) {
+            Timer.Context context = flushLatency.time();
+            try {
+                monitorDAO.save(events);
+                persistedEvents.mark(events.length);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Failed to persist {} events for orchestrator {} during shutdown, events are lost.", events.length, orchestratorId, e);
+                    return;
+                }
+                // keep the events, the queue fills up and the polling slows down until elasticsearch is available again.
+                log.error("Failed to persist {} events for orchestrator {}, retrying.", events.length, orchestratorId, e);
+                try {
+                    Thread.sleep(FLUSH_RETRY_SLEEP_MS);
+                } catch (InterruptedException ie) {
+                    log.error("Ingester for orchestrator {} interrupted while retrying, {} events are lost.", orchestratorId, events.length);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                context.stop();
+            }
+        }
+    }
+}
@@ -5,20 +5,24 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ScheduledFuture;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.events.DeploymentCreatedEvent;
 import alien4cloud.exception.AlreadyExistException;
+import alien4cloud.model.deployment.Deployment;
 import alien4cloud.orchestrators.plugin.IOrchestratorPlugin;
 import alien4cloud.paas.exception.OrchestratorDisabledException;
 import lombok.AllArgsConstructor;
@@ -39,6 +43,20 @@ public class OrchestratorPluginService implements IPaasEventService {
     /** Interval in milliseconds on which to retrieve monitoring events from a PaaS provider. */
     @Value("${paas_monitor.monitor_interval_ms}")
     private long monitorIntervalMs = 1000 * 30;
+    /** Maximum interval in milliseconds between two polls of an idle PaaS provider. */
+    @Value("${paas_monitor.adaptive_polling.max_interval_ms:10000}")
+    private long maxMonitorIntervalMs;
+    /** Maximum number of polled events waiting to be persisted for an orchestrator before polling is slowed down. */
+    @Value("${paas_monitor.events_ingestion.queue_capacity:10000}")
+    private int ingestionQueueCapacity;
+    /** Maximum number of events persisted in a single bulk request. */
+    @Value("${paas_monitor.events_ingestion.bulk_size:500}")
+    private int ingestionBulkSize;
+    /** Maximum delay in milliseconds before polled events are persisted. */
+    @Value("${paas_monitor.events_ingestion.flush_interval_ms:200}")
+    private long ingestionFlushIntervalMs;
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
     @Inject
     private DeploymentStatusEventHandler deploymentStatusEventHandler;
 
@@ -73,13 +91,30 @@ public class OrchestratorPluginService implements IPaasEventService {
         if (monitorRegistrations.containsKey(orchestratorId)) {
             throw new AlreadyExistException("Cloud [" + orchestratorId + "] has already been registered");
         }
-        // create the polling monitor responsible to monitor this instance.
-        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, instance, listeners, orchestratorId);
-        ScheduledFuture<?> monitorFuture = scheduler.scheduleAtFixedRate(monitor, monitorIntervalMs);
-        Registration registration = new Registration(instance, monitorFuture);
+        // create the ingester that persists events and the polling monitor responsible to monitor this instance.
+        MonitorEventsIngester ingester = new MonitorEventsIngester(alienMonitorDao, orchestratorId, ingestionQueueCapacity, ingestionBulkSize,
+                ingestionFlushIntervalMs);
+        if (metricRegistry != null) {
+            ingester.registerMetrics(metricRegistry);
+        }
+        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, instance, listeners, orchestratorId, ingester);
+        monitor.start(scheduler, monitorIntervalMs, maxMonitorIntervalMs);
+        Registration registration = new Registration(instance, monitor, ingester);
         monitorRegistrations.put(orchestratorId, registration);
     }
 
+    /**
+     * Poll the orchestrator of a new deployment right away rather than waiting for the next (possibly backed-off) poll.
+     */
+    @EventListener
+    public void onDeploymentCreated(DeploymentCreatedEvent event) {
+        Deployment deployment = alienDao.findById(Deployment.class, event.getDeploymentId());
+        Registration registration = deployment == null ? null : monitorRegistrations.get(deployment.getOrchestratorId());
+        if (registration != null) {
+            registration.monitor.wakeUp();
+        }
+    }
+
     /**
      * Remove the registration for the given cloud (will stop monitoring the cloud using the registered IOrchestratorPlugin).
      *
@@ -89,7 +124,13 @@ public class OrchestratorPluginService implements IPaasEventService {
         log.info("Unregister provider with id {}", orchestratorId);
         Registration registration = monitorRegistrations.remove(orchestratorId);
         if (registration != null) {
-            registration.registration.cancel(false);
+            // shutdown the ingester first so that a flush retrying while elasticsearch is down cannot block the monitor (and its stop) forever, the events
+            // already polled are persisted before releasing the orchestrator.
+            registration.ingester.shutdown();
+            registration.monitor.stop();
+            if (metricRegistry != null) {
+                registration.ingester.unregisterMetrics(metricRegistry);
+            }
             return registration.instance;
         } else {
             return null;
@@ -142,6 +183,7 @@ public class OrchestratorPluginService implements IPaasEventService {
     @AllArgsConstructor(suppressConstructorProperties = true)
     private class Registration {
         private IOrchestratorPlugin instance;
-        private ScheduledFuture<?> registration;
+        private PaaSProviderPollingMonitor monitor;
+        private MonitorEventsIngester ingester;
     }
 }
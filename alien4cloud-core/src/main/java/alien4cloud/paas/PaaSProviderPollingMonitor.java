@@ -4,8 +4,10 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 
 import org.elasticsearch.mapping.QueryHelper;
+import org.springframework.scheduling.TaskScheduler;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -22,6 +24,11 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Monitor service to watch a deployed topologies for a given PaaS provider.
+ * <p>
+ * Once started, the monitor receives the events pushed by providers that implement {@link IEventsPushPaaSProvider} and polls the other ones. Polls are
+ * rescheduled adaptively: immediately while the provider returns full pages of events, at the minimum interval while events are flowing and with an
+ * exponential back-off up to the maximum interval while the orchestrator is idle or failing.
+ * </p>
  */
 @SuppressWarnings("unchecked")
 @Slf4j
@@ -40,6 +47,20 @@ public class PaaSProviderPollingMonitor implements Runnable {
     private String orchestratorId;
     private boolean hasDeployments = false;
     private boolean getEventsInProgress = false;
+    /** Optional write-behind stage in charge of persisting events, if null events are saved synchronously. */
+    private MonitorEventsIngester eventsIngester;
+
+    /** Scheduler of the next polls, null until the monitor is started (the polling is then scheduled by the caller). */
+    private volatile TaskScheduler scheduler;
+    private long minPollingIntervalMs;
+    private long maxPollingIntervalMs;
+    /** Current polling interval, doubled after each idle poll. */
+    private long pollingIntervalMs;
+    private ScheduledFuture<?> nextPoll;
+    private volatile boolean pushing = false;
+    private volatile boolean stopped = false;
+    /** Set by {@link #wakeUp()} without taking the monitor lock, consumed by the next poll. */
+    private volatile boolean wakeUpRequested = false;
 
     /**
      * Create a new instance of the {@link PaaSProviderPollingMonitor} to monitor the given paas provider.
@@ -49,6 +70,19 @@ public class PaaSProviderPollingMonitor implements Runnable {
     @SuppressWarnings("rawtypes")
     public PaaSProviderPollingMonitor(IGenericSearchDAO dao, IGenericSearchDAO monitorDAO, IPaaSProvider paaSProvider, List<IPaasEventListener> listeners,
             String orchestratorId) {
+        this(dao, monitorDAO, paaSProvider, listeners, orchestratorId, null);
+    }
+
+    /**
+     * Create a new instance of the {@link PaaSProviderPollingMonitor} to monitor the given paas provider.
+     *
+     * @param paaSProvider The paas provider to monitor.
+     * @param eventsIngester The ingester in charge of persisting polled events.
+     */
+    @SuppressWarnings("rawtypes")
+    public PaaSProviderPollingMonitor(IGenericSearchDAO dao, IGenericSearchDAO monitorDAO, IPaaSProvider paaSProvider, List<IPaasEventListener> listeners,
+            String orchestratorId, MonitorEventsIngester eventsIngester) {
+        this.eventsIngester = eventsIngester;
         this.orchestratorId = orchestratorId;
         this.dao = dao;
         this.monitorDAO = monitorDAO;
@@ -88,43 +122,165 @@ public class PaaSProviderPollingMonitor implements Runnable {
         paaSEventsCallback = new PaaSEventsCallback();
     }
 
-    private class PaaSEventsCallback implements IPaaSCallback<AbstractMonitorEvent[]> {
-        @Override
-        public void onSuccess(AbstractMonitorEvent[] auditEvents) {
-            synchronized (PaaSProviderPollingMonitor.this) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Polled from date {}", lastPollingDate);
+    /**
+     * Start to monitor the provider, using push if supported or adaptive polling otherwise.
+     *
+     * @param scheduler The scheduler in charge of running the polls.
+     * @param minPollingIntervalMs The polling interval while events are flowing.
+     * @param maxPollingIntervalMs The maximum polling interval while the orchestrator is idle.
+     */
+    public void start(TaskScheduler scheduler, long minPollingIntervalMs, long maxPollingIntervalMs) {
+        Date pushStartDate;
+        synchronized (this) {
+            this.scheduler = scheduler;
+            this.minPollingIntervalMs = minPollingIntervalMs;
+            this.maxPollingIntervalMs = Math.max(minPollingIntervalMs, maxPollingIntervalMs);
+            this.pollingIntervalMs = minPollingIntervalMs;
+            if (!(paaSProvider instanceof IEventsPushPaaSProvider)) {
+                scheduleNextPoll(0);
+                return;
+            }
+            pushing = true;
+            pushStartDate = lastPollingDate;
+        }
+        log.info("Starting events push for orchestrator {} from date {}", orchestratorId, pushStartDate);
+        // outside of the monitor lock as the provider may push the pending events while holding its own locks.
+        ((IEventsPushPaaSProvider) paaSProvider).startEventsPush(pushStartDate, new PushedEventsCallback());
+    }
+
+    /**
+     * Stop to monitor the provider.
+     */
+    public void stop() {
+        boolean stopPush;
+        synchronized (this) {
+            stopped = true;
+            if (nextPoll != null) {
+                nextPoll.cancel(false);
+            }
+            stopPush = pushing;
+            pushing = false;
+        }
+        // outside of the monitor lock as the provider may wait for the events being pushed to be processed.
+        if (stopPush) {
+            ((IEventsPushPaaSProvider) paaSProvider).stopEventsPush();
+        }
+    }
+
+    /**
+     * Poll the provider as soon as possible, for example when a deployment has been created on an idle orchestrator.
+     * <p>
+     * This method does not take the monitor lock (that is held while events are dispatched and persisted) so that callers are never blocked by a poll in
+     * progress. It only requests an additional poll: if a poll is already running the request is consumed when it completes.
+     * </p>
+     */
+    public void wakeUp() {
+        wakeUpRequested = true;
+        TaskScheduler currentScheduler = scheduler;
+        if (currentScheduler != null && !stopped && !pushing) {
+            currentScheduler.schedule(this, new Date());
+        }
+    }
+
+    /**
+     * Schedule the next poll, replacing the one already scheduled if any.
+     *
+     * @param delayMs The delay in milliseconds before the next poll.
+     */
+    private void scheduleNextPoll(long delayMs) {
+        if (scheduler == null || stopped || pushing) {
+            return;
+        }
+        if (nextPoll != null) {
+            nextPoll.cancel(false);
+        }
+        nextPoll = scheduler.schedule(this, new Date(System.currentTimeMillis() + delayMs));
+    }
+
+    /**
+     * Compute the polling interval after a poll and schedule the next one.
+     *
+     * @param polledEvents The number of events returned by the poll, 0 for idle or failed polls.
+     */
+    private void onPollCompleted(int polledEvents) {
+        if (wakeUpRequested) {
+            // a wake up has been requested while polling, the requested poll has been skipped.
+            scheduleNextPoll(0);
+        } else if (polledEvents > 0) {
+            pollingIntervalMs = minPollingIntervalMs;
+            // a full page means that more events are waiting on the orchestrator.
+            scheduleNextPoll(polledEvents >= MAX_POLLED_EVENTS ? 0 : pollingIntervalMs);
+        } else {
+            scheduleNextPoll(pollingIntervalMs);
+            pollingIntervalMs = Math.min(pollingIntervalMs * 2, maxPollingIntervalMs);
+        }
+    }
+
+    /**
+     * Dispatch events received from the provider to the listeners and persist them.
+     *
+     * @param auditEvents The events received from the provider.
+     */
+    private void processEvents(AbstractMonitorEvent[] auditEvents) {
+        synchronized (this) {
+            if (log.isDebugEnabled()) {
+                log.debug("Polled from date {}", lastPollingDate);
+            }
+            if (log.isDebugEnabled() && auditEvents != null && auditEvents.length > 0) {
+                log.debug("Saving {} events for orchestrator {}", auditEvents.length, orchestratorId);
+                for (AbstractMonitorEvent event : auditEvents) {
+                    log.debug(event.toString());
                 }
-                if (log.isDebugEnabled() && auditEvents != null && auditEvents.length > 0) {
-                    log.debug("Saving {} events for orchestrator {}", auditEvents.length, orchestratorId);
-                    for (AbstractMonitorEvent event : auditEvents) {
-                        log.debug(event.toString());
+            }
+            if (auditEvents != null && auditEvents.length > 0) {
+                Date lastEventDate = lastPollingDate;
+                for (AbstractMonitorEvent event : auditEvents) {
+                    // Enrich event with cloud id before saving them
+                    event.setOrchestratorId(orchestratorId);
+                    // If not set initialize a date for event or update the last event date (last polling)
+                    if (event.getDate() > 0) {
+                        Date eventDate = new Date(event.getDate());
+                        lastEventDate = eventDate.after(lastEventDate) ? eventDate : lastEventDate;
+                    } else {
+                        event.setDate(System.currentTimeMillis());
                     }
-                }
-                if (auditEvents != null && auditEvents.length > 0) {
-                    Date lastEventDate = lastPollingDate;
-                    for (AbstractMonitorEvent event : auditEvents) {
-                        // Enrich event with cloud id before saving them
-                        event.setOrchestratorId(orchestratorId);
-                        // If not set initialize a date for event or update the last event date (last polling)
-                        if (event.getDate() > 0) {
-                            Date eventDate = new Date(event.getDate());
-                            lastEventDate = eventDate.after(lastEventDate) ? eventDate : lastEventDate;
-                        } else {
-                            event.setDate(System.currentTimeMillis());
-                        }
-
-                        // dispatch the event to all listeners
-                        for (IPaasEventListener listener : listeners) {
-                            dispatchEvent(listener, event);
-                        }
+
+                    // dispatch the event to all listeners
+                    for (IPaasEventListener listener : listeners) {
+                        dispatchEvent(listener, event);
                     }
+                }
+                if (eventsIngester == null) {
                     monitorDAO.save(auditEvents);
-                    if (lastEventDate != null) {
-                        lastPollingDate = lastEventDate;
-                    }
                 }
-                getEventsInProgress = false;
+                if (lastEventDate != null) {
+                    lastPollingDate = lastEventDate;
+                }
+            }
+            if (eventsIngester == null || auditEvents == null || auditEvents.length == 0) {
+                return;
+            }
+        }
+        // Enqueue outside of the monitor lock (polls call the provider without holding it), while the ingestion queue is full the next poll (or the
+        // push) is delayed.
+        try {
+            eventsIngester.enqueue(auditEvents);
+        } catch (InterruptedException e) {
+            log.error("Interrupted while waiting to enqueue events for orchestrator {}", orchestratorId, e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class PaaSEventsCallback implements IPaaSCallback<AbstractMonitorEvent[]> {
+        @Override
+        public void onSuccess(AbstractMonitorEvent[] auditEvents) {
+            try {
+                processEvents(auditEvents);
+            } finally {
+                synchronized (PaaSProviderPollingMonitor.this) {
+                    getEventsInProgress = false;
+                    onPollCompleted(auditEvents == null ? 0 : auditEvents.length);
+                }
             }
         }
 
@@ -136,6 +292,27 @@ public class PaaSProviderPollingMonitor implements Runnable {
                 // If the PaaS is down, there might be a chance that the deployment has been marked as failed
                 hasDeployments = false;
                 log.error("Error happened while trying to retrieve events from PaaS provider", throwable);
+                onPollCompleted(0);
+            }
+        }
+    }
+
+    private class PushedEventsCallback implements IPaaSCallback<AbstractMonitorEvent[]> {
+        @Override
+        public void onSuccess(AbstractMonitorEvent[] auditEvents) {
+            processEvents(auditEvents);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            synchronized (PaaSProviderPollingMonitor.this) {
+                if (!pushing) {
+                    return;
+                }
+                log.error("Events push failed for orchestrator {}, falling back to polling", orchestratorId, throwable);
+                pushing = false;
+                pollingIntervalMs = minPollingIntervalMs;
+                scheduleNextPoll(0);
             }
         }
     }
@@ -174,24 +351,39 @@ public class PaaSProviderPollingMonitor implements Runnable {
     }
 
     @Override
-    public synchronized void run() {
+    public void run() {
         if (log.isTraceEnabled()) {
             log.trace("Poll scheduled");
         }
-        if (getEventsInProgress) {
-            // Get events since is running
-            return;
-        }
-        getEventsInProgress = true;
-        if (hasDeployments) {
-            if (log.isDebugEnabled()) {
-                log.debug("Polling from date {}", lastPollingDate);
+        Date pollingDate;
+        synchronized (this) {
+            if (getEventsInProgress || stopped || pushing) {
+                // Get events since is running or events are pushed by the provider
+                return;
             }
-            paaSProvider.getEventsSince(lastPollingDate, MAX_POLLED_EVENTS, paaSEventsCallback);
-        } else {
-            getEventsInProgress = false;
-            hasDeployments = getActiveDeployment() != null;
+            if (wakeUpRequested) {
+                wakeUpRequested = false;
+                hasDeployments = true;
+                pollingIntervalMs = minPollingIntervalMs;
+            }
+            if (!hasDeployments) {
+                hasDeployments = getActiveDeployment() != null;
+                if (hasDeployments) {
+                    pollingIntervalMs = minPollingIntervalMs;
+                    scheduleNextPoll(0);
+                } else {
+                    onPollCompleted(0);
+                }
+                return;
+            }
+            getEventsInProgress = true;
+            pollingDate = lastPollingDate;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Polling from date {}", pollingDate);
         }
+        // outside of the monitor lock as the provider may call back synchronously and the events enqueue may block while the ingestion queue is full.
+        paaSProvider.getEventsSince(pollingDate, MAX_POLLED_EVENTS, paaSEventsCallback);
     }
 
     private Deployment getActiveDeployment() {
@@ -0,0 +1,520 @@
+package alien4cloud.paas.function;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.alien4cloud.tosca.model.definitions.AttributeDefinition;
+import org.alien4cloud.tosca.model.definitions.ConcatPropertyValue;
+import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.normative.ToscaNormativeUtil;
+import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.paas.IPaaSTemplate;
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSNodeTemplate;
+import alien4cloud.utils.AlienConstants;
+import alien4cloud.utils.AlienUtils;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled evaluation plan of the attributes of the nodes of a topology.
+ * <p>
+ * The attribute values (attribute definitions, concat and get_operation_output functions) are compiled once: keywords are resolved to the ids of the nodes to
+ * look at, get_property functions are evaluated against the topology and operation output names are formatted. Evaluating an attribute then only requires to
+ * look up the runtime informations of the deployment.
+ * <p>
+ * The plan also indexes the runtime values (node attributes and operation outputs) each attribute depends on so that an update of the runtime informations of
+ * a node re-evaluates only the dependent attributes.
+ * <p>
+ * {@link FunctionEvaluator#parseAttribute} evaluates single values through a plan shared by all the calls made with the same built templates: each value is
+ * compiled on its first evaluation.
+ */
+@Slf4j
+public class FunctionEvaluationPlan {
+    /** Compiled values of the attributes per node id and attribute id. */
+    private final Map<String, Map<String, CompiledValue>> attributes = Maps.newHashMap();
+    /** Attributes that depend on a runtime value per node id and runtime key (attribute name or formatted operation output name). */
+    private final Map<String, Map<String, Set<AttributeKey>>> dependents = Maps.newHashMap();
+    /** Values compiled on demand by {@link #evaluate(String, IValue, Topology, Map, String, IPaaSTemplate, Map)}. */
+    private final ConcurrentMap<ValueKey, CompiledValue> compiledValues = Maps.newConcurrentMap();
+
+    FunctionEvaluationPlan() {
+    }
+
+    /**
+     * Compile the attributes of all the nodes of a topology.
+     *
+     * @param topology The topology (used to evaluate get_property functions).
+     * @param builtPaaSTemplates The built PaaS node templates of the topology.
+     * @return The evaluation plan of the topology attributes.
+     */
+    public static FunctionEvaluationPlan compile(Topology topology, Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
+        FunctionEvaluationPlan plan = new FunctionEvaluationPlan();
+        for (PaaSNodeTemplate paaSNodeTemplate : builtPaaSTemplates.values()) {
+            Map<String, IValue> nodeAttributes = paaSNodeTemplate.getIndexedToscaElement() == null ? null
+                    : paaSNodeTemplate.getIndexedToscaElement().getAttributes();
+            if (nodeAttributes == null) {
+                continue;
+            }
+            Map<String, CompiledValue> compiledAttributes = Maps.newHashMap();
+            plan.attributes.put(paaSNodeTemplate.getId(), compiledAttributes);
+            for (Map.Entry<String, IValue> attributeEntry : nodeAttributes.entrySet()) {
+                CompiledValue compiledValue;
+                try {
+                    compiledValue = compile(attributeEntry.getKey(), attributeEntry.getValue(), topology, paaSNodeTemplate, builtPaaSTemplates);
+                } catch (FunctionEvaluationException e) {
+                    log.warn("Failed to compile attribute <{}> of node <{}>: {}", attributeEntry.getKey(), paaSNodeTemplate.getId(), e.getMessage());
+                    compiledValue = new FailedValue(e);
+                }
+                compiledAttributes.put(attributeEntry.getKey(), compiledValue);
+                plan.indexDependencies(new AttributeKey(paaSNodeTemplate.getId(), attributeEntry.getKey()), compiledValue);
+            }
+        }
+        return plan;
+    }
+
+    private void indexDependencies(AttributeKey attributeKey, CompiledValue compiledValue) {
+        for (RuntimeReference reference : compiledValue.getReferences()) {
+            for (int i = 0; i < reference.nodeIds.length; i++) {
+                Map<String, Set<AttributeKey>> nodeDependents = dependents.get(reference.nodeIds[i]);
+                if (nodeDependents == null) {
+                    nodeDependents = Maps.newHashMap();
+                    dependents.put(reference.nodeIds[i], nodeDependents);
+                }
+                String key = reference.getKey(i);
+                Set<AttributeKey> keyDependents = nodeDependents.get(key);
+                if (keyDependents == null) {
+                    keyDependents = Sets.newHashSet();
+                    nodeDependents.put(key, keyDependents);
+                }
+                keyDependents.add(attributeKey);
+            }
+        }
+    }
+
+    /**
+     * Compile an attribute value that can be : {@link ConcatPropertyValue} / {@link AttributeDefinition} / {@link FunctionPropertyValue}.
+     *
+     * @param attributeId The id of the attribute.
+     * @param attributeValue The value of the attribute.
+     * @param topology The topology.
+     * @param basePaaSTemplate The template that defines the attribute.
+     * @param builtPaaSTemplates The built PaaS node templates of the topology.
+     * @return The compiled value.
+     */
+    static CompiledValue compile(String attributeId, IValue attributeValue, Topology topology, IPaaSTemplate<? extends AbstractToscaType> basePaaSTemplate,
+            Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
+        if (attributeValue instanceof AttributeDefinition) {
+            return new DefinitionValue(new AttributeReference(new String[] { basePaaSTemplate.getId() }, attributeId),
+                    ((AttributeDefinition) attributeValue).getDefault());
+        }
+
+        if (attributeValue instanceof ConcatPropertyValue) {
+            List<Object> segments = Lists.newArrayList();
+            for (IValue concatParam : ((ConcatPropertyValue) attributeValue).getParameters()) {
+                if (concatParam instanceof ScalarPropertyValue) {
+                    segments.add(String.valueOf(((ScalarPropertyValue) concatParam).getValue()));
+                } else if (concatParam instanceof PropertyDefinition) {
+                    // there is no runtime value for a property definition so use its default value
+                    segments.add(String.valueOf(((PropertyDefinition) concatParam).getDefault()));
+                } else if (concatParam instanceof FunctionPropertyValue) {
+                    FunctionPropertyValue function = (FunctionPropertyValue) concatParam;
+                    List<? extends IPaaSTemplate> paasTemplates = FunctionEvaluator.getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(),
+                            builtPaaSTemplates);
+                    switch (function.getFunction()) {
+                    case ToscaFunctionConstants.GET_ATTRIBUTE:
+                        segments.add(new AttributeReference(getIds(paasTemplates), function.getElementNameToFetch()));
+                        break;
+                    case ToscaFunctionConstants.GET_PROPERTY:
+                        // properties do not change at runtime
+                        segments.add(FunctionEvaluator.extractRuntimeInformationProperty(topology, function.getElementNameToFetch(), paasTemplates));
+                        break;
+                    case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
+                        segments.add(new OperationOutputReference(getIds(paasTemplates), function, "<" + function.getElementNameToFetch() + ">"));
+                        break;
+                    default:
+                        log.warn("Function [{}] is not yet handled in concat operation.", function.getFunction());
+                        break;
+                    }
+                }
+            }
+            return new ConcatValue(segments);
+        }
+
+        // For now, only support Get_OPERATION_OUTPUT on attributes scope
+        if (attributeValue instanceof FunctionPropertyValue) {
+            FunctionPropertyValue function = (FunctionPropertyValue) attributeValue;
+            if (ToscaFunctionConstants.GET_OPERATION_OUTPUT.equals(function.getFunction())) {
+                List<? extends IPaaSTemplate> paasTemplates = FunctionEvaluator.getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(),
+                        builtPaaSTemplates);
+                return new OperationOutputReference(getIds(paasTemplates), function, null);
+            }
+        }
+
+        return NullValue.INSTANCE;
+    }
+
+    private static String[] getIds(List<? extends IPaaSTemplate> paasTemplates) {
+        String[] ids = new String[paasTemplates.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = paasTemplates.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Evaluate an attribute of a node instance.
+     *
+     * @param nodeId The id of the node.
+     * @param attributeId The id of the attribute.
+     * @param runtimeInformations The runtime informations of the deployment (instances informations per node id and instance id).
+     * @param instanceId The id of the instance.
+     * @return The value of the attribute or null if the node has no such attribute or the attribute value cannot be evaluated.
+     */
+    public String evaluate(String nodeId, String attributeId, Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+        Map<String, CompiledValue> nodeAttributes = attributes.get(nodeId);
+        CompiledValue compiledValue = nodeAttributes == null ? null : nodeAttributes.get(attributeId);
+        return compiledValue == null ? null : compiledValue.evaluate(runtimeInformations, instanceId);
+    }
+
+    /**
+     * Evaluate a single attribute value, the value is compiled on its first evaluation and the compiled value is reused for the next evaluations of the same
+     * value for the same template.
+     *
+     * @param attributeId The id of the attribute.
+     * @param attributeValue The value of the attribute.
+     * @param topology The topology (used to evaluate get_property functions).
+     * @param runtimeInformations The runtime informations of the deployment (instances informations per node id and instance id).
+     * @param instanceId The id of the instance.
+     * @param basePaaSTemplate The template that defines the attribute.
+     * @param builtPaaSTemplates The built PaaS node templates of the topology this plan is used for.
+     * @return The value of the attribute or null if it cannot be evaluated at runtime.
+     */
+    String evaluate(String attributeId, IValue attributeValue, Topology topology, Map<String, Map<String, InstanceInformation>> runtimeInformations,
+            String instanceId, IPaaSTemplate<? extends AbstractToscaType> basePaaSTemplate, Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
+        CompiledValue compiledValue = compiledValues.computeIfAbsent(new ValueKey(basePaaSTemplate, attributeId, attributeValue, topology),
+                key -> compile(attributeId, attributeValue, topology, basePaaSTemplate, builtPaaSTemplates));
+        return compiledValue.evaluate(runtimeInformations, instanceId);
+    }
+
+    /**
+     * Evaluate the attributes of all the instances of the deployment.
+     *
+     * @param runtimeInformations The runtime informations of the deployment (instances informations per node id and instance id).
+     * @return The values of the attributes per node id, instance id and attribute id.
+     */
+    public Map<String, Map<String, Map<String, String>>> evaluateAll(Map<String, Map<String, InstanceInformation>> runtimeInformations) {
+        Map<String, Map<String, Map<String, String>>> values = Maps.newHashMap();
+        for (Map.Entry<String, Map<String, CompiledValue>> nodeEntry : attributes.entrySet()) {
+            Map<String, InstanceInformation> instances = runtimeInformations.get(nodeEntry.getKey());
+            if (instances == null) {
+                continue;
+            }
+            Map<String, Map<String, String>> nodeValues = Maps.newHashMap();
+            values.put(nodeEntry.getKey(), nodeValues);
+            for (String instanceId : instances.keySet()) {
+                Map<String, String> instanceValues = Maps.newHashMap();
+                nodeValues.put(instanceId, instanceValues);
+                for (Map.Entry<String, CompiledValue> attributeEntry : nodeEntry.getValue().entrySet()) {
+                    instanceValues.put(attributeEntry.getKey(), attributeEntry.getValue().evaluate(runtimeInformations, instanceId));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the attributes that depend on a runtime value of a node.
+     *
+     * @param nodeId The id of the node which runtime informations changed.
+     * @param runtimeKey The name of the changed attribute or the formatted name of the changed operation output.
+     * @return The keys of the dependent attributes.
+     */
+    public Set<AttributeKey> getDependents(String nodeId, String runtimeKey) {
+        Map<String, Set<AttributeKey>> nodeDependents = dependents.get(nodeId);
+        Set<AttributeKey> keyDependents = nodeDependents == null ? null : nodeDependents.get(runtimeKey);
+        return keyDependents == null ? Collections.<AttributeKey> emptySet() : Collections.unmodifiableSet(keyDependents);
+    }
+
+    /**
+     * Re-evaluate the attributes that depend on changed runtime values of a node.
+     * <p>
+     * An attribute value may fallback on the values of any instance of the node it references so dependent attributes are re-evaluated for all the
+     * instances of their node.
+     *
+     * @param values The values of the attributes (as returned by {@link #evaluateAll(Map)}) to update.
+     * @param runtimeInformations The updated runtime informations of the deployment.
+     * @param nodeId The id of the node which runtime informations changed.
+     * @param runtimeKeys The names of the changed attributes or the formatted names of the changed operation outputs.
+     * @return The keys of the re-evaluated attributes.
+     */
+    public Set<AttributeKey> update(Map<String, Map<String, Map<String, String>>> values, Map<String, Map<String, InstanceInformation>> runtimeInformations,
+            String nodeId, Collection<String> runtimeKeys) {
+        Set<AttributeKey> updated = Sets.newHashSet();
+        for (String runtimeKey : runtimeKeys) {
+            updated.addAll(getDependents(nodeId, runtimeKey));
+        }
+        for (AttributeKey attributeKey : updated) {
+            Map<String, InstanceInformation> instances = runtimeInformations.get(attributeKey.getNodeId());
+            if (instances == null) {
+                continue;
+            }
+            CompiledValue compiledValue = attributes.get(attributeKey.getNodeId()).get(attributeKey.getAttributeId());
+            Map<String, Map<String, String>> nodeValues = values.get(attributeKey.getNodeId());
+            if (nodeValues == null) {
+                nodeValues = Maps.newHashMap();
+                values.put(attributeKey.getNodeId(), nodeValues);
+            }
+            for (String instanceId : instances.keySet()) {
+                Map<String, String> instanceValues = nodeValues.get(instanceId);
+                if (instanceValues == null) {
+                    instanceValues = Maps.newHashMap();
+                    nodeValues.put(instanceId, instanceValues);
+                }
+                instanceValues.put(attributeKey.getAttributeId(), compiledValue.evaluate(runtimeInformations, instanceId));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Get the runtime values of a node, the values of the given instance if known or the attributes of the first instance otherwise.
+     */
+    private static Map<String, String> getInstanceValues(Map<String, InstanceInformation> instances, String instanceId, boolean operationsOutputs) {
+        if (instances.containsKey(instanceId)) {
+            InstanceInformation instance = instances.get(instanceId);
+            return operationsOutputs ? instance.getOperationsOutputs() : instance.getAttributes();
+        }
+        return instances.isEmpty() ? null : instances.values().iterator().next().getAttributes();
+    }
+
+    /** Key of an attribute of a node. */
+    @Getter
+    @EqualsAndHashCode
+    @ToString
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    public static class AttributeKey {
+        private final String nodeId;
+        private final String attributeId;
+    }
+
+    /** Key of a value compiled on demand, the template, the value and the topology are compared by identity. */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class ValueKey {
+        private final Object basePaaSTemplate;
+        private final String attributeId;
+        private final IValue attributeValue;
+        private final Topology topology;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ValueKey)) {
+                return false;
+            }
+            ValueKey other = (ValueKey) o;
+            return basePaaSTemplate == other.basePaaSTemplate && attributeValue == other.attributeValue && topology == other.topology
+                    && (attributeId == null ? other.attributeId == null : attributeId.equals(other.attributeId));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(attributeValue) + System.identityHashCode(basePaaSTemplate);
+        }
+    }
+
+    /** A compiled attribute value. */
+    interface CompiledValue {
+        String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId);
+
+        List<RuntimeReference> getReferences();
+    }
+
+    /** Reference to a runtime value of the first node (of a list of nodes) that defines it. */
+    private abstract static class RuntimeReference implements CompiledValue {
+        protected final String[] nodeIds;
+
+        RuntimeReference(String[] nodeIds) {
+            this.nodeIds = nodeIds;
+        }
+
+        /** Get the runtime key of the value for the node at the given index. */
+        abstract String getKey(int index);
+
+        @Override
+        public List<RuntimeReference> getReferences() {
+            return Collections.<RuntimeReference> singletonList(this);
+        }
+    }
+
+    private static class AttributeReference extends RuntimeReference {
+        private final String attributeName;
+
+        AttributeReference(String[] nodeIds, String attributeName) {
+            super(nodeIds);
+            this.attributeName = attributeName;
+        }
+
+        @Override
+        String getKey(int index) {
+            return attributeName;
+        }
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            for (String nodeId : nodeIds) {
+                Map<String, InstanceInformation> instances = runtimeInformations.get(nodeId);
+                if (instances != null) {
+                    Map<String, String> nodeAttributes = getInstanceValues(instances, instanceId, false);
+                    if (nodeAttributes != null && nodeAttributes.containsKey(attributeName)) {
+                        return nodeAttributes.get(attributeName);
+                    }
+                }
+            }
+            log.warn("Couldn't find attribute <{}> in nodes <{}>", attributeName, Arrays.toString(nodeIds));
+            return "<" + attributeName + ">"; // value not yet computed (or won't be computes)
+        }
+    }
+
+    private static class OperationOutputReference extends RuntimeReference {
+        /** Formatted name of the output for each node. */
+        private final String[] outputNames;
+        /** Name of the output with its interface and operation, for logging. */
+        private final String displayName;
+        private final String defaultValue;
+
+        OperationOutputReference(String[] nodeIds, FunctionPropertyValue function, String defaultValue) {
+            super(nodeIds);
+            this.outputNames = new String[nodeIds.length];
+            for (int i = 0; i < nodeIds.length; i++) {
+                outputNames[i] = ToscaNormativeUtil.formatedOperationOutputName(nodeIds[i], function.getInterfaceName(), function.getOperationName(),
+                        function.getElementNameToFetch());
+            }
+            this.displayName = AlienUtils.prefixWith(AlienConstants.OPERATION_NAME_SEPARATOR, function.getElementNameToFetch(),
+                    new String[] { function.getInterfaceName(), function.getOperationName() });
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        String getKey(int index) {
+            return outputNames[index];
+        }
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            for (int i = 0; i < nodeIds.length; i++) {
+                Map<String, InstanceInformation> instances = runtimeInformations.get(nodeIds[i]);
+                if (instances != null) {
+                    Map<String, String> outputs = getInstanceValues(instances, instanceId, true);
+                    if (outputs != null && outputs.containsKey(outputNames[i])) {
+                        return outputs.get(outputNames[i]);
+                    }
+                }
+            }
+            log.warn("Couldn't find output <{}> in nodes <{}>", displayName, Arrays.toString(nodeIds));
+            return defaultValue;
+        }
+    }
+
+    /** Runtime attribute with a fallback on the default value of its definition. */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class DefinitionValue implements CompiledValue {
+        private final AttributeReference reference;
+        private final String defaultValue;
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            String runtimeAttributeValue = reference.evaluate(runtimeInformations, instanceId);
+            if (runtimeAttributeValue != null && !runtimeAttributeValue.contains("=Error!]") && !runtimeAttributeValue.equals("")) {
+                return runtimeAttributeValue;
+            }
+            return defaultValue;
+        }
+
+        @Override
+        public List<RuntimeReference> getReferences() {
+            return reference.getReferences();
+        }
+    }
+
+    /** Concatenation of constant strings and runtime references. */
+    private static class ConcatValue implements CompiledValue {
+        private final Object[] segments;
+        private final List<RuntimeReference> references = Lists.newArrayList();
+
+        ConcatValue(List<Object> segments) {
+            this.segments = segments.toArray();
+            for (Object segment : segments) {
+                if (segment instanceof RuntimeReference) {
+                    references.add((RuntimeReference) segment);
+                }
+            }
+        }
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            StringBuilder evaluatedAttribute = new StringBuilder();
+            for (Object segment : segments) {
+                if (segment instanceof RuntimeReference) {
+                    evaluatedAttribute.append(((RuntimeReference) segment).evaluate(runtimeInformations, instanceId));
+                } else {
+                    evaluatedAttribute.append((String) segment);
+                }
+            }
+            return evaluatedAttribute.toString();
+        }
+
+        @Override
+        public List<RuntimeReference> getReferences() {
+            return references;
+        }
+    }
+
+    /** Value of an attribute that cannot be evaluated at runtime. */
+    private enum NullValue implements CompiledValue {
+        INSTANCE;
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            return null;
+        }
+
+        @Override
+        public List<RuntimeReference> getReferences() {
+            return Collections.emptyList();
+        }
+    }
+
+    /** Value of an attribute which functions reference invalid templates, the evaluation fails as the interpretation of the functions would. */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class FailedValue implements CompiledValue {
+        private final FunctionEvaluationException cause;
+
+        @Override
+        public String evaluate(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId) {
+            throw new FunctionEvaluationException(cause.getMessage(), cause);
+        }
+
+        @Override
+        public List<RuntimeReference> getReferences() {
+            return Collections.emptyList();
+        }
+    }
+}
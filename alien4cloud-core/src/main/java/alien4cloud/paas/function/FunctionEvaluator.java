@@ -18,12 +18,14 @@ import org.alien4cloud.tosca.model.templates.Requirement;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
-import org.alien4cloud.tosca.normative.ToscaNormativeUtil;
 import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
 import org.alien4cloud.tosca.normative.types.ToscaTypes;
 import org.apache.commons.lang3.StringUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -33,8 +35,6 @@ import alien4cloud.paas.model.InstanceInformation;
 import alien4cloud.paas.model.PaaSNodeTemplate;
 import alien4cloud.paas.model.PaaSRelationshipTemplate;
 import alien4cloud.rest.utils.JsonUtil;
-import alien4cloud.utils.AlienConstants;
-import alien4cloud.utils.AlienUtils;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.PropertyUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -51,8 +51,19 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @SuppressWarnings({ "unchecked", "rawtypes" })
 public final class FunctionEvaluator {
+    /** Evaluation plans per built templates of a deployment, attribute values are compiled once and evaluated for each instance and runtime update. */
+    private static final LoadingCache<Map<String, PaaSNodeTemplate>, FunctionEvaluationPlan> EVALUATION_PLANS = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<Map<String, PaaSNodeTemplate>, FunctionEvaluationPlan>() {
+                @Override
+                public FunctionEvaluationPlan load(Map<String, PaaSNodeTemplate> builtPaaSTemplates) {
+                    return new FunctionEvaluationPlan();
+                }
+            });
+
     /**
      * Parse an attribute value that can be : {@link ConcatPropertyValue} / {@link AttributeDefinition}
+     * <p>
+     * The value is compiled once per built templates (see {@link FunctionEvaluationPlan}) and only the runtime informations are looked up on next calls.
      *
      * @param attributeId
      * @param attributeValue
@@ -71,99 +82,12 @@ public final class FunctionEvaluator {
             return null;
         }
 
-        // handle AttributeDefinition type
-        if (attributeValue instanceof AttributeDefinition) {
-            String runtimeAttributeValue = extractRuntimeInformationAttribute(runtimeInformations, currentInstance, Lists.newArrayList(basePaaSTemplate),
-                    attributeId);
-            if (runtimeAttributeValue != null) {
-                if (!runtimeAttributeValue.contains("=Error!]") && !runtimeAttributeValue.equals("")) {
-                    return runtimeAttributeValue;
-                }
-            }
-
-            return ((AttributeDefinition) attributeValue).getDefault();
-        }
-
-        // handle concat function
-        if (attributeValue instanceof ConcatPropertyValue) {
-            StringBuilder evaluatedAttribute = new StringBuilder();
-            ConcatPropertyValue concatPropertyValue = (ConcatPropertyValue) attributeValue;
-            for (IValue concatParam : concatPropertyValue.getParameters()) {
-                // scalar type
-                if (concatParam instanceof ScalarPropertyValue) {
-                    // scalar case
-                    evaluatedAttribute.append(((ScalarPropertyValue) concatParam).getValue());
-                } else if (concatParam instanceof PropertyDefinition) {
-                    // Definition case
-                    // TODO : ?? what should i do here ?? currently returns default value in the definition
-                    evaluatedAttribute.append(((PropertyDefinition) concatParam).getDefault());
-                } else if (concatParam instanceof FunctionPropertyValue) {
-                    // Function case
-                    FunctionPropertyValue functionPropertyValue = (FunctionPropertyValue) concatParam;
-                    List<? extends IPaaSTemplate> paasTemplates = getPaaSTemplatesFromKeyword(basePaaSTemplate, functionPropertyValue.getTemplateName(),
-                            builtPaaSTemplates);
-                    switch (functionPropertyValue.getFunction()) {
-                    case ToscaFunctionConstants.GET_ATTRIBUTE:
-                        evaluatedAttribute.append(extractRuntimeInformationAttribute(runtimeInformations, currentInstance, paasTemplates,
-                                functionPropertyValue.getElementNameToFetch()));
-                        break;
-                    case ToscaFunctionConstants.GET_PROPERTY:
-                        evaluatedAttribute.append(extractRuntimeInformationProperty(topology, functionPropertyValue.getElementNameToFetch(), paasTemplates));
-                        break;
-                    case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
-                        String defaultValue = "<" + functionPropertyValue.getElementNameToFetch() + ">";
-                        evaluatedAttribute.append(extractRuntimeInformationOperationOutput(runtimeInformations, currentInstance, paasTemplates,
-                                functionPropertyValue, defaultValue));
-                        break;
-                    default:
-                        log.warn("Function [{}] is not yet handled in concat operation.", functionPropertyValue.getFunction());
-                        break;
-                    }
-
-                }
-            }
-            return evaluatedAttribute.toString();
-        }
-
-        // handle functions. For now, only support Get_OPERATION_OUTPUT on attributes scope
-        if (attributeValue instanceof FunctionPropertyValue) {
-            FunctionPropertyValue function = (FunctionPropertyValue) attributeValue;
-            switch (function.getFunction()) {
-            case ToscaFunctionConstants.GET_OPERATION_OUTPUT:
-                List<? extends IPaaSTemplate> paasTemplates = getPaaSTemplatesFromKeyword(basePaaSTemplate, function.getTemplateName(), builtPaaSTemplates);
-                return extractRuntimeInformationOperationOutput(runtimeInformations, currentInstance, paasTemplates, function, null);
-            default:
-                return null;
-            }
-        }
-
-        return null;
-    }
-
-    private static String extractRuntimeInformationOperationOutput(Map<String, Map<String, InstanceInformation>> runtimeInformations, String instanceId,
-            List<? extends IPaaSTemplate> nodes, FunctionPropertyValue function, String defaultValue) {
-        String outputRQN = AlienUtils.prefixWith(AlienConstants.OPERATION_NAME_SEPARATOR, function.getElementNameToFetch(),
-                new String[] { function.getInterfaceName(), function.getOperationName() });
-        // return the first found
-        for (IPaaSTemplate node : nodes) {
-            String nodeName = node.getId();
-            if (runtimeInformations.get(nodeName) != null) {
-                Map<String, String> outputs;
-                // get value for an instance if instance number found
-                if (runtimeInformations.get(nodeName).containsKey(instanceId)) {
-                    outputs = runtimeInformations.get(nodeName).get(instanceId).getOperationsOutputs();
-                } else {
-                    outputs = runtimeInformations.get(nodeName).entrySet().iterator().next().getValue().getAttributes();
-                }
-                String formatedOutputName = ToscaNormativeUtil.formatedOperationOutputName(nodeName, function.getInterfaceName(), function.getOperationName(),
-                        function.getElementNameToFetch());
-                if (outputs.containsKey(formatedOutputName)) {
-                    return outputs.get(formatedOutputName);
-                }
-            }
+        if (builtPaaSTemplates == null) {
+            return FunctionEvaluationPlan.compile(attributeId, attributeValue, topology, basePaaSTemplate, null).evaluate(runtimeInformations,
+                    currentInstance);
         }
-        log.warn("Couldn't find output <{}> in nodes <{}>", outputRQN, nodes.toString());
-        return defaultValue;
+        return EVALUATION_PLANS.getUnchecked(builtPaaSTemplates).evaluate(attributeId, attributeValue, topology, runtimeInformations, currentInstance,
+                basePaaSTemplate, builtPaaSTemplates);
     }
 
     /**
@@ -174,7 +98,7 @@ public final class FunctionEvaluator {
      * @param nodes
      * @return
      */
-    private static String extractRuntimeInformationProperty(Topology topology, String propertyOrAttributeName, List<? extends IPaaSTemplate> nodes) {
+    static String extractRuntimeInformationProperty(Topology topology, String propertyOrAttributeName, List<? extends IPaaSTemplate> nodes) {
         AbstractPropertyValue propertyOrAttributeValue;
         NodeTemplate template = null;
         for (IPaaSTemplate node : nodes) {
@@ -191,38 +115,6 @@ public final class FunctionEvaluator {
         return "[" + nodes + "." + propertyOrAttributeName + "=Error!]";
     }
 
-    /**
-     * Return the first matching value in parent nodes hierarchy
-     *
-     * @param runtimeInformations
-     * @param currentInstance
-     * @param nodes
-     * @param propertyOrAttributeName
-     * @return runtime value
-     */
-    private static String extractRuntimeInformationAttribute(Map<String, Map<String, InstanceInformation>> runtimeInformations, String currentInstance,
-            List<? extends IPaaSTemplate> nodes, String propertyOrAttributeName) {
-        Map<String, String> attributes = null;
-        // return the first found
-        for (IPaaSTemplate node : nodes) {
-            String nodeName = node.getId();
-            // get the current attribute value
-            if (runtimeInformations.get(nodeName) != null) {
-                // get value for an instance if instance number found
-                if (runtimeInformations.get(nodeName).containsKey(currentInstance)) {
-                    attributes = runtimeInformations.get(nodeName).get(currentInstance).getAttributes();
-                } else {
-                    attributes = runtimeInformations.get(nodeName).entrySet().iterator().next().getValue().getAttributes();
-                }
-                if (attributes.containsKey(propertyOrAttributeName)) {
-                    return attributes.get(propertyOrAttributeName);
-                }
-            }
-        }
-        log.warn("Couldn't find attribute <{}> in nodes <{}>", propertyOrAttributeName, nodes.toString());
-        return "<" + propertyOrAttributeName + ">"; // value not yet computed (or won't be computes)
-    }
-
     /**
      * Return the paaS entities based on a keyword. This latest can be a special keyword (SELF, SOURCE, TARGET, HOST), or a node template name
      *
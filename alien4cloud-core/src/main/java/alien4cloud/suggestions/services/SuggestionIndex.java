@@ -0,0 +1,123 @@
+package alien4cloud.suggestions.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.model.common.AbstractSuggestionEntry;
+import lombok.Getter;
+
+/**
+ * In-memory trigram index of the values of a suggestion entry.
+ * <p>
+ * Values are indexed on the trigrams of their normalized text, padded so that values starting with the same letter always share a trigram. A lookup returns
+ * the values that share at least one trigram with the input so that the (costly) similarity is not computed against every value. This pruning is a heuristic:
+ * very short texts can be similar without sharing any trigram (the Jaro-Winkler similarity of "ab" and "ba" is about 0.83), so lookups of short inputs
+ * return all values and short values are always returned.
+ * <p>
+ * An index is not thread safe, it is meant to be used while processing a single archive.
+ */
+class SuggestionIndex {
+    private static final int GRAM_SIZE = 3;
+    /** Normalized texts up to this length are not pruned by the trigram index. */
+    private static final int SHORT_TEXT_LENGTH = 4;
+    /** Normalized texts have no white spaces so a white space can be used as padding. */
+    private static final String START_PADDING = "  ";
+    private static final String END_PADDING = " ";
+
+    @Getter
+    private final AbstractSuggestionEntry entry;
+    /** Normalized text of every value. */
+    private final Map<String, String> normalizedValues = Maps.newHashMap();
+    private final Map<String, Set<String>> valuesByGram = Maps.newHashMap();
+    /** Values which normalized text is short, they are candidates for every input. */
+    private final Set<String> shortValues = Sets.newHashSet();
+    /** Values added to the entry since it has been loaded. */
+    @Getter
+    private final Set<String> addedValues = Sets.newLinkedHashSet();
+
+    SuggestionIndex(AbstractSuggestionEntry entry) {
+        this.entry = entry;
+        if (entry.getSuggestions() == null) {
+            entry.setSuggestions(Sets.<String> newHashSet());
+        }
+        for (String value : entry.getSuggestions()) {
+            index(value);
+        }
+    }
+
+    /**
+     * Add a value to the entry.
+     *
+     * @param value The value to add.
+     * @return True if the value has been added, false if the entry already contains it.
+     */
+    boolean add(String value) {
+        if (!entry.getSuggestions().add(value)) {
+            return false;
+        }
+        index(value);
+        addedValues.add(value);
+        return true;
+    }
+
+    /**
+     * @return True if values have been added to the entry since it has been loaded.
+     */
+    boolean isModified() {
+        return !addedValues.isEmpty();
+    }
+
+    private void index(String value) {
+        String normalizedValue = SuggestionService.normalizeTextForMatching(value);
+        normalizedValues.put(value, normalizedValue);
+        if (normalizedValue.length() <= SHORT_TEXT_LENGTH) {
+            shortValues.add(value);
+        }
+        for (String gram : getGrams(normalizedValue)) {
+            Set<String> values = valuesByGram.get(gram);
+            if (values == null) {
+                values = Sets.newHashSet();
+                valuesByGram.put(gram, values);
+            }
+            values.add(value);
+        }
+    }
+
+    /**
+     * Get the values that may be similar to a normalized input.
+     *
+     * @param normalizedInput The normalized input text.
+     * @return The normalized text of the values that may be similar to the input, by value.
+     */
+    Map<String, String> getCandidates(String normalizedInput) {
+        if (normalizedInput.length() <= SHORT_TEXT_LENGTH) {
+            return Collections.unmodifiableMap(normalizedValues);
+        }
+        Map<String, String> candidates = Maps.newHashMap();
+        for (String value : shortValues) {
+            candidates.put(value, normalizedValues.get(value));
+        }
+        for (String gram : getGrams(normalizedInput)) {
+            Set<String> values = valuesByGram.get(gram);
+            if (values != null) {
+                for (String value : values) {
+                    candidates.put(value, normalizedValues.get(value));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static Set<String> getGrams(String normalizedText) {
+        String padded = START_PADDING + normalizedText + END_PADDING;
+        Set<String> grams = Sets.newHashSet();
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+}
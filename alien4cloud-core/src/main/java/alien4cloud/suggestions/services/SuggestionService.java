@@ -7,11 +7,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -41,6 +45,10 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import alien4cloud.dao.ElasticSearchDAO;
@@ -73,6 +81,14 @@ public class SuggestionService {
     /* The Levenshtein distance is a string metric for measuring the difference between two sequences. */
     private static final double MIN_JAROWINKLER = 0.0;
 
+    /** Locks by suggestion entry id, weakly referenced so that they are released once no update uses them. */
+    private final LoadingCache<String, Lock> entryLocks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, Lock>() {
+        @Override
+        public Lock load(String key) {
+            return new ReentrantLock();
+        }
+    });
+
     /**
      * This method load the defaults suggestions to ES.
      * 
@@ -110,12 +126,11 @@ public class SuggestionService {
     }
 
     private AbstractSuggestionEntry checkProperty(String nodePrefix, String propertyName, String propertyTextValue,
-            Class<? extends AbstractInheritableToscaType> type, String elementId, ParsingContext context) {
-        AbstractSuggestionEntry suggestionEntry = getSuggestionEntry(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, type.getSimpleName().toLowerCase(), elementId,
-                propertyName);
-        if (suggestionEntry != null) {
-            PriorityQueue<SuggestionService.MatchedSuggestion> similarValues = getJaroWinklerMatchedSuggestions(suggestionEntry.getSuggestions(),
-                    propertyTextValue, 0.8);
+            Class<? extends AbstractInheritableToscaType> type, String elementId, ParsingContext context, Map<String, SuggestionIndex> indexes) {
+        SuggestionIndex suggestionIndex = getSuggestionIndex(indexes,
+                SuggestionEntry.generateId(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, type.getSimpleName().toLowerCase(), elementId, propertyName));
+        if (suggestionIndex != null) {
+            PriorityQueue<SuggestionService.MatchedSuggestion> similarValues = getJaroWinklerMatchedSuggestions(suggestionIndex, propertyTextValue, 0.8);
             if (!similarValues.isEmpty()) {
                 // Has some similar values in the system already
                 SuggestionService.MatchedSuggestion mostMatched = similarValues.poll();
@@ -129,7 +144,7 @@ public class SuggestionService {
                         // It's pretty similar
                         level = ParsingErrorLevel.INFO;
                         // Add suggestion anyway
-                        addSuggestionValueToSuggestionEntry(suggestionEntry.getId(), propertyTextValue);
+                        suggestionIndex.add(propertyTextValue);
                     }
                     context.getParsingErrors()
                             .add(new ParsingError(level, ErrorCode.POTENTIAL_BAD_PROPERTY_VALUE, null, null, null, null, "At path [" + nodePrefix + "."
@@ -137,27 +152,106 @@ public class SuggestionService {
                 }
             } else {
                 // Not similar add suggestion
-                addSuggestionValueToSuggestionEntry(suggestionEntry.getId(), propertyTextValue);
+                suggestionIndex.add(propertyTextValue);
+            }
+            return suggestionIndex.getEntry();
+        }
+        return null;
+    }
+
+    /**
+     * Get the index of a suggestion entry, entries are loaded once per archive.
+     *
+     * @return The index of the entry or null if the entry does not exist.
+     */
+    private SuggestionIndex getSuggestionIndex(Map<String, SuggestionIndex> indexes, String suggestionId) {
+        if (indexes.containsKey(suggestionId)) {
+            return indexes.get(suggestionId);
+        }
+        AbstractSuggestionEntry suggestionEntry = alienDAO.findById(AbstractSuggestionEntry.class, suggestionId);
+        SuggestionIndex suggestionIndex = suggestionEntry == null ? null : new SuggestionIndex(suggestionEntry);
+        indexes.put(suggestionId, suggestionIndex);
+        return suggestionIndex;
+    }
+
+    /**
+     * Save in a single bulk request the entries to which values have been added.
+     * <p>
+     * Entries may have been updated by a concurrent import since they have been loaded, so they are read again under their lock and only the added values are
+     * merged into the current entries.
+     * </p>
+     */
+    private void saveModifiedEntries(Map<String, SuggestionIndex> indexes) {
+        // sorted by id so that concurrent imports always lock the entries in the same order
+        Map<String, SuggestionIndex> modifiedIndexes = new TreeMap<>();
+        for (Map.Entry<String, SuggestionIndex> indexEntry : indexes.entrySet()) {
+            if (indexEntry.getValue() != null && indexEntry.getValue().isModified()) {
+                modifiedIndexes.put(indexEntry.getKey(), indexEntry.getValue());
+            }
+        }
+        if (modifiedIndexes.isEmpty()) {
+            return;
+        }
+        List<Lock> locks = new ArrayList<>(modifiedIndexes.size());
+        for (String suggestionId : modifiedIndexes.keySet()) {
+            Lock lock = entryLocks.getUnchecked(suggestionId);
+            lock.lock();
+            locks.add(lock);
+        }
+        try {
+            List<AbstractSuggestionEntry> modifiedEntries = new ArrayList<>(modifiedIndexes.size());
+            for (Map.Entry<String, SuggestionIndex> indexEntry : modifiedIndexes.entrySet()) {
+                AbstractSuggestionEntry currentEntry = alienDAO.findById(AbstractSuggestionEntry.class, indexEntry.getKey());
+                if (currentEntry == null) {
+                    // the entry has been deleted meanwhile, save it as known by the import
+                    modifiedEntries.add(indexEntry.getValue().getEntry());
+                } else {
+                    if (currentEntry.getSuggestions() == null) {
+                        currentEntry.setSuggestions(Sets.<String> newHashSet());
+                    }
+                    currentEntry.getSuggestions().addAll(indexEntry.getValue().getAddedValues());
+                    modifiedEntries.add(currentEntry);
+                }
+            }
+            alienDAO.save(modifiedEntries.toArray(new AbstractSuggestionEntry[modifiedEntries.size()]));
+        } finally {
+            for (Lock lock : Lists.reverse(locks)) {
+                lock.unlock();
             }
         }
-        return suggestionEntry;
     }
 
     private void checkProperties(String nodePrefix, Map<String, AbstractPropertyValue> propertyValueMap, Class<? extends AbstractInheritableToscaType> type,
-            String elementId, ParsingContext context) {
+            String elementId, ParsingContext context, Map<String, SuggestionIndex> indexes) {
         if (MapUtils.isNotEmpty(propertyValueMap)) {
             for (Map.Entry<String, AbstractPropertyValue> propertyValueEntry : propertyValueMap.entrySet()) {
                 String propertyName = propertyValueEntry.getKey();
                 AbstractPropertyValue propertyValue = propertyValueEntry.getValue();
                 if (propertyValue instanceof ScalarPropertyValue) {
                     String propertyTextValue = ((ScalarPropertyValue) propertyValue).getValue();
-                    checkProperty(nodePrefix, propertyName, propertyTextValue, type, elementId, context);
+                    checkProperty(nodePrefix, propertyName, propertyTextValue, type, elementId, context, indexes);
                 }
             }
         }
     }
 
+    /**
+     * Check the property values of an archive against the existing suggestions and add the new values to the suggestions.
+     * <p>
+     * Suggestion entries are loaded and indexed in memory once for the whole archive and the added values are saved at the end of the processing.
+     *
+     * @param parsingResult The result of the parsing of the archive.
+     */
     public void postProcessSuggestionFromArchive(ParsingResult<ArchiveRoot> parsingResult) {
+        Map<String, SuggestionIndex> indexes = new HashMap<>();
+        try {
+            postProcessSuggestionFromArchive(parsingResult, indexes);
+        } finally {
+            saveModifiedEntries(indexes);
+        }
+    }
+
+    private void postProcessSuggestionFromArchive(ParsingResult<ArchiveRoot> parsingResult, Map<String, SuggestionIndex> indexes) {
         ArchiveRoot archiveRoot = parsingResult.getResult();
         ParsingContext context = parsingResult.getContext();
         if (archiveRoot.hasToscaTopologyTemplate()) {
@@ -170,7 +264,7 @@ public class SuggestionService {
                 NodeTemplate nodeTemplate = nodeTemplateEntry.getValue();
                 String nodeName = nodeTemplateEntry.getKey();
                 if (MapUtils.isNotEmpty(nodeTemplate.getProperties())) {
-                    checkProperties(nodeName, nodeTemplate.getProperties(), NodeType.class, nodeTemplate.getType(), context);
+                    checkProperties(nodeName, nodeTemplate.getProperties(), NodeType.class, nodeTemplate.getType(), context, indexes);
                 }
                 Map<String, Capability> capabilityMap = nodeTemplate.getCapabilities();
                 if (MapUtils.isNotEmpty(capabilityMap)) {
@@ -179,7 +273,7 @@ public class SuggestionService {
                         Capability capability = capabilityEntry.getValue();
                         if (MapUtils.isNotEmpty(capability.getProperties())) {
                             checkProperties(nodeName + ".capabilities." + capabilityName, capability.getProperties(), CapabilityType.class,
-                                    capability.getType(), context);
+                                    capability.getType(), context, indexes);
                         }
                     }
                 }
@@ -190,7 +284,7 @@ public class SuggestionService {
                         RelationshipTemplate relationship = relationshipEntry.getValue();
                         if (MapUtils.isNotEmpty(relationship.getProperties())) {
                             checkProperties(nodeName + ".relationships." + relationshipName, relationship.getProperties(), RelationshipType.class,
-                                    relationship.getType(), context);
+                                    relationship.getType(), context, indexes);
                         }
                     }
                 }
@@ -212,7 +306,7 @@ public class SuggestionService {
                                         for (Map.Entry<String, List<PropertyConstraint>> constraintEntry : filterDefinition.getProperties().entrySet()) {
                                             List<PropertyConstraint> constraints = constraintEntry.getValue();
                                             checkPropertyConstraints("node_filter.capabilities", CapabilityType.class, capabilityFilterEntry.getKey(),
-                                                    constraintEntry.getKey(), constraints, context);
+                                                    constraintEntry.getKey(), constraints, context, indexes);
                                         }
                                     }
                                 }
@@ -232,9 +326,11 @@ public class SuggestionService {
      * @param initialValues the initial values
      * @param elementId element id
      * @param propertyName property's name
+     * @return the created suggestion entry
      */
-    public void createSuggestionEntry(String index, Class<? extends AbstractToscaType> type, Set<String> initialValues, String elementId, String propertyName) {
-        createSuggestionEntry(index, type.getSimpleName().toLowerCase(), initialValues, elementId, propertyName);
+    public SuggestionEntry createSuggestionEntry(String index, Class<? extends AbstractToscaType> type, Set<String> initialValues, String elementId,
+            String propertyName) {
+        return createSuggestionEntry(index, type.getSimpleName().toLowerCase(), initialValues, elementId, propertyName);
     }
 
     /**
@@ -244,8 +340,9 @@ public class SuggestionService {
      * @param initialValues the initial values
      * @param elementId element id
      * @param propertyName property's name
+     * @return the created suggestion entry
      */
-    public void createSuggestionEntry(String index, String type, Set<String> initialValues, String elementId, String propertyName) {
+    public SuggestionEntry createSuggestionEntry(String index, String type, Set<String> initialValues, String elementId, String propertyName) {
         SuggestionEntry suggestionEntry = new SuggestionEntry();
         suggestionEntry.setEsIndex(index);
         suggestionEntry.setEsType(type);
@@ -254,6 +351,7 @@ public class SuggestionService {
         suggestionEntry.setTargetProperty(propertyName);
         alienDAO.save(suggestionEntry);
         setSuggestionIdOnPropertyDefinition(suggestionEntry);
+        return suggestionEntry;
     }
 
     /**
@@ -264,30 +362,32 @@ public class SuggestionService {
     }
 
     private void checkPropertyConstraints(String prefix, Class<? extends AbstractInheritableToscaType> type, String elementId, String propertyName,
-            List<PropertyConstraint> constraints, ParsingContext context) {
+            List<PropertyConstraint> constraints, ParsingContext context, Map<String, SuggestionIndex> indexes) {
         if (constraints != null && !constraints.isEmpty()) {
             for (PropertyConstraint propertyConstraint : constraints) {
                 if (propertyConstraint instanceof EqualConstraint) {
                     EqualConstraint equalConstraint = (EqualConstraint) propertyConstraint;
                     String valueToCheck = equalConstraint.getEqual();
-                    if (checkProperty(prefix, propertyName, valueToCheck, type, elementId, context) == null) {
-                        createSuggestionEntry(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, CapabilityType.class, Sets.newHashSet(valueToCheck), elementId,
+                    if (checkProperty(prefix, propertyName, valueToCheck, type, elementId, context, indexes) == null) {
+                        AbstractSuggestionEntry suggestionEntry = createOrMergeSuggestionEntry(CapabilityType.class, Sets.newHashSet(valueToCheck), elementId,
                                 propertyName);
+                        indexes.put(suggestionEntry.getId(), new SuggestionIndex(suggestionEntry));
                     }
                 } else if (propertyConstraint instanceof ValidValuesConstraint) {
                     ValidValuesConstraint validValuesConstraint = (ValidValuesConstraint) propertyConstraint;
                     if (validValuesConstraint.getValidValues() != null && !validValuesConstraint.getValidValues().isEmpty()) {
                         AbstractSuggestionEntry foundSuggestion = null;
                         for (String valueToCheck : validValuesConstraint.getValidValues()) {
-                            foundSuggestion = checkProperty(prefix, propertyName, valueToCheck, type, elementId, context);
+                            foundSuggestion = checkProperty(prefix, propertyName, valueToCheck, type, elementId, context, indexes);
                             if (foundSuggestion == null) {
                                 // No suggestion exists don't need to check any more for other values
                                 break;
                             }
                         }
                         if (foundSuggestion == null) {
-                            createSuggestionEntry(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, CapabilityType.class,
+                            AbstractSuggestionEntry suggestionEntry = createOrMergeSuggestionEntry(CapabilityType.class,
                                     Sets.newHashSet(validValuesConstraint.getValidValues()), elementId, propertyName);
+                            indexes.put(suggestionEntry.getId(), new SuggestionIndex(suggestionEntry));
                         }
                     }
                 }
@@ -295,6 +395,34 @@ public class SuggestionService {
         }
     }
 
+    /**
+     * Create the suggestion entry of a property checked while importing an archive. If a concurrent import created the entry meanwhile the values are added to
+     * the existing entry rather than overriding it.
+     *
+     * @return The created or updated suggestion entry.
+     */
+    private AbstractSuggestionEntry createOrMergeSuggestionEntry(Class<? extends AbstractToscaType> type, Set<String> values, String elementId,
+            String propertyName) {
+        String suggestionId = SuggestionEntry.generateId(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, type.getSimpleName().toLowerCase(), elementId, propertyName);
+        Lock lock = entryLocks.getUnchecked(suggestionId);
+        lock.lock();
+        try {
+            AbstractSuggestionEntry existingEntry = alienDAO.findById(AbstractSuggestionEntry.class, suggestionId);
+            if (existingEntry == null) {
+                return createSuggestionEntry(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, type, values, elementId, propertyName);
+            }
+            if (existingEntry.getSuggestions() == null) {
+                existingEntry.setSuggestions(Sets.<String> newHashSet());
+            }
+            if (existingEntry.getSuggestions().addAll(values)) {
+                alienDAO.save(existingEntry);
+            }
+            return existingEntry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Add the suggestion ID of the new suggestionEntry to the appropriate propertyDefinition.
      * 
@@ -341,19 +469,25 @@ public class SuggestionService {
     }
 
     public void addSuggestionValueToSuggestionEntry(String suggestionId, String newValue) {
-        AbstractSuggestionEntry suggestion = alienDAO.findById(AbstractSuggestionEntry.class, suggestionId);
-        if (suggestion == null) {
-            throw new NotFoundException("Suggestion entry [" + suggestionId + "] cannot be found");
-        }
-        // TODO: should check the format of new value
-        if (suggestion.getSuggestions().contains(newValue)) {
-            return;
+        Lock lock = entryLocks.getUnchecked(suggestionId);
+        lock.lock();
+        try {
+            AbstractSuggestionEntry suggestion = alienDAO.findById(AbstractSuggestionEntry.class, suggestionId);
+            if (suggestion == null) {
+                throw new NotFoundException("Suggestion entry [" + suggestionId + "] cannot be found");
+            }
+            // TODO: should check the format of new value
+            if (suggestion.getSuggestions().contains(newValue)) {
+                return;
+            }
+            suggestion.getSuggestions().add(newValue);
+            alienDAO.save(suggestion);
+        } finally {
+            lock.unlock();
         }
-        suggestion.getSuggestions().add(newValue);
-        alienDAO.save(suggestion);
     }
 
-    private String normalizeTextForMatching(String value) {
+    static String normalizeTextForMatching(String value) {
         if (value == null) {
             return "";
         }
@@ -380,8 +514,11 @@ public class SuggestionService {
     }
 
     private MatchedSuggestion getMatch(String suggestion, String normalizedValue, double minJarowinkler) {
+        return getMatch(suggestion, normalizeTextForMatching(suggestion), normalizedValue, minJarowinkler);
+    }
+
+    private MatchedSuggestion getMatch(String suggestion, String normalizedSuggestion, String normalizedValue, double minJarowinkler) {
         // Compute the match score between the suggestion and the normalized value
-        String normalizedSuggestion = normalizeTextForMatching(suggestion);
         double distance = StringUtils.getJaroWinklerDistance(normalizedValue, normalizedSuggestion);
         if (distance == 1 && !normalizedValue.equals(normalizedSuggestion)) {
             distance = 0.999;
@@ -393,15 +530,35 @@ public class SuggestionService {
         }
     }
 
-    public PriorityQueue<MatchedSuggestion> getJaroWinklerMatchedSuggestions(Set<String> allSuggestions, String input, double minJaroWinkler) {
-        String normalizedInput = normalizeTextForMatching(input);
+    private PriorityQueue<MatchedSuggestion> newMatchedSuggestionsQueue() {
         // The priority queue is here is to see what is the value that matches the suggestion the most
-        PriorityQueue<MatchedSuggestion> matchedSuggestions = new PriorityQueue<>(10, Collections.reverseOrder(new Comparator<MatchedSuggestion>() {
+        return new PriorityQueue<>(10, Collections.reverseOrder(new Comparator<MatchedSuggestion>() {
             @Override
             public int compare(MatchedSuggestion o1, MatchedSuggestion o2) {
                 return o1.priority.compareTo(o2.priority);
             }
         }));
+    }
+
+    /**
+     * Match an input against the values of an indexed suggestion entry. Only the candidates returned by the index are scored (see {@link SuggestionIndex} for
+     * the pruning rules).
+     */
+    private PriorityQueue<MatchedSuggestion> getJaroWinklerMatchedSuggestions(SuggestionIndex suggestionIndex, String input, double minJaroWinkler) {
+        String normalizedInput = normalizeTextForMatching(input);
+        PriorityQueue<MatchedSuggestion> matchedSuggestions = newMatchedSuggestionsQueue();
+        for (Map.Entry<String, String> candidate : suggestionIndex.getCandidates(normalizedInput).entrySet()) {
+            MatchedSuggestion matchedSuggestion = getMatch(candidate.getKey(), candidate.getValue(), normalizedInput, minJaroWinkler);
+            if (matchedSuggestion != null) {
+                matchedSuggestions.add(matchedSuggestion);
+            }
+        }
+        return matchedSuggestions;
+    }
+
+    public PriorityQueue<MatchedSuggestion> getJaroWinklerMatchedSuggestions(Set<String> allSuggestions, String input, double minJaroWinkler) {
+        String normalizedInput = normalizeTextForMatching(input);
+        PriorityQueue<MatchedSuggestion> matchedSuggestions = newMatchedSuggestionsQueue();
         // Process matched text with its score
         for (String suggestion : allSuggestions) {
             MatchedSuggestion matchedSuggestion = getMatch(suggestion, normalizedInput, minJaroWinkler);
@@ -24,6 +24,8 @@ import lombok.Setter;
 public class TopologyDTO extends AbstractTopologyDTO<Topology> {
     private TreeNode archiveContentTree;
     private int lastOperationIndex;
+    /** Revision of the topology in its edition context, to be sent as base revision by delta clients. */
+    private long revision;
     private List<AbstractEditorOperation> operations;
     private String delegateType;
     private List<DependencyConflictDTO> dependencyConflicts;
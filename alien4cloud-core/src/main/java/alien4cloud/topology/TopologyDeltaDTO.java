@@ -0,0 +1,50 @@
+package alien4cloud.topology;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+
+import alien4cloud.utils.TreeNode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Incremental response to an editor request. It contains only the node templates and topology sections that changed since the revision of the topology known
+ * by the client (sent as base revision with the request) and the types used by the changed node templates (in the inherited types maps, the topology itself
+ * is never set).
+ *
+ * When the delta cannot be computed from the client state (unknown base revision or another client changed the topology since), fullResync is true and
+ * fullTopology contains the whole topology dto.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TopologyDeltaDTO extends AbstractTopologyDTO<Topology> {
+    /** The id of the operation on which the edition cursor is after the request, null if no operations are applied. */
+    private String lastOperationId;
+    private int lastOperationIndex;
+    /** Revision of the topology after the request, to be sent as base revision with the next request. */
+    private long revision;
+    /** Index in the operations list of the first operation of the operations field, the client must replace its operations from this index. */
+    private int operationsFromIndex;
+    /** Operations added since the last response. */
+    private List<AbstractEditorOperation> operations;
+    /** True if the client must replace its topology with the fullTopology. */
+    private boolean fullResync;
+    private TopologyDTO fullTopology;
+    /** Node templates that have been added or updated, by name. */
+    private Map<String, NodeTemplate> updatedNodeTemplates;
+    /** Names of the node templates that have been removed. */
+    private Set<String> removedNodeTemplates;
+    /** Other topology sections that changed (inputs, groups, workflows etc.) by property name, a null value means that the section has been removed. */
+    private Map<String, Object> updatedSections;
+    /** The archive content tree, set only if it changed. */
+    private TreeNode archiveContentTree;
+    /** Validation state of the topology after the request, set only if the client requested it. */
+    private TopologyValidationResult validation;
+}
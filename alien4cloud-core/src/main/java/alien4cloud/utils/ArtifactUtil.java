@@ -3,6 +3,7 @@ package alien4cloud.utils;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -32,6 +33,25 @@ public class ArtifactUtil {
         }
     }
 
+    /**
+     * Share csars artifacts with a new location without tosca yaml and without meta data as .git: artifact files are hard linked (or copied if the file
+     * system doesn't support links) so that unchanged artifacts are stored only once whatever the number of archive versions that use them.
+     *
+     * @param originalCSARPath original csar path
+     * @param newCSARPath new csar path
+     * @throws IOException if problem with underlying file system
+     */
+    public static void linkCsarArtifacts(Path originalCSARPath, Path newCSARPath) throws IOException {
+        try (DirectoryStream<Path> topologyResources = Files.newDirectoryStream(originalCSARPath)) {
+            for (Path topologyResource : topologyResources) {
+                String fileName = topologyResource.getFileName().toString();
+                if (!fileName.equals(".git") && !fileName.endsWith(".yml") && !fileName.endsWith(".yaml")) {
+                    FileUtil.linkOrCopy(topologyResource, newCSARPath.resolve(fileName));
+                }
+            }
+        }
+    }
+
     private static void setArtifactToCorrectArchiveReference(AbstractArtifact artifact, Topology topology, Csar csar) {
         if (topology.getArchiveName().equals(artifact.getArchiveName()) && topology.getArchiveVersion().equals(artifact.getArchiveVersion())) {
             // Must migrate to new reference
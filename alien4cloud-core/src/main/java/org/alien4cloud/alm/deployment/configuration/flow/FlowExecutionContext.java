@@ -95,6 +95,19 @@ public class FlowExecutionContext {
         return Optional.of(config);
     }
 
+    /**
+     * Get the version of a configuration object related to the deployment flow so that cacheable modifiers can include it in the fingerprint of their inputs.
+     *
+     * @param cfgClass The class of the configuration object.
+     * @param modifierName Name of the modifier that tries to access a deployment configuration object (related to the environment).
+     * @param <T> The type of the configuraiton object.
+     * @return The version of the configuration object based on its last update date.
+     */
+    public <T extends AbstractDeploymentConfig> String getConfigurationVersion(Class<T> cfgClass, String modifierName) {
+        return cfgClass.getSimpleName() + ":"
+                + getConfiguration(cfgClass, modifierName).map(config -> String.valueOf(config.getLastUpdateDate().getTime())).orElse("none");
+    }
+
     /**
      * Counterparty method of the getConfiguration to actually update a configuration both in elasticsearch and the local configuration cache.
      * 
@@ -1,6 +1,10 @@
 package org.alien4cloud.alm.deployment.configuration.flow;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -19,14 +23,35 @@ import org.alien4cloud.alm.deployment.configuration.flow.modifiers.PostMatchingN
 import org.alien4cloud.alm.deployment.configuration.flow.modifiers.PreDeploymentTopologyValidator;
 import org.alien4cloud.alm.deployment.configuration.flow.modifiers.SubstitutionCompositionModifier;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 
+import alien4cloud.dao.ElasticSearchMapper;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.events.AlienEvent;
 import alien4cloud.model.application.Application;
 import alien4cloud.model.application.ApplicationEnvironment;
+import alien4cloud.model.deployment.matching.LocationMatch;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.topology.task.AbstractTask;
+import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Execute a flow in order to convert a topology into a ready to deploy topology. Flow consist of the processing of multiple Topology Modifiers that takes a
@@ -45,9 +70,26 @@ import alien4cloud.tosca.context.ToscaContextual;
  * </ul>
  * 
  * Note that any flow element may interrupt the flow if some errors are triggered. Any flow element may also add some warnings.
+ *
+ * The results of the first {@link ICacheableTopologyModifier}s of the deployment flow are cached so that only the modifiers impacted by a change are processed
+ * again. The key of the result of a modifier is computed from the key of the topology given to the modifier (the key of the result of the previous modifier
+ * or, for the first one, the id and last update date of the initial topology) and from the fingerprint of the other modifier inputs. Any alien event (archive,
+ * service, location resource or permission change etc.) invalidates all the cached results.
  */
+@Slf4j
 @Component
 public class FlowExecutor {
+    /** Types of the generic values that the cacheable modifiers put in the execution cache. */
+    private static final Map<String, TypeReference<?>> EXECUTION_CACHE_TYPES = ImmutableMap.of(FlowExecutionContext.LOCATION_MATCH_CACHE_KEY,
+            new TypeReference<List<LocationMatch>>() {
+            }, FlowExecutionContext.DEPLOYMENT_LOCATIONS_MAP_CACHE_KEY, new TypeReference<Map<String, Location>>() {
+            }, FlowExecutionContext.MATCHING_PER_NODE_LOC_RES_TEMPLATES, new TypeReference<Map<String, List<LocationResourceTemplate>>>() {
+            }, FlowExecutionContext.MATCHED_LOCATION_RESOURCE_TEMPLATES, new TypeReference<Map<String, LocationResourceTemplate>>() {
+            }, FlowExecutionContext.MATCHED_LOCATION_RESOURCE_TEMPLATE_IDS_PER_NODE, new TypeReference<Map<String, Set<String>>>() {
+            });
+
+    private final ObjectMapper topologyMapper = ElasticSearchMapper.getInstance();
+
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
     @Inject
@@ -75,11 +117,24 @@ public class FlowExecutor {
     @Inject
     private PreDeploymentTopologyValidator preDeploymentTopologyValidator;
 
+    @Value("${deployment_flow_cache.max_size:200}")
+    private long flowCacheMaxSize;
+
     private List<ITopologyModifier> topologyModifiers;
+    /** Results of the cacheable modifiers of the deployment flow by fingerprint of the flow until the modifier (included). */
+    private Cache<String, ModifierResult> modifierResults;
+    /** Incremented on every alien event so that results computed before an event are not reused. */
+    private final AtomicLong generation = new AtomicLong();
 
     @PostConstruct
     private void initModifiers() {
         topologyModifiers = getDefaultFlowModifiers();
+        modifierResults = CacheBuilder.newBuilder().maximumSize(flowCacheMaxSize).build();
+    }
+
+    @EventListener
+    public void onAlienEvent(AlienEvent event) {
+        generation.incrementAndGet();
     }
 
     /**
@@ -133,10 +188,142 @@ public class FlowExecutor {
     @ToscaContextual
     public FlowExecutionContext executeDeploymentFlow(Topology topology, Application application, ApplicationEnvironment environment) {
         FlowExecutionContext executionContext = new FlowExecutionContext(alienDAO, topology, new EnvironmentContext(application, environment));
-        execute(topologyModifiers, executionContext);
+        List<String> fingerprints = getCacheableFingerprints(topologyModifiers, executionContext);
+        int start = restoreCachedResult(fingerprints, executionContext);
+        for (int i = start; i < topologyModifiers.size(); i++) {
+            topologyModifiers.get(i).process(executionContext.getTopology(), executionContext);
+            if (!executionContext.log().isValid()) {
+                // In case of errors we don't process the flow further.
+                return executionContext;
+            }
+            if (i < fingerprints.size()) {
+                cacheResult(fingerprints.get(i), executionContext);
+            }
+        }
         return executionContext;
     }
 
+    /**
+     * Compute the fingerprints of the flow after each of the first cacheable modifiers.
+     *
+     * @return The fingerprints of the flow until each cacheable modifier (included), the list stops at the first modifier that is not cacheable.
+     */
+    private List<String> getCacheableFingerprints(List<ITopologyModifier> modifiers, FlowExecutionContext context) {
+        List<String> fingerprints = Lists.newArrayList();
+        if (flowCacheMaxSize <= 0) {
+            return fingerprints;
+        }
+        // the result of a modifier only depends on the topology it receives and on its other inputs, the topology received by a modifier being the result of
+        // the previous ones it is identified by the fingerprint of the flow until the previous modifier.
+        String topologyFingerprint = getInitialTopologyFingerprint(context.getTopology());
+        for (ITopologyModifier modifier : modifiers) {
+            if (!(modifier instanceof ICacheableTopologyModifier)) {
+                break;
+            }
+            String inputsFingerprint = ((ICacheableTopologyModifier) modifier).getInputsFingerprint(context.getTopology(), context);
+            if (inputsFingerprint == null) {
+                break;
+            }
+            topologyFingerprint = Hashing.murmur3_128().hashUnencodedChars(topologyFingerprint + "/" + modifier.getClass().getName() + "/" + inputsFingerprint)
+                    .toString();
+            fingerprints.add(topologyFingerprint);
+        }
+        return fingerprints;
+    }
+
+    private String getInitialTopologyFingerprint(Topology topology) {
+        String fingerprint;
+        if (topology.getId() != null && topology.getLastUpdateDate() != null) {
+            // topologies are saved with a new update date so there is no need to hash their content.
+            fingerprint = topology.getId() + ":" + topology.getLastUpdateDate().getTime();
+        } else {
+            fingerprint = Hashing.murmur3_128().hashBytes(serialize(topology)).toString();
+        }
+        return generation.get() + "/" + fingerprint;
+    }
+
+    private void cacheResult(String fingerprint, FlowExecutionContext context) {
+        ModifierResult result;
+        try {
+            result = ModifierResult.capture(context, serialize(context.getTopology()), serializeExecutionCache(context.getExecutionCache()));
+        } catch (IllegalStateException e) {
+            log.debug("Deployment flow result cannot be cached: {}", e.getMessage());
+            return;
+        } catch (Exception e) {
+            log.warn("Unable to serialize the deployment flow result, it will not be cached.", e);
+            return;
+        }
+        modifierResults.put(fingerprint, result);
+    }
+
+    /**
+     * Restore the result of the last cached modifier in the context.
+     *
+     * @return The index of the first modifier to process.
+     */
+    private int restoreCachedResult(List<String> fingerprints, FlowExecutionContext context) {
+        for (int i = fingerprints.size() - 1; i >= 0; i--) {
+            ModifierResult result = modifierResults.getIfPresent(fingerprints.get(i));
+            if (result != null) {
+                log.debug("Reuse cached deployment flow result until modifier {}", i);
+                // the topology instance is updated as callers may keep a reference on it.
+                BeanUtils.copyProperties(deserialize(result.topology), context.getTopology());
+                ToscaContext.get().resetDependencies(context.getTopology().getDependencies());
+                context.getExecutionCache().putAll(deserializeExecutionCache(result.executionCache));
+                result.restore(context);
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    @SneakyThrows
+    private byte[] serialize(Topology topology) {
+        return topologyMapper.writeValueAsBytes(topology);
+    }
+
+    @SneakyThrows
+    private Topology deserialize(byte[] topology) {
+        return topologyMapper.readValue(topology, Topology.class);
+    }
+
+    /**
+     * Serialize the entries of the execution cache so that the cached result is a deep copy that cannot be altered by the next modifiers or by the callers.
+     *
+     * @throws IllegalStateException if the type of an entry cannot be restored from its serialized value.
+     */
+    @SneakyThrows
+    private Map<String, CachedValue> serializeExecutionCache(Map<String, Object> executionCache) {
+        Map<String, CachedValue> serialized = Maps.newHashMap();
+        for (Map.Entry<String, Object> entry : executionCache.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                serialized.put(entry.getKey(), null);
+                continue;
+            }
+            JavaType type;
+            if (EXECUTION_CACHE_TYPES.containsKey(entry.getKey())) {
+                type = topologyMapper.getTypeFactory().constructType(EXECUTION_CACHE_TYPES.get(entry.getKey()));
+            } else if (value instanceof Iterable || value instanceof Map) {
+                throw new IllegalStateException("unknown element type of the execution cache entry <" + entry.getKey() + ">");
+            } else {
+                type = topologyMapper.getTypeFactory().constructType(value.getClass());
+            }
+            serialized.put(entry.getKey(), new CachedValue(type, topologyMapper.writeValueAsBytes(value)));
+        }
+        return serialized;
+    }
+
+    @SneakyThrows
+    private Map<String, Object> deserializeExecutionCache(Map<String, CachedValue> executionCache) {
+        Map<String, Object> deserialized = Maps.newHashMap();
+        for (Map.Entry<String, CachedValue> entry : executionCache.entrySet()) {
+            CachedValue value = entry.getValue();
+            deserialized.put(entry.getKey(), value == null ? null : topologyMapper.readValue(value.value, value.type));
+        }
+        return deserialized;
+    }
+
     @ToscaContextual
     public void execute(Topology topology, List<ITopologyModifier> modifiers, FlowExecutionContext context) {
         execute(modifiers, context);
@@ -151,4 +338,38 @@ public class FlowExecutor {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Serialized value of the execution cache.
+     */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class CachedValue {
+        private final JavaType type;
+        private final byte[] value;
+    }
+
+    /**
+     * State of the flow execution context after the processing of a cacheable modifier.
+     */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class ModifierResult {
+        /** Serialized topology so that the cached state cannot be altered by the next modifiers. */
+        private final byte[] topology;
+        /** Serialized execution cache entries for the same reason. */
+        private final Map<String, CachedValue> executionCache;
+        private final List<AbstractTask> infos;
+        private final List<AbstractTask> warnings;
+        private final Date lastFlowParamUpdate;
+
+        private static ModifierResult capture(FlowExecutionContext context, byte[] topology, Map<String, CachedValue> executionCache) {
+            return new ModifierResult(topology, executionCache, Lists.newArrayList(context.log().getInfos()), Lists.newArrayList(context.log().getWarnings()),
+                    context.getLastFlowParamUpdate());
+        }
+
+        private void restore(FlowExecutionContext context) {
+            context.log().getInfos().addAll(infos);
+            context.log().getWarnings().addAll(warnings);
+            context.setLastFlowParamUpdate(lastFlowParamUpdate);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.alien4cloud.alm.deployment.configuration.flow;
+
+import org.alien4cloud.tosca.model.templates.Topology;
+
+/**
+ * A topology modifier whose result can be reused by the {@link FlowExecutor} when neither the topology it receives nor the other inputs it depends on have
+ * changed since a previous execution.
+ *
+ * The topology received by the modifier is identified by the flow executor (from the initial topology and the inputs fingerprints of the previous modifiers)
+ * so that it must not be part of the inputs fingerprint. Note that a cacheable modifier result is reused only if all the previous modifiers of the flow are
+ * cacheable too.
+ */
+public interface ICacheableTopologyModifier extends ITopologyModifier {
+    /**
+     * Get a fingerprint of the inputs (other than the topology given to the modifier) that impacts the result of the modifier (environment configuration,
+     * location resources etc.).
+     *
+     * @param topology The initial topology given to the flow.
+     * @param context The flow execution context.
+     * @return The fingerprint of the modifier inputs or null if the result of the modifier cannot be reused for this execution.
+     */
+    String getInputsFingerprint(Topology topology, FlowExecutionContext context);
+}
@@ -5,7 +5,7 @@ import static alien4cloud.utils.AlienUtils.safe;
 import javax.inject.Inject;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.springframework.stereotype.Component;
 
@@ -18,7 +18,7 @@ import alien4cloud.topology.task.AbstractTask;
  * inputs does not have to be provided etc.).
  */
 @Component
-public class EditorTopologyValidator implements ITopologyModifier {
+public class EditorTopologyValidator implements ICacheableTopologyModifier {
     @Inject
     private TopologyValidationService validationService;
 
@@ -32,4 +32,11 @@ public class EditorTopologyValidator implements ITopologyModifier {
             context.log().error(error);
         }
     }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        // validation only depends on the topology it receives, which is identified by the flow executor, and on the types of its dependencies (archives
+        // changes are alien events that invalidate all the results).
+        return "";
+    }
 }
\ No newline at end of file
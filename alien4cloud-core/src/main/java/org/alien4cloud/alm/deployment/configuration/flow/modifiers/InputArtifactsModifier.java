@@ -9,7 +9,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentInputs;
 import org.alien4cloud.tosca.model.definitions.DeploymentArtifact;
 import org.alien4cloud.tosca.model.templates.AbstractTemplate;
@@ -28,7 +28,7 @@ import alien4cloud.utils.InputArtifactUtil;
  * Inject input artifacts into the topology.
  */
 @Component
-public class InputArtifactsModifier implements ITopologyModifier {
+public class InputArtifactsModifier implements ICacheableTopologyModifier {
 
     @Override
     public void process(Topology topology, FlowExecutionContext context) {
@@ -118,4 +118,9 @@ public class InputArtifactsModifier implements ITopologyModifier {
             }
         }
     }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        return context.getConfigurationVersion(DeploymentInputs.class, InputArtifactsModifier.class.getSimpleName());
+    }
 }
@@ -9,7 +9,7 @@ import java.util.Optional;
 import javax.inject.Inject;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentInputs;
 import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
 import org.alien4cloud.tosca.model.definitions.PropertyValue;
@@ -29,7 +29,7 @@ import alien4cloud.topology.task.TaskLevel;
  * Topology modifier that performs input validation
  */
 @Component
-public class InputValidationModifier implements ITopologyModifier {
+public class InputValidationModifier implements ICacheableTopologyModifier {
     @Inject
     private DeploymentInputArtifactValidationService deploymentInputArtifactValidationService;
 
@@ -63,4 +63,9 @@ public class InputValidationModifier implements ITopologyModifier {
             deploymentInputArtifactValidationService.validate(inputsOptional.get());
         }
     }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        return context.getConfigurationVersion(DeploymentInputs.class, InputValidationModifier.class.getSimpleName());
+    }
 }
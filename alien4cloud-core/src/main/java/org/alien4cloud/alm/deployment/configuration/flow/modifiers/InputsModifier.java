@@ -4,11 +4,12 @@ import static alien4cloud.utils.AlienUtils.safe;
 
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import javax.inject.Inject;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentInputs;
 import org.alien4cloud.alm.deployment.configuration.services.InputService;
 import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
@@ -24,8 +25,10 @@ import org.alien4cloud.tosca.utils.FunctionEvaluatorContext;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.deployment.DeploymentInputService;
+import alien4cloud.model.application.Application;
 import alien4cloud.model.application.ApplicationEnvironment;
 import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.utils.TagUtil;
 
 /**
  * Inputs processor modifier performs update of the topology based on inputs provided by the deployer user or from application meta properties and tags values.
@@ -34,7 +37,7 @@ import alien4cloud.model.orchestrators.locations.Location;
  * in the flow.
  */
 @Component
-public class InputsModifier implements ITopologyModifier {
+public class InputsModifier implements ICacheableTopologyModifier {
     @Inject
     private InputService inputService;
     @Inject
@@ -92,6 +95,14 @@ public class InputsModifier implements ITopologyModifier {
         }
     }
 
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        // location meta-properties are part of the location matching fingerprint.
+        Application application = context.getEnvironmentContext().get().getApplication();
+        return context.getConfigurationVersion(DeploymentInputs.class, InputsModifier.class.getSimpleName()) + "/"
+                + new TreeMap<>(safe(application.getMetaProperties())) + "/" + new TreeMap<>(TagUtil.tagListToMap(application.getTags()));
+    }
+
     private void processGetInput(FunctionEvaluatorContext evaluatorContext, AbstractTemplate template, Map<String, AbstractPropertyValue> properties) {
         for (Map.Entry<String, AbstractPropertyValue> propEntry : safe(properties).entrySet()) {
             try {
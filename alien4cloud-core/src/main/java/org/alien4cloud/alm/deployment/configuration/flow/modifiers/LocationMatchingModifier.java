@@ -8,7 +8,7 @@ import javax.inject.Inject;
 
 import alien4cloud.model.application.ApplicationEnvironment;
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentMatchingConfiguration;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.apache.commons.collections4.MapUtils;
@@ -30,7 +30,7 @@ import static alien4cloud.utils.AlienUtils.safe;
  * continue.
  */
 @Component
-public class LocationMatchingModifier implements ITopologyModifier {
+public class LocationMatchingModifier implements ICacheableTopologyModifier {
     @Inject
     private LocationMatchingService locationMatchingService;
     @Inject
@@ -96,6 +96,16 @@ public class LocationMatchingModifier implements ITopologyModifier {
         ToscaContext.get().resetDependencies(topology.getDependencies());
     }
 
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        String matchingFingerprint = locationMatchingService.getMatchingFingerprint(context.getEnvironmentContext().get().getEnvironment());
+        if (matchingFingerprint == null) {
+            return null;
+        }
+        return context.getConfigurationVersion(DeploymentMatchingConfiguration.class, LocationMatchingModifier.class.getSimpleName()) + "/"
+                + matchingFingerprint;
+    }
+
     private void resetMatchingConfiguration(FlowExecutionContext context) {
         ApplicationEnvironment environment = context.getEnvironmentContext()
                 .orElseThrow(() -> new IllegalArgumentException("Input modifier requires an environment context.")).getEnvironment();
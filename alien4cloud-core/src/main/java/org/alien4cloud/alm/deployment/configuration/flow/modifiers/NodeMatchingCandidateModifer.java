@@ -3,11 +3,12 @@ package org.alien4cloud.alm.deployment.configuration.flow.modifiers;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import javax.inject.Inject;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentMatchingConfiguration;
 import org.alien4cloud.tosca.model.templates.LocationPlacementPolicy;
 import org.alien4cloud.tosca.model.templates.NodeGroup;
@@ -19,9 +20,11 @@ import org.springframework.stereotype.Component;
 
 import com.google.common.collect.Maps;
 
+import alien4cloud.deployment.matching.services.nodes.LocationMatchingIndexService;
 import alien4cloud.deployment.matching.services.nodes.NodeMatcherService;
 import alien4cloud.model.orchestrators.locations.Location;
 import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.orchestrators.locations.services.LocationService;
 import alien4cloud.topology.task.LocationPolicyTask;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.utils.AlienConstants;
@@ -32,9 +35,13 @@ import alien4cloud.utils.AlienConstants;
  * It does not update topology or matching configurations, these operations are done in sub-sequent modifiers.
  */
 @Component
-public class NodeMatchingCandidateModifer implements ITopologyModifier {
+public class NodeMatchingCandidateModifer implements ICacheableTopologyModifier {
     @Inject
     private NodeMatcherService nodeMatcherService;
+    @Inject
+    private LocationMatchingIndexService locationMatchingIndexService;
+    @Inject
+    private LocationService locationService;
 
     @Override
     public void process(Topology topology, FlowExecutionContext context) {
@@ -57,6 +64,21 @@ public class NodeMatchingCandidateModifer implements ITopologyModifier {
         context.getExecutionCache().put(FlowExecutionContext.MATCHING_PER_NODE_LOC_RES_TEMPLATES, availableSubstitutions);
     }
 
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        Optional<DeploymentMatchingConfiguration> configurationOptional = context.getConfiguration(DeploymentMatchingConfiguration.class,
+                NodeMatchingCandidateModifer.class.getSimpleName());
+        if (!configurationOptional.isPresent() || MapUtils.isEmpty(configurationOptional.get().getLocationIds())) {
+            return "";
+        }
+        // candidates depend on the location resources, services and authorizations that are all part of the version of the location matching indexes.
+        Map<String, String> indexVersions = new TreeMap<>();
+        for (Location location : locationService.getMultiple(configurationOptional.get().getLocationIds().values()).values()) {
+            indexVersions.put(location.getId(), locationMatchingIndexService.getIndexVersion(location));
+        }
+        return indexVersions.toString();
+    }
+
     private Map<String, List<LocationResourceTemplate>> getAvailableSubstitutions(Topology topology, Map<String, NodeGroup> locationGroups,
             Map<String, Location> locationByIds, String environmentId) {
         // Fetch all node types for templates in the topology
@@ -6,7 +6,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentMatchingConfiguration;
 import org.alien4cloud.tosca.model.templates.Topology;
 
@@ -21,10 +21,10 @@ import org.springframework.stereotype.Component;
 /**
  * This node matching modifier is responsible for automatic selection of location resources that are not yet selected by the user.
  * 
- * It does not update topology or matching configurations, these operations are done in sub-sequent modifiers.
+ * It does not update topology, the matching configuration is saved only if some resources have been selected.
  */
 @Component
-public class NodeMatchingConfigAutoSelectModifier implements ITopologyModifier {
+public class NodeMatchingConfigAutoSelectModifier implements ICacheableTopologyModifier {
     @Override
     public void process(Topology topology, FlowExecutionContext context) {
         Optional<DeploymentMatchingConfiguration> configurationOptional = context.getConfiguration(DeploymentMatchingConfiguration.class,
@@ -43,6 +43,7 @@ public class NodeMatchingConfigAutoSelectModifier implements ITopologyModifier {
                 .get(FlowExecutionContext.MATCHING_PER_NODE_LOC_RES_TEMPLATES);
 
         // Last user substitution may be incomplete or not valid anymore so let's check them and eventually select default values
+        boolean updated = false;
         Map<String, LocationResourceTemplate> allAvailableResourceTemplate = Maps.newHashMap();
         Map<String, Set<String>> locResTemplateIdsPerNodeIds = Maps.newHashMap(); // map of nodeId -> location resource template ids required to create
         // historical deployment topology dto object
@@ -65,6 +66,7 @@ public class NodeMatchingConfigAutoSelectModifier implements ITopologyModifier {
                     // let an info so the user know that we made a default selection for him
                     context.log().info("Automatic substitution update for node <" + entry.getKey() + ">");
                     lastUserSubstitutions.put(entry.getKey(), entry.getValue().iterator().next().getId());
+                    updated = true;
                 }
             }
         }
@@ -74,7 +76,15 @@ public class NodeMatchingConfigAutoSelectModifier implements ITopologyModifier {
         context.getExecutionCache().put(FlowExecutionContext.MATCHED_LOCATION_RESOURCE_TEMPLATE_IDS_PER_NODE, locResTemplateIdsPerNodeIds);
 
         matchingConfiguration.setMatchedLocationResources(lastUserSubstitutions);
-        // TODO Do that only if updated...
-        context.saveConfiguration(matchingConfiguration);
+        if (updated) {
+            // saving on every execution would change the matching configuration version and prevent the deployment flow results to be reused.
+            context.saveConfiguration(matchingConfiguration);
+        }
+    }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        // the matching configuration and the candidates are part of the fingerprint of the previous modifiers.
+        return "";
     }
 }
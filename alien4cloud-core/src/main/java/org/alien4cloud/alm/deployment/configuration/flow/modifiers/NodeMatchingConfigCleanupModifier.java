@@ -7,7 +7,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.alm.deployment.configuration.model.DeploymentMatchingConfiguration;
 import org.alien4cloud.tosca.model.templates.Topology;
 
@@ -19,10 +19,10 @@ import org.springframework.stereotype.Component;
  * This modifier cleanup the user matching configuration in case it is not valid anymore based on the choices available (that must be fetched from prior
  * NodeMatchingCandidateModifier execution).
  * 
- * It does not update topology or matching configurations, these operations are done in sub-sequent modifiers.
+ * It does not update topology, the matching configuration is saved only if some of the user choices have been removed.
  */
 @Component
-public class NodeMatchingConfigCleanupModifier implements ITopologyModifier {
+public class NodeMatchingConfigCleanupModifier implements ICacheableTopologyModifier {
 
     @Override
     public void process(Topology topology, FlowExecutionContext context) {
@@ -42,6 +42,7 @@ public class NodeMatchingConfigCleanupModifier implements ITopologyModifier {
 
         // Last user defined matching choices may not be valid anymore so clean up
         // When the user has removed some mapped nodes from the topology the previous substitution configuration still exits.
+        boolean updated = false;
         Iterator<Entry<String, String>> mappingEntryIterator = lastUserSubstitutions.entrySet().iterator();
         while (mappingEntryIterator.hasNext()) {
             Map.Entry<String, String> entry = mappingEntryIterator.next();
@@ -50,13 +51,24 @@ public class NodeMatchingConfigCleanupModifier implements ITopologyModifier {
             if (availableSubstitutionsForNode == null) {
                 // no options => remove existing mapping
                 mappingEntryIterator.remove();
+                updated = true;
                 // TODO add log
             } else if (!contains(availableSubstitutionsForNode, entry.getValue())) {
                 // If the selected value is not a valid choice anymore then remove it
                 mappingEntryIterator.remove();
+                updated = true;
                 // TODO add log
             }
         }
+        if (updated) {
+            context.saveConfiguration(matchingConfiguration);
+        }
+    }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        // the matching configuration and the candidates are part of the fingerprint of the previous modifiers.
+        return "";
     }
 
     private boolean contains(List<LocationResourceTemplate> availableSubstitutionsForNode, String subtitutionId) {
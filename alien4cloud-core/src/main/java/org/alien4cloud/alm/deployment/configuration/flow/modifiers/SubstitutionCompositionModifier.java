@@ -3,17 +3,17 @@ package org.alien4cloud.alm.deployment.configuration.flow.modifiers;
 import javax.annotation.Resource;
 
 import org.alien4cloud.alm.deployment.configuration.flow.FlowExecutionContext;
-import org.alien4cloud.alm.deployment.configuration.flow.ITopologyModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.ICacheableTopologyModifier;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.springframework.stereotype.Component;
 
 import alien4cloud.application.TopologyCompositionService;
-import org.springframework.stereotype.Component;
 
 /**
  * This modifier process substitution nodes to actually create the expected topology.
  */
 @Component
-public class SubstitutionCompositionModifier implements ITopologyModifier {
+public class SubstitutionCompositionModifier implements ICacheableTopologyModifier {
     @Resource
     private TopologyCompositionService topologyCompositionService;
 
@@ -21,4 +21,10 @@ public class SubstitutionCompositionModifier implements ITopologyModifier {
     public void process(Topology topology, FlowExecutionContext context) {
         topologyCompositionService.processTopologyComposition(topology);
     }
+
+    @Override
+    public String getInputsFingerprint(Topology topology, FlowExecutionContext context) {
+        // substituted topologies of SNAPSHOT archives may be edited without any change in the topology.
+        return topologyCompositionService.getCompositionFingerprint(topology);
+    }
 }
\ No newline at end of file
@@ -66,8 +66,9 @@ public abstract class AbstractToscaIndexSearchService<T> {
                             TopHits topHits = bucket.getAggregations().get("highest_version");
                             for (SearchHit hit : topHits.getHits()) {
                                 resultTypes.add(hit.getType());
-                                resultData.add(
-                                        objectMapper.readValue(hit.getSourceAsString(), ((Function<String, Class>) getClassFromType).apply(hit.getType())));
+                                // read from the source bytes to avoid copying large types into an intermediate String.
+                                resultData.add(objectMapper.readValue(hit.getSourceRef().streamInput(),
+                                        ((Function<String, Class>) getClassFromType).apply(hit.getType())));
                             }
                         }
 
@@ -1,13 +1,18 @@
 package org.alien4cloud.tosca.catalog.index;
 
+import static alien4cloud.utils.AlienUtils.safe;
+
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
-import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.catalog.events.AfterArchiveIndexed;
@@ -23,9 +28,15 @@ import org.alien4cloud.tosca.model.types.AbstractToscaType;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
 import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
 import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
-import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.deployment.DeploymentService;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.model.components.CSARSource;
@@ -51,12 +62,14 @@ import lombok.extern.slf4j.Slf4j;
  * The archive indexer is also responsible for storing or initializing the file repository for the archive and eventually (if the archive is a SNAPSHOT) the
  * local git for editor purpose.
  * </p>
+ * <p>
+ * Imports of different archives are performed concurrently: an import locks its archive (name and version) and, while checking and indexing the types, the
+ * ids of the types it defines so that two archives cannot define the same type concurrently.
+ * </p>
  */
 @Slf4j
 @Component
 public class ArchiveIndexer {
-    @Resource(name = "alien-es-dao")
-    private IGenericSearchDAO alienDAO;
     @Inject
     private ApplicationEventPublisher publisher;
     @Inject
@@ -80,6 +93,14 @@ public class ArchiveIndexer {
     @Inject
     private IArchiveIndexerAuthorizationFilter archiveIndexerAuthorizationFilter;
 
+    /** Locks by archive id and by type id, weakly referenced so that they are released once no import uses them. */
+    private final LoadingCache<String, Lock> locks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, Lock>() {
+        @Override
+        public Lock load(String key) {
+            return new ReentrantLock();
+        }
+    });
+
     /**
      * Check that a CSAR name/version does not already exists in the repository and eventually throw an AlreadyExistException.
      *
@@ -106,8 +127,48 @@ public class ArchiveIndexer {
      * @param topology The topology to be part of the topology.
      * @param topologyPath if the new topology must be created inside this directory to have all its artifacts
      */
+    public void importNewArchive(Csar csar, Topology topology, Path topologyPath) {
+        importNewArchive(csar, topology, yaml -> storeNewArchive(csar, yaml, topologyPath));
+    }
+
+    /**
+     * Import a new empty archive with a topology that shares the artifacts of an existing archive (typically the previous version of an application).
+     * <p>
+     * Only the tosca yaml of the new archive is written, artifacts are shared with the source archive in the file repository.
+     * </p>
+     *
+     * @param csar The archive to be imported.
+     * @param topology The topology to be part of the topology.
+     * @param sourceArchiveName The name of the archive from which to share the artifacts.
+     * @param sourceArchiveVersion The version of the archive from which to share the artifacts.
+     */
+    public void importNewArchive(Csar csar, Topology topology, String sourceArchiveName, String sourceArchiveVersion) {
+        importNewArchive(csar, topology, yaml -> archiveRepositry.copyCSAR(sourceArchiveName, sourceArchiveVersion, csar, yaml));
+    }
+
+    private void importNewArchive(Csar csar, Topology topology, Consumer<String> archiveStorer) {
+        Lock archiveLock = getArchiveLock(csar.getName(), csar.getVersion());
+        archiveLock.lock();
+        try {
+            doImportNewArchive(csar, topology, archiveStorer);
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    private void storeNewArchive(Csar csar, String yaml, Path topologyPath) {
+        if (topologyPath == null) {
+            // This is an empty topology without artifacts
+            archiveRepositry.storeCSAR(csar, yaml);
+        } else {
+            Files.write(topologyPath.resolve(csar.getYamlFilePath()), yaml.getBytes(Charset.forName("UTF-8")));
+            archiveRepositry.storeCSAR(csar, topologyPath);
+        }
+    }
+
     @SneakyThrows
-    public synchronized void importNewArchive(Csar csar, Topology topology, Path topologyPath) {
+    private void doImportNewArchive(Csar csar, Topology topology, Consumer<String> archiveStorer) {
         ArchiveRoot archiveRoot = new ArchiveRoot();
         archiveRoot.setArchive(csar);
         archiveRoot.setTopology(topology);
@@ -132,13 +193,7 @@ public class ArchiveIndexer {
         csarService.save(csar);
         topologyServiceCore.save(topology);
         // Initialize the file repository for the archive
-        if (topologyPath == null) {
-            // This is an empty topology without artifacts
-            archiveRepositry.storeCSAR(csar, yaml);
-        } else {
-            Files.write(topologyPath.resolve(csar.getYamlFilePath()), yaml.getBytes(Charset.forName("UTF-8")));
-            archiveRepositry.storeCSAR(csar, topologyPath);
-        }
+        archiveStorer.accept(yaml);
         topologySubstitutionService.updateSubstitutionType(topology, archiveRoot.getArchive());
         // dispatch event after indexing
         publisher.publishEvent(new AfterArchiveIndexed(this, archiveRoot));
@@ -153,9 +208,20 @@ public class ArchiveIndexer {
      * @param parsingErrors The non-null list of parsing errors in which to add errors.
      * @throws CSARUsedInActiveDeployment
      */
-    public synchronized void importArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
+    public void importArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
             throws CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
         archiveIndexerAuthorizationFilter.checkAuthorization(archiveRoot);
+        Lock archiveLock = getArchiveLock(archiveRoot.getArchive().getName(), archiveRoot.getArchive().getVersion());
+        archiveLock.lock();
+        try {
+            doImportArchive(archiveRoot, source, archivePath, parsingErrors);
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    private void doImportArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
+            throws CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
         String archiveName = archiveRoot.getArchive().getName();
         String archiveVersion = archiveRoot.getArchive().getVersion();
         Csar currentIndexedArchive = csarService.get(archiveName, archiveVersion);
@@ -188,59 +254,102 @@ public class ArchiveIndexer {
         // FIXME If the archive already exists but can be indexed we should actually call an editor operation to keep git tracking, or should we just prevent
         // that ?
 
-        checkIfToscaTypesAreDefinedInOtherArchive(archiveRoot);
+        // lock the types of the archive until they are indexed so that another archive cannot define them concurrently.
+        List<Lock> typeLocks = getTypeLocks(archiveRoot);
+        for (Lock typeLock : typeLocks) {
+            typeLock.lock();
+        }
+        try {
+            checkIfToscaTypesAreDefinedInOtherArchive(archiveRoot);
 
-        // save the archive (before we index and save other data so we can cleanup if anything goes wrong).
-        if (source == null) {
-            source = CSARSource.OTHER;
+            // save the archive (before we index and save other data so we can cleanup if anything goes wrong).
+            if (source == null) {
+                source = CSARSource.OTHER;
+            }
+            archiveRoot.getArchive().setImportSource(source.name());
+            // TODO load transitives dependencies here before saving, as it is not done when parsing
+            csarService.save(archiveRoot.getArchive());
+            log.debug("Imported archive {}", archiveRoot.getArchive().getId());
+
+            // save the archive in the repository
+            archiveRepositry.storeCSAR(archiveRoot.getArchive(), archivePath);
+            // manage images before archive storage in the repository
+            imageLoader.importImages(archivePath, archiveRoot, parsingErrors);
+
+            // index the archive content in elastic-search
+            indexArchiveTypes(archiveName, archiveVersion, archiveRoot.getArchive().getWorkspace(), archiveRoot, currentIndexedArchive);
+        } finally {
+            for (Lock typeLock : Lists.reverse(typeLocks)) {
+                typeLock.unlock();
+            }
         }
-        archiveRoot.getArchive().setImportSource(source.name());
-        // TODO load transitives dependencies here before saving, as it is not done when parsing
-        csarService.save(archiveRoot.getArchive());
-        log.debug("Imported archive {}", archiveRoot.getArchive().getId());
-
-        // save the archive in the repository
-        archiveRepositry.storeCSAR(archiveRoot.getArchive(), archivePath);
-        // manage images before archive storage in the repository
-        imageLoader.importImages(archivePath, archiveRoot, parsingErrors);
-
-        // index the archive content in elastic-search
-        indexArchiveTypes(archiveName, archiveVersion, archiveRoot.getArchive().getWorkspace(), archiveRoot, currentIndexedArchive);
         indexTopology(archiveRoot, parsingErrors, archiveName, archiveVersion);
 
         publisher.publishEvent(new AfterArchiveIndexed(this, archiveRoot));
     }
 
+    private Lock getArchiveLock(String archiveName, String archiveVersion) {
+        return locks.getUnchecked("archive:" + Csar.createId(archiveName, archiveVersion));
+    }
+
     /**
-     * Fail if at least one tosca type defined in the archive is already define in an other archive.
-     *
-     * @param archiveRoot
-     * @throws ToscaTypeAlreadyDefinedInOtherCSAR
+     * Get the locks of the types defined in an archive (and its local imports), sorted by type id so that concurrent imports always lock them in the same
+     * order.
      */
-    private void checkIfToscaTypesAreDefinedInOtherArchive(final ArchiveRoot archiveRoot) throws ToscaTypeAlreadyDefinedInOtherCSAR {
-        failIfOneToscaTypesIsDefinedInOtherArchive(archiveRoot.getNodeTypes());
-        failIfOneToscaTypesIsDefinedInOtherArchive(archiveRoot.getRelationshipTypes());
-        failIfOneToscaTypesIsDefinedInOtherArchive(archiveRoot.getCapabilityTypes());
-        failIfOneToscaTypesIsDefinedInOtherArchive(archiveRoot.getArtifactTypes());
-        failIfOneToscaTypesIsDefinedInOtherArchive(archiveRoot.getDataTypes());
+    private List<Lock> getTypeLocks(ArchiveRoot archiveRoot) {
+        Set<String> typeIds = Sets.newTreeSet();
+        for (AbstractToscaType toscaType : getTypes(archiveRoot, true)) {
+            typeIds.add(toscaType.getId());
+        }
+        List<Lock> typeLocks = Lists.newArrayListWithCapacity(typeIds.size());
+        for (String typeId : typeIds) {
+            typeLocks.add(locks.getUnchecked("type:" + typeId));
+        }
+        return typeLocks;
     }
 
-    private void failIfOneToscaTypesIsDefinedInOtherArchive(Map<String, ? extends AbstractToscaType> toscaTypes) throws ToscaTypeAlreadyDefinedInOtherCSAR {
-        if (toscaTypes == null) {
-            return;
-        }
-        for (AbstractToscaType toscaType : toscaTypes.values()) {
-            failIfToscaTypeIsDefinedInOtherArchive(toscaType);
+    private List<AbstractInheritableToscaType> getTypes(ArchiveRoot root, boolean includeLocalImports) {
+        List<AbstractInheritableToscaType> types = Lists.newArrayList();
+        addTypes(types, root, includeLocalImports);
+        return types;
+    }
+
+    private void addTypes(List<AbstractInheritableToscaType> types, ArchiveRoot root, boolean includeLocalImports) {
+        // order matters as types are indexed in this order.
+        types.addAll(safe(root.getArtifactTypes()).values());
+        types.addAll(safe(root.getCapabilityTypes()).values());
+        types.addAll(safe(root.getNodeTypes()).values());
+        types.addAll(safe(root.getRelationshipTypes()).values());
+        types.addAll(safe(root.getDataTypes()).values());
+        if (includeLocalImports && root.getLocalImports() != null) {
+            for (ArchiveRoot child : root.getLocalImports()) {
+                addTypes(types, child, true);
+            }
         }
     }
 
-    private void failIfToscaTypeIsDefinedInOtherArchive(AbstractToscaType toscaType) throws ToscaTypeAlreadyDefinedInOtherCSAR {
-        if (toscaType == null) {
+    /**
+     * Fail if at least one tosca type defined in the archive is already define in an other archive. All types are checked with a single request.
+     *
+     * @param archiveRoot
+     * @throws ToscaTypeAlreadyDefinedInOtherCSAR
+     */
+    private void checkIfToscaTypesAreDefinedInOtherArchive(final ArchiveRoot archiveRoot) throws ToscaTypeAlreadyDefinedInOtherCSAR {
+        Map<String, AbstractToscaType> toscaTypes = Maps.newLinkedHashMap();
+        for (AbstractToscaType toscaType : getTypes(archiveRoot, false)) {
+            if (toscaType != null) {
+                toscaTypes.put(toscaType.getId(), toscaType);
+            }
+        }
+        if (toscaTypes.isEmpty()) {
             return;
         }
-        AbstractToscaType indexedNodeType = alienDAO.findById(AbstractToscaType.class, toscaType.getId());
-        if (indexedNodeType != null && !toscaType.getArchiveName().equals(indexedNodeType.getArchiveName())) {
-            throw new ToscaTypeAlreadyDefinedInOtherCSAR("Tosca type: " + toscaType.getElementId() + ", version: " + toscaType.getArchiveVersion());
+        Map<String, AbstractToscaType> indexedTypes = indexerService.findIndexedElements(toscaTypes.keySet());
+        for (AbstractToscaType toscaType : toscaTypes.values()) {
+            AbstractToscaType indexedType = indexedTypes.get(toscaType.getId());
+            if (indexedType != null && !toscaType.getArchiveName().equals(indexedType.getArchiveName())) {
+                throw new ToscaTypeAlreadyDefinedInOtherCSAR("Tosca type: " + toscaType.getElementId() + ", version: " + toscaType.getArchiveVersion());
+            }
         }
     }
 
@@ -338,16 +447,7 @@ public class ArchiveIndexer {
     }
 
     private void performIndexing(ArchiveRoot root) {
-        indexerService.indexInheritableElements(root.getArtifactTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getCapabilityTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getNodeTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getRelationshipTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getDataTypes(), root.getArchive().getDependencies());
-
-        if (root.getLocalImports() != null) {
-            for (ArchiveRoot child : root.getLocalImports()) {
-                performIndexing(child);
-            }
-        }
+        // all the types of the archive and its local imports are saved in bulk with a single refresh.
+        indexerService.indexInheritableElements(getTypes(root, true));
     }
 }
\ No newline at end of file
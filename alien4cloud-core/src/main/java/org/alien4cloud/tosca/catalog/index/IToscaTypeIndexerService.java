@@ -48,6 +48,22 @@ public interface IToscaTypeIndexerService {
     void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements,
             Collection<CSARDependency> dependencies);
 
+    /**
+     * Index multiple elements (that may be of different types) into the repository using bulk requests. The index is refreshed once, when all elements have
+     * been saved.
+     *
+     * @param elements The elements to index.
+     */
+    void indexInheritableElements(Collection<? extends AbstractInheritableToscaType> elements);
+
+    /**
+     * Find the elements that are already indexed with the given ids.
+     *
+     * @param ids The ids of the elements to look for.
+     * @return The indexed elements, by id.
+     */
+    Map<String, AbstractToscaType> findIndexedElements(Collection<String> ids);
+
     /**
      * Index a single element into the repository.
      * 
@@ -0,0 +1,93 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.alien4cloud.tosca.catalog.events.AfterArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveIndexed;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
+import org.alien4cloud.tosca.catalog.events.BeforeArchivePromoted;
+import org.alien4cloud.tosca.model.Csar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.tosca.context.SharedToscaTypesCache;
+import alien4cloud.tosca.context.ToscaContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enables the process-wide cache of released TOSCA types used by all {@link ToscaContext} and keeps it consistent with the catalog.
+ * <p>
+ * Archives are invalidated both before and after they are modified: lookups performed while the catalog is being updated may read the previous content, the
+ * second invalidation discards them.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SharedToscaTypesCacheManager {
+    /** Maximum memory (in MB) used by the types of the shared cache, 0 disables the cache. */
+    @Value("${tosca_types_cache.max_memory_mb:64}")
+    private long maxMemoryMb;
+
+    @PostConstruct
+    public void init() {
+        if (maxMemoryMb > 0) {
+            log.info("Enable shared tosca types cache with a maximum memory of {} MB", maxMemoryMb);
+            ToscaContext.setSharedTypesCache(new SharedToscaTypesCache(maxMemoryMb * 1024 * 1024, ElasticSearchMapper.getInstance()));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        ToscaContext.setSharedTypesCache(null);
+    }
+
+    @EventListener
+    public void handleArchiveRemoved(BeforeArchiveDeleted event) {
+        invalidate(event.getArchiveId());
+    }
+
+    @EventListener
+    public void handleArchiveRemovedCompleted(AfterArchiveDeleted event) {
+        invalidate(event.getArchiveId());
+    }
+
+    @EventListener
+    public void handleArchiveUpdated(BeforeArchiveIndexed event) {
+        Csar archive = event.getArchiveRoot().getArchive();
+        invalidate(archive.getName(), archive.getVersion());
+    }
+
+    @EventListener
+    public void handleArchiveUpdateCompleted(AfterArchiveIndexed event) {
+        Csar archive = event.getArchiveRoot().getArchive();
+        invalidate(archive.getName(), archive.getVersion());
+    }
+
+    @EventListener
+    public void handleArchivePromoted(BeforeArchivePromoted event) {
+        invalidate(event.getArchiveId());
+    }
+
+    private void invalidate(String archiveId) {
+        int separatorIndex = archiveId.lastIndexOf(':');
+        invalidate(archiveId.substring(0, separatorIndex), archiveId.substring(separatorIndex + 1));
+    }
+
+    /**
+     * Remove the cached types of an archive. This must be called by services that update the types of an archive without going through the archive indexer
+     * (for example the substitution type of a topology archive).
+     *
+     * @param archiveName The name of the archive.
+     * @param archiveVersion The version of the archive.
+     */
+    public void invalidate(String archiveName, String archiveVersion) {
+        SharedToscaTypesCache cache = ToscaContext.getSharedTypesCache();
+        if (cache != null) {
+            cache.invalidate(archiveName, archiveVersion);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
@@ -16,10 +17,12 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
 import alien4cloud.dao.model.FetchContext;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.images.IImageDAO;
@@ -34,6 +37,9 @@ import org.alien4cloud.tosca.normative.types.ToscaTypes;
  */
 @Service
 public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
+    /** Maximum number of elements saved in a single bulk request. */
+    private static final int BULK_SIZE = 500;
+
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
     @Inject
@@ -82,10 +88,40 @@ public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
 
     @Override
     public void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies) {
-        for (AbstractInheritableToscaType element : safe(archiveElements).values()) {
-            alienDAO.save(element);
+        indexInheritableElements(safe(archiveElements).values());
+    }
+
+    @Override
+    public void indexInheritableElements(Collection<? extends AbstractInheritableToscaType> elements) {
+        if (elements == null || elements.isEmpty()) {
+            return;
         }
-        refreshIndexForSearching();
+        List<AbstractInheritableToscaType> bulk = Lists.newArrayListWithCapacity(Math.min(elements.size(), BULK_SIZE));
+        int remaining = elements.size();
+        for (AbstractInheritableToscaType element : elements) {
+            bulk.add(element);
+            remaining--;
+            if (bulk.size() == BULK_SIZE || remaining == 0) {
+                // only the last bulk refreshes the index so that all elements become searchable at once.
+                RefreshPolicy refreshPolicy = remaining == 0 ? RefreshPolicy.IMMEDIATE : RefreshPolicy.NEAR_REAL_TIME;
+                alienDAO.save(bulk.toArray(new AbstractInheritableToscaType[bulk.size()]), refreshPolicy);
+                bulk.clear();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, AbstractToscaType> findIndexedElements(Collection<String> ids) {
+        Map<String, AbstractToscaType> elementsByIds = Maps.newHashMap();
+        if (ids == null || ids.isEmpty()) {
+            return elementsByIds;
+        }
+        // multi get is realtime, elements indexed by a concurrent import are found even if the index has not been refreshed yet.
+        List<AbstractToscaType> elements = alienDAO.findByIds(AbstractToscaType.class, ids.toArray(new String[ids.size()]));
+        for (AbstractToscaType element : safe(elements)) {
+            elementsByIds.put(element.getId(), element);
+        }
+        return elementsByIds;
     }
 
     @Override
@@ -155,6 +155,15 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
         return getLatestVersionOfElement(elementClass, boolQueryBuilder);
     }
 
+    @Override
+    public <T extends AbstractToscaType> List<T> getElementsInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies) {
+        if (dependencies == null || dependencies.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<T> elements = searchDAO.customFindAll(elementClass, getDependencyQuery(dependencies, "rawElementId", elementId));
+        return elements == null ? new ArrayList<>() : elements;
+    }
+
     @Override
     public <T extends AbstractToscaType> T getRequiredElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies)
             throws NotFoundException {
@@ -7,6 +7,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
 import org.alien4cloud.tosca.model.Csar;
@@ -15,9 +17,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileSystemUtils;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 import alien4cloud.component.repository.exception.CSARDirectoryCreationFailureException;
 import alien4cloud.component.repository.exception.CSARStorageFailureException;
 import alien4cloud.exception.NotFoundException;
+import alien4cloud.utils.ArtifactUtil;
 import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.FileUtil;
 import lombok.Getter;
@@ -28,6 +35,10 @@ import lombok.extern.slf4j.Slf4j;
  * CSAR Repository implementation<br/>
  *
  * Implements {@link ICsarRepositry}
+ * <p>
+ * When the expanded content of an archive is updated the zip is not rebuilt immediately but marked as outdated, it is rebuilt on the next
+ * {@link #getCSAR(String, String)} by a {@link CsarZipBuilder} that compresses only the modified files. Operations are locked per archive.
+ * </p>
  *
  * @author 'Igor Ngouagna'
  */
@@ -38,8 +49,20 @@ import lombok.extern.slf4j.Slf4j;
 public class CsarFileRepository implements ICsarRepositry {
     public static final String CSAR_EXTENSION = "csar";
     private static final String EXPANDED = "expanded";
+    /** Index of the zip entries, used to rebuild the zip incrementally. */
+    private static final String ZIP_INDEX = "zip-index.json";
+    /** Marker file created when the expanded content has been updated since the zip was built. */
+    private static final String ZIP_OUTDATED = "zip.outdated";
     private Path rootPath;
 
+    /** Locks by archive, weakly referenced so that they are released once unused. */
+    private final LoadingCache<String, Lock> locks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, Lock>() {
+        @Override
+        public Lock load(String key) {
+            return new ReentrantLock();
+        }
+    });
+
     @Required
     @Value("${directories.alien}/${directories.csar_repository}")
     public void setRootPath(String path) {
@@ -59,7 +82,17 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void storeCSAR(Csar csar, String yaml) {
+    public void storeCSAR(Csar csar, String yaml) {
+        Lock lock = getLock(csar.getName(), csar.getVersion());
+        lock.lock();
+        try {
+            doStoreCSAR(csar, yaml);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doStoreCSAR(Csar csar, String yaml) {
         Path csarDirectoryPath = rootPath.resolve(csar.getName()).resolve(csar.getVersion());
         String realName = csar.getName().concat("-").concat(csar.getVersion()).concat("." + CSAR_EXTENSION);
         createCSARDirectory(csarDirectoryPath, realName);
@@ -79,11 +112,47 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void storeCSAR(Csar csar, Path tmpPath) {
+    public void copyCSAR(String sourceName, String sourceVersion, Csar csar, String yaml) {
+        Path sourceExpandedPath = getExpandedCSAR(sourceName, sourceVersion);
+        Lock lock = getLock(csar.getName(), csar.getVersion());
+        lock.lock();
+        try {
+            doStoreCSAR(csar, yaml);
+            Path csarDirectoryPath = rootPath.resolve(csar.getName()).resolve(csar.getVersion());
+            Path expandedPath = csarDirectoryPath.resolve(EXPANDED);
+            // the source must not be updated while its files are linked
+            Lock sourceLock = getLock(sourceName, sourceVersion);
+            sourceLock.lock();
+            try {
+                ArtifactUtil.linkCsarArtifacts(sourceExpandedPath, expandedPath);
+            } finally {
+                sourceLock.unlock();
+            }
+            DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
+        } catch (IOException e) {
+            throw new CSARStorageFailureException("Error while trying to store the CSAR: " + csar.getName() + ", Version: " + csar.getVersion() + " from "
+                    + sourceName + ":" + sourceVersion + "...." + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void storeCSAR(Csar csar, Path tmpPath) {
         // check the tmpPath.
         if (!Files.isReadable(tmpPath)) {
             throw new CSARStorageFailureException("CSAR temp location <" + tmpPath.toString() + "> not found or not readable!");
         }
+        Lock lock = getLock(csar.getName(), csar.getVersion());
+        lock.lock();
+        try {
+            doStoreCSAR(csar, tmpPath);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doStoreCSAR(Csar csar, Path tmpPath) {
 
         Path csarDirectoryPath = rootPath.resolve(csar.getName()).resolve(csar.getVersion());
         String realName = csar.getName().concat("-").concat(csar.getVersion()).concat("." + CSAR_EXTENSION);
@@ -113,24 +182,29 @@ public class CsarFileRepository implements ICsarRepositry {
     }
 
     @Override
-    public synchronized void updateFromExpanded(String name, String version) {
+    public void updateFromExpanded(String name, String version) {
         Path csarDirectoryPath = rootPath.resolve(name).resolve(version);
         Path expandedPath = csarDirectoryPath.resolve("expanded");
-        String realName = name.concat("-").concat(version).concat("." + CSAR_EXTENSION);
-        Path csarTargetPath = csarDirectoryPath.resolve(realName);
 
-        // Update the content.json file for archive browsing.
-        Path archiveDirectoryPath = EditionContextManager.get().getLocalGitPath().getParent();
+        Lock lock = getLock(name, version);
+        lock.lock();
         try {
+            // Update the content.json file for archive browsing, the zip is rebuilt only when requested.
             DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
-            FileUtil.zip(expandedPath, csarTargetPath);
+            FileUtil.touch(csarDirectoryPath.resolve(ZIP_OUTDATED));
             EditionContextManager.get().refreshContentTree();
         } catch (IOException e) {
             throw new CSARStorageFailureException("Error while trying to update the CSAR archive: " + name + ", Version: " + version + "...." + e.getMessage(),
                     e);
+        } finally {
+            lock.unlock();
         }
     }
 
+    private Lock getLock(String name, String version) {
+        return locks.getUnchecked(Csar.createId(name, version));
+    }
+
     private void createCSARDirectory(Path csarDirectoryPath, String realName) {
         if (Files.exists(csarDirectoryPath.resolve(realName))) {
             log.info("Overriding CSAR with new one.");
@@ -155,20 +229,31 @@ public class CsarFileRepository implements ICsarRepositry {
         Path csarDir = rootPath.resolve(name).resolve(version);
         Path expandedPath = csarDir.resolve("expanded");
         Path zippedPath = csarDir.resolve(name.concat("-").concat(version).concat("." + CSAR_EXTENSION));
-        if (Files.exists(zippedPath)) {
+        Path outdatedMarkerPath = csarDir.resolve(ZIP_OUTDATED);
+        if (Files.exists(zippedPath) && !Files.exists(outdatedMarkerPath)) {
             return zippedPath;
-        } else if (Files.exists(expandedPath)) {
-            // the csar wasn't stored as a zip file. Zip the expanded dir then
-            try {
-                FileUtil.zip(expandedPath, zippedPath);
+        }
+        if (!Files.exists(expandedPath)) {
+            throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+        }
+
+        Lock lock = getLock(name, version);
+        lock.lock();
+        try {
+            // the zip may have been built while waiting for the lock
+            if (Files.exists(zippedPath) && !Files.exists(outdatedMarkerPath)) {
                 return zippedPath;
-            } catch (IOException e) {
-                log.error("Failed to zip directory " + expandedPath, e);
-                throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
             }
+            // the csar wasn't stored as a zip file or has been updated, (re)build the zip from the expanded dir.
+            new CsarZipBuilder(expandedPath, zippedPath, csarDir.resolve(ZIP_INDEX)).build();
+            Files.deleteIfExists(outdatedMarkerPath);
+            return zippedPath;
+        } catch (IOException e) {
+            log.error("Failed to zip directory " + expandedPath, e);
+            throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+        } finally {
+            lock.unlock();
         }
-
-        throw new NotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
     }
 
     @Override
@@ -184,8 +269,14 @@ public class CsarFileRepository implements ICsarRepositry {
     @Override
     public void removeCSAR(String name, String version) {
         Path csarDirectoryPathOfVersion = rootPath.resolve(name).resolve(version);
-        if (Files.isDirectory(csarDirectoryPathOfVersion)) {
-            FileSystemUtils.deleteRecursively(csarDirectoryPathOfVersion.toFile());
+        Lock lock = getLock(name, version);
+        lock.lock();
+        try {
+            if (Files.isDirectory(csarDirectoryPathOfVersion)) {
+                FileSystemUtils.deleteRecursively(csarDirectoryPathOfVersion.toFile());
+            }
+        } finally {
+            lock.unlock();
         }
 
         // If the csar has no version, delete csar folder
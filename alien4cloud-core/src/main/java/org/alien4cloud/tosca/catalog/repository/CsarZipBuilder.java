@@ -0,0 +1,222 @@
+package org.alien4cloud.tosca.catalog.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import com.google.common.collect.Maps;
+
+import alien4cloud.rest.utils.JsonUtil;
+import alien4cloud.utils.FileUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Build the zip of an expanded archive directory incrementally.
+ * <p>
+ * The content hash (SHA-1), CRC, size and modification date of every zipped file are stored in an index file next to the zip. When the zip is rebuilt, the
+ * compressed data of the entries whose file is unchanged is copied as-is from the previous zip, only new or modified files are compressed. A file is
+ * considered unchanged without being read when its size and modification date match the index, otherwise its hash is computed and compared.
+ * <p>
+ * The new zip is written in a temporary file that atomically replaces the previous one so that readers of the previous zip are not impacted. Callers must
+ * ensure that a zip is not built concurrently.
+ */
+@Slf4j
+public class CsarZipBuilder {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path expandedPath;
+    private final Path zipPath;
+    private final Path indexPath;
+
+    /**
+     * @param expandedPath The directory to zip.
+     * @param zipPath The path of the zip to build (or update).
+     * @param indexPath The path of the file in which to store the state of the zipped entries.
+     */
+    public CsarZipBuilder(Path expandedPath, Path zipPath, Path indexPath) {
+        this.expandedPath = expandedPath;
+        this.zipPath = zipPath;
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Build or update the zip from the current content of the expanded directory.
+     *
+     * @return The number of file entries that have been compressed and of file entries that have been copied from the previous zip.
+     * @throws IOException In case of a failure to read the directory or to write the zip.
+     */
+    public BuildResult build() throws IOException {
+        Map<String, EntryState> previousStates = readIndex();
+        Path tmpZipPath = zipPath.resolveSibling(zipPath.getFileName() + ".tmp");
+        ZipFile previousZip = Files.isRegularFile(zipPath) ? new ZipFile(zipPath.toFile()) : null;
+        ZipEntriesWriter writer;
+        try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpZipPath), BUFFER_SIZE))) {
+            writer = new ZipEntriesWriter(zipOutputStream, previousZip, previousStates);
+            Files.walkFileTree(expandedPath, writer);
+        } finally {
+            if (previousZip != null) {
+                previousZip.close();
+            }
+        }
+        Path tmpIndexPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        Files.write(tmpIndexPath, JsonUtil.toString(writer.states).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmpZipPath, zipPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tmpIndexPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Zip <{}> built, {} entries compressed and {} entries reused", zipPath, writer.result.getCompressedEntries(),
+                writer.result.getReusedEntries());
+        return writer.result;
+    }
+
+    private Map<String, EntryState> readIndex() {
+        if (!Files.isRegularFile(indexPath) || !Files.isRegularFile(zipPath)) {
+            return Maps.newHashMap();
+        }
+        try {
+            return JsonUtil.toMap(new String(Files.readAllBytes(indexPath), StandardCharsets.UTF_8), String.class, EntryState.class);
+        } catch (IOException e) {
+            // entries will be compared on their crc.
+            log.warn("Unable to read zip index <{}>, entries will be compared with the zip content.", indexPath, e);
+            return Maps.newHashMap();
+        }
+    }
+
+    private class ZipEntriesWriter extends SimpleFileVisitor<Path> {
+        private final ZipArchiveOutputStream zipOutputStream;
+        private final ZipFile previousZip;
+        private final Map<String, EntryState> previousStates;
+        private final Map<String, EntryState> states = Maps.newTreeMap();
+        private final BuildResult result = new BuildResult();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private ZipEntriesWriter(ZipArchiveOutputStream zipOutputStream, ZipFile previousZip, Map<String, EntryState> previousStates) {
+            this.zipOutputStream = zipOutputStream;
+            this.previousZip = previousZip;
+            this.previousStates = previousStates;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+            if (!dir.equals(expandedPath)) {
+                zipOutputStream.putArchiveEntry(new ZipArchiveEntry(FileUtil.getChildEntryRelativePath(expandedPath, dir, true)));
+                zipOutputStream.closeArchiveEntry();
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            String entryName = FileUtil.getChildEntryRelativePath(expandedPath, file, true);
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            ZipArchiveEntry previousEntry = previousZip == null ? null : previousZip.getEntry(entryName);
+            EntryState previousState = previousStates.get(entryName);
+
+            EntryState state;
+            if (previousEntry != null && previousState != null && previousState.getSize() == attrs.size() && previousState.getLastModified() == lastModified
+                    && matches(previousEntry, previousState.getSize(), previousState.getCrc())) {
+                // the file has not been touched since it was zipped.
+                state = previousState;
+            } else {
+                state = hash(file, attrs.size(), lastModified);
+                boolean sameContent = previousEntry != null && matches(previousEntry, state.getSize(), state.getCrc())
+                        && (previousState == null || state.getSha1().equals(previousState.getSha1()));
+                if (!sameContent) {
+                    previousEntry = null;
+                }
+            }
+
+            if (previousEntry == null) {
+                ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+                entry.setTime(lastModified);
+                zipOutputStream.putArchiveEntry(entry);
+                try (InputStream input = Files.newInputStream(file)) {
+                    copy(input, zipOutputStream);
+                }
+                zipOutputStream.closeArchiveEntry();
+                result.compressedEntries++;
+            } else {
+                try (InputStream rawInput = previousZip.getRawInputStream(previousEntry)) {
+                    zipOutputStream.addRawArchiveEntry(previousEntry, rawInput);
+                }
+                result.reusedEntries++;
+            }
+            states.put(entryName, state);
+            return FileVisitResult.CONTINUE;
+        }
+
+        private boolean matches(ZipArchiveEntry entry, long size, long crc) {
+            return entry.getSize() == size && entry.getCrc() == crc;
+        }
+
+        private EntryState hash(Path file, long size, long lastModified) throws IOException {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            CRC32 crc = new CRC32();
+            try (InputStream input = Files.newInputStream(file)) {
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    crc.update(buffer, 0, read);
+                }
+            }
+            return new EntryState(DatatypeConverter.printHexBinary(digest.digest()), crc.getValue(), size, lastModified);
+        }
+
+        private void copy(InputStream input, OutputStream output) throws IOException {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * State of a zipped file.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    public static class EntryState {
+        private String sha1;
+        private long crc;
+        private long size;
+        private long lastModified;
+    }
+
+    /**
+     * Statistics of a zip build.
+     */
+    @Getter
+    public static class BuildResult {
+        /** Number of file entries compressed from the expanded directory. */
+        private int compressedEntries;
+        /** Number of file entries copied from the previous zip without being recompressed. */
+        private int reusedEntries;
+    }
+}
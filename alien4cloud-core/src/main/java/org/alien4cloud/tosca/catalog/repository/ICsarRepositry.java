@@ -24,6 +24,17 @@ public interface ICsarRepositry {
      */
     void storeCSAR(Csar csar, Path tmpPath);
 
+    /**
+     * Store a new csar in the repository from the content of the TOSCA yaml file, sharing the artifacts of an existing archive (typically a previous version).
+     * Artifact files are hard linked when possible: files of the expanded content must be replaced and never modified in place.
+     *
+     * @param sourceName The name of the archive from which to share the artifacts.
+     * @param sourceVersion The version of the archive from which to share the artifacts.
+     * @param csar The archive to store.
+     * @param yaml The content of the TOSCA yaml file.
+     */
+    void copyCSAR(String sourceName, String sourceVersion, Csar csar, String yaml);
+
     /**
      * Get a CSAR stored into the repository
      *
@@ -1,11 +1,16 @@
 package org.alien4cloud.tosca.editor;
 
+import static alien4cloud.utils.AlienUtils.safe;
+
 import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.TreeNode;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,6 +20,8 @@ import org.alien4cloud.tosca.editor.operations.RecoverTopologyOperation;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * Topology edition context is related to a specific topology that is currently under edition.
@@ -38,7 +45,7 @@ public class EditionContext {
     /** Path to the topology's local git repository. */
     private Path localGitPath;
     /** The operation under processing if any or null. */
-    private AbstractEditorOperation currentOperation;
+    private volatile AbstractEditorOperation currentOperation;
     /** The index of the operation considered as the last operation (may be in the middle based on undo/redo) */
     private int lastOperationIndex = -1;
     /** The index of the last operation that has been saved (in ES and commit). */
@@ -49,6 +56,18 @@ public class EditionContext {
     private TreeNode archiveContentTree;
     /** List of the operations generated to recover the topology */
     private RecoverTopologyOperation recoveryOperation;
+    /**
+     * In-memory copies of the topology as it was after the operation at the given index (-1 being the last saved topology). Undo restores the closest snapshot
+     * and replays only the operations after it. Snapshots must never be edited, restore works on a clone. The number of snapshots is bounded, the oldest ones
+     * are evicted first but the last saved topology is always kept.
+     */
+    private NavigableMap<Integer, Topology> topologySnapshots = Maps.newTreeMap();
+    /** Incremented each time the topology under edition is modified, delta clients send the revision they know with their requests. */
+    private long topologyRevision;
+    /** Changes of the topology performed by the operation under processing, recorded by the operation processors. */
+    private TopologyChanges operationChanges = new TopologyChanges();
+    /** Changes performed by each operation (by operation id) when it has been executed, used to build the delta responses of undo and redo. */
+    private Map<String, TopologyChanges> changesByOperation = Maps.newHashMap();
 
     /**
      * Create a new instance of a topology edition context from an existing topology.
@@ -78,6 +97,109 @@ public class EditionContext {
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
     }
 
+    /**
+     * Mark the topology as modified.
+     */
+    public void incrementTopologyRevision() {
+        topologyRevision++;
+    }
+
+    /**
+     * Record that the operation under processing added, updated or removed a node template.
+     *
+     * @param nodeTemplateName The name of the node template.
+     */
+    public void markNodeTemplateChanged(String nodeTemplateName) {
+        operationChanges.nodeTemplate(nodeTemplateName);
+    }
+
+    /**
+     * Record that the operation under processing updated the node templates that have a relationship to the given node template.
+     *
+     * @param targetNodeTemplateName The name of the target of the relationships.
+     */
+    public void markRelationshipSourcesChanged(String targetNodeTemplateName) {
+        for (Map.Entry<String, NodeTemplate> nodeTemplateEntry : safe(topology.getNodeTemplates()).entrySet()) {
+            for (RelationshipTemplate relationshipTemplate : safe(nodeTemplateEntry.getValue().getRelationships()).values()) {
+                if (targetNodeTemplateName.equals(relationshipTemplate.getTarget())) {
+                    operationChanges.nodeTemplate(nodeTemplateEntry.getKey());
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Record that the operation under processing updated some sections of the topology.
+     *
+     * @param sectionNames The names of the sections (see {@link TopologyChanges} constants).
+     */
+    public void markSectionChanged(String... sectionNames) {
+        operationChanges.section(sectionNames);
+    }
+
+    /**
+     * Record that the operation under processing may have changed the whole topology.
+     */
+    public void markAllChanged() {
+        operationChanges.all();
+    }
+
+    /**
+     * Get the changes recorded since the last call and start a new change set.
+     *
+     * @return The changes recorded since the last call.
+     */
+    public TopologyChanges takeOperationChanges() {
+        TopologyChanges changes = operationChanges;
+        operationChanges = new TopologyChanges();
+        return changes;
+    }
+
+    /**
+     * Register a snapshot of the topology, evict the oldest snapshots (except the one of the saved topology) if there is more than the given maximum.
+     *
+     * @param operationIndex The index of the last operation applied to the snapshot, -1 if no operations has been applied.
+     * @param topologyClone A clone of the topology that will not be modified anymore.
+     * @param maxSnapshots The maximum number of snapshots to keep in addition to the snapshot of the saved topology.
+     */
+    public void addSnapshot(int operationIndex, Topology topologyClone, int maxSnapshots) {
+        topologySnapshots.put(operationIndex, topologyClone);
+        NavigableMap<Integer, Topology> operationSnapshots = topologySnapshots.tailMap(-1, false);
+        while (operationSnapshots.size() > maxSnapshots) {
+            operationSnapshots.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Drop all snapshots and use the given topology as the base snapshot (before any operation).
+     *
+     * @param topologyClone A clone of the saved topology.
+     */
+    public void resetSnapshots(Topology topologyClone) {
+        topologySnapshots.clear();
+        topologySnapshots.put(-1, topologyClone);
+    }
+
+    /**
+     * Drop the snapshots taken after the given operation index (when the operations to redo are discarded).
+     *
+     * @param operationIndex The index of the last operation to keep.
+     */
+    public void clearSnapshotsAfter(int operationIndex) {
+        topologySnapshots.tailMap(operationIndex, false).clear();
+    }
+
+    /**
+     * Get the most recent snapshot that does not include operations after the given index.
+     *
+     * @param operationIndex The index of the operation.
+     * @return The closest snapshot entry (operation index, topology) or null if none is available.
+     */
+    public Map.Entry<Integer, Topology> getClosestSnapshot(int operationIndex) {
+        return topologySnapshots.floorEntry(operationIndex);
+    }
+
     public void refreshContentTree() throws IOException {
         this.archiveContentTree = DirectoryJSonWalker.getDirectoryTree(this.localGitPath);
     }
@@ -2,18 +2,13 @@ package org.alien4cloud.tosca.editor;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
 import alien4cloud.model.common.Usage;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import org.alien4cloud.tosca.catalog.events.ArchiveUsageRequestEvent;
 import org.alien4cloud.tosca.catalog.events.BeforeArchiveDeleted;
 import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
@@ -27,9 +22,11 @@ import org.alien4cloud.tosca.model.templates.Topology;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.cache.*;
 
 import alien4cloud.component.repository.IFileRepository;
+import alien4cloud.dao.ElasticSearchMapper;
 import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.tosca.context.ToscaContext;
 import lombok.SneakyThrows;
@@ -43,6 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 public class EditionContextManager {
     /** Holds the topology context */
     private final static ThreadLocal<EditionContext> contextThreadLocal = new ThreadLocal<>();
+    /** Mapper used to deep clone topologies, uses the same serialization as the one used to store topologies in elasticsearch. */
+    private final static ObjectMapper cloneMapper = ElasticSearchMapper.getInstance();
     @Inject
     private CsarService csarService;
     @Inject
@@ -81,31 +80,59 @@ public class EditionContextManager {
                 // check if the topology git repository has been created already
                 Path topologyGitPath = repositoryService.createGitDirectory(csar);
                 log.debug("Edition context for archive {} loaded", csar);
-                return new EditionContext(csar, topology, topologyGitPath);
+                EditionContext context = new EditionContext(csar, topology, topologyGitPath);
+                context.resetSnapshots(cloneTopology(topology));
+                return context;
             }
         });
     }
 
     /**
-     * Initialize thread local contexts for the topology.
+     * Initialize thread local contexts for the topology. The cache ensures that a context is loaded only once, there is no global lock so that edition of
+     * different topologies is not serialized.
      * 
      * @param topologyId The id of the topology.
      */
     @SneakyThrows
-    public synchronized void init(String topologyId) {
+    public void init(String topologyId) {
         contextThreadLocal.set(contextCache.get(topologyId));
         ToscaContext.set(contextThreadLocal.get().getToscaContext());
     }
 
     /**
-     * Reset the state of the topology context to it's initial state.
-     * 
+     * Restore the topology of the current context from the closest in-memory snapshot taken at or before the given operation index.
+     *
+     * @param operationIndex The index of the operation to restore.
+     * @return The index of the last operation applied to the restored topology (-1 if none).
      * @throws IOException In case the parsing of the directory content fails.
      */
-    public void reset() throws IOException {
-        Topology topology = topologyServiceCore.getOrFail(getTopology().getId());
-        contextThreadLocal.get().reset(topology);
+    public int restoreSnapshot(int operationIndex) throws IOException {
+        Map.Entry<Integer, Topology> snapshot = contextThreadLocal.get().getClosestSnapshot(operationIndex);
+        contextThreadLocal.get().reset(cloneTopology(snapshot.getValue()));
         ToscaContext.set(contextThreadLocal.get().getToscaContext());
+        return snapshot.getKey();
+    }
+
+    /**
+     * Keep an in-memory snapshot of the current topology as it is after the given operation.
+     *
+     * @param operationIndex The index of the last operation applied to the current topology.
+     * @param maxSnapshots The maximum number of snapshots to keep for the context (in addition to the one of the saved topology).
+     */
+    public void snapshot(int operationIndex, int maxSnapshots) {
+        contextThreadLocal.get().addSnapshot(operationIndex, cloneTopology(getTopology()), maxSnapshots);
+    }
+
+    /**
+     * Use the current topology (that has just been saved) as the base snapshot of the current context.
+     */
+    public void resetSnapshots() {
+        contextThreadLocal.get().resetSnapshots(cloneTopology(getTopology()));
+    }
+
+    @SneakyThrows
+    private Topology cloneTopology(Topology topology) {
+        return cloneMapper.readValue(cloneMapper.writeValueAsBytes(topology), Topology.class);
     }
 
     /**
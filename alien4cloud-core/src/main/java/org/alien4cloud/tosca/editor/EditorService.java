@@ -1,5 +1,6 @@
 package org.alien4cloud.tosca.editor;
 
+import static alien4cloud.utils.AlienUtils.safe;
 import static alien4cloud.utils.FileUtil.isZipFile;
 
 import java.io.BufferedWriter;
@@ -11,7 +12,10 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -29,17 +33,20 @@ import org.alien4cloud.tosca.editor.services.EditorTopologyRecoveryHelperService
 import org.alien4cloud.tosca.editor.services.EditorTopologyUploadService;
 import org.alien4cloud.tosca.editor.services.TopologySubstitutionService;
 import org.alien4cloud.tosca.exporter.ArchiveExportService;
+import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.topology.TopologyDTOBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.git.SimpleGitHistoryEntry;
@@ -81,6 +88,12 @@ public class EditorService {
 
     @Value("${directories.alien}/${directories.upload_temp}")
     private String tempUploadDir;
+    /** Number of operations between two in-memory snapshots of the topology used by undo. */
+    @Value("${editor.undo_snapshot_interval:10}")
+    private int undoSnapshotInterval;
+    /** Maximum number of in-memory snapshots of the topology kept for an edition context, the oldest are evicted first. */
+    @Value("${editor.undo_max_snapshots:10}")
+    private int undoMaxSnapshots;
 
     /** Processors map by type. */
     private Map<Class<?>, IEditorOperationProcessor<? extends AbstractEditorOperation>> processorMap = Maps.newHashMap();
@@ -144,32 +157,66 @@ public class EditorService {
     }
 
     /**
-     * Ensure that the request is synchronized with the current state of the edition.
+     * Ensure that the request is synchronized with the current state of the edition. The check is performed under the lock of the edition context so that
+     * only requests on the same topology are serialized.
      *
      * @param operation, The operation under evaluation.
      */
-    private synchronized void checkSynchronization(AbstractEditorOperation operation) {
-        // there is an operation being processed so just fail (nobody could get the notification)
-        if (EditionContextManager.get().getCurrentOperation() != null) {
-            throw new EditionConcurrencyException();
-        }
-        List<AbstractEditorOperation> operations = EditionContextManager.get().getOperations();
-        // if someone performed some operations we have to ensure that the new operation is performed on top of a synchronized topology
-        if (EditionContextManager.get().getLastOperationIndex() == -1) {
-            if (operation.getPreviousOperationId() != null) {
+    private void checkSynchronization(AbstractEditorOperation operation) {
+        EditionContext context = EditionContextManager.get();
+        synchronized (context) {
+            // there is an operation being processed so just fail (nobody could get the notification)
+            if (context.getCurrentOperation() != null) {
+                throw new EditionConcurrencyException();
+            }
+            List<AbstractEditorOperation> operations = context.getOperations();
+            // if someone performed some operations we have to ensure that the new operation is performed on top of a synchronized topology
+            if (context.getLastOperationIndex() == -1) {
+                if (operation.getPreviousOperationId() != null) {
+                    throw new EditionConcurrencyException();
+                }
+            } else if (!operations.get(context.getLastOperationIndex()).getId().equals(operation.getPreviousOperationId())) {
                 throw new EditionConcurrencyException();
             }
-        } else if (!operations.get(EditionContextManager.get().getLastOperationIndex()).getId().equals(operation.getPreviousOperationId())) {
-            throw new EditionConcurrencyException();
+            operation.setId(UUID.randomUUID().toString());
+            context.setCurrentOperation(operation);
         }
-        operation.setId(UUID.randomUUID().toString());
-        EditionContextManager.get().setCurrentOperation(operation);
-        return;
     }
 
     // trigger editor operation
     @MessageMapping("/topology-editor/{topologyId}")
     public <T extends AbstractEditorOperation> TopologyDTO execute(@DestinationVariable String topologyId, T operation) {
+        return execute(topologyId, operation, (baseRevision, changes) -> dtoBuilder.buildTopologyDTO(EditionContextManager.get()));
+    }
+
+    /**
+     * Execute an operation and return only the elements of the topology that changed (opt-in delta protocol).
+     *
+     * @param topologyId The id of the topology under edition.
+     * @param operation The operation to execute.
+     * @param clientRevision The revision of the topology known by the client (from its last topology or delta dto), -1 if unknown.
+     * @param validate True if the validation state of the topology must be included in the delta dto.
+     * @return A delta dto, that contains the full topology dto if the client has to resynchronize.
+     */
+    @MessageMapping("/topology-editor-delta/{topologyId}")
+    public <T extends AbstractEditorOperation> TopologyDeltaDTO executeDelta(@DestinationVariable String topologyId, T operation,
+            @Header(value = "baseRevision", required = false, defaultValue = "-1") long clientRevision,
+            @Header(value = "validate", required = false, defaultValue = "false") boolean validate) {
+        return execute(topologyId, operation, (baseRevision, changes) -> buildTopologyDeltaDTO(clientRevision, validate, baseRevision, changes));
+    }
+
+    /**
+     * Build the delta response of a request, the topology is validated only if the client requested it as validation processes the whole topology.
+     */
+    private TopologyDeltaDTO buildTopologyDeltaDTO(long clientRevision, boolean validate, long baseRevision, TopologyChanges changes) {
+        TopologyDeltaDTO deltaDTO = dtoBuilder.buildTopologyDeltaDTO(EditionContextManager.get(), clientRevision, baseRevision, changes);
+        if (validate) {
+            deltaDTO.setValidation(topologyValidationService.validateTopology(EditionContextManager.getTopology()));
+        }
+        return deltaDTO;
+    }
+
+    private <T extends AbstractEditorOperation, R> R execute(String topologyId, T operation, BiFunction<Long, TopologyChanges, R> responseBuilder) {
         // get the topology context.
         try {
             initContext(topologyId, operation);
@@ -177,31 +224,80 @@ public class EditorService {
             // check for topology potential recovery
             checkTopologyRecovery();
 
-            doExecute(operation);
+            long baseRevision = EditionContextManager.get().getTopologyRevision();
+            TopologyChanges changes = doExecute(operation);
 
             // return the topology context
-            return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
+            return responseBuilder.apply(baseRevision, changes);
         } finally {
             EditionContextManager.get().setCurrentOperation(null);
             editionContextManager.destroy();
         }
     }
 
-    private <T extends AbstractEditorOperation> void doExecute(T operation) {
+    private <T extends AbstractEditorOperation> TopologyChanges doExecute(T operation) {
         operation.setAuthor(AuthorizationUtil.getCurrentUser().getUserId());
+        EditionContext context = EditionContextManager.get();
+        Set<CSARDependency> dependencies = Sets.newHashSet(safe(context.getTopology().getDependencies()));
 
         // attach the topology tosca context and process the operation
-        process(operation);
+        context.takeOperationChanges();
+        try {
+            process(operation);
+        } catch (RuntimeException e) {
+            // the operation may have partially updated the topology, delta clients will have to resynchronize.
+            context.incrementTopologyRevision();
+            throw e;
+        }
+        TopologyChanges changes = context.takeOperationChanges();
+        if (!dependencies.equals(Sets.newHashSet(safe(context.getTopology().getDependencies())))) {
+            changes.section(TopologyChanges.DEPENDENCIES);
+        }
 
-        List<AbstractEditorOperation> operations = EditionContextManager.get().getOperations();
-        if (EditionContextManager.get().getLastOperationIndex() != operations.size() - 1) {
-            // Clear the operations to 'redo'.
-            CollectionUtils.clearFrom(operations, EditionContextManager.get().getLastOperationIndex() + 1);
+        List<AbstractEditorOperation> operations = context.getOperations();
+        if (context.getLastOperationIndex() != operations.size() - 1) {
+            // Clear the operations to 'redo' and the snapshots that include them.
+            for (AbstractEditorOperation discarded : operations.subList(context.getLastOperationIndex() + 1, operations.size())) {
+                context.getChangesByOperation().remove(discarded.getId());
+            }
+            CollectionUtils.clearFrom(operations, context.getLastOperationIndex() + 1);
+            context.clearSnapshotsAfter(context.getLastOperationIndex());
         }
 
         // update the last operation and index
-        EditionContextManager.get().getOperations().add(operation);
-        EditionContextManager.get().setLastOperationIndex(EditionContextManager.get().getOperations().size() - 1);
+        changes.operationsFrom(operations.size());
+        context.getChangesByOperation().put(operation.getId(), changes);
+        operations.add(operation);
+        context.setLastOperationIndex(operations.size() - 1);
+        context.incrementTopologyRevision();
+        snapshotIfRequired(context.getLastOperationIndex());
+        return changes;
+    }
+
+    /**
+     * Get the changes performed by the operations between the given indexes (included) when they have been executed.
+     */
+    private TopologyChanges getChanges(int fromIndex, int toIndex) {
+        EditionContext context = EditionContextManager.get();
+        TopologyChanges changes = new TopologyChanges();
+        for (int i = fromIndex; i <= toIndex; i++) {
+            TopologyChanges operationChanges = context.getChangesByOperation().get(context.getOperations().get(i).getId());
+            if (operationChanges == null) {
+                changes.all();
+            } else {
+                changes.merge(operationChanges);
+            }
+        }
+        // the operations list itself does not change on undo and redo.
+        changes.operationsFrom(Integer.MAX_VALUE);
+        return changes;
+    }
+
+    private void snapshotIfRequired(int operationIndex) {
+        if (undoSnapshotInterval > 0 && undoMaxSnapshots > 0 && (operationIndex + 1) % undoSnapshotInterval == 0
+                && EditionContextManager.get().getTopologySnapshots().get(operationIndex) == null) {
+            editionContextManager.snapshot(operationIndex, undoMaxSnapshots);
+        }
     }
 
     /**
@@ -225,6 +321,24 @@ public class EditorService {
      * @return The topology DTO.
      */
     public TopologyDTO undoRedo(String topologyId, int at, String lastOperationId) {
+        return undoRedo(topologyId, at, lastOperationId, (baseRevision, changes) -> dtoBuilder.buildTopologyDTO(EditionContextManager.get()));
+    }
+
+    /**
+     * Undo or redo operations until the given index (including) and return only the elements of the topology that changed (opt-in delta protocol).
+     *
+     * @param topologyId The id of the topology for which to undo or redo operations.
+     * @param at The index on which to place the undo/redo cursor (-1 means no operations, then 0 is first operation etc.)
+     * @param lastOperationId The last known operation id for client optimistic locking.
+     * @param clientRevision The revision of the topology known by the client, -1 if unknown.
+     * @param validate True if the validation state of the topology must be included in the delta dto.
+     * @return A delta dto, that contains the full topology dto if the client has to resynchronize.
+     */
+    public TopologyDeltaDTO undoRedoDelta(String topologyId, int at, String lastOperationId, long clientRevision, boolean validate) {
+        return undoRedo(topologyId, at, lastOperationId, (baseRevision, changes) -> buildTopologyDeltaDTO(clientRevision, validate, baseRevision, changes));
+    }
+
+    private <R> R undoRedo(String topologyId, int at, String lastOperationId, BiFunction<Long, TopologyChanges, R> responseBuilder) {
         try {
             initContext(topologyId, lastOperationId);
 
@@ -234,23 +348,33 @@ public class EditorService {
 
             checkTopologyRecovery();
 
+            long baseRevision = EditionContextManager.get().getTopologyRevision();
             if (at == EditionContextManager.get().getLastOperationIndex()) {
                 // nothing to change.
-                return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
+                return responseBuilder.apply(baseRevision, new TopologyChanges());
             }
 
-            // TODO Improve this by avoiding dao query for (deep) cloning topology and keeping cache for TOSCA types that are required.
-            editionContextManager.reset();
+            // redo only applies the operations after the current one, undo restores the closest in-memory snapshot and replays the operations after it.
+            int from = EditionContextManager.get().getLastOperationIndex();
+            if (at < from) {
+                from = editionContextManager.restoreSnapshot(at);
+            }
 
-            for (int i = 0; i < at + 1; i++) {
+            for (int i = from + 1; i < at + 1; i++) {
                 AbstractEditorOperation operation = EditionContextManager.get().getOperations().get(i);
                 IEditorOperationProcessor processor = processorMap.get(operation.getClass());
                 processor.process(operation);
+                snapshotIfRequired(i);
             }
 
+            // operations replayed from a snapshot do not change the topology known by the client, only the undone or redone ones do.
+            EditionContextManager.get().takeOperationChanges();
+            TopologyChanges changes = getChanges(Math.min(at, EditionContextManager.get().getLastOperationIndex()) + 1,
+                    Math.max(at, EditionContextManager.get().getLastOperationIndex()));
             EditionContextManager.get().setLastOperationIndex(at);
+            EditionContextManager.get().incrementTopologyRevision();
 
-            return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
+            return responseBuilder.apply(baseRevision, changes);
         } catch (IOException e) {
             // FIXME undo should be fail-safe...
             return null;
@@ -267,12 +391,34 @@ public class EditorService {
      * @param lastOperationId The id of the last operation.
      */
     public TopologyDTO save(String topologyId, String lastOperationId) {
+        return save(topologyId, lastOperationId, (baseRevision, changes) -> dtoBuilder.buildTopologyDTO(EditionContextManager.get()));
+    }
+
+    /**
+     * Save a topology under edition and return only the elements of the topology that changed (opt-in delta protocol).
+     *
+     * @param topologyId The id of the topology under edition.
+     * @param lastOperationId The id of the last operation.
+     * @param clientRevision The revision of the topology known by the client, -1 if unknown.
+     * @param validate True if the validation state of the topology must be included in the delta dto.
+     * @return A delta dto, that contains the full topology dto if the client has to resynchronize.
+     */
+    public TopologyDeltaDTO saveDelta(String topologyId, String lastOperationId, long clientRevision, boolean validate) {
+        return save(topologyId, lastOperationId, (baseRevision, changes) -> buildTopologyDeltaDTO(clientRevision, validate, baseRevision, changes));
+    }
+
+    private <R> R save(String topologyId, String lastOperationId, BiFunction<Long, TopologyChanges, R> responseBuilder) {
         try {
             initContext(topologyId, lastOperationId);
 
-            doSave();
+            long baseRevision = EditionContextManager.get().getTopologyRevision();
+            TopologyChanges changes = new TopologyChanges();
+            if (doSave()) {
+                // the saved operations have been removed from the operations list.
+                changes.operationsFrom(0);
+            }
 
-            return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
+            return responseBuilder.apply(baseRevision, changes);
         } catch (IOException e) {
             // when there is a failure in file copy to the local repo.
             // FIXME git revert to put back the local files state in the initial state.
@@ -283,11 +429,16 @@ public class EditorService {
         }
     }
 
-    private void doSave() throws IOException {
+    /**
+     * Save the topology under edition if there are unsaved operations.
+     *
+     * @return True if the topology has been saved.
+     */
+    private boolean doSave() throws IOException {
         EditionContext context = EditionContextManager.get();
         if (context.getLastOperationIndex() <= context.getLastSavedOperationIndex()) {
             // nothing to save..
-            return;
+            return false;
         }
 
         StringBuilder commitMessage = new StringBuilder();
@@ -316,6 +467,10 @@ public class EditorService {
         // TODO add support for undo even after save, this require ability to rollback files to git state, we need file rollback support for that..
         context.setOperations(Lists.newArrayList(context.getOperations().subList(context.getLastOperationIndex() + 1, context.getOperations().size())));
         context.setLastOperationIndex(-1);
+        Set<String> remainingOperationIds = context.getOperations().stream().map(AbstractEditorOperation::getId).collect(Collectors.toSet());
+        context.getChangesByOperation().keySet().retainAll(remainingOperationIds);
+        editionContextManager.resetSnapshots();
+        return true;
     }
 
     private void saveYamlAndZipFile() throws IOException {
@@ -360,6 +515,8 @@ public class EditorService {
             // Topology has changed means that dependencies might have changed, must update the dependencies
             csarService.setDependencies(topology.getId(), topology.getDependencies());
             topologySubstitutionServive.updateSubstitutionType(topology, EditionContextManager.getCsar());
+            editionContextManager.resetSnapshots();
+            EditionContextManager.get().incrementTopologyRevision();
             return dtoBuilder.buildTopologyDTO(EditionContextManager.get());
         } catch (IOException e) {
             throw new EditorIOException("Error while pulling remote branch into local repository for " + topologyId + " for user " + username, e);
@@ -479,6 +636,8 @@ public class EditorService {
             // Topology has changed means that dependencies might have changed, must update the dependencies
             csarService.setDependencies(topology.getId(), topology.getDependencies());
             topologySubstitutionServive.updateSubstitutionType(topology, EditionContextManager.getCsar());
+            editionContextManager.resetSnapshots();
+            EditionContextManager.get().incrementTopologyRevision();
 
             // Local git commit
             repositoryService.commit(EditionContextManager.get().getCsar(), commitMessage);
@@ -0,0 +1,64 @@
+package org.alien4cloud.tosca.editor;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import lombok.Getter;
+
+/**
+ * Names of the node templates and topology sections modified by editor operations, used to build delta responses without comparing the whole topology.
+ */
+@Getter
+public class TopologyChanges {
+    public static final String DESCRIPTION = "description";
+    public static final String DEPENDENCIES = "dependencies";
+    public static final String INPUTS = "inputs";
+    public static final String OUTPUT_PROPERTIES = "outputProperties";
+    public static final String OUTPUT_CAPABILITY_PROPERTIES = "outputCapabilityProperties";
+    public static final String OUTPUT_ATTRIBUTES = "outputAttributes";
+    public static final String INPUT_ARTIFACTS = "inputArtifacts";
+    public static final String GROUPS = "groups";
+    public static final String SUBSTITUTION_MAPPING = "substitutionMapping";
+    public static final String WORKFLOWS = "workflows";
+    public static final String ARCHIVE_CONTENT_TREE = "archiveContentTree";
+
+    /** Names of the node templates that have been added, updated or removed. */
+    private final Set<String> nodeTemplates = Sets.newHashSet();
+    /** Names of the other topology sections that have been updated. */
+    private final Set<String> sections = Sets.newHashSet();
+    /** True if the whole topology may have been changed (reset, recovery, dependency change etc.). */
+    private boolean all;
+    /** Index of the first element of the operations list that has been added or removed, Integer.MAX_VALUE if the list did not change. */
+    private int operationsFromIndex = Integer.MAX_VALUE;
+
+    public void nodeTemplate(String nodeTemplateName) {
+        nodeTemplates.add(nodeTemplateName);
+    }
+
+    public void section(String... sectionNames) {
+        for (String sectionName : sectionNames) {
+            sections.add(sectionName);
+        }
+    }
+
+    public void all() {
+        all = true;
+    }
+
+    public void operationsFrom(int operationIndex) {
+        operationsFromIndex = Math.min(operationsFromIndex, operationIndex);
+    }
+
+    /**
+     * Add the changes of another change set to this one.
+     *
+     * @param other The changes to add.
+     */
+    public void merge(TopologyChanges other) {
+        nodeTemplates.addAll(other.nodeTemplates);
+        sections.addAll(other.sections);
+        all |= other.all;
+        operationsFrom(other.operationsFromIndex);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.TreeSet;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.exception.InvalidPathException;
 import org.alien4cloud.tosca.editor.operations.AbstractUpdateFileOperation;
 import org.alien4cloud.tosca.editor.services.EditorTopologyUploadService;
@@ -34,6 +35,7 @@ public abstract class AbstractUpdateFileProcessor<T extends AbstractUpdateFileOp
     public void process(T operation) {
         // archive content tree is actually a node that contains only the folder of the topology
         TreeNode root = EditionContextManager.get().getArchiveContentTree().getChildren().first();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.ARCHIVE_CONTENT_TREE);
         // walk the file path to insert an element
         TreeNode target = root;
         if (operation.getPath().endsWith("/")) {
@@ -76,6 +78,7 @@ public abstract class AbstractUpdateFileProcessor<T extends AbstractUpdateFileOp
             try {
                 if (EditionContextManager.getCsar().getYamlFilePath().equals(operation.getPath())) {
                     // the operation updates the topology file, we have to parse it and override the topology data out of it.
+                    EditionContextManager.get().markAllChanged();
                     editorTopologyUploadService.processTopology(artifactRepository.resolveFile(artifactFileId),
                             EditionContextManager.getTopology().getWorkspace());
                 }
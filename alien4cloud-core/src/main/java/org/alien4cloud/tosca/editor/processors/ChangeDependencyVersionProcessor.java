@@ -6,6 +6,7 @@ import java.util.Set;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
 import org.alien4cloud.tosca.editor.operations.ChangeDependencyVersionOperation;
 import org.alien4cloud.tosca.editor.services.EditorTopologyRecoveryHelperService;
@@ -33,6 +34,7 @@ public class ChangeDependencyVersionProcessor implements IEditorOperationProcess
     @Override
     public void process(ChangeDependencyVersionOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markAllChanged();
         CSARDependency newDependency = new CSARDependency(operation.getDependencyName(), operation.getDependencyVersion());
 
         // Check for missing type and update the topology's dependencies
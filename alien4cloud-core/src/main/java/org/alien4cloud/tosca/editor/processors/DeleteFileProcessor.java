@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.util.Map;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.exception.InvalidPathException;
 import org.alien4cloud.tosca.editor.operations.DeleteFileOperation;
 import org.springframework.stereotype.Component;
@@ -36,34 +37,43 @@ public class DeleteFileProcessor implements IEditorCommitableProcessor<DeleteFil
         }
         TreeNode target = FileProcessorHelper.getFileTreeNode(operation.getPath());
         target.getParent().getChildren().remove(target);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.ARCHIVE_CONTENT_TREE);
 
         for (NodeTemplate nodeTemplate : safe(topology.getNodeTemplates()).values()) {
+            boolean changed = false;
             for (DeploymentArtifact artifact : safe(nodeTemplate.getArtifacts()).values()) {
-                resetRemovedArtifact(artifact, operation.getPath());
+                changed |= resetRemovedArtifact(artifact, operation.getPath());
             }
-            cleanupInterfaces(nodeTemplate.getInterfaces(), operation.getPath());
+            changed |= cleanupInterfaces(nodeTemplate.getInterfaces(), operation.getPath());
             for (RelationshipTemplate relationshipTemplate : safe(nodeTemplate.getRelationships()).values()) {
-                cleanupInterfaces(relationshipTemplate.getInterfaces(), operation.getPath());
+                changed |= cleanupInterfaces(relationshipTemplate.getInterfaces(), operation.getPath());
+            }
+            if (changed) {
+                EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
             }
         }
     }
 
-    private void cleanupInterfaces(Map<String, Interface> interfaces, String removedFilePath) {
+    private boolean cleanupInterfaces(Map<String, Interface> interfaces, String removedFilePath) {
+        boolean changed = false;
         for (Interface interfaz : safe(interfaces).values()) {
             for (Operation operation : safe(interfaz.getOperations()).values()) {
-                resetRemovedArtifact(operation.getImplementationArtifact(), removedFilePath);
+                changed |= resetRemovedArtifact(operation.getImplementationArtifact(), removedFilePath);
             }
         }
+        return changed;
     }
 
-    private void resetRemovedArtifact(IArtifact artifact, String removedFilePath) {
+    private boolean resetRemovedArtifact(IArtifact artifact, String removedFilePath) {
         if (artifact != null && artifact.getArtifactRepository() == null) {
             // this is an archive file, check if reference is good
             if (removedFilePath.equals(artifact.getArtifactRef())) {
                 // FIXME is that correct, should we get the default artifact from the node / interface type here ?
                 artifact.setArtifactRef(null);
+                return true;
             }
         }
+        return false;
     }
 
     @Override
@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.RecoverTopologyOperation;
 import org.alien4cloud.tosca.editor.services.EditorTopologyRecoveryHelperService;
 import org.alien4cloud.tosca.model.CSARDependency;
@@ -30,6 +31,7 @@ public class RecoverTopologyProcessor implements IEditorOperationProcessor<Recov
     @Override
     public void process(RecoverTopologyOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markAllChanged();
 
         checkOperation(operation, topology);
 
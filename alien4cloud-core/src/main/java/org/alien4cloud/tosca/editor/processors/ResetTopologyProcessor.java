@@ -5,6 +5,7 @@ import java.io.IOException;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.ResetTopologyOperation;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.springframework.stereotype.Component;
@@ -25,6 +26,7 @@ public class ResetTopologyProcessor implements IEditorOperationProcessor<ResetTo
     @Override
     public void process(ResetTopologyOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markAllChanged();
         Topology newTopology = new Topology();
         newTopology.setArchiveName(topology.getArchiveName());
         newTopology.setArchiveVersion(topology.getArchiveVersion());
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import alien4cloud.exception.InvalidNameException;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.groups.AddGroupMemberOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.alien4cloud.tosca.model.templates.*;
@@ -26,6 +27,7 @@ public class AddGroupMemberProcessor extends AbstractNodeProcessor<AddGroupMembe
     @Override
     protected void processNodeOperation(AddGroupMemberOperation operation, NodeTemplate nodeTemplate) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.GROUPS);
         // Ensure that the group exist and create it if not.
         Map<String, NodeGroup> groups = topology.getGroups();
         if (groups == null) {
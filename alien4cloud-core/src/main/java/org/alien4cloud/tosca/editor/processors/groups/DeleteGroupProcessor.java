@@ -4,6 +4,7 @@ import static alien4cloud.utils.AlienUtils.safe;
 
 import alien4cloud.exception.NotFoundException;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.groups.DeleteGroupOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.springframework.stereotype.Component;
@@ -25,9 +26,10 @@ public class DeleteGroupProcessor implements IEditorOperationProcessor<DeleteGro
         if (nodeGroup == null) {
             throw new NotFoundException("Group " + operation.getGroupName() + " does not exists");
         }
+        EditionContextManager.get().markSectionChanged(TopologyChanges.GROUPS);
         for (NodeTemplate nodeTemplate : safe(topology.getNodeTemplates()).values()) {
-            if (nodeTemplate.getGroups() != null) {
-                nodeTemplate.getGroups().remove(operation.getGroupName());
+            if (nodeTemplate.getGroups() != null && nodeTemplate.getGroups().remove(operation.getGroupName())) {
+                EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
             }
         }
     }
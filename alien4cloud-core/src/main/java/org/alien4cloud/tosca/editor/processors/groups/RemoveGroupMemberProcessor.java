@@ -2,6 +2,7 @@ package org.alien4cloud.tosca.editor.processors.groups;
 
 import alien4cloud.exception.NotFoundException;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.groups.RemoveGroupMemberOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -18,6 +19,7 @@ public class RemoveGroupMemberProcessor extends AbstractNodeProcessor<RemoveGrou
     @Override
     protected void processNodeOperation(RemoveGroupMemberOperation operation, NodeTemplate nodeTemplate) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.GROUPS);
 
         NodeGroup nodeGroup = topology.getGroups().get(operation.getGroupName());
         if (nodeGroup != null && nodeGroup.getMembers() != null) {
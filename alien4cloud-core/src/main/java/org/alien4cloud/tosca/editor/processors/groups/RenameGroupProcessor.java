@@ -4,6 +4,7 @@ import java.util.Map;
 
 import alien4cloud.exception.NotFoundException;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.groups.RenameGroupOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.springframework.stereotype.Component;
@@ -47,9 +48,11 @@ public class RenameGroupProcessor implements IEditorOperationProcessor<RenameGro
             if (nodeTemplate.getGroups() != null) {
                 if (nodeTemplate.getGroups().remove(operation.getGroupName())) {
                     nodeTemplate.getGroups().add(operation.getNewGroupName());
+                    EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
                 }
             }
         }
         topology.getGroups().put(operation.getNewGroupName(), nodeGroup);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.GROUPS);
     }
 }
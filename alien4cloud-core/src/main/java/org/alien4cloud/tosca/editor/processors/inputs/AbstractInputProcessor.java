@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.inputs;
 import java.util.Map;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.inputs.AbstractInputOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 
@@ -27,6 +28,7 @@ public abstract class AbstractInputProcessor<T extends AbstractInputOperation> i
                 throw new NotFoundException("The topology has no defined input");
             }
         }
+        EditionContextManager.get().markSectionChanged(TopologyChanges.INPUTS);
         processInputOperation(operation, inputs);
     }
 
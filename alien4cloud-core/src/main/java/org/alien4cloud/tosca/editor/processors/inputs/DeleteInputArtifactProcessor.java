@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.inputs;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.inputs.DeleteInputArtifactOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.definitions.DeploymentArtifact;
@@ -26,11 +27,13 @@ public class DeleteInputArtifactProcessor implements IEditorOperationProcessor<D
         }
 
         DeploymentArtifact inputArtifact = topology.getInputArtifacts().remove(operation.getInputName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.INPUT_ARTIFACTS);
         // change the value of concerned node template artifacts
         for (NodeTemplate nodeTemplate : safe(topology.getNodeTemplates()).values()) {
             for (DeploymentArtifact dArtifact : safe(nodeTemplate.getArtifacts()).values()) {
                 if (operation.getInputName().equals(InputArtifactUtil.getInputArtifactId(dArtifact))) {
                     InputArtifactUtil.unsetInputArtifact(dArtifact);
+                    EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
                 }
             }
         }
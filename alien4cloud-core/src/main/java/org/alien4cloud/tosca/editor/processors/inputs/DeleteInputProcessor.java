@@ -53,19 +53,22 @@ public class DeleteInputProcessor extends AbstractInputProcessor<DeleteInputOper
 
         for (NodeTemplate nodeTemplate : nodeTemplates.values()) {
             NodeType nodeType = ToscaContext.get(NodeType.class, nodeTemplate.getType());
-            removeInputIdInProperties(nodeTemplate.getProperties(), nodeType.getProperties(), operation.getInputName());
+            boolean changed = removeInputIdInProperties(nodeTemplate.getProperties(), nodeType.getProperties(), operation.getInputName());
             if (nodeTemplate.getRelationships() != null) {
                 for (RelationshipTemplate relationshipTemplate : nodeTemplate.getRelationships().values()) {
                     RelationshipType relationshipType = ToscaContext.get(RelationshipType.class, relationshipTemplate.getType());
-                    removeInputIdInProperties(relationshipTemplate.getProperties(), relationshipType.getProperties(), operation.getInputName());
+                    changed |= removeInputIdInProperties(relationshipTemplate.getProperties(), relationshipType.getProperties(), operation.getInputName());
                 }
             }
             if (nodeTemplate.getCapabilities() != null) {
                 for (Capability capability : nodeTemplate.getCapabilities().values()) {
                     CapabilityType capabilityType = ToscaContext.get(CapabilityType.class, capability.getType());
-                    removeInputIdInProperties(capability.getProperties(), capabilityType.getProperties(), operation.getInputName());
+                    changed |= removeInputIdInProperties(capability.getProperties(), capabilityType.getProperties(), operation.getInputName());
                 }
             }
+            if (changed) {
+                EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
+            }
         }
 
         log.debug("Remove the input " + operation.getInputName() + " from the topology " + topology.getId());
@@ -77,12 +80,14 @@ public class DeleteInputProcessor extends AbstractInputProcessor<DeleteInputOper
      * @param properties the list of properties values currently defined in the topology.
      * @param propertyDefinitions the list of definitions of properties (matching the list of values).
      * @param inputId The id of the input to remove.
+     * @return true if at least one property value has been reset.
      */
-    private void removeInputIdInProperties(final Map<String, AbstractPropertyValue> properties, final Map<String, PropertyDefinition> propertyDefinitions,
+    private boolean removeInputIdInProperties(final Map<String, AbstractPropertyValue> properties, final Map<String, PropertyDefinition> propertyDefinitions,
             final String inputId) {
         if (properties == null) {
-            return;
+            return false;
         }
+        boolean changed = false;
         for (Map.Entry<String, AbstractPropertyValue> propertyEntry : properties.entrySet()) {
             if (propertyEntry.getValue() instanceof FunctionPropertyValue) {
                 FunctionPropertyValue functionPropertyValue = (FunctionPropertyValue) propertyEntry.getValue();
@@ -90,9 +95,11 @@ public class DeleteInputProcessor extends AbstractInputProcessor<DeleteInputOper
                     PropertyDefinition pd = propertyDefinitions.get(propertyEntry.getKey());
                     AbstractPropertyValue pv = PropertyUtil.getDefaultPropertyValueFromPropertyDefinition(pd);
                     propertyEntry.setValue(pv);
+                    changed = true;
                 }
             }
         }
+        return changed;
     }
 
     @Override
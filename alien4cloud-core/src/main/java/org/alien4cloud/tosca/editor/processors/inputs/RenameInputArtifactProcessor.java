@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.inputs;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.inputs.RenameInputArtifactOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 
@@ -34,9 +35,13 @@ public class RenameInputArtifactProcessor implements IEditorOperationProcessor<R
         }
         DeploymentArtifact inputArtifact = topology.getInputArtifacts().remove(operation.getInputName());
         topology.getInputArtifacts().put(operation.getNewInputName(), inputArtifact);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.INPUT_ARTIFACTS);
         // change the value of concerned node template artifacts
         for (NodeTemplate nodeTemplate : safe(topology.getNodeTemplates()).values()) {
             for (DeploymentArtifact dArtifact : safe(nodeTemplate.getArtifacts()).values()) {
+                if (operation.getInputName().equals(InputArtifactUtil.getInputArtifactId(dArtifact))) {
+                    EditionContextManager.get().markNodeTemplateChanged(nodeTemplate.getName());
+                }
                 InputArtifactUtil.updateInputArtifactIdIfNeeded(dArtifact, operation.getInputName(), operation.getNewInputName());
             }
         }
@@ -60,17 +60,20 @@ public class RenameInputProcessor extends AbstractInputProcessor<RenameInputOper
         Topology topology = EditionContextManager.getTopology();
         Map<String, NodeTemplate> nodeTemplates = topology.getNodeTemplates();
         for (NodeTemplate nodeTemp : safe(nodeTemplates).values()) {
-            renameInputInProperties(nodeTemp.getProperties(), operation.getInputName(), operation.getNewInputName());
+            boolean changed = renameInputInProperties(nodeTemp.getProperties(), operation.getInputName(), operation.getNewInputName());
             if (nodeTemp.getRelationships() != null) {
                 for (RelationshipTemplate relationshipTemplate : nodeTemp.getRelationships().values()) {
-                    renameInputInProperties(relationshipTemplate.getProperties(), operation.getInputName(), operation.getNewInputName());
+                    changed |= renameInputInProperties(relationshipTemplate.getProperties(), operation.getInputName(), operation.getNewInputName());
                 }
             }
             if (nodeTemp.getCapabilities() != null) {
                 for (Capability capability : nodeTemp.getCapabilities().values()) {
-                    renameInputInProperties(capability.getProperties(), operation.getInputName(), operation.getNewInputName());
+                    changed |= renameInputInProperties(capability.getProperties(), operation.getInputName(), operation.getNewInputName());
                 }
             }
+            if (changed) {
+                EditionContextManager.get().markNodeTemplateChanged(nodeTemp.getName());
+            }
         }
 
         log.debug("Change the name of an input parameter <{}> to <{}> for the topology ", operation.getInputName(), operation.getNewInputName(),
@@ -83,8 +86,10 @@ public class RenameInputProcessor extends AbstractInputProcessor<RenameInputOper
      * @param properties The map of properties in which to rename input
      * @param inputName The name of the input to rename.
      * @param newInputName The new name for the input.
+     * @return true if at least one property value has been updated.
      */
-    private void renameInputInProperties(final Map<String, AbstractPropertyValue> properties, final String inputName, final String newInputName) {
+    private boolean renameInputInProperties(final Map<String, AbstractPropertyValue> properties, final String inputName, final String newInputName) {
+        boolean changed = false;
         if (MapUtils.isNotEmpty(properties)) {
             for (AbstractPropertyValue propertyValue : properties.values()) {
                 if (propertyValue instanceof FunctionPropertyValue) {
@@ -92,10 +97,12 @@ public class RenameInputProcessor extends AbstractInputProcessor<RenameInputOper
                     if (ToscaFunctionConstants.GET_INPUT.equals(functionPropertyValue.getFunction())
                             && functionPropertyValue.getParameters().get(0).equals(inputName)) {
                         functionPropertyValue.setParameters(Arrays.asList(newInputName));
+                        changed = true;
                     }
                 }
             }
         }
+        return changed;
     }
 
     @Override
@@ -22,6 +22,7 @@ public abstract class AbstractNodeProcessor<T extends AbstractNodeOperation> imp
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
 
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         processNodeOperation(operation, nodeTemplate);
     }
 
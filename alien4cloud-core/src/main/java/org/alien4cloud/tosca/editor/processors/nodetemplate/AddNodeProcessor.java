@@ -6,6 +6,7 @@ import javax.inject.Inject;
 
 import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.AddNodeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
@@ -77,5 +78,7 @@ public class AddNodeProcessor implements IEditorOperationProcessor<AddNodeOperat
 
         WorkflowsBuilderService.TopologyContext topologyContext = workflowBuilderService.buildTopologyContext(topology);
         workflowBuilderService.addNode(topologyContext, operation.getNodeName(), nodeTemplate);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.WORKFLOWS);
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import java.util.Map;
 import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.DeleteNodeOperation;
 import org.alien4cloud.tosca.model.definitions.DeploymentArtifact;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
@@ -65,6 +66,9 @@ public class DeleteNodeProcessor extends AbstractNodeProcessor<DeleteNodeOperati
         }
         topologyService.unloadType(topology, typesTobeUnloaded.toArray(new String[typesTobeUnloaded.size()]));
 
+        EditionContextManager.get().markRelationshipSourcesChanged(operation.getNodeName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_PROPERTIES, TopologyChanges.OUTPUT_CAPABILITY_PROPERTIES,
+                TopologyChanges.OUTPUT_ATTRIBUTES, TopologyChanges.SUBSTITUTION_MAPPING, TopologyChanges.GROUPS, TopologyChanges.WORKFLOWS);
         removeRelationShipReferences(operation.getNodeName(), topology);
         nodeTemplates.remove(operation.getNodeName());
         removeOutputs(operation.getNodeName(), topology);
@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.nodetemplate;
 import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.RenameNodeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.Topology;
@@ -33,6 +34,11 @@ public class RenameNodeProcessor implements IEditorOperationProcessor<RenameNode
         topologyService.isUniqueNodeTemplateName(topology, operation.getNewName());
 
         log.debug("Renaming the Node template <{}> with <{}> in the topology <{}> .", operation.getNodeName(), operation.getNewName(), topology.getId());
+        EditionContextManager.get().markRelationshipSourcesChanged(operation.getNodeName());
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNewName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_PROPERTIES, TopologyChanges.OUTPUT_CAPABILITY_PROPERTIES,
+                TopologyChanges.OUTPUT_ATTRIBUTES, TopologyChanges.SUBSTITUTION_MAPPING, TopologyChanges.GROUPS, TopologyChanges.WORKFLOWS);
         TopologyUtils.renameNodeTemplate(topology, operation.getNodeName(), operation.getNewName());
         workflowBuilderService.renameNode(topology, operation.getNodeName(), operation.getNewName());
     }
@@ -9,6 +9,7 @@ import alien4cloud.topology.TopologyUtils;
 import alien4cloud.tosca.topology.NodeTemplateBuilder;
 import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.ReplaceNodeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
@@ -71,6 +72,8 @@ public class ReplaceNodeProcessor implements IEditorOperationProcessor<ReplaceNo
 
         // add the new node to the workflow
         workflowBuilderService.addNode(workflowBuilderService.buildTopologyContext(topology), oldNodeTemplate.getName(), newNodeTemplate);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING, TopologyChanges.WORKFLOWS);
     }
 
     private void removeNodeTemplateSubstitutionTargetMapEntry(String nodeTemplateName, Map<String, SubstitutionTarget> substitutionTargets) {
@@ -32,6 +32,7 @@ public class ResetNodeDeploymentArtifactProcessor implements IEditorOperationPro
         // Get the node template's artifacts to reset
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         DeploymentArtifact currentArtifact = nodeTemplate.getArtifacts() == null ? null : nodeTemplate.getArtifacts().get(operation.getArtifactName());
         if (currentArtifact == null) {
             throw new NotFoundException(
@@ -41,6 +41,7 @@ public class UpdateCapabilityPropertyValueProcessor implements IEditorOperationP
         Object propertyValue = operation.getPropertyValue();
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         Capability capability = nodeTemplate.getCapabilities().get(operation.getCapabilityName());
 
         CapabilityType capabilityType = ToscaContext.get(CapabilityType.class, capability.getType());
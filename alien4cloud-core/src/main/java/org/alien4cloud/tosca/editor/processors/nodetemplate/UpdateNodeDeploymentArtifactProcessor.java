@@ -28,6 +28,7 @@ public class UpdateNodeDeploymentArtifactProcessor implements IEditorOperationPr
         // Get the node template's artifacts to update
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         DeploymentArtifact artifact = nodeTemplate.getArtifacts() == null ? null : nodeTemplate.getArtifacts().get(operation.getArtifactName());
         if (artifact == null) {
             throw new NotFoundException("Artifact with key [" + operation.getArtifactName() + "] do not exist");
@@ -37,6 +37,7 @@ public class UpdateNodePropertyValueProcessor implements IEditorOperationProcess
 
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemp = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         String propertyName = operation.getPropertyName();
         Object propertyValue = operation.getPropertyValue();
 
@@ -5,6 +5,7 @@ import static alien4cloud.utils.AlienUtils.safe;
 import java.util.Map;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.inputs.SetNodeArtifactAsInputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.alien4cloud.tosca.model.definitions.DeploymentArtifact;
@@ -43,6 +44,7 @@ public class SetNodeArtifactAsInputProcessor extends AbstractNodeProcessor<SetNo
                 topology.setInputArtifacts(inputArtifacts);
             }
             inputArtifacts.put(operation.getInputName(), inputArtifact);
+            EditionContextManager.get().markSectionChanged(TopologyChanges.INPUT_ARTIFACTS);
         }
 
         InputArtifactUtil.setInputArtifact(artifact, operation.getInputName());
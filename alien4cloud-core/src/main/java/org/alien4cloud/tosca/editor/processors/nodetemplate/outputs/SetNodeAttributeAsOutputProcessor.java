@@ -9,6 +9,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.SetNodeAttributeAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -46,6 +47,7 @@ public class SetNodeAttributeAsOutputProcessor extends AbstractNodeProcessor<Set
         }
 
         topology.setOutputAttributes(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_ATTRIBUTES);
 
         log.debug("Set node <{}>'s attribute <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getAttributeName(), topology.getId());
     }
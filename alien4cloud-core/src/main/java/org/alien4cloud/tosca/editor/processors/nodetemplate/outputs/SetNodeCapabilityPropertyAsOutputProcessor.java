@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.SetNodeCapabilityPropertyAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -40,6 +41,7 @@ public class SetNodeCapabilityPropertyAsOutputProcessor extends AbstractNodeProc
         outputProperties.add(operation.getPropertyName());
 
         topology.setOutputCapabilityProperties(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_CAPABILITY_PROPERTIES);
 
         log.debug("Set node<{}> capability <{}>'s property <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getCapabilityName(),
                 operation.getPropertyName(), topology.getId());
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.SetNodePropertyAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -45,6 +46,7 @@ public class SetNodePropertyAsOutputProcessor extends AbstractNodeProcessor<SetN
         }
 
         topology.setOutputProperties(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_PROPERTIES);
 
         log.debug("Set node <{}>'s property <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getPropertyName(), topology.getId());
     }
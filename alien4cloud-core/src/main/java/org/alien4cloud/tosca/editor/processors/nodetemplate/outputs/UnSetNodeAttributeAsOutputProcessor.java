@@ -4,6 +4,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.UnSetNodeAttributeAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -33,6 +34,7 @@ public class UnSetNodeAttributeAsOutputProcessor extends AbstractNodeProcessor<U
         Map<String, Set<String>> outputs = topology.getOutputAttributes();
         removeAndClean(operation, outputs);
         topology.setOutputAttributes(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_ATTRIBUTES);
 
         log.debug("Unset node <{}>'s attribute <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getAttributeName(), topology.getId());
     }
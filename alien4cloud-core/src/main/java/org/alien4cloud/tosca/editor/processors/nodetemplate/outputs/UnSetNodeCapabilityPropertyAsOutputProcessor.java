@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.UnSetNodeCapabilityPropertyAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.apache.commons.collections4.CollectionUtils;
@@ -35,6 +36,7 @@ public class UnSetNodeCapabilityPropertyAsOutputProcessor extends AbstractNodePr
         Map<String, Map<String, Set<String>>> outputs = topology.getOutputCapabilityProperties();
         removeAndClean(operation, outputs);
         topology.setOutputCapabilityProperties(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_CAPABILITY_PROPERTIES);
 
         log.debug("Set node<{}> capability <{}>'s property <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getCapabilityName(),
                 operation.getPropertyName(), topology.getId());
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.nodetemplate.outputs.UnSetNodePropertyAsOutputOperation;
 import org.alien4cloud.tosca.editor.processors.nodetemplate.AbstractNodeProcessor;
 import org.springframework.stereotype.Component;
@@ -31,6 +32,7 @@ public class UnSetNodePropertyAsOutputProcessor extends AbstractNodeProcessor<Un
         Map<String, Set<String>> outputs = topology.getOutputProperties();
         removeAndClean(operation, outputs);
         topology.setOutputProperties(outputs);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.OUTPUT_PROPERTIES);
 
         log.debug("Unset node <{}>'s property <{}> as output for the topology <{}>.", operation.getNodeName(), operation.getPropertyName(), topology.getId());
     }
@@ -8,6 +8,7 @@ import javax.inject.Inject;
 
 import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.exception.CapabilityBoundException;
 import org.alien4cloud.tosca.editor.exception.RequirementBoundException;
 import org.alien4cloud.tosca.editor.operations.relationshiptemplate.AddRelationshipOperation;
@@ -116,6 +117,7 @@ public class AddRelationshipProcessor extends AbstractNodeProcessor<AddRelations
         relationships.put(operation.getRelationshipName(), relationshipTemplate);
         WorkflowsBuilderService.TopologyContext topologyContext = workflowBuilderService.buildTopologyContext(topology);
         workflowBuilderService.addRelationship(topologyContext, operation.getNodeName(), operation.getRelationshipName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.WORKFLOWS);
         log.debug("Added relationship to the topology [" + topology.getId() + "], node name [" + operation.getNodeName() + "], relationship name ["
                 + operation.getRelationshipName() + "]");
     }
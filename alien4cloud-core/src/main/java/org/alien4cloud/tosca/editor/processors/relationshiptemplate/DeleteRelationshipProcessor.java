@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.relationshiptemplate;
 import javax.annotation.Resource;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.relationshiptemplate.DeleteRelationshipOperation;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
 import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
@@ -32,5 +33,6 @@ public class DeleteRelationshipProcessor extends AbstractRelationshipProcessor<D
         topologyService.unloadType(topology, relationshipTemplate.getType());
         nodeTemplate.getRelationships().remove(operation.getRelationshipName());
         workflowBuilderService.removeRelationship(topology, operation.getNodeName(), operation.getRelationshipName(), relationshipTemplate);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.WORKFLOWS);
     }
 }
\ No newline at end of file
@@ -40,6 +40,7 @@ public class UpdateRelationshipPropertyValueProcessor implements IEditorOperatio
 
         Map<String, NodeTemplate> nodeTemplates = TopologyUtils.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = TopologyUtils.getNodeTemplate(topology.getId(), operation.getNodeName(), nodeTemplates);
+        EditionContextManager.get().markNodeTemplateChanged(operation.getNodeName());
         // FIXME we should have the same kind of utility methods to get relationships as we have for nodes.
         RelationshipTemplate relationshipTemplate = nodeTemplate.getRelationships().get(operation.getRelationshipName());
 
@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.substitution;
 import java.util.Map;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.AddCapabilitySubstitutionTypeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.springframework.stereotype.Component;
@@ -24,6 +25,7 @@ public class AddCapabilitySubstitutionTypeProcessor implements IEditorOperationP
     @Override
     public void process(AddCapabilitySubstitutionTypeOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
         if (topology.getNodeTemplates() == null || !topology.getNodeTemplates().containsKey(operation.getNodeTemplateName())) {
             throw new NotFoundException("Node " + operation.getNodeTemplateName() + " do not exist");
         }
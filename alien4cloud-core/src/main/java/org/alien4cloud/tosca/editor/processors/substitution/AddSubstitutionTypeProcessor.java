@@ -5,6 +5,7 @@ import javax.inject.Inject;
 import alien4cloud.exception.NotFoundException;
 import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.AddSubstitutionTypeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.SubstitutionMapping;
@@ -27,6 +28,7 @@ public class AddSubstitutionTypeProcessor implements IEditorOperationProcessor<A
     @Override
     public void process(AddSubstitutionTypeOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
 
         if (topology.getSubstitutionMapping() == null) {
             topology.setSubstitutionMapping(new SubstitutionMapping());
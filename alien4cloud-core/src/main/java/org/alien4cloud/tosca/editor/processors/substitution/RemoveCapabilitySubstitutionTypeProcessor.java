@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.substitution;
 import java.util.Map;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.RemoveCapabilitySubstitutionTypeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.springframework.stereotype.Component;
@@ -20,6 +21,7 @@ public class RemoveCapabilitySubstitutionTypeProcessor implements IEditorOperati
     @Override
     public void process(RemoveCapabilitySubstitutionTypeOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
         if (topology.getSubstitutionMapping() == null || topology.getSubstitutionMapping().getSubstitutionType() == null) {
             throw new NotFoundException("No substitution type has been found");
         }
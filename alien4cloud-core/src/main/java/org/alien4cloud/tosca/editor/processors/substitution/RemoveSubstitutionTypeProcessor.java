@@ -4,7 +4,9 @@ import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 
 import javax.annotation.Resource;
 
+import org.alien4cloud.tosca.catalog.index.SharedToscaTypesCacheManager;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.RemoveSubstitutionTypeOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorCommitableProcessor;
 import org.alien4cloud.tosca.model.Csar;
@@ -28,10 +30,13 @@ public class RemoveSubstitutionTypeProcessor implements IEditorCommitableProcess
     private TopologyService topologyService;
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
+    @Resource
+    private SharedToscaTypesCacheManager sharedToscaTypesCacheManager;
 
     @Override
     public void process(RemoveSubstitutionTypeOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
 
         if (topology.getSubstitutionMapping() == null || topology.getSubstitutionMapping().getSubstitutionType() == null) {
             throw new NotFoundException("No substitution type has been found");
@@ -53,6 +58,8 @@ public class RemoveSubstitutionTypeProcessor implements IEditorCommitableProcess
     public void beforeCommit(RemoveSubstitutionTypeOperation operation) {
         // here we should eventually remove from the repo the type related to this substitution
         alienDAO.delete(NodeType.class, EditionContextManager.getTopology().getId());
+        Csar csar = EditionContextManager.getCsar();
+        sharedToscaTypesCacheManager.invalidate(csar.getName(), csar.getVersion());
     }
 
     private boolean hasArchiveUsing(String archiveName, String archiveVersion) {
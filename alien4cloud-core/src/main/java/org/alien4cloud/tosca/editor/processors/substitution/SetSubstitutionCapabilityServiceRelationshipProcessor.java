@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.substitution;
 import static alien4cloud.utils.AlienUtils.safe;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.SetSubstitutionCapabilityServiceRelationshipOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.SubstitutionTarget;
@@ -21,6 +22,7 @@ public class SetSubstitutionCapabilityServiceRelationshipProcessor extends SetSu
     @Override
     public void process(SetSubstitutionCapabilityServiceRelationshipOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
         if (topology.getSubstitutionMapping() == null) {
             throw new NotFoundException("The substitution capability with id <" + operation.getSubstitutionCapabilityId() + "> cannot be found.");
         }
@@ -1,6 +1,7 @@
 package org.alien4cloud.tosca.editor.processors.substitution;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.SetSubstitutionRequirementServiceRelationshipOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.SubstitutionTarget;
@@ -21,6 +22,7 @@ public class SetSubstitutionRequirementServiceRelationshipProcessor extends SetS
     @Override
     public void process(SetSubstitutionRequirementServiceRelationshipOperation operation) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
         if (topology.getSubstitutionMapping() == null) {
             throw new NotFoundException("The substitution requirement with id <" + operation.getSubstitutionRequirementId() + "> cannot be found.");
         }
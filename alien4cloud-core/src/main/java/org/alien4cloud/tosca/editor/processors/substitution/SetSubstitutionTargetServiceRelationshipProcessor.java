@@ -4,6 +4,7 @@ import alien4cloud.exception.NotFoundException;
 import alien4cloud.topology.TopologyService;
 import org.alien4cloud.tosca.catalog.index.IToscaTypeSearchService;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.substitution.SetSubstitutionCapabilityServiceRelationshipOperation;
 import org.alien4cloud.tosca.model.templates.SubstitutionTarget;
 import org.alien4cloud.tosca.model.templates.Topology;
@@ -23,6 +24,7 @@ public abstract class SetSubstitutionTargetServiceRelationshipProcessor {
 
     public void process(SubstitutionTarget substitutionTarget, String relationshipType, String relationshipVersion) {
         Topology topology = EditionContextManager.getTopology();
+        EditionContextManager.get().markSectionChanged(TopologyChanges.SUBSTITUTION_MAPPING);
 
         if (StringUtils.isBlank(relationshipType)) {
             substitutionTarget.setServiceRelationshipType(null);
@@ -4,6 +4,7 @@ import javax.inject.Inject;
 
 import alien4cloud.paas.wf.exception.BadWorkflowOperationException;
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.workflow.AbstractWorkflowOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 
@@ -23,6 +24,7 @@ public abstract class AbstractWorkflowProcessor<T extends AbstractWorkflowOperat
     public void process(T operation) {
         Topology topology = EditionContextManager.getTopology();
         Workflow workflow = workflowBuilderService.getWorkflow(operation.getWorkflowName(), topology);
+        EditionContextManager.get().markSectionChanged(TopologyChanges.WORKFLOWS);
         processWorkflowOperation(operation, workflow);
     }
 
@@ -3,6 +3,7 @@ package org.alien4cloud.tosca.editor.processors.workflow;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.editor.EditionContextManager;
+import org.alien4cloud.tosca.editor.TopologyChanges;
 import org.alien4cloud.tosca.editor.operations.workflow.CreateWorkflowOperation;
 import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
 import org.alien4cloud.tosca.model.templates.Topology;
@@ -30,6 +31,7 @@ public class CreateWorkflowProcessor implements IEditorOperationProcessor<Create
         }
         WorkflowUtils.validateName(operation.getWorkflowName());
         workflowsBuilderService.ceateWorkflow(topology, operation.getWorkflowName());
+        EditionContextManager.get().markSectionChanged(TopologyChanges.WORKFLOWS);
     }
 
 }
@@ -15,6 +15,7 @@ import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
 import org.alien4cloud.tosca.catalog.index.CsarService;
 import org.alien4cloud.tosca.catalog.index.ICsarDependencyLoader;
 import org.alien4cloud.tosca.catalog.index.IToscaTypeIndexerService;
+import org.alien4cloud.tosca.catalog.index.SharedToscaTypesCacheManager;
 import org.alien4cloud.tosca.catalog.repository.ICsarRepositry;
 import org.alien4cloud.tosca.editor.EditionContext;
 import org.alien4cloud.tosca.editor.EditionContextManager;
@@ -60,6 +61,8 @@ public class TopologySubstitutionService {
     private ICsarDependencyLoader csarDependencyLoader;
     @Inject
     private ApplicationEventPublisher publisher;
+    @Inject
+    private SharedToscaTypesCacheManager sharedToscaTypesCacheManager;
 
     @ToscaContextual
     public void updateSubstitutionType(final Topology topology, Csar csar) {
@@ -109,6 +112,8 @@ public class TopologySubstitutionService {
 
         // finally we index the created type
         indexerService.indexInheritableElement(csar.getName(), csar.getVersion(), substituteNodeType, csar.getDependencies());
+        // the type is not indexed through the archive indexer, released topology archives may have their previous substitution type in the shared cache.
+        sharedToscaTypesCacheManager.invalidate(csar.getName(), csar.getVersion());
 
         // Dispatch event
         publisher.publishEvent(new SubstitutionTypeChangedEvent(this, topology, substituteNodeType));
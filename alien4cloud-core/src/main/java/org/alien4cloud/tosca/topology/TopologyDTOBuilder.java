@@ -1,5 +1,7 @@
 package org.alien4cloud.tosca.topology;
 
+import static alien4cloud.utils.AlienUtils.safe;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -10,6 +12,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.alien4cloud.tosca.editor.EditionContext;
+import org.alien4cloud.tosca.editor.TopologyChanges;
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
 import org.alien4cloud.tosca.model.definitions.RequirementDefinition;
@@ -25,11 +29,14 @@ import org.alien4cloud.tosca.utils.DataTypesFetcher;
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.topology.AbstractTopologyDTO;
 import alien4cloud.topology.DependencyConflictDTO;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDeltaDTO;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
 
@@ -38,7 +45,6 @@ import alien4cloud.tosca.context.ToscaContextual;
  */
 @Service
 public class TopologyDTOBuilder {
-
     /**
      * Build a topology dto (topology and all used types) out of a topology.
      * 
@@ -50,6 +56,7 @@ public class TopologyDTOBuilder {
         initTopologyDTO(context.getTopology(), topologyDTO);
         topologyDTO.setArchiveContentTree(context.getArchiveContentTree());
         topologyDTO.setLastOperationIndex(context.getLastOperationIndex());
+        topologyDTO.setRevision(context.getTopologyRevision());
         topologyDTO.setOperations(context.getOperations());
         topologyDTO.setDelegateType(context.getCsar().getDelegateType());
 
@@ -59,6 +66,98 @@ public class TopologyDTOBuilder {
         return topologyDTO;
     }
 
+    /**
+     * Build a delta dto that contains only the elements that changed since the revision known by the client.
+     *
+     * @param context The edition context from which to build the dto.
+     * @param clientRevision The revision of the topology known by the client, -1 if unknown.
+     * @param baseRevision The revision of the edition context before the request has been processed.
+     * @param changes The changes of the topology performed by the request, as recorded by the operation processors.
+     * @return A delta dto, that contains the full topology dto if the delta cannot be computed.
+     */
+    @ToscaContextual
+    public TopologyDeltaDTO buildTopologyDeltaDTO(EditionContext context, long clientRevision, long baseRevision, TopologyChanges changes) {
+        TopologyDeltaDTO deltaDTO = new TopologyDeltaDTO();
+        List<AbstractEditorOperation> operations = context.getOperations();
+        deltaDTO.setRevision(context.getTopologyRevision());
+        deltaDTO.setLastOperationIndex(context.getLastOperationIndex());
+        deltaDTO.setLastOperationId(context.getLastOperationIndex() < 0 ? null : operations.get(context.getLastOperationIndex()).getId());
+        // the client already knows the operations before the first changed one.
+        int operationsFromIndex = Math.min(changes.getOperationsFromIndex(), operations.size());
+        deltaDTO.setOperationsFromIndex(operationsFromIndex);
+        deltaDTO.setOperations(Lists.newArrayList(operations.subList(operationsFromIndex, operations.size())));
+
+        if (clientRevision != baseRevision || changes.isAll() || changes.getSections().contains(TopologyChanges.DEPENDENCIES)) {
+            // the client does not know the topology the request has been applied on (another client changed it) or the types of all nodes may have changed.
+            deltaDTO.setFullResync(true);
+            deltaDTO.setFullTopology(buildTopologyDTO(context));
+            return deltaDTO;
+        }
+
+        Topology topology = context.getTopology();
+        Map<String, NodeTemplate> updatedNodeTemplates = Maps.newHashMap();
+        Set<String> removedNodeTemplates = Sets.newHashSet();
+        for (String nodeTemplateName : changes.getNodeTemplates()) {
+            NodeTemplate nodeTemplate = safe(topology.getNodeTemplates()).get(nodeTemplateName);
+            if (nodeTemplate == null) {
+                removedNodeTemplates.add(nodeTemplateName);
+            } else {
+                updatedNodeTemplates.put(nodeTemplateName, nodeTemplate);
+            }
+        }
+        deltaDTO.setUpdatedNodeTemplates(updatedNodeTemplates);
+        deltaDTO.setRemovedNodeTemplates(removedNodeTemplates);
+
+        // HashMap as sections may be null
+        Map<String, Object> updatedSections = new HashMap<>();
+        for (String section : changes.getSections()) {
+            if (TopologyChanges.ARCHIVE_CONTENT_TREE.equals(section)) {
+                deltaDTO.setArchiveContentTree(context.getArchiveContentTree());
+            } else {
+                updatedSections.put(section, getSection(topology, section));
+            }
+        }
+        deltaDTO.setUpdatedSections(updatedSections);
+
+        // types used by the updated node templates only, the client already knows the other ones.
+        Map<String, NodeType> nodeTypes = Maps.newHashMap();
+        fillTypeMap(NodeType.class, nodeTypes, updatedNodeTemplates, false, false);
+        deltaDTO.setNodeTypes(nodeTypes);
+        Map<String, RelationshipType> relationshipTypes = Maps.newHashMap();
+        for (NodeTemplate nodeTemplate : updatedNodeTemplates.values()) {
+            fillTypeMap(RelationshipType.class, relationshipTypes, nodeTemplate.getRelationships(), false, false);
+        }
+        deltaDTO.setRelationshipTypes(relationshipTypes);
+        deltaDTO.setCapabilityTypes(getCapabilityTypes(deltaDTO));
+        deltaDTO.setDataTypes(getDataTypes(deltaDTO));
+        return deltaDTO;
+    }
+
+    private Object getSection(Topology topology, String section) {
+        switch (section) {
+        case TopologyChanges.DESCRIPTION:
+            return topology.getDescription();
+        case TopologyChanges.INPUTS:
+            return topology.getInputs();
+        case TopologyChanges.OUTPUT_PROPERTIES:
+            return topology.getOutputProperties();
+        case TopologyChanges.OUTPUT_CAPABILITY_PROPERTIES:
+            return topology.getOutputCapabilityProperties();
+        case TopologyChanges.OUTPUT_ATTRIBUTES:
+            return topology.getOutputAttributes();
+        case TopologyChanges.INPUT_ARTIFACTS:
+            return topology.getInputArtifacts();
+        case TopologyChanges.GROUPS:
+            return topology.getGroups();
+        case TopologyChanges.SUBSTITUTION_MAPPING:
+            return topology.getSubstitutionMapping();
+        case TopologyChanges.WORKFLOWS:
+            return topology.getWorkflows();
+        default:
+            throw new IllegalArgumentException("Unknown topology section " + section);
+        }
+    }
+
     /**
      * Compute a list of transitive dependency conflicts from the Context.
      * 
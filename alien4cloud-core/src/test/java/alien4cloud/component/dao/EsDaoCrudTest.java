@@ -23,6 +23,7 @@ import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRespon
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.types.TypesExistsResponse;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -32,6 +33,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
 import alien4cloud.dao.model.FetchContext;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.application.Application;
@@ -125,6 +127,12 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         nt = lnt2.get(0);
         assertBeanEqualsToOriginal(nt);
 
+        // findByIds on an abstract class returns the elements of the concrete types
+        List<AbstractToscaType> elements = dao.findByIds(AbstractToscaType.class, indexedNodeTypeTest.getId(), "5");
+        assertEquals(1, elements.size());
+        assertTrue(elements.get(0) instanceof NodeType);
+        assertBeanEqualsToOriginal(elements.get(0));
+
         // findByIdsWithContext
         saveApplications();
         List<Application> apps = dao.findByIdsWithContext(Application.class, FetchContext.SUMMARY, new String[] { "1", "2", "8" });
@@ -169,6 +177,18 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         refresh();
     }
 
+    @Test
+    public void findByIdsShouldFindElementsNotRefreshedYet() throws JsonProcessingException {
+        String json = jsonMapper.writeValueAsString(indexedNodeTypeTest);
+        nodeClient.prepareIndex(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, NodeType.class.getSimpleName().toLowerCase(), indexedNodeTypeTest.getId()).setSource(json)
+                .setRefresh(false).execute().actionGet();
+
+        // multi get is realtime while a search only sees the refreshed documents.
+        List<AbstractToscaType> elements = dao.findByIds(AbstractToscaType.class, indexedNodeTypeTest.getId());
+        assertEquals(1, elements.size());
+        assertBeanEqualsToOriginal(elements.get(0));
+    }
+
     @Test
     public void deleteToscaComponentSuccessfulTest() throws IndexingServiceException, JsonProcessingException {
 
@@ -213,6 +233,20 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         assertTrue("LastUpdateDate date should be greater than creationDate date", indexedNodeType.getLastUpdateDate().after(indexedNodeType.getCreationDate()));
     }
 
+    @Test
+    public void nearRealTimeSaveShouldBeVisibleAfterWait() {
+        dao.save(indexedNodeTypeTest, RefreshPolicy.NEAR_REAL_TIME);
+        // get operations are real time even if the index is not refreshed.
+        assertNotNull(dao.findById(NodeType.class, indexedNodeTypeTest.getId()));
+
+        dao.waitUntilVisible(NodeType.class);
+        assertEquals(1, dao.count(NodeType.class, QueryBuilders.idsQuery().ids(indexedNodeTypeTest.getId())));
+
+        dao.delete(NodeType.class, indexedNodeTypeTest.getId(), RefreshPolicy.NEAR_REAL_TIME);
+        dao.waitUntilVisible(NodeType.class);
+        assertEquals(0, dao.count(NodeType.class, QueryBuilders.idsQuery().ids(indexedNodeTypeTest.getId())));
+    }
+
     private void updateAndSaveIndexedToscaElement(final List<Tag> tags) {
         Date creationDate = indexedNodeTypeTest.getCreationDate();
         indexedNodeTypeTest.getTags().addAll(tags);
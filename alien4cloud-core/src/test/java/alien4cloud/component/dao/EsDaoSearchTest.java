@@ -15,6 +15,7 @@ import javax.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,6 +26,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.ScrollIterator;
 import alien4cloud.dao.model.FacetedSearchFacet;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
@@ -93,6 +95,29 @@ public class EsDaoSearchTest extends AbstractDAOTest {
         assertEquals(2, searchResp.getData().length);
     }
 
+    @Test
+    public void streamTest() {
+        ScrollIterator<NodeType> iterator = dao.stream(NodeType.class, null, null);
+        List<String> ids = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next().getId());
+        }
+        assertEquals(4, ids.size());
+        assertTrue(ids.contains(indexedNodeTypeTest.getId()));
+
+        iterator = dao.stream(NodeType.class, QueryBuilders.idsQuery().ids(indexedNodeTypeTest2.getId()), null);
+        assertTrue(iterator.hasNext());
+        assertEquals(indexedNodeTypeTest2.getId(), iterator.next().getId());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void deleteByQueryTest() {
+        dao.delete(NodeType.class, QueryBuilders.idsQuery().ids(indexedNodeTypeTest.getId(), indexedNodeTypeTest2.getId()));
+        assertEquals(2, dao.count(NodeType.class, null));
+        assertNull(dao.findById(NodeType.class, indexedNodeTypeTest.getId()));
+    }
+
     @Test
     public void searchInTagsTest() throws IndexingServiceException, InterruptedException, IOException {
 
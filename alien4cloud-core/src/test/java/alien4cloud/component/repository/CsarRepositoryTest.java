@@ -79,6 +79,28 @@ public class CsarRepositoryTest {
         testStoreSuccessful("1.0-snapshot");
     }
 
+    @Test
+    public void copyCSARShouldShareArtifactsWithTheSourceArchive() throws IOException {
+        cleanup();
+        storeTestCSAR(testFileName, "1.0", tmpPath);
+        Csar csar = new Csar(testFileName, "1.1");
+        csar.setWorkspace(AlienConstants.GLOBAL_WORKSPACE_ID);
+        csar.setYamlFilePath("topology.yml");
+        repo.copyCSAR(testFileName, "1.0", csar, "tosca_definitions_version: alien_dsl_1_4_0");
+
+        Path sourcePath = repo.getExpandedCSAR(testFileName, "1.0");
+        Path copyPath = repo.getExpandedCSAR(testFileName, "1.1");
+        assertEquals("tosca_definitions_version: alien_dsl_1_4_0", new String(Files.readAllBytes(copyPath.resolve("topology.yml")), "UTF-8"));
+        // artifacts are not duplicated but shared between versions
+        assertTrue(Files.isSameFile(sourcePath.resolve("images/compute.png"), copyPath.resolve("images/compute.png")));
+        assertTrue(Files.isSameFile(sourcePath.resolve("Definitions/tosca-base-types.yaml"), copyPath.resolve("Definitions/tosca-base-types.yaml")));
+
+        // removing a version keeps the artifacts of the other one
+        repo.removeCSAR(testFileName, "1.0");
+        assertTrue(Files.exists(copyPath.resolve("images/compute.png")));
+        assertNotNull(repo.getCSAR(testFileName, "1.1"));
+    }
+
     private Path storeTestCSAR(String testFileName, String version, String tmpPath) {
         Path path = Paths.get(tmpPath).toAbsolutePath();
         Csar csar = new Csar(testFileName, version);
@@ -0,0 +1,92 @@
+package alien4cloud.deployment.matching.services.nodes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.alien4cloud.alm.service.ServiceResourceService;
+import org.alien4cloud.alm.service.events.ServiceChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+import alien4cloud.orchestrators.locations.services.ILocationResourceService;
+import alien4cloud.orchestrators.locations.services.LocationMatchingConfigurationService;
+
+/**
+ * Check that the matching index of a location is reused until the location, its services or its matching configuration change.
+ */
+public class LocationMatchingIndexServiceTest {
+    private final LocationMatchingIndexService locationMatchingIndexService = new LocationMatchingIndexService();
+    private final ILocationResourceService locationResourceService = Mockito.mock(ILocationResourceService.class);
+    private final LocationMatchingConfigurationService locationMatchingConfigurationService = Mockito.mock(LocationMatchingConfigurationService.class);
+    private final Location location = new Location();
+    private Map<String, MatchingConfiguration> matchingConfigurations = Maps.newHashMap();
+
+    @Before
+    public void setup() {
+        ServiceResourceService serviceResourceService = Mockito.mock(ServiceResourceService.class);
+        Mockito.when(serviceResourceService.searchByLocation(Mockito.anyString())).thenReturn(Lists.newArrayList());
+        Mockito.when(locationResourceService.getLocationResources(Mockito.any(Location.class))).thenAnswer(invocation -> new LocationResources());
+        Mockito.when(locationMatchingConfigurationService.getMatchingConfiguration(Mockito.any(Location.class))).thenAnswer(invocation -> matchingConfigurations);
+        ReflectionTestUtils.setField(locationMatchingIndexService, "locationResourceService", locationResourceService);
+        ReflectionTestUtils.setField(locationMatchingIndexService, "serviceResourceService", serviceResourceService);
+        ReflectionTestUtils.setField(locationMatchingIndexService, "locationMatchingConfigurationService", locationMatchingConfigurationService);
+        ReflectionTestUtils.setField(locationMatchingIndexService, "indexTtlSeconds", 0);
+
+        location.setId("location");
+        location.setLastUpdateDate(new Date(1000));
+    }
+
+    @Test
+    public void indexShouldBeReusedWhenNothingChanged() {
+        String version = locationMatchingIndexService.getIndexVersion(location);
+        LocationMatchingIndex index = locationMatchingIndexService.getIndex(location);
+        assertThat(locationMatchingIndexService.getIndex(location)).isSameAs(index);
+        assertThat(locationMatchingIndexService.getIndexVersion(location)).isEqualTo(version);
+        Mockito.verify(locationResourceService, Mockito.times(1)).getLocationResources(location);
+    }
+
+    @Test
+    public void indexShouldBeRebuiltWhenTheLocationChanges() {
+        LocationMatchingIndex index = locationMatchingIndexService.getIndex(location);
+        location.setLastUpdateDate(new Date(2000));
+        assertThat(locationMatchingIndexService.getIndex(location)).isNotSameAs(index);
+    }
+
+    @Test
+    public void indexShouldBeRebuiltWhenAServiceChanges() {
+        String version = locationMatchingIndexService.getIndexVersion(location);
+        LocationMatchingIndex index = locationMatchingIndexService.getIndex(location);
+        locationMatchingIndexService.onServiceChanged(new ServiceChangedEvent(this, "service"));
+        assertThat(locationMatchingIndexService.getIndexVersion(location)).isNotEqualTo(version);
+        assertThat(locationMatchingIndexService.getIndex(location)).isNotSameAs(index);
+    }
+
+    @Test
+    public void indexShouldBeRebuiltOnlyForANewMatchingConfiguration() {
+        LocationMatchingIndex index = locationMatchingIndexService.getIndex(location);
+        // the configuration is compared by identity, its content is not serialized on every request.
+        matchingConfigurations.put("tosca.nodes.Root", new MatchingConfiguration());
+        assertThat(locationMatchingIndexService.getIndex(location)).isSameAs(index);
+        matchingConfigurations = Maps.newHashMap(matchingConfigurations);
+        assertThat(locationMatchingIndexService.getIndex(location)).isNotSameAs(index);
+    }
+
+    @Test
+    public void indexShouldExpire() throws InterruptedException {
+        ReflectionTestUtils.setField(locationMatchingIndexService, "indexTtlSeconds", 1);
+        LocationMatchingIndex index = locationMatchingIndexService.getIndex(location);
+        // changes made by other instances are not notified, the index is rebuilt once the ttl period is over.
+        Thread.sleep(1100);
+        assertThat(locationMatchingIndexService.getIndex(location)).isNotSameAs(index);
+    }
+}
@@ -0,0 +1,111 @@
+package alien4cloud.deployment.matching.services.nodes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.definitions.constraints.GreaterOrEqualConstraint;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.model.deployment.matching.MatchingConfiguration;
+import alien4cloud.model.orchestrators.locations.LocationResourceTemplate;
+import alien4cloud.model.orchestrators.locations.LocationResources;
+
+/**
+ * Check the matching of a large topology against a location with many resources through a shared location index.
+ */
+public class LocationMatchingIndexTest {
+    private static final int RESOURCE_TYPES = 50;
+    private static final int RESOURCES_PER_TYPE = 60;
+    private static final int NODES = 300;
+
+    private final DefaultNodeMatcher nodeMatcher = new DefaultNodeMatcher();
+    private final LocationResources locationResources;
+    private final Map<String, MatchingConfiguration> matchingConfigurations = Maps.newHashMap();
+    private final Map<String, NodeTemplate> nodes = Maps.newHashMap();
+    private final NodeType abstractType = new NodeType();
+
+    public LocationMatchingIndexTest() {
+        locationResources = new LocationResources();
+        locationResources.setNodeTypes(Maps.newHashMap());
+        List<LocationResourceTemplate> templates = Lists.newArrayList();
+        PropertyDefinition sizeDefinition = new PropertyDefinition();
+        sizeDefinition.setType("integer");
+        for (int t = 0; t < RESOURCE_TYPES; t++) {
+            NodeType nodeType = new NodeType();
+            nodeType.setElementId("org.alien4cloud.nodes.mock.Resource" + t);
+            nodeType.setDerivedFrom(Arrays.asList("tosca.nodes.Abstract" + t, "tosca.nodes.Root"));
+            nodeType.setProperties(Maps.newHashMap());
+            nodeType.getProperties().put("size", sizeDefinition);
+            locationResources.getNodeTypes().put(nodeType.getElementId(), nodeType);
+            for (int r = 0; r < RESOURCES_PER_TYPE; r++) {
+                NodeTemplate template = new NodeTemplate();
+                template.setType(nodeType.getElementId());
+                template.setProperties(Maps.newHashMap());
+                template.getProperties().put("size", new ScalarPropertyValue(String.valueOf(r)));
+                LocationResourceTemplate resourceTemplate = new LocationResourceTemplate();
+                resourceTemplate.setId(nodeType.getElementId() + "-" + r);
+                resourceTemplate.setTemplate(template);
+                templates.add(resourceTemplate);
+            }
+        }
+        locationResources.setNodeTemplates(templates);
+
+        // the size requested by the node must be greater or equal to the size of the candidate
+        MatchingConfiguration matchingConfiguration = new MatchingConfiguration();
+        GreaterOrEqualConstraint constraint = new GreaterOrEqualConstraint();
+        constraint.setGreaterOrEqual("0");
+        matchingConfiguration.getProperties().put("size", Lists.newArrayList(constraint));
+        matchingConfigurations.put("tosca.nodes.Root", matchingConfiguration);
+
+        abstractType.setAbstract(true);
+        for (int i = 0; i < NODES; i++) {
+            NodeTemplate node = new NodeTemplate();
+            node.setType("tosca.nodes.Abstract" + (i % RESOURCE_TYPES));
+            Map<String, AbstractPropertyValue> properties = Maps.newHashMap();
+            properties.put("size", new ScalarPropertyValue(String.valueOf(i % RESOURCES_PER_TYPE)));
+            node.setProperties(properties);
+            nodes.put("node" + i, node);
+        }
+    }
+
+    private LocationMatchingIndex newIndex() {
+        return new LocationMatchingIndex(1, locationResources, matchingConfigurations, Maps.newHashMap());
+    }
+
+    @Test
+    public void indexedMatchingShouldReturnTheCandidatesMatchingFilters() {
+        LocationMatchingIndex index = newIndex();
+        NodeTemplate node = nodes.get("node10");
+        List<LocationResourceTemplate> matched = nodeMatcher.matchNode(node, abstractType, index, candidate -> true);
+        // only the resources of type 10 with a size lower or equal to 10 can be used.
+        assertThat(matched).hasSize(11);
+        assertThat(matched).allMatch(template -> template.getTemplate().getType().equals("org.alien4cloud.nodes.mock.Resource10"));
+        assertThat(nodeMatcher.matchNode(node, abstractType, locationResources, matchingConfigurations)).containsExactlyElementsOf(matched);
+        assertThat(nodeMatcher.matchNode(node, abstractType, index, candidate -> false)).isEmpty();
+        // the shared configured constraint must not be modified by matching.
+        assertThat(((GreaterOrEqualConstraint) matchingConfigurations.get("tosca.nodes.Root").getProperties().get("size").get(0)).getGreaterOrEqual())
+                .isEqualTo("0");
+    }
+
+    @Test
+    public void sharedIndexShouldMatchTheSameCandidatesAsPerNodeMatching() {
+        LocationMatchingIndex index = newIndex();
+        // one node per resource type
+        for (int i = 0; i < RESOURCE_TYPES; i++) {
+            NodeTemplate node = nodes.get("node" + i);
+            assertThat(nodeMatcher.matchNode(node, abstractType, index, candidate -> true))
+                    .containsExactlyElementsOf(nodeMatcher.matchNode(node, abstractType, locationResources, matchingConfigurations));
+        }
+    }
+}
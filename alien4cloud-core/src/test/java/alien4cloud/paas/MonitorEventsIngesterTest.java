@@ -0,0 +1,58 @@
+package alien4cloud.paas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+
+public class MonitorEventsIngesterTest {
+
+    @Test
+    public void eventsShouldBePersistedInBulks() throws InterruptedException {
+        IGenericSearchDAO monitorDAO = Mockito.mock(IGenericSearchDAO.class);
+        MonitorEventsIngester ingester = new MonitorEventsIngester(monitorDAO, "orchestrator", 100, 50, 10);
+
+        AbstractMonitorEvent[] events = new AbstractMonitorEvent[20];
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < events.length; j++) {
+                events[j] = new PaaSMessageMonitorEvent();
+            }
+            ingester.enqueue(events);
+        }
+        ingester.shutdown();
+
+        ArgumentCaptor<AbstractMonitorEvent[]> captor = ArgumentCaptor.forClass(AbstractMonitorEvent[].class);
+        Mockito.verify(monitorDAO, Mockito.atLeastOnce()).save(captor.capture());
+        List<AbstractMonitorEvent[]> bulks = captor.getAllValues();
+        int total = 0;
+        for (AbstractMonitorEvent[] bulk : bulks) {
+            assertTrue(bulk.length <= 50);
+            total += bulk.length;
+        }
+        assertEquals(200, total);
+        assertEquals(200, ingester.getPersistedEvents().getCount());
+        assertEquals(0, ingester.getQueueDepth());
+    }
+
+    @Test(timeout = 10000)
+    public void enqueueShouldNotBlockOnceShutdownWhileElasticsearchIsDown() throws InterruptedException {
+        IGenericSearchDAO monitorDAO = Mockito.mock(IGenericSearchDAO.class);
+        Mockito.doThrow(new RuntimeException("elasticsearch is down")).when(monitorDAO).save(Mockito.any(AbstractMonitorEvent[].class));
+        MonitorEventsIngester ingester = new MonitorEventsIngester(monitorDAO, "orchestrator", 2, 1, 10);
+
+        // the worker keeps retrying the first event while the others fill the queue.
+        ingester.enqueue(new AbstractMonitorEvent[] { new PaaSMessageMonitorEvent(), new PaaSMessageMonitorEvent(), new PaaSMessageMonitorEvent() });
+        ingester.shutdown();
+        ingester.enqueue(new AbstractMonitorEvent[] { new PaaSMessageMonitorEvent(), new PaaSMessageMonitorEvent() });
+
+        assertEquals(0, ingester.getPersistedEvents().getCount());
+    }
+}
@@ -0,0 +1,277 @@
+package alien4cloud.paas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.mapping.QueryHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+
+/**
+ * Test the push and adaptive polling scheduling of the {@link PaaSProviderPollingMonitor} with a fake scheduler that only records the scheduled polls.
+ */
+@SuppressWarnings("unchecked")
+public class PaaSProviderPollingMonitorSchedulingTest {
+    private static final long MIN_INTERVAL_MS = 10000;
+    private static final long MAX_INTERVAL_MS = 40000;
+    /** Tolerance on the recorded delays as they are computed from the current time. */
+    private static final double DELAY_TOLERANCE_MS = 1000;
+
+    private IGenericSearchDAO dao;
+    private IGenericSearchDAO monitorDAO;
+    private IPaasEventListener<AbstractMonitorEvent> listener;
+    private FakeTaskScheduler scheduler;
+
+    @Before
+    public void prepare() {
+        dao = Mockito.mock(IGenericSearchDAO.class);
+        Mockito.when(dao.search(Mockito.eq(Deployment.class), Mockito.<String> any(), Mockito.<Map<String, String[]>> any(), Mockito.anyInt()))
+                .thenReturn(new GetMultipleDataResult<>(new String[] { "deployment" }, new Deployment[] { new Deployment() }));
+        monitorDAO = Mockito.mock(IGenericSearchDAO.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(monitorDAO.search(Mockito.any(QueryHelper.ISearchQueryBuilderHelper.class), Mockito.anyInt(), Mockito.anyInt()))
+                .thenReturn(new GetMultipleDataResult<>(new String[0], new Object[0]));
+        listener = Mockito.mock(IPaasEventListener.class);
+        Mockito.when(listener.canHandle(Mockito.any(AbstractMonitorEvent.class))).thenReturn(true);
+        scheduler = new FakeTaskScheduler();
+    }
+
+    @Test
+    public void pushedEventsShouldBeProcessedWithoutPolling() {
+        IEventsPushPaaSProvider provider = Mockito.mock(IEventsPushPaaSProvider.class);
+        PaaSProviderPollingMonitor monitor = newMonitor(provider);
+        monitor.start(scheduler, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+
+        IPaaSCallback<AbstractMonitorEvent[]> pushCallback = capturePushCallback(provider);
+        pushCallback.onSuccess(events(3));
+        monitor.wakeUp();
+
+        Mockito.verify(listener, Mockito.times(3)).eventHappened(Mockito.any(AbstractMonitorEvent.class));
+        Mockito.verify(monitorDAO).save(Mockito.any(AbstractMonitorEvent[].class));
+        assertTrue(scheduler.tasks.isEmpty());
+        Mockito.verify(provider, Mockito.never()).getEventsSince(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+    }
+
+    @Test
+    public void pushFailureShouldFallBackToPolling() {
+        IEventsPushPaaSProvider provider = Mockito.mock(IEventsPushPaaSProvider.class);
+        answerEvents(provider, 1);
+        PaaSProviderPollingMonitor monitor = newMonitor(provider);
+        monitor.start(scheduler, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+
+        capturePushCallback(provider).onFailure(new RuntimeException("connection lost"));
+        assertEquals(1, scheduler.tasks.size());
+        assertDelay(0, scheduler.last());
+        scheduler.runLast();
+        // the first poll finds a deployment and polls right away.
+        assertDelay(0, scheduler.last());
+        scheduler.runLast();
+
+        Mockito.verify(provider).getEventsSince(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+        Mockito.verify(listener).eventHappened(Mockito.any(AbstractMonitorEvent.class));
+        assertDelay(MIN_INTERVAL_MS, scheduler.last());
+    }
+
+    @Test
+    public void fullPageShouldBePolledAgainImmediately() {
+        IPaaSProvider provider = Mockito.mock(IPaaSProvider.class);
+        PaaSProviderPollingMonitor monitor = newMonitor(provider);
+        monitor.start(scheduler, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+        scheduler.runLast();
+
+        answerEvents(provider, 500);
+        scheduler.runLast();
+        assertDelay(0, scheduler.last());
+
+        answerEvents(provider, 10);
+        scheduler.runLast();
+        assertDelay(MIN_INTERVAL_MS, scheduler.last());
+    }
+
+    @Test
+    public void idlePollsShouldBackOffUpToTheMaximumInterval() {
+        IPaaSProvider provider = Mockito.mock(IPaaSProvider.class);
+        answerEvents(provider, 0);
+        PaaSProviderPollingMonitor monitor = newMonitor(provider);
+        monitor.start(scheduler, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+        scheduler.runLast();
+
+        long[] expectedDelays = { MIN_INTERVAL_MS, 2 * MIN_INTERVAL_MS, MAX_INTERVAL_MS, MAX_INTERVAL_MS };
+        for (long expectedDelay : expectedDelays) {
+            scheduler.runLast();
+            assertDelay(expectedDelay, scheduler.last());
+        }
+
+        // a wake up polls immediately and restarts from the minimum interval.
+        monitor.wakeUp();
+        assertDelay(0, scheduler.last());
+        scheduler.runLast();
+        assertDelay(MIN_INTERVAL_MS, scheduler.last());
+    }
+
+    @Test
+    public void stoppedMonitorShouldNotPoll() {
+        IPaaSProvider provider = Mockito.mock(IPaaSProvider.class);
+        PaaSProviderPollingMonitor monitor = newMonitor(provider);
+        monitor.start(scheduler, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+        ScheduledTask firstPoll = scheduler.last();
+        monitor.stop();
+        monitor.wakeUp();
+
+        assertTrue(firstPoll.cancelled);
+        assertEquals(1, scheduler.tasks.size());
+        firstPoll.runnable.run();
+        Mockito.verify(provider, Mockito.never()).getEventsSince(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+    }
+
+    private PaaSProviderPollingMonitor newMonitor(IPaaSProvider provider) {
+        List<IPaasEventListener> listeners = Collections.<IPaasEventListener> singletonList(listener);
+        return new PaaSProviderPollingMonitor(dao, monitorDAO, provider, listeners, "orchestrator");
+    }
+
+    private IPaaSCallback<AbstractMonitorEvent[]> capturePushCallback(IEventsPushPaaSProvider provider) {
+        ArgumentCaptor<IPaaSCallback> captor = ArgumentCaptor.forClass(IPaaSCallback.class);
+        Mockito.verify(provider).startEventsPush(Mockito.any(Date.class), captor.capture());
+        return captor.getValue();
+    }
+
+    private void answerEvents(IPaaSProvider provider, int count) {
+        Mockito.doAnswer(invocation -> {
+            ((IPaaSCallback<AbstractMonitorEvent[]>) invocation.getArguments()[2]).onSuccess(events(count));
+            return null;
+        }).when(provider).getEventsSince(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+    }
+
+    private AbstractMonitorEvent[] events(int count) {
+        AbstractMonitorEvent[] events = new AbstractMonitorEvent[count];
+        for (int i = 0; i < count; i++) {
+            events[i] = new PaaSMessageMonitorEvent();
+            events[i].setDate(System.currentTimeMillis());
+        }
+        return events;
+    }
+
+    private void assertDelay(long expectedDelayMs, ScheduledTask task) {
+        assertFalse(task.cancelled);
+        assertEquals(expectedDelayMs, task.delayMs, DELAY_TOLERANCE_MS);
+    }
+
+    /**
+     * Scheduled poll recorded by the fake scheduler.
+     */
+    private static class ScheduledTask implements ScheduledFuture<Object> {
+        private final Runnable runnable;
+        private final long delayMs;
+        private boolean cancelled = false;
+
+        private ScheduledTask(Runnable runnable, long delayMs) {
+            this.runnable = runnable;
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return cancelled;
+        }
+
+        @Override
+        public Object get() {
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+
+    /**
+     * Task scheduler that records the scheduled polls so that the test runs them explicitly.
+     */
+    private static class FakeTaskScheduler implements TaskScheduler {
+        private final List<ScheduledTask> tasks = Lists.newArrayList();
+
+        /** Get the last scheduled task. */
+        private ScheduledTask last() {
+            return tasks.get(tasks.size() - 1);
+        }
+
+        /** Remove and run the last scheduled task, tasks scheduled meanwhile are kept. */
+        private void runLast() {
+            tasks.remove(tasks.size() - 1).runnable.run();
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+            ScheduledTask scheduledTask = new ScheduledTask(task, Math.max(0, startTime.getTime() - System.currentTimeMillis()));
+            tasks.add(scheduledTask);
+            return scheduledTask;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package alien4cloud.paas.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.AttributeDefinition;
+import org.alien4cloud.tosca.model.definitions.ConcatPropertyValue;
+import org.alien4cloud.tosca.model.definitions.FunctionPropertyValue;
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.normative.ToscaNormativeUtil;
+import org.alien4cloud.tosca.normative.constants.ToscaFunctionConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.paas.function.FunctionEvaluationPlan.AttributeKey;
+import alien4cloud.paas.model.InstanceInformation;
+import alien4cloud.paas.model.PaaSNodeTemplate;
+import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
+
+/**
+ * Check the values of the compiled evaluation plan, the re-evaluation of dependent attributes only and the evaluation of single values by the function evaluator.
+ */
+public class FunctionEvaluationPlanTest {
+    private Topology topology;
+    private Map<String, PaaSNodeTemplate> builtPaaSTemplates;
+    private Map<String, Map<String, InstanceInformation>> runtimeInformations;
+
+    @Before
+    public void prepare() {
+        topology = new Topology();
+        topology.setNodeTemplates(Maps.<String, NodeTemplate> newHashMap());
+        builtPaaSTemplates = Maps.newHashMap();
+        runtimeInformations = Maps.newHashMap();
+
+        AttributeDefinition ipAddress = new AttributeDefinition();
+        ipAddress.setDefault("0.0.0.0");
+        PaaSNodeTemplate server = addNode("server", map("ip_address", ipAddress));
+
+        ConcatPropertyValue url = new ConcatPropertyValue();
+        url.setParameters(Lists.<AbstractPropertyValue> newArrayList(new ScalarPropertyValue("http://"),
+                function(ToscaFunctionConstants.GET_ATTRIBUTE, ToscaFunctionConstants.HOST, "ip_address"), new ScalarPropertyValue(":"),
+                function(ToscaFunctionConstants.GET_PROPERTY, ToscaFunctionConstants.SELF, "port"), new ScalarPropertyValue("/"),
+                function(ToscaFunctionConstants.GET_OPERATION_OUTPUT, ToscaFunctionConstants.SELF, ToscaNodeLifecycleConstants.STANDARD,
+                        ToscaNodeLifecycleConstants.CONFIGURE, "context")));
+        PaaSNodeTemplate apache = addNode("apache", map("url", url));
+        apache.setParent(server);
+        apache.getTemplate().setProperties(map("port", new ScalarPropertyValue("8080")));
+
+        addNode("database", map("endpoint", function(ToscaFunctionConstants.GET_OPERATION_OUTPUT, ToscaFunctionConstants.SELF,
+                ToscaNodeLifecycleConstants.STANDARD, ToscaNodeLifecycleConstants.START, "endpoint")));
+
+        for (String instanceId : new String[] { "0", "1" }) {
+            addInstance("server", instanceId).getAttributes().put("ip_address", "10.0.0." + instanceId);
+            addInstance("apache", instanceId).getOperationsOutputs().put(outputName("apache", ToscaNodeLifecycleConstants.CONFIGURE, "context"),
+                    "app" + instanceId);
+        }
+        addInstance("database", "0");
+    }
+
+    @Test
+    public void planShouldEvaluateAttributes() {
+        FunctionEvaluationPlan plan = FunctionEvaluationPlan.compile(topology, builtPaaSTemplates);
+        assertEquals("http://10.0.0.1:8080/app1", plan.evaluate("apache", "url", runtimeInformations, "1"));
+        // output not yet available
+        assertNull(plan.evaluate("database", "endpoint", runtimeInformations, "0"));
+        assertNull(plan.evaluate("apache", "unknown", runtimeInformations, "0"));
+
+        Map<String, Map<String, Map<String, String>>> values = plan.evaluateAll(runtimeInformations);
+        assertEquals("10.0.0.0", values.get("server").get("0").get("ip_address"));
+        assertEquals("10.0.0.1", values.get("server").get("1").get("ip_address"));
+        assertEquals("http://10.0.0.0:8080/app0", values.get("apache").get("0").get("url"));
+        assertEquals("http://10.0.0.1:8080/app1", values.get("apache").get("1").get("url"));
+        assertTrue(values.get("database").get("0").containsKey("endpoint"));
+        assertNull(values.get("database").get("0").get("endpoint"));
+    }
+
+    @Test
+    public void definitionShouldFallbackOnDefaultValue() {
+        runtimeInformations.get("server").get("0").getAttributes().remove("ip_address");
+        runtimeInformations.get("server").get("1").getAttributes().put("ip_address", "");
+        FunctionEvaluationPlan plan = FunctionEvaluationPlan.compile(topology, builtPaaSTemplates);
+        assertEquals("0.0.0.0", plan.evaluate("server", "ip_address", runtimeInformations, "0"));
+        assertEquals("0.0.0.0", plan.evaluate("server", "ip_address", runtimeInformations, "1"));
+    }
+
+    @Test
+    public void updateShouldReevaluateOnlyDependentAttributes() {
+        FunctionEvaluationPlan plan = FunctionEvaluationPlan.compile(topology, builtPaaSTemplates);
+        Map<String, Map<String, Map<String, String>>> values = plan.evaluateAll(runtimeInformations);
+
+        runtimeInformations.get("server").get("1").getAttributes().put("ip_address", "10.0.1.1");
+        Set<AttributeKey> updated = plan.update(values, runtimeInformations, "server", Lists.newArrayList("ip_address"));
+        assertEquals(2, updated.size());
+        assertTrue(updated.contains(new AttributeKey("server", "ip_address")));
+        assertTrue(updated.contains(new AttributeKey("apache", "url")));
+        assertEquals("http://10.0.1.1:8080/app1", values.get("apache").get("1").get("url"));
+        assertEquals("http://10.0.0.0:8080/app0", values.get("apache").get("0").get("url"));
+
+        String endpointOutput = outputName("database", ToscaNodeLifecycleConstants.START, "endpoint");
+        runtimeInformations.get("database").get("0").getOperationsOutputs().put(endpointOutput, "jdbc://10.0.0.2");
+        updated = plan.update(values, runtimeInformations, "database", Lists.newArrayList(endpointOutput));
+        assertEquals(1, updated.size());
+        assertFalse(updated.contains(new AttributeKey("apache", "url")));
+        assertEquals("jdbc://10.0.0.2", values.get("database").get("0").get("endpoint"));
+        assertEquals("http://10.0.1.1:8080/app1", values.get("apache").get("1").get("url"));
+
+        assertTrue(plan.getDependents("database", "unknown").isEmpty());
+    }
+
+    @Test
+    public void parseAttributeShouldEvaluateCompiledValuesWithCurrentRuntimeInformations() {
+        PaaSNodeTemplate apache = builtPaaSTemplates.get("apache");
+        IValue url = apache.getIndexedToscaElement().getAttributes().get("url");
+        assertEquals("http://10.0.0.1:8080/app1",
+                FunctionEvaluator.parseAttribute("url", url, topology, runtimeInformations, "1", apache, builtPaaSTemplates));
+        assertEquals("http://10.0.0.0:8080/app0",
+                FunctionEvaluator.parseAttribute("url", url, topology, runtimeInformations, "0", apache, builtPaaSTemplates));
+
+        runtimeInformations.get("server").get("1").getAttributes().put("ip_address", "10.0.1.1");
+        assertEquals("http://10.0.1.1:8080/app1",
+                FunctionEvaluator.parseAttribute("url", url, topology, runtimeInformations, "1", apache, builtPaaSTemplates));
+
+        // values are compiled per topology, a new topology is evaluated with its own properties
+        Topology updatedTopology = new Topology();
+        updatedTopology.setNodeTemplates(Maps.<String, NodeTemplate> newHashMap(topology.getNodeTemplates()));
+        NodeTemplate updatedApache = new NodeTemplate();
+        updatedApache.setProperties(map("port", new ScalarPropertyValue("9090")));
+        updatedTopology.getNodeTemplates().put("apache", updatedApache);
+        assertEquals("http://10.0.1.1:9090/app1",
+                FunctionEvaluator.parseAttribute("url", url, updatedTopology, runtimeInformations, "1", apache, builtPaaSTemplates));
+    }
+
+    @Test(expected = FunctionEvaluationException.class)
+    public void parseAttributeShouldFailOnUnknownNode() {
+        PaaSNodeTemplate apache = builtPaaSTemplates.get("apache");
+        ConcatPropertyValue concat = new ConcatPropertyValue();
+        concat.setParameters(Lists.<AbstractPropertyValue> newArrayList(function(ToscaFunctionConstants.GET_ATTRIBUTE, "unknown", "ip_address")));
+        FunctionEvaluator.parseAttribute("url", concat, topology, runtimeInformations, "0", apache, builtPaaSTemplates);
+    }
+
+    private PaaSNodeTemplate addNode(String nodeId, Map<String, IValue> attributes) {
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        topology.getNodeTemplates().put(nodeId, nodeTemplate);
+        NodeType nodeType = new NodeType();
+        nodeType.setAttributes(attributes);
+        PaaSNodeTemplate paaSNodeTemplate = new PaaSNodeTemplate(nodeId, nodeTemplate);
+        paaSNodeTemplate.setIndexedToscaElement(nodeType);
+        builtPaaSTemplates.put(nodeId, paaSNodeTemplate);
+        return paaSNodeTemplate;
+    }
+
+    private InstanceInformation addInstance(String nodeId, String instanceId) {
+        Map<String, InstanceInformation> instances = runtimeInformations.get(nodeId);
+        if (instances == null) {
+            instances = Maps.newHashMap();
+            runtimeInformations.put(nodeId, instances);
+        }
+        InstanceInformation instance = new InstanceInformation(ToscaNodeLifecycleConstants.STARTED, null, Maps.<String, String> newHashMap(),
+                Maps.<String, String> newHashMap(), Maps.<String, String> newHashMap());
+        instances.put(instanceId, instance);
+        return instance;
+    }
+
+    private static <V> Map<String, V> map(String key, V value) {
+        Map<String, V> map = Maps.newHashMap();
+        map.put(key, value);
+        return map;
+    }
+
+    private static FunctionPropertyValue function(String function, String... parameters) {
+        return new FunctionPropertyValue(function, Lists.newArrayList(parameters));
+    }
+
+    private static String outputName(String nodeId, String operationName, String output) {
+        return ToscaNormativeUtil.formatedOperationOutputName(nodeId, ToscaNormativeUtil.getLongInterfaceName(ToscaNodeLifecycleConstants.STANDARD),
+                operationName, output);
+    }
+}
@@ -0,0 +1,179 @@
+package alien4cloud.paas.wf;
+
+import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.INSTALL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
+import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
+import alien4cloud.paas.wf.util.WorkflowUtils;
+import alien4cloud.paas.wf.validation.AbstractWorkflowError;
+import alien4cloud.paas.wf.validation.BadStateSequenceError;
+import alien4cloud.paas.wf.validation.ParallelSetStatesError;
+import alien4cloud.paas.wf.validation.WorkflowHasCycleError;
+import alien4cloud.paas.wf.validation.WorkflowValidator;
+
+/**
+ * Check that validating only the region impacted by a change gives the same errors as a validation of the whole workflow.
+ */
+public class IncrementalValidationTest {
+    private static final String[] INSTALL_STATES = { ToscaNodeLifecycleConstants.INITIAL, ToscaNodeLifecycleConstants.CREATING,
+            ToscaNodeLifecycleConstants.CREATED, ToscaNodeLifecycleConstants.CONFIGURING, ToscaNodeLifecycleConstants.CONFIGURED,
+            ToscaNodeLifecycleConstants.STARTING, ToscaNodeLifecycleConstants.STARTED };
+
+    private WorkflowValidator validator = new WorkflowValidator();
+    private Workflow wf;
+    private TopologyContext topologyContext;
+
+    @Before
+    public void prepare() {
+        wf = new Workflow();
+        wf.setName(INSTALL);
+        wf.setStandard(true);
+        final Topology topology = new Topology();
+        topology.setNodeTemplates(Maps.<String, NodeTemplate> newHashMap());
+        topologyContext = new TopologyContext() {
+            @Override
+            public Topology getTopology() {
+                return topology;
+            }
+
+            @Override
+            public <T extends AbstractToscaType> T findElement(Class<T> clazz, String id) {
+                return null;
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            addNode("node_" + i);
+        }
+        // chain the nodes
+        for (int i = 1; i < 10; i++) {
+            WorkflowUtils.linkSteps(getStateStep(i - 1, ToscaNodeLifecycleConstants.STARTED), getStateStep(i, ToscaNodeLifecycleConstants.INITIAL));
+        }
+        assertEquals(0, validator.validate(topologyContext, wf));
+    }
+
+    @Test
+    public void newLinksErrorsShouldBeDetected() {
+        // loop from the last node to the first one
+        WorkflowUtils.linkSteps(getStateStep(9, ToscaNodeLifecycleConstants.STARTED), getStateStep(0, ToscaNodeLifecycleConstants.INITIAL));
+        wf.markNodeDirty("node_9");
+        wf.markNodeDirty("node_0");
+        assertIncrementalValidation(1);
+        assertEquals(WorkflowHasCycleError.class, wf.getErrors().get(0).getClass());
+    }
+
+    @Test
+    public void addedNodeErrorsShouldBeDetected() {
+        addNode("node_10");
+        WorkflowUtils.linkSteps(getStateStep(10, ToscaNodeLifecycleConstants.STARTED), getStateStep(10, ToscaNodeLifecycleConstants.CREATED));
+        // parallel steps
+        WorkflowUtils.linkSteps(getStateStep(10, ToscaNodeLifecycleConstants.CREATING),
+                WorkflowUtils.addStateStep(wf, "node_10", ToscaNodeLifecycleConstants.CONFIGURED));
+        wf.markNodeDirty("node_10");
+        assertIncrementalValidation(2);
+    }
+
+    @Test
+    public void removedLinksErrorsShouldBeUpdated() {
+        // started state of node 5 before the created state of node 3
+        WorkflowUtils.linkSteps(getStateStep(5, ToscaNodeLifecycleConstants.STARTED), getStateStep(3, ToscaNodeLifecycleConstants.CREATED));
+        wf.markNodeDirty("node_5");
+        wf.markNodeDirty("node_3");
+        assertIncrementalValidation(1);
+        // bad order for node 7
+        wf.markNodeDirty("node_7");
+        new InstallWorkflowBuilder().swapSteps(wf, getStateStep(7, ToscaNodeLifecycleConstants.CREATING).getName(),
+                getStateStep(7, ToscaNodeLifecycleConstants.CREATED).getName());
+        assertIncrementalValidation(2);
+        assertEquals(BadStateSequenceError.class, wf.getErrors().get(1).getClass());
+        // remove the cycle
+        wf.markNodeDirty("node_5");
+        getStateStep(5, ToscaNodeLifecycleConstants.STARTED).removeFollowing(getStateStep(3, ToscaNodeLifecycleConstants.CREATED).getName());
+        getStateStep(3, ToscaNodeLifecycleConstants.CREATED).removePreceding(getStateStep(5, ToscaNodeLifecycleConstants.STARTED).getName());
+        assertIncrementalValidation(1);
+    }
+
+    @Test
+    public void removedNodeErrorsShouldBeDropped() {
+        // parallel created states
+        AbstractStep parallelStep = WorkflowUtils.addStateStep(wf, "node_4", ToscaNodeLifecycleConstants.CREATED);
+        WorkflowUtils.linkSteps(getStateStep(4, ToscaNodeLifecycleConstants.INITIAL), parallelStep);
+        wf.markNodeDirty("node_4");
+        assertIncrementalValidation(1);
+        assertEquals(ParallelSetStatesError.class, wf.getErrors().get(0).getClass());
+        wf.markNodeDirty("node_4");
+        new InstallWorkflowBuilder().removeNode(wf, "node_4");
+        topologyContext.getTopology().getNodeTemplates().remove("node_4");
+        assertIncrementalValidation(0);
+    }
+
+    @Test
+    public void removedNodeShouldOnlyRetagTheNodesSharingItsHost() {
+        setHostId("node_1", "host_a");
+        setHostId("node_2", "host_a");
+        setHostId("node_3", "host_b");
+        String removedHostId = WorkflowUtils.getHostId(wf, "node_1");
+        new InstallWorkflowBuilder().removeNode(wf, "node_1");
+        topologyContext.getTopology().getNodeTemplates().remove("node_1");
+        WorkflowUtils.fillHostIdAfterRemoval(wf, topologyContext, removedHostId);
+        // node_2 is not hosted anymore in the topology, node_3 is not looked up again
+        assertNull(WorkflowUtils.getHostId(wf, "node_2"));
+        assertEquals("host_b", WorkflowUtils.getHostId(wf, "node_3"));
+        assertEquals(Sets.newHashSet("host_b"), wf.getHosts());
+    }
+
+    private void setHostId(String nodeId, String hostId) {
+        for (NodeActivityStep step : wf.getNodeSteps(nodeId)) {
+            step.setHostId(hostId);
+        }
+        wf.getHosts().add(hostId);
+    }
+
+    private void addNode(String nodeId) {
+        topologyContext.getTopology().getNodeTemplates().put(nodeId, new NodeTemplate());
+        AbstractStep previous = null;
+        for (String state : INSTALL_STATES) {
+            AbstractStep step = WorkflowUtils.addStateStep(wf, nodeId, state);
+            WorkflowUtils.linkSteps(previous, step);
+            previous = step;
+        }
+    }
+
+    private AbstractStep getStateStep(int node, String state) {
+        return WorkflowUtils.getStateStepByNode(wf, "node_" + node, state);
+    }
+
+    private void assertIncrementalValidation(int expectedErrorCount) {
+        int errorCount = validator.validateIncrementally(topologyContext, wf);
+        List<AbstractWorkflowError> incrementalErrors = Lists.newArrayList(wf.getErrors());
+        assertEquals(expectedErrorCount, errorCount);
+        // a validation of the whole workflow must give the same errors
+        assertEquals(expectedErrorCount, validator.validate(topologyContext, wf));
+        assertEquals(errorTypes(wf.getErrors()), errorTypes(incrementalErrors));
+        wf.clearErrors();
+        wf.addErrors(incrementalErrors);
+    }
+
+    private Map<Class<?>, Integer> errorTypes(List<AbstractWorkflowError> errors) {
+        Map<Class<?>, Integer> errorTypes = Maps.newHashMap();
+        for (AbstractWorkflowError error : errors) {
+            Integer count = errorTypes.get(error.getClass());
+            errorTypes.put(error.getClass(), count == null ? 1 : count + 1);
+        }
+        return errorTypes;
+    }
+}
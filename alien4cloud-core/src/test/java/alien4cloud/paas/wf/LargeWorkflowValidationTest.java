@@ -0,0 +1,129 @@
+package alien4cloud.paas.wf;
+
+import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.INSTALL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
+import alien4cloud.paas.wf.util.WorkflowGraphUtils;
+import alien4cloud.paas.wf.util.WorkflowUtils;
+import alien4cloud.paas.wf.validation.AbstractWorkflowError;
+import alien4cloud.paas.wf.validation.CycleDetection;
+import alien4cloud.paas.wf.validation.Rule;
+import alien4cloud.paas.wf.validation.StateSequenceValidation;
+import alien4cloud.paas.wf.validation.WorkflowHasCycleError;
+
+/**
+ * Validate generated wide (many parallel nodes) and deep (many sequential fork / join) workflows. The number of paths of a deep workflow is exponential in its
+ * depth so the validation must not rely on paths enumeration.
+ */
+public class LargeWorkflowValidationTest {
+    private static final String[] INSTALL_STATES = { ToscaNodeLifecycleConstants.INITIAL, ToscaNodeLifecycleConstants.CREATING,
+            ToscaNodeLifecycleConstants.CREATED, ToscaNodeLifecycleConstants.CONFIGURING, ToscaNodeLifecycleConstants.CONFIGURED,
+            ToscaNodeLifecycleConstants.STARTING, ToscaNodeLifecycleConstants.STARTED };
+
+    // node validation requires a topology, only graph rules are checked
+    private static final List<Rule> RULES = Lists.newArrayList(new CycleDetection(), new StateSequenceValidation());
+
+    private static int validate(Workflow wf) {
+        wf.clearErrors();
+        int errorCount = 0;
+        for (Rule rule : RULES) {
+            List<AbstractWorkflowError> errors = rule.validate(null, wf);
+            if (errors != null) {
+                wf.addErrors(errors);
+                errorCount += errors.size();
+            }
+        }
+        return errorCount;
+    }
+
+    private static Workflow newInstallWorkflow() {
+        Workflow wf = new Workflow();
+        wf.setName(INSTALL);
+        wf.setStandard(true);
+        return wf;
+    }
+
+    /**
+     * Every node goes through all install states in parallel to the other nodes, all nodes are then joined in a single step.
+     */
+    private static Workflow buildWideWorkflow(int nodeCount) {
+        Workflow wf = newInstallWorkflow();
+        SimpleStep join = wf.addStep(new SimpleStep("join"));
+        for (int i = 0; i < nodeCount; i++) {
+            AbstractStep previous = null;
+            for (String state : INSTALL_STATES) {
+                AbstractStep step = WorkflowUtils.addStateStep(wf, "node_" + i, state);
+                if (previous != null) {
+                    WorkflowUtils.linkSteps(previous, step);
+                }
+                previous = step;
+            }
+            WorkflowUtils.linkSteps(previous, join);
+        }
+        return wf;
+    }
+
+    /**
+     * A sequence of diamonds, each diamond creates a node on a branch and joins the branches on the node created state.
+     */
+    private static Workflow buildDeepWorkflow(int depth) {
+        Workflow wf = newInstallWorkflow();
+        AbstractStep previous = null;
+        for (int i = 0; i < depth; i++) {
+            SimpleStep fork = wf.addStep(new SimpleStep("fork_" + i));
+            AbstractStep left = WorkflowUtils.addStateStep(wf, "node_" + i, ToscaNodeLifecycleConstants.CREATING);
+            SimpleStep right = wf.addStep(new SimpleStep("right_" + i));
+            SimpleStep join = wf.addStep(new SimpleStep("join_" + i));
+            AbstractStep created = WorkflowUtils.addStateStep(wf, "node_" + i, ToscaNodeLifecycleConstants.CREATED);
+            if (previous != null) {
+                WorkflowUtils.linkSteps(previous, fork);
+            }
+            WorkflowUtils.linkSteps(fork, left);
+            WorkflowUtils.linkSteps(fork, right);
+            WorkflowUtils.linkSteps(left, join);
+            WorkflowUtils.linkSteps(right, join);
+            WorkflowUtils.linkSteps(join, created);
+            previous = created;
+        }
+        return wf;
+    }
+
+    @Test
+    public void wideWorkflowShouldBeValidated() {
+        assertEquals(0, validate(buildWideWorkflow(500)));
+    }
+
+    @Test
+    public void deepWorkflowShouldBeValidated() {
+        // 2^500 paths, cannot be validated by paths enumeration
+        assertEquals(0, validate(buildDeepWorkflow(500)));
+    }
+
+    @Test
+    public void deepWorkflowErrorsShouldBeDetected() {
+        Workflow wf = buildDeepWorkflow(500);
+        // loop in the last diamond
+        WorkflowUtils.linkSteps(wf.getSteps().get("join_499"), wf.getSteps().get("fork_499"));
+        // parallel set states for the node of a diamond
+        WorkflowUtils.linkSteps(wf.getSteps().get("fork_10"), WorkflowUtils.addStateStep(wf, "node_10", ToscaNodeLifecycleConstants.CONFIGURED));
+        int errorCount = validate(wf);
+        assertEquals(2, errorCount);
+        List<AbstractWorkflowError> errors = wf.getErrors();
+        assertTrue(errors.get(0) instanceof WorkflowHasCycleError);
+        List<String> cycle = ((WorkflowHasCycleError) errors.get(0)).getCycle();
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+    }
+
+    @Test
+    public void deepWorkflowPathsShouldBeExponential() {
+        assertEquals(1 << 8, WorkflowGraphUtils.getWorkflowGraphPaths(buildDeepWorkflow(8)).size());
+    }
+}
@@ -1,18 +1,29 @@
 package alien4cloud.suggestions.services;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 
 import alien4cloud.model.common.AbstractSuggestionEntry;
 import lombok.extern.slf4j.Slf4j;
 
+import org.alien4cloud.tosca.model.definitions.AbstractPropertyValue;
+import org.alien4cloud.tosca.model.definitions.ScalarPropertyValue;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.model.common.SuggestionEntry;
 import alien4cloud.suggestions.services.SuggestionService;
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingContext;
+import alien4cloud.tosca.parser.ParsingResult;
 
 @Slf4j
 public class SuggestionServicesTest {
@@ -59,4 +70,89 @@ public class SuggestionServicesTest {
         log.info("Matches for blank: {}", Arrays.asList(matches));
         Assert.assertEquals(5, matches.length);
     }
+
+    @Test
+    public void archivePropertiesShouldBeCheckedWithoutRoundTrips() {
+        SuggestionService suggestionService = new SuggestionService();
+        IGenericSearchDAO alienDAO = Mockito.mock(IGenericSearchDAO.class);
+        suggestionService.setAlienDAO(alienDAO);
+        String suggestionId = SuggestionEntry.generateId(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, "nodetype", "tosca.nodes.Compute", "os_distribution");
+        SuggestionEntry suggestionEntry = new SuggestionEntry();
+        suggestionEntry.setSuggestions(new HashSet<>(Arrays.asList("ubuntu", "windows xp", "kubuntu", "windows 2000", "gentoo", "mint", "debian")));
+        Mockito.when(alienDAO.findById(AbstractSuggestionEntry.class, suggestionId)).thenReturn(suggestionEntry);
+
+        Topology topology = new Topology();
+        topology.setNodeTemplates(new HashMap<String, NodeTemplate>());
+        String[] values = { "ubuntu", "Ubuntu", "gentoo", "gentooo", "arch" };
+        for (int i = 0; i < 500; i++) {
+            NodeTemplate nodeTemplate = new NodeTemplate();
+            nodeTemplate.setType("tosca.nodes.Compute");
+            nodeTemplate.setProperties(new HashMap<String, AbstractPropertyValue>());
+            nodeTemplate.getProperties().put("os_distribution", new ScalarPropertyValue(values[i % values.length]));
+            // no suggestion entry for this property
+            nodeTemplate.getProperties().put("os_version", new ScalarPropertyValue("1." + i));
+            topology.getNodeTemplates().put("compute_" + i, nodeTemplate);
+        }
+        ArchiveRoot archiveRoot = new ArchiveRoot();
+        archiveRoot.setTopology(topology);
+        ParsingResult<ArchiveRoot> parsingResult = new ParsingResult<>(archiveRoot, new ParsingContext());
+        suggestionService.postProcessSuggestionFromArchive(parsingResult);
+
+        // entries are loaded once and modified entries are read again and saved at the end of the processing in a single request
+        Mockito.verify(alienDAO, Mockito.times(2)).findById(AbstractSuggestionEntry.class, suggestionId);
+        Mockito.verify(alienDAO, Mockito.times(1)).findById(AbstractSuggestionEntry.class,
+                SuggestionEntry.generateId(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, "nodetype", "tosca.nodes.Compute", "os_version"));
+        Mockito.verify(alienDAO, Mockito.times(1)).save(Mockito.any(AbstractSuggestionEntry[].class));
+        Mockito.verify(alienDAO, Mockito.never()).save(Mockito.any(AbstractSuggestionEntry.class));
+
+        Assert.assertTrue(suggestionEntry.getSuggestions().contains("gentooo"));
+        Assert.assertTrue(suggestionEntry.getSuggestions().contains("arch"));
+        Assert.assertFalse(suggestionEntry.getSuggestions().contains("Ubuntu"));
+        log.info("Parsing errors: {}", parsingResult.getContext().getParsingErrors().size());
+        // Ubuntu is identical to ubuntu (warning), gentooo is similar to gentoo (info) only until it is added to the suggestions
+        Assert.assertEquals(101, parsingResult.getContext().getParsingErrors().size());
+    }
+
+    @Test
+    public void shortValuesShouldBeCandidatesWithoutSharedTrigram() {
+        SuggestionEntry suggestionEntry = new SuggestionEntry();
+        suggestionEntry.setSuggestions(new HashSet<>(Arrays.asList("ab", "cd", "ubuntu")));
+        SuggestionIndex suggestionIndex = new SuggestionIndex(suggestionEntry);
+        // "ab" and "ba" share no trigram but are similar
+        Assert.assertTrue(suggestionIndex.getCandidates("ba").containsKey("ab"));
+        Assert.assertTrue(suggestionIndex.getCandidates("ba").containsKey("ubuntu"));
+        // short values are candidates of long inputs
+        Assert.assertTrue(suggestionIndex.getCandidates("dcxyz").containsKey("cd"));
+        Assert.assertFalse(suggestionIndex.getCandidates("dcxyz").containsKey("ubuntu"));
+    }
+
+    @Test
+    public void valuesAddedConcurrentlyShouldBeKept() {
+        SuggestionService suggestionService = new SuggestionService();
+        IGenericSearchDAO alienDAO = Mockito.mock(IGenericSearchDAO.class);
+        suggestionService.setAlienDAO(alienDAO);
+        String suggestionId = SuggestionEntry.generateId(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, "nodetype", "tosca.nodes.Compute", "os_distribution");
+        SuggestionEntry loadedEntry = new SuggestionEntry();
+        loadedEntry.setSuggestions(new HashSet<>(Arrays.asList("ubuntu")));
+        // another import added a value after the entry has been loaded
+        SuggestionEntry currentEntry = new SuggestionEntry();
+        currentEntry.setSuggestions(new HashSet<>(Arrays.asList("ubuntu", "centos")));
+        Mockito.when(alienDAO.findById(AbstractSuggestionEntry.class, suggestionId)).thenReturn(loadedEntry, currentEntry);
+
+        Topology topology = new Topology();
+        topology.setNodeTemplates(new HashMap<String, NodeTemplate>());
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        nodeTemplate.setType("tosca.nodes.Compute");
+        nodeTemplate.setProperties(new HashMap<String, AbstractPropertyValue>());
+        nodeTemplate.getProperties().put("os_distribution", new ScalarPropertyValue("debian"));
+        topology.getNodeTemplates().put("compute", nodeTemplate);
+        ArchiveRoot archiveRoot = new ArchiveRoot();
+        archiveRoot.setTopology(topology);
+        suggestionService.postProcessSuggestionFromArchive(new ParsingResult<>(archiveRoot, new ParsingContext()));
+
+        ArgumentCaptor<AbstractSuggestionEntry[]> captor = ArgumentCaptor.forClass(AbstractSuggestionEntry[].class);
+        Mockito.verify(alienDAO).save(captor.capture());
+        Assert.assertEquals(1, captor.getValue().length);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("ubuntu", "centos", "debian")), captor.getValue()[0].getSuggestions());
+    }
 }
@@ -0,0 +1,207 @@
+package org.alien4cloud.alm.deployment.configuration.flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.EditorTopologyValidator;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.InputArtifactsModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.InputValidationModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.InputsModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.LocationMatchingModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.NodeMatchingCandidateModifer;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.NodeMatchingConfigAutoSelectModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.NodeMatchingConfigCleanupModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.NodeMatchingReplaceModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.PostMatchingNodeSetupModifier;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.PreDeploymentTopologyValidator;
+import org.alien4cloud.alm.deployment.configuration.flow.modifiers.SubstitutionCompositionModifier;
+import org.alien4cloud.alm.deployment.configuration.model.AbstractDeploymentConfig;
+import org.alien4cloud.alm.deployment.configuration.model.DeploymentInputs;
+import org.alien4cloud.alm.deployment.configuration.model.DeploymentMatchingConfiguration;
+import org.alien4cloud.alm.service.events.ServiceChangedEvent;
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.application.Application;
+import alien4cloud.model.application.ApplicationEnvironment;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.tosca.context.ToscaContext;
+
+/**
+ * Check that the results of the cacheable modifiers of the deployment flow are reused until the topology, the deployment configurations or any alien element
+ * change and that cached results cannot be altered by the callers.
+ */
+public class FlowExecutorTest {
+    private final FlowExecutor flowExecutor = new FlowExecutor();
+    private final IGenericSearchDAO alienDAO = Mockito.mock(IGenericSearchDAO.class);
+    private final SubstitutionCompositionModifier substitutionCompositionModifier = Mockito.mock(SubstitutionCompositionModifier.class);
+    private final LocationMatchingModifier locationMatchingModifier = Mockito.mock(LocationMatchingModifier.class);
+    private final InputsModifier inputsModifier = Mockito.mock(InputsModifier.class);
+    private final PreDeploymentTopologyValidator preDeploymentTopologyValidator = Mockito.mock(PreDeploymentTopologyValidator.class);
+
+    private final Application application = new Application();
+    private final ApplicationEnvironment environment = new ApplicationEnvironment();
+    private final DeploymentInputs deploymentInputs = new DeploymentInputs("1.0.0-SNAPSHOT", "environment");
+    private final DeploymentMatchingConfiguration matchingConfiguration = new DeploymentMatchingConfiguration("1.0.0-SNAPSHOT", "environment");
+    private Date topologyLastUpdateDate = new Date(1000);
+
+    @Before
+    public void setup() {
+        application.setId("application");
+        application.setTags(Lists.newArrayList());
+        environment.setId("environment");
+        environment.setTopologyVersion("1.0.0-SNAPSHOT");
+        deploymentInputs.setLastUpdateDate(new Date(1000));
+        matchingConfiguration.setLastUpdateDate(new Date(1000));
+        String configurationId = AbstractDeploymentConfig.generateId("1.0.0-SNAPSHOT", "environment");
+        Mockito.when(alienDAO.findById(DeploymentInputs.class, configurationId)).thenReturn(deploymentInputs);
+        Mockito.when(alienDAO.findById(DeploymentMatchingConfiguration.class, configurationId)).thenReturn(matchingConfiguration);
+
+        // the composition adds a node and the location matching puts the matched locations in the execution cache.
+        Mockito.doAnswer(invocation -> {
+            Topology topology = (Topology) invocation.getArguments()[0];
+            topology.getNodeTemplates().put("composed", new NodeTemplate());
+            return null;
+        }).when(substitutionCompositionModifier).process(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class));
+        Mockito.doAnswer(invocation -> {
+            FlowExecutionContext context = (FlowExecutionContext) invocation.getArguments()[1];
+            Location location = new Location();
+            location.setName("location");
+            Map<String, Location> locations = Maps.newHashMap();
+            locations.put("_A4C_ALL", location);
+            context.getExecutionCache().put(FlowExecutionContext.DEPLOYMENT_LOCATIONS_MAP_CACHE_KEY, locations);
+            return null;
+        }).when(locationMatchingModifier).process(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class));
+        Mockito.when(locationMatchingModifier.getInputsFingerprint(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class)))
+                .thenAnswer(invocation -> ((FlowExecutionContext) invocation.getArguments()[1])
+                        .getConfigurationVersion(DeploymentMatchingConfiguration.class, LocationMatchingModifier.class.getSimpleName()));
+        Mockito.when(inputsModifier.getInputsFingerprint(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class))).thenCallRealMethod();
+
+        ReflectionTestUtils.setField(flowExecutor, "alienDAO", alienDAO);
+        ReflectionTestUtils.setField(flowExecutor, "editorTopologyValidator", cacheable(EditorTopologyValidator.class));
+        ReflectionTestUtils.setField(flowExecutor, "substitutionCompositionModifier", cacheable(substitutionCompositionModifier));
+        ReflectionTestUtils.setField(flowExecutor, "inputsModifier", inputsModifier);
+        ReflectionTestUtils.setField(flowExecutor, "inputArtifactsModifier", cacheable(InputArtifactsModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "locationMatchingModifier", locationMatchingModifier);
+        ReflectionTestUtils.setField(flowExecutor, "inputValidationModifier", cacheable(InputValidationModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "nodeMatchingCandidateModifer", cacheable(NodeMatchingCandidateModifer.class));
+        ReflectionTestUtils.setField(flowExecutor, "nodeMatchingConfigCleanupModifier", cacheable(NodeMatchingConfigCleanupModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "nodeMatchingConfigAutoSelectModifier", cacheable(NodeMatchingConfigAutoSelectModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "nodeMatchingReplaceModifier", Mockito.mock(NodeMatchingReplaceModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "postMatchingNodeSetupModifier", Mockito.mock(PostMatchingNodeSetupModifier.class));
+        ReflectionTestUtils.setField(flowExecutor, "preDeploymentTopologyValidator", preDeploymentTopologyValidator);
+        ReflectionTestUtils.setField(flowExecutor, "flowCacheMaxSize", 200);
+        ReflectionTestUtils.invokeMethod(flowExecutor, "initModifiers");
+
+        ToscaContext.init(Sets.newHashSet());
+    }
+
+    @After
+    public void cleanup() {
+        ToscaContext.destroy();
+    }
+
+    private <T extends ICacheableTopologyModifier> T cacheable(Class<T> modifierClass) {
+        return cacheable(Mockito.mock(modifierClass));
+    }
+
+    private <T extends ICacheableTopologyModifier> T cacheable(T modifier) {
+        Mockito.when(modifier.getInputsFingerprint(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class))).thenReturn("");
+        return modifier;
+    }
+
+    private FlowExecutionContext execute() {
+        Topology topology = new Topology();
+        topology.setArchiveName("application");
+        topology.setArchiveVersion("1.0.0-SNAPSHOT");
+        topology.setLastUpdateDate(topologyLastUpdateDate);
+        topology.setNodeTemplates(Maps.newHashMap());
+        topology.setDependencies(Sets.newHashSet());
+        return flowExecutor.executeDeploymentFlow(topology, application, environment);
+    }
+
+    private void verifyProcessed(ITopologyModifier modifier, int times) {
+        Mockito.verify(modifier, Mockito.times(times)).process(Mockito.any(Topology.class), Mockito.any(FlowExecutionContext.class));
+    }
+
+    @Test
+    public void cachedResultsShouldBeReusedWhenNothingChanged() {
+        execute();
+        FlowExecutionContext context = execute();
+        verifyProcessed(substitutionCompositionModifier, 1);
+        verifyProcessed(locationMatchingModifier, 1);
+        verifyProcessed(inputsModifier, 1);
+        // modifiers after the first one that is not cacheable are always processed.
+        verifyProcessed(preDeploymentTopologyValidator, 2);
+        assertThat(context.getTopology().getNodeTemplates()).containsKey("composed");
+        assertThat(context.getExecutionCache()).containsKey(FlowExecutionContext.DEPLOYMENT_LOCATIONS_MAP_CACHE_KEY);
+    }
+
+    @Test
+    public void inputsShouldBeProcessedAgainWhenTheDeploymentInputsChange() {
+        execute();
+        deploymentInputs.setLastUpdateDate(new Date(2000));
+        execute();
+        verifyProcessed(substitutionCompositionModifier, 1);
+        verifyProcessed(locationMatchingModifier, 1);
+        verifyProcessed(inputsModifier, 2);
+    }
+
+    @Test
+    public void locationMatchingShouldBeProcessedAgainWhenTheMatchingConfigurationChanges() {
+        execute();
+        matchingConfiguration.setLastUpdateDate(new Date(2000));
+        execute();
+        verifyProcessed(substitutionCompositionModifier, 1);
+        verifyProcessed(locationMatchingModifier, 2);
+        verifyProcessed(inputsModifier, 2);
+    }
+
+    @Test
+    public void flowShouldBeProcessedAgainWhenTheTopologyIsSaved() {
+        execute();
+        topologyLastUpdateDate = new Date(2000);
+        execute();
+        verifyProcessed(substitutionCompositionModifier, 2);
+        verifyProcessed(locationMatchingModifier, 2);
+    }
+
+    @Test
+    public void anyAlienEventShouldInvalidateCachedResults() {
+        execute();
+        flowExecutor.onAlienEvent(new ServiceChangedEvent(this, "service"));
+        execute();
+        verifyProcessed(substitutionCompositionModifier, 2);
+        verifyProcessed(locationMatchingModifier, 2);
+        verifyProcessed(inputsModifier, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cachedResultsShouldNotBeAlteredByTheCallers() {
+        FlowExecutionContext context = execute();
+        context.getTopology().getNodeTemplates().get("composed").setName("altered");
+        context.getTopology().getNodeTemplates().put("added", new NodeTemplate());
+        ((Map<String, Location>) context.getExecutionCache().get(FlowExecutionContext.DEPLOYMENT_LOCATIONS_MAP_CACHE_KEY)).get("_A4C_ALL").setName("altered");
+
+        FlowExecutionContext cachedContext = execute();
+        verifyProcessed(substitutionCompositionModifier, 1);
+        assertThat(cachedContext.getTopology()).isNotSameAs(context.getTopology());
+        assertThat(cachedContext.getTopology().getNodeTemplates()).containsOnlyKeys("composed");
+        assertThat(cachedContext.getTopology().getNodeTemplates().get("composed").getName()).isNull();
+        Map<String, Location> locations = (Map<String, Location>) cachedContext.getExecutionCache().get(FlowExecutionContext.DEPLOYMENT_LOCATIONS_MAP_CACHE_KEY);
+        assertThat(locations.get("_A4C_ALL").getName()).isEqualTo("location");
+    }
+}
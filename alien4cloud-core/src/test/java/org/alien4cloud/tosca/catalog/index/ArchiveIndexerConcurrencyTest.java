@@ -0,0 +1,154 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Resource;
+
+import org.alien4cloud.tosca.catalog.ArchiveUploadService;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.CSARSource;
+import alien4cloud.security.model.Role;
+import alien4cloud.test.utils.SecurityTestUtils;
+import alien4cloud.tosca.parser.AbstractToscaParserSimpleProfileTest;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.utils.AlienConstants;
+import alien4cloud.utils.FileUtil;
+
+/**
+ * Check that archives imported concurrently are fully indexed. Archives are generated and self-contained (they define their own root types) so that the test
+ * does not depend on the normative types repository.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ArchiveIndexerConcurrencyTest {
+    private static final int THREADS = 4;
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+    @Resource
+    private ArchiveUploadService archiveUploadService;
+
+    @Value("${directories.alien}/${directories.csar_repository}")
+    private String alienRepoDir;
+
+    private Path generatedArchivesDirectory = Paths.get("target/generated-archives");
+
+    @Before
+    public void setup() throws IOException {
+        if (Files.exists(Paths.get(alienRepoDir))) {
+            FileUtil.delete(Paths.get(alienRepoDir));
+        }
+        if (Files.exists(generatedArchivesDirectory)) {
+            FileUtil.delete(generatedArchivesDirectory);
+        }
+        alienDAO.delete(Csar.class, QueryBuilders.matchAllQuery());
+        alienDAO.delete(AbstractToscaType.class, QueryBuilders.matchAllQuery());
+        SecurityTestUtils.setTestAuthentication(Role.ADMIN);
+    }
+
+    @Test
+    public void concurrentImportsShouldIndexAllTypes() throws Exception {
+        List<Path> archives = Lists.newArrayList();
+        for (int i = 0; i < THREADS * 2; i++) {
+            archives.add(generateArchive("vendor-" + i, "vendor" + i, 50, 5));
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for (Path archive : archives) {
+                futures.add(executorService.submit(() -> {
+                    SecurityTestUtils.setTestAuthentication(Role.ADMIN);
+                    upload(archive);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                // propagates upload failures
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        for (int i = 0; i < archives.size(); i++) {
+            // generated node types plus the archive root type
+            assertEquals(51, alienDAO.count(NodeType.class, QueryBuilders.termQuery("archiveName", "vendor-" + i)));
+        }
+    }
+
+    @Test(expected = ToscaTypeAlreadyDefinedInOtherCSAR.class)
+    public void typeDefinedInAnotherArchiveShouldBeRejected() throws Exception {
+        upload(generateArchive("vendor-a", "shared", 5, 1));
+        upload(generateArchive("vendor-b", "shared", 5, 1));
+    }
+
+    private void upload(Path archive) throws Exception {
+        ParsingResult<Csar> result = archiveUploadService.upload(archive, CSARSource.OTHER, AlienConstants.GLOBAL_WORKSPACE_ID);
+        AbstractToscaParserSimpleProfileTest.assertNoBlocker(result);
+    }
+
+    /**
+     * Generate a self-contained archive with node types that have properties and a capability.
+     *
+     * @param archiveName The name of the archive.
+     * @param typePrefix The prefix of the generated types names.
+     * @param nodeTypes The number of node types to generate (in addition to the root node type).
+     * @param capabilityTypes The number of capability types to generate (in addition to the root capability type).
+     * @return The path of the zipped archive.
+     */
+    private Path generateArchive(String archiveName, String typePrefix, int nodeTypes, int capabilityTypes) throws IOException {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("tosca_definitions_version: alien_dsl_1_4_0\n\n");
+        yaml.append("metadata:\n  template_name: ").append(archiveName).append("\n  template_version: 1.0.0\n  template_author: alien4cloud\n\n");
+        yaml.append("capability_types:\n");
+        yaml.append("  com.").append(typePrefix).append(".capabilities.Root:\n");
+        yaml.append("    description: root capability type\n");
+        for (int i = 0; i < capabilityTypes; i++) {
+            yaml.append("  com.").append(typePrefix).append(".capabilities.Capability").append(i).append(":\n");
+            yaml.append("    derived_from: com.").append(typePrefix).append(".capabilities.Root\n");
+        }
+        yaml.append("\nnode_types:\n");
+        yaml.append("  com.").append(typePrefix).append(".nodes.Root:\n");
+        yaml.append("    description: root node type\n");
+        for (int i = 0; i < nodeTypes; i++) {
+            yaml.append("  com.").append(typePrefix).append(".nodes.Component").append(i).append(":\n");
+            yaml.append("    derived_from: com.").append(typePrefix).append(".nodes.Root\n");
+            yaml.append("    description: Generated component ").append(i).append("\n");
+            yaml.append("    properties:\n");
+            yaml.append("      port:\n        type: integer\n        default: ").append(8000 + i).append("\n");
+            yaml.append("      name:\n        type: string\n        required: false\n");
+            yaml.append("    capabilities:\n");
+            yaml.append("      feature:\n        type: com.").append(typePrefix).append(".capabilities.Capability").append(i % capabilityTypes)
+                    .append("\n");
+        }
+        Path archiveDirectory = generatedArchivesDirectory.resolve(archiveName);
+        Files.createDirectories(archiveDirectory);
+        Files.write(archiveDirectory.resolve(archiveName + ".yml"), yaml.toString().getBytes(StandardCharsets.UTF_8));
+        Path zipPath = generatedArchivesDirectory.resolve(archiveName + ".zip");
+        FileUtil.zip(archiveDirectory, zipPath);
+        return zipPath;
+    }
+}
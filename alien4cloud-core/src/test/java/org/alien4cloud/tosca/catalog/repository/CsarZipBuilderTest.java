@@ -0,0 +1,110 @@
+package org.alien4cloud.tosca.catalog.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+import alien4cloud.utils.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Check that the zip of an expanded archive is rebuilt with only the modified entries being compressed.
+ */
+@Slf4j
+public class CsarZipBuilderTest {
+    private static final int ARTIFACT_SIZE = 20 * 1024 * 1024;
+
+    private Path root;
+    private Path expandedPath;
+    private Path zipPath;
+    private Path indexPath;
+    private byte[] artifact;
+
+    @Before
+    public void prepare() throws IOException {
+        root = Files.createTempDirectory("csar-zip-builder");
+        expandedPath = root.resolve("expanded");
+        zipPath = root.resolve("archive-1.0.0.csar");
+        indexPath = root.resolve("zip-index.json");
+        Files.createDirectories(expandedPath.resolve("artifacts"));
+        artifact = new byte[ARTIFACT_SIZE];
+        new Random(0).nextBytes(artifact);
+        Files.write(expandedPath.resolve("artifacts").resolve("installer.bin"), artifact);
+        writeYaml("topology_template: {}");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtil.delete(root);
+    }
+
+    @Test
+    public void onlyModifiedEntriesShouldBeCompressed() throws IOException {
+        long start = System.nanoTime();
+        CsarZipBuilder.BuildResult result = new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        long fullDuration = System.nanoTime() - start;
+        assertEquals(2, result.getCompressedEntries());
+        assertEquals(0, result.getReusedEntries());
+
+        writeYaml("topology_template:\n  node_templates: {}");
+        start = System.nanoTime();
+        result = new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        long incrementalDuration = System.nanoTime() - start;
+        assertEquals(1, result.getCompressedEntries());
+        assertEquals(1, result.getReusedEntries());
+        log.info("Zip with a {} bytes artifact: full build {} ms, incremental build {} ms", ARTIFACT_SIZE, fullDuration / 1000000,
+                incrementalDuration / 1000000);
+
+        assertZipContent("topology_template:\n  node_templates: {}");
+    }
+
+    @Test
+    public void entriesShouldBeReusedWithoutIndex() throws IOException {
+        new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        // an uploaded archive has no index, unchanged entries are detected by their crc and size.
+        Files.delete(indexPath);
+        CsarZipBuilder.BuildResult result = new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        assertEquals(0, result.getCompressedEntries());
+        assertEquals(2, result.getReusedEntries());
+        assertZipContent("topology_template: {}");
+    }
+
+    @Test
+    public void deletedFilesShouldBeRemoved() throws IOException {
+        new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        Files.delete(expandedPath.resolve("artifacts").resolve("installer.bin"));
+        new CsarZipBuilder(expandedPath, zipPath, indexPath).build();
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            assertNull(zipFile.getEntry("artifacts/installer.bin"));
+        }
+    }
+
+    private void writeYaml(String content) throws IOException {
+        Files.write(expandedPath.resolve("topology.yml"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertZipContent(String expectedYaml) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            try (InputStream input = zipFile.getInputStream(zipFile.getEntry("topology.yml"))) {
+                assertEquals(expectedYaml, new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8));
+            }
+            try (InputStream input = zipFile.getInputStream(zipFile.getEntry("artifacts/installer.bin"))) {
+                assertArrayEquals(artifact, ByteStreams.toByteArray(input));
+            }
+        }
+    }
+}
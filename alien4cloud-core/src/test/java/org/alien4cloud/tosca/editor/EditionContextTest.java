@@ -0,0 +1,27 @@
+package org.alien4cloud.tosca.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.junit.Test;
+
+public class EditionContextTest {
+
+    @Test
+    public void oldestSnapshotsShouldBeEvictedButTheSavedTopology() {
+        EditionContext context = new EditionContext();
+        Topology saved = new Topology();
+        context.resetSnapshots(saved);
+        for (int i = 9; i < 100; i += 10) {
+            context.addSnapshot(i, new Topology(), 3);
+        }
+
+        assertEquals(4, context.getTopologySnapshots().size());
+        assertSame(saved, context.getClosestSnapshot(-1).getValue());
+        // evicted snapshots are replaced by the closest remaining one (the saved topology here)
+        assertEquals(-1, (int) context.getClosestSnapshot(50).getKey());
+        assertEquals(79, (int) context.getClosestSnapshot(85).getKey());
+        assertEquals(99, (int) context.getClosestSnapshot(120).getKey());
+    }
+}
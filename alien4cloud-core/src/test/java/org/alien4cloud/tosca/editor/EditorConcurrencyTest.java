@@ -0,0 +1,167 @@
+package org.alien4cloud.tosca.editor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.alien4cloud.tosca.catalog.index.CsarService;
+import org.alien4cloud.tosca.editor.operations.AbstractEditorOperation;
+import org.alien4cloud.tosca.editor.processors.IEditorOperationProcessor;
+import org.alien4cloud.tosca.editor.services.EditorTopologyRecoveryHelperService;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.topology.TopologyDTOBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.component.repository.IFileRepository;
+import alien4cloud.security.model.User;
+import alien4cloud.topology.TopologyService;
+import alien4cloud.topology.TopologyServiceCore;
+import alien4cloud.utils.FileUtil;
+
+/**
+ * Check that topologies edited concurrently by different threads do not lose or mix their operations.
+ */
+public class EditorConcurrencyTest {
+    private Path gitRoot;
+    private EditionContextManager editionContextManager;
+    private EditorService editorService;
+
+    @Before
+    public void setup() throws Exception {
+        gitRoot = Files.createTempDirectory("editor-concurrency");
+
+        CsarService csarService = Mockito.mock(CsarService.class);
+        Mockito.when(csarService.getOrFail(Mockito.anyString())).thenAnswer(new Answer<Csar>() {
+            @Override
+            public Csar answer(InvocationOnMock invocation) throws Throwable {
+                String[] nameAndVersion = ((String) invocation.getArguments()[0]).split(":");
+                return new Csar(nameAndVersion[0], nameAndVersion[1]);
+            }
+        });
+        TopologyServiceCore topologyServiceCore = Mockito.mock(TopologyServiceCore.class);
+        Mockito.when(topologyServiceCore.getOrFail(Mockito.anyString())).thenAnswer(new Answer<Topology>() {
+            @Override
+            public Topology answer(InvocationOnMock invocation) throws Throwable {
+                String[] nameAndVersion = ((String) invocation.getArguments()[0]).split(":");
+                Topology topology = new Topology();
+                topology.setArchiveName(nameAndVersion[0]);
+                topology.setArchiveVersion(nameAndVersion[1]);
+                return topology;
+            }
+        });
+        EditorRepositoryService repositoryService = Mockito.mock(EditorRepositoryService.class);
+        Mockito.when(repositoryService.createGitDirectory(Mockito.any(Csar.class))).thenReturn(gitRoot);
+
+        editionContextManager = new EditionContextManager();
+        ReflectionTestUtils.setField(editionContextManager, "csarService", csarService);
+        ReflectionTestUtils.setField(editionContextManager, "topologyServiceCore", topologyServiceCore);
+        ReflectionTestUtils.setField(editionContextManager, "repositoryService", repositoryService);
+        ReflectionTestUtils.setField(editionContextManager, "artifactRepository", Mockito.mock(IFileRepository.class));
+        editionContextManager.setup();
+
+        Map<Class<?>, IEditorOperationProcessor<? extends AbstractEditorOperation>> processorMap = Maps.newHashMap();
+        processorMap.put(EditionOperation.class, new EditionOperationProcessor());
+
+        editorService = new EditorService();
+        ReflectionTestUtils.setField(editorService, "editionContextManager", editionContextManager);
+        ReflectionTestUtils.setField(editorService, "topologyService", Mockito.mock(TopologyService.class));
+        ReflectionTestUtils.setField(editorService, "recoveryHelperService", Mockito.mock(EditorTopologyRecoveryHelperService.class));
+        ReflectionTestUtils.setField(editorService, "dtoBuilder", Mockito.mock(TopologyDTOBuilder.class));
+        ReflectionTestUtils.setField(editorService, "processorMap", processorMap);
+        ReflectionTestUtils.setField(editorService, "undoSnapshotInterval", 0);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        editionContextManager.clearCache();
+        FileUtil.delete(gitRoot);
+    }
+
+    @Test
+    public void concurrentEditionsShouldKeepAllOperations() throws Exception {
+        runOperations(4, "concurrent", 200);
+    }
+
+    /**
+     * Edit the given number of topologies concurrently (one thread per topology) and check that every topology has all its operations.
+     *
+     * @param topologyCount The number of topologies to edit concurrently.
+     * @param prefix The prefix of the topology ids.
+     * @param operationsPerTopology The number of operations to execute on each topology.
+     */
+    private void runOperations(int topologyCount, String prefix, int operationsPerTopology) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(topologyCount);
+        try {
+            List<Callable<Void>> editors = Lists.newArrayList();
+            for (int i = 0; i < topologyCount; i++) {
+                final String topologyId = prefix + "-" + i + ":1.0.0-SNAPSHOT";
+                editors.add(() -> edit(topologyId, operationsPerTopology));
+            }
+            List<Future<Void>> results = executor.invokeAll(editors);
+            for (Future<Void> result : results) {
+                // propagates editor failures
+                result.get();
+            }
+            for (int i = 0; i < topologyCount; i++) {
+                editionContextManager.init(prefix + "-" + i + ":1.0.0-SNAPSHOT");
+                assertEquals(operationsPerTopology, EditionContextManager.get().getOperations().size());
+                assertEquals(EditionContextManager.get().getOperations().get(operationsPerTopology - 1).getId(),
+                        EditionContextManager.getTopology().getDescription());
+                editionContextManager.destroy();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Void edit(String topologyId, int operationsPerTopology) {
+        User user = new User();
+        user.setUsername("editor");
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null));
+        try {
+            String lastOperationId = null;
+            for (int i = 0; i < operationsPerTopology; i++) {
+                EditionOperation operation = new EditionOperation();
+                operation.setPreviousOperationId(lastOperationId);
+                editorService.execute(topologyId, operation);
+                lastOperationId = operation.getId();
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return null;
+    }
+
+    private static class EditionOperation extends AbstractEditorOperation {
+        @Override
+        public String commitMessage() {
+            return "concurrent edition operation";
+        }
+    }
+
+    private static class EditionOperationProcessor implements IEditorOperationProcessor<EditionOperation> {
+        @Override
+        public void process(EditionOperation operation) {
+            EditionContextManager.getTopology().setDescription(operation.getId());
+        }
+    }
+}
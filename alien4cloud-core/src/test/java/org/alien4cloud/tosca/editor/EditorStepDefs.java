@@ -49,6 +49,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import alien4cloud.application.ApplicationService;
+import alien4cloud.dao.ElasticSearchMapper;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
@@ -60,12 +61,15 @@ import alien4cloud.model.components.CSARSource;
 import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.security.model.User;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.tosca.context.SharedToscaTypesCache;
+import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.parser.ParserTestUtil;
 import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.utils.AlienConstants;
 import alien4cloud.utils.FileUtil;
 import cucumber.api.DataTable;
+import cucumber.api.java.After;
 import cucumber.api.java.Before;
 import cucumber.api.java.en.And;
 import cucumber.api.java.en.Given;
@@ -146,6 +150,15 @@ public class EditorStepDefs {
 
         topologyIds.clear();
         editionContextManager.clearCache();
+
+        // the shared types cache is disabled in the test configuration (other suites write types directly in elasticsearch), the editor scenarios
+        // only update the catalog through services that keep it consistent so they run with a cache that lives for the scenario.
+        ToscaContext.setSharedTypesCache(new SharedToscaTypesCache(64 * 1024 * 1024, ElasticSearchMapper.getInstance()));
+    }
+
+    @After
+    public void disableSharedTypesCache() {
+        ToscaContext.setSharedTypesCache(null);
     }
 
     @Given("^I am authenticated with \"(.*?)\" role$")
@@ -237,6 +250,8 @@ public class EditorStepDefs {
         for (Class<?> type : typesToClean) {
             alienDAO.delete(type, QueryBuilders.matchAllQuery());
         }
+        // types are removed without any catalog event.
+        ToscaContext.getSharedTypesCache().invalidateAll();
     }
 
     @When("^I get the edited topology$")
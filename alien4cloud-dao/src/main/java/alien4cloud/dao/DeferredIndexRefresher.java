@@ -0,0 +1,126 @@
+package alien4cloud.dao;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.elasticsearch.client.Client;
+
+import com.google.common.collect.Maps;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces the refresh of indices written with the {@link RefreshPolicy#NEAR_REAL_TIME} policy. Written indices are marked as dirty and a single refresh
+ * request is issued for all dirty indices at most every refresh interval.
+ * <p>
+ * Every write increments the write generation of its index. An index is dirty as long as the generation covered by the last <b>completed</b> refresh is
+ * lower than its write generation, so that an index is never seen as clean while a refresh that covers its writes is still in flight.
+ * </p>
+ */
+@Slf4j
+public class DeferredIndexRefresher {
+    private final Client client;
+    private final long refreshIntervalMs;
+    /** Number of writes performed on each index. */
+    private final Map<String, AtomicLong> writeGenerations = new ConcurrentHashMap<>();
+    /** Write generation of each index that is searchable (covered by a completed refresh). */
+    private final Map<String, Long> refreshedGenerations = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executorService;
+
+    /**
+     * Create a new refresher.
+     *
+     * @param client The elasticsearch client to use to refresh indices.
+     * @param refreshIntervalMs The maximum delay (in milliseconds) between a write and the refresh of its index.
+     */
+    public DeferredIndexRefresher(Client client, long refreshIntervalMs) {
+        this.client = client;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Mark the given indices as dirty so they will be refreshed on the next tick.
+     *
+     * @param indices The indices that have been written.
+     */
+    public void markDirty(String... indices) {
+        for (String index : indices) {
+            writeGenerations.computeIfAbsent(index, key -> new AtomicLong()).incrementAndGet();
+        }
+        ensureStarted();
+    }
+
+    /**
+     * Synchronously refresh the given indices if they have pending writes. If a background refresh is in flight for one of the indices, it is not considered
+     * as done and a refresh is issued so that all writes performed before this call are searchable when it returns.
+     *
+     * @param indices The indices that must be visible when this method returns.
+     */
+    public void refreshNow(String... indices) {
+        refresh(pendingGenerations(Arrays.asList(indices)));
+    }
+
+    /**
+     * Refresh all dirty indices and stop the background task.
+     */
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdown();
+            executorService = null;
+        }
+        flush();
+    }
+
+    private synchronized void ensureStarted() {
+        if (executorService == null) {
+            executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "es-deferred-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executorService.scheduleWithFixedDelay(this::flush, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        Map<String, Long> toRefresh = pendingGenerations(writeGenerations.keySet());
+        try {
+            refresh(toRefresh);
+        } catch (RuntimeException e) {
+            // indices will be refreshed anyway by elasticsearch's own refresh interval, just log.
+            log.warn("Failed to refresh indices " + toRefresh.keySet(), e);
+        }
+    }
+
+    /**
+     * Get the current write generation of the given indices that have writes not yet covered by a completed refresh.
+     */
+    private Map<String, Long> pendingGenerations(Iterable<String> indices) {
+        Map<String, Long> pending = Maps.newHashMap();
+        for (String index : indices) {
+            AtomicLong writeGeneration = writeGenerations.get(index);
+            if (writeGeneration == null) {
+                continue;
+            }
+            long generation = writeGeneration.get();
+            if (generation > refreshedGenerations.getOrDefault(index, 0L)) {
+                pending.put(index, generation);
+            }
+        }
+        return pending;
+    }
+
+    private void refresh(Map<String, Long> generations) {
+        if (generations.isEmpty()) {
+            return;
+        }
+        client.admin().indices().prepareRefresh(generations.keySet().toArray(new String[generations.size()])).execute().actionGet();
+        // writes are marked after they are acknowledged so the refresh covers at least the generations read before it was issued.
+        generations.forEach((index, generation) -> refreshedGenerations.merge(index, generation, Math::max));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
@@ -14,6 +15,8 @@ import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.mapping.MappingBuilder;
 
+import com.google.common.collect.Sets;
+
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.common.IDatableResource;
 import lombok.SneakyThrows;
@@ -48,32 +51,52 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T data) {
+        save(data, null);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T data, RefreshPolicy refreshPolicy) {
         String indexName = getIndexForType(data.getClass());
         String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
         updateDate(data);
         String json = getJsonMapper().writeValueAsString(data);
-        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(true).execute().actionGet();
+        boolean refresh = isImmediate(indexName, refreshPolicy);
+        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(refresh).execute().actionGet();
+        afterWrite(refresh, indexName);
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T[] entities) {
+        save(entities, null);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T[] entities, RefreshPolicy refreshPolicy) {
         if (entities == null || entities.length == 0) {
             return;
         }
-        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+        Set<String> indices = Sets.newHashSet();
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
         for (T data : entities) {
             String indexName = getIndexForType(data.getClass());
             String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+            indices.add(indexName);
 
             updateDate(data);
             String json = getJsonMapper().writeValueAsString(data);
             bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
         }
-        bulkRequestBuilder.execute().actionGet();
+        // a bulk request is refreshed if any of the targeted indices requires an immediate refresh.
+        boolean refresh = false;
+        for (String indexName : indices) {
+            refresh = refresh || isImmediate(indexName, refreshPolicy);
+        }
+        bulkRequestBuilder.setRefresh(refresh).execute().actionGet();
+        afterWrite(refresh, indices.toArray(new String[indices.size()]));
     }
 
     @SuppressWarnings("unchecked")
@@ -94,17 +117,19 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         ESIndexMapper.getLog().debug("Found one in index <{}>, type <{}>, for Id <{}>.", indexName, typeName, id);
 
         if (abstractType) {
-            return (T) getJsonMapper().readValue(response.getSourceAsString(), getTypesToClasses().get(response.getType()));
+            return (T) readSource(response.getSourceAsBytesRef(), getTypesToClasses().get(response.getType()));
         }
 
-        return getJsonMapper().readValue(response.getSourceAsString(), clazz);
+        return readSource(response.getSourceAsBytesRef(), clazz);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     @SneakyThrows({ IOException.class })
     public <T> List<T> findByIds(Class<T> clazz, String... ids) {
+        boolean abstractType = Modifier.isAbstract(clazz.getModifiers());
         String indexName = getIndexForType(clazz);
-        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        String typeName = abstractType ? null : MappingBuilder.indexTypeFromClass(clazz);
         MultiGetResponse response = getClient().prepareMultiGet().add(indexName, typeName, ids).execute().actionGet();
 
         if (response == null || response.getResponses() == null || response.getResponses().length == 0) {
@@ -115,7 +140,8 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         List<T> result = new ArrayList<>();
         for (MultiGetItemResponse getItemResponse : response.getResponses()) {
             if (getItemResponse.getResponse().isExists()) {
-                result.add(getJsonMapper().readValue(getItemResponse.getResponse().getSourceAsString(), clazz));
+                Class<?> itemClass = abstractType ? getTypesToClasses().get(getItemResponse.getType()) : clazz;
+                result.add((T) readSource(getItemResponse.getResponse().getSourceAsBytesRef(), itemClass));
             }
         }
 
@@ -124,10 +150,50 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
 
     @Override
     public void delete(Class<?> clazz, String id) {
+        delete(clazz, id, null);
+    }
+
+    @Override
+    public void delete(Class<?> clazz, String id, RefreshPolicy refreshPolicy) {
         assertIdNotNullFor(id, "delete");
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        getClient().prepareDelete(indexName, typeName, id).setRefresh(true).execute().actionGet();
+        boolean refresh = isImmediate(indexName, refreshPolicy);
+        getClient().prepareDelete(indexName, typeName, id).setRefresh(refresh).execute().actionGet();
+        afterWrite(refresh, indexName);
+    }
+
+    @Override
+    public void waitUntilVisible(Class<?>... classes) {
+        Set<String> indices = Sets.newHashSet();
+        for (Class<?> clazz : classes) {
+            indices.add(getIndexForType(clazz));
+        }
+        getDeferredIndexRefresher().refreshNow(indices.toArray(new String[indices.size()]));
+    }
+
+    /**
+     * Check if a write operation on the given index must refresh the index.
+     *
+     * @param indexName The index in which the write is performed.
+     * @param refreshPolicy The policy requested by the caller, if null the policy configured for the index is used.
+     * @return True if the write request must trigger a refresh.
+     */
+    protected boolean isImmediate(String indexName, RefreshPolicy refreshPolicy) {
+        RefreshPolicy policy = refreshPolicy == null ? getRefreshPolicy(indexName) : refreshPolicy;
+        return RefreshPolicy.IMMEDIATE.equals(policy);
+    }
+
+    /**
+     * Register the indices written without refresh so that they get refreshed by the deferred refresher.
+     *
+     * @param refreshed True if the write operation already refreshed the indices.
+     * @param indices The written indices.
+     */
+    protected void afterWrite(boolean refreshed, String... indices) {
+        if (!refreshed) {
+            getDeferredIndexRefresher().markDirty(indices);
+        }
     }
 
     private void assertIdNotNullFor(String id, String operation) {
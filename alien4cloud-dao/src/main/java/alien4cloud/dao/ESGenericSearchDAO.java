@@ -57,6 +57,9 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearchDAO {
+    /** Number of hits per shard fetched by each scroll request. */
+    private static final int SCROLL_PAGE_SIZE = 500;
+
     @Resource
     private ElasticSearchClient esClient;
     @Resource
@@ -81,32 +84,99 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     @Override
     public void delete(Class<?> clazz, QueryBuilder query) {
         String indexName = getIndexForType(clazz);
-        String typeName = MappingBuilder.indexTypeFromClass(clazz);
-
-        // get all elements and then use a bulk delete to remove data.
-        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query).setNoFields()
-                .setFetchSource(false);
-        searchRequestBuilder.setFrom(0).setSize(1000);
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
 
-        while (somethingFound(response)) {
-            BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
-
-            for (int i = 0; i < response.getHits().hits().length; i++) {
-                String id = response.getHits().hits()[i].getId();
-                bulkRequestBuilder.add(getClient().prepareDelete(indexName, typeName, id));
+        // scroll over all matching ids and use bulk deletes to remove data.
+        SearchRequestBuilder searchRequestBuilder = prepareScroll(clazz, query, null).setNoFields().setFetchSource(false);
+        ScrollIterator<SearchHit> hits = new ScrollIterator<>(getClient(), searchRequestBuilder, hit -> hit);
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        boolean deleted = false;
+        while (hits.hasNext()) {
+            SearchHit hit = hits.next();
+            bulkRequestBuilder.add(getClient().prepareDelete(indexName, hit.getType(), hit.getId()));
+            if (bulkRequestBuilder.numberOfActions() >= SCROLL_PAGE_SIZE) {
+                bulkRequestBuilder.execute().actionGet();
+                bulkRequestBuilder = getClient().prepareBulk();
             }
-
+            deleted = true;
+        }
+        if (bulkRequestBuilder.numberOfActions() > 0) {
             bulkRequestBuilder.execute().actionGet();
+        }
 
-            if (response.getHits().totalHits() == response.getHits().hits().length) {
-                response = null;
+        if (deleted) {
+            if (isImmediate(indexName, null)) {
+                getClient().admin().indices().prepareRefresh(indexName).execute().actionGet();
             } else {
-                response = searchRequestBuilder.execute().actionGet();
+                afterWrite(false, indexName);
             }
         }
     }
 
+    @Override
+    public <T> ScrollIterator<T> stream(Class<T> clazz, QueryBuilder query, String fetchContext) {
+        SearchRequestBuilder searchRequestBuilder = prepareScroll(clazz, query, null);
+        setFetchContext(searchRequestBuilder, clazz, fetchContext);
+        return new ScrollIterator<>(getClient(), searchRequestBuilder, this::uncheckedHitToObject);
+    }
+
+    /**
+     * Prepare a scroll search request on the index of the given class.
+     *
+     * @param clazz The class of elements to scroll.
+     * @param query The query to apply, if null all elements are returned.
+     * @param sortBuilder The optional sort, when no sort is given a scan request is used as it is the most efficient way to walk an index.
+     * @return The search request builder, ready to be executed by a {@link ScrollIterator}.
+     */
+    private SearchRequestBuilder prepareScroll(Class<?> clazz, QueryBuilder query, SortBuilder sortBuilder) {
+        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz)).setTypes(getTypesFromClass(clazz))
+                .setSize(SCROLL_PAGE_SIZE);
+        if (query != null) {
+            searchRequestBuilder.setQuery(query);
+        }
+        if (sortBuilder == null) {
+            searchRequestBuilder.setSearchType(SearchType.SCAN);
+        } else {
+            searchRequestBuilder.addSort(sortBuilder);
+        }
+        return searchRequestBuilder;
+    }
+
+    /**
+     * Apply the includes and excludes of a fetch context to a search request.
+     *
+     * @param searchRequestBuilder The search request.
+     * @param clazz The class for which to get the fetch context.
+     * @param fetchContext The name of the fetch context, if null the full source is fetched.
+     */
+    private void setFetchContext(SearchRequestBuilder searchRequestBuilder, Class<?> clazz, String fetchContext) {
+        if (fetchContext == null) {
+            return;
+        }
+        SourceFetchContext sourceFetchContext = getMappingBuilder().getFetchSource(clazz.getName(), fetchContext);
+        if (sourceFetchContext == null) {
+            getLog().warn("Unable to find fetch context <" + fetchContext + "> for class <" + clazz.getName() + ">. It will be ignored.");
+            return;
+        }
+        List<String> includes = new ArrayList<String>(sourceFetchContext.getIncludes());
+        List<String> excludes = new ArrayList<String>(sourceFetchContext.getExcludes());
+        String[] inc = includes.isEmpty() ? null : includes.toArray(new String[includes.size()]);
+        String[] exc = excludes.isEmpty() ? null : excludes.toArray(new String[excludes.size()]);
+        searchRequestBuilder.setFetchSource(inc, exc);
+    }
+
+    @SneakyThrows({ IOException.class })
+    private <T> T uncheckedHitToObject(SearchHit hit) {
+        return hitToObject(hit);
+    }
+
+    private <T> List<T> toList(ScrollIterator<T> iterator) {
+        List<T> result = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
     @SneakyThrows({ IOException.class })
     private <T> List<T> doCustomFind(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder, int size) {
         String indexName = getIndexForType(clazz);
@@ -151,7 +221,8 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder) {
-        return doCustomFind(clazz, query, sortBuilder, Integer.MAX_VALUE);
+        List<T> results = toList(new ScrollIterator<>(getClient(), prepareScroll(clazz, query, sortBuilder), this::uncheckedHitToObject));
+        return results.isEmpty() ? null : results;
     }
 
     @Override
@@ -326,7 +397,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     }
 
     public <T> T hitToObject(Class<T> clazz, SearchHit hit) throws IOException {
-        T obj = (T) getJsonMapper().readValue(hit.getSourceAsString(), clazz);
+        T obj = readSource(hit.getSourceRef(), clazz);
         Field generatedId = getClassTogeneratedIdFields().get(clazz);
         if (generatedId != null) {
             try {
@@ -363,27 +434,8 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public <T> List<T> findByIdsWithContext(Class<T> clazz, String fetchContext, String... ids) {
-
-        // get the fetch context for the given type and apply it to the search
-        List<String> includes = new ArrayList<String>();
-        List<String> excludes = new ArrayList<String>();
-        SourceFetchContext sourceFetchContext = getMappingBuilder().getFetchSource(clazz.getName(), fetchContext);
-        if (sourceFetchContext != null) {
-            includes.addAll(sourceFetchContext.getIncludes());
-            excludes.addAll(sourceFetchContext.getExcludes());
-        } else {
-            getLog().warn("Unable to find fetch context <" + fetchContext + "> for class <" + clazz.getName() + ">. It will be ignored.");
-        }
-
-        String[] inc = includes.isEmpty() ? null : includes.toArray(new String[includes.size()]);
-        String[] exc = excludes.isEmpty() ? null : excludes.toArray(new String[excludes.size()]);
-
-        // TODO: correctly manage "from" and "size"
-        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz))
-                .setQuery(QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids)).setFetchSource(inc, exc).setSize(20);
-
-        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
-        return toGetListOfData(searchResponse, clazz);
+        List<T> results = toList(stream(clazz, QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids), fetchContext));
+        return results.isEmpty() ? null : results;
     }
 
     @Override
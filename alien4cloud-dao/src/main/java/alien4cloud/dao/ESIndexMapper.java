@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import org.apache.commons.lang3.StringUtils;
@@ -20,11 +21,13 @@ import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.elasticsearch.util.MapUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -61,11 +64,46 @@ public abstract class ESIndexMapper {
     @Getter
     private final Map<Class<?>, Field> classTogeneratedIdFields = Maps.newHashMap();
 
+    /** Refresh policy of the indices that do not use the default {@link RefreshPolicy#IMMEDIATE} policy. */
+    private final Map<String, RefreshPolicy> indicesRefreshPolicies = Maps.newConcurrentMap();
+    /** Maximum delay between a near real time write and the refresh of its index. */
+    @Getter
+    @Setter
+    private long nearRealTimeRefreshIntervalMs = 1000;
+    private DeferredIndexRefresher deferredIndexRefresher;
+
     @Getter
     private String[] allIndexes;
     @Getter
-    @Setter
     private ObjectMapper jsonMapper = new ObjectMapper();
+    /** Readers are immutable and thread-safe, caching them per class avoids the root deserializer lookup on every read. */
+    private final Map<Class<?>, ObjectReader> jsonReaders = Maps.newConcurrentMap();
+
+    /**
+     * Set the json mapper used to serialize and deserialize data from elasticsearch.
+     *
+     * @param jsonMapper The json mapper to use.
+     */
+    public void setJsonMapper(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.jsonReaders.clear();
+    }
+
+    /**
+     * Deserialize an elasticsearch source directly from its bytes, without going through an intermediate String.
+     *
+     * @param source The source bytes as returned by elasticsearch.
+     * @param clazz The class of the object to read.
+     * @return The deserialized object.
+     * @throws IOException In case the source cannot be deserialized.
+     */
+    public <T> T readSource(BytesReference source, Class<T> clazz) throws IOException {
+        ObjectReader reader = jsonReaders.computeIfAbsent(clazz, jsonMapper::readerFor);
+        if (source.hasArray()) {
+            return reader.readValue(source.array(), source.arrayOffset(), source.length());
+        }
+        return reader.readValue(source.streamInput());
+    }
 
     /**
      * Initialize the array of all indices managed by this dao.
@@ -252,6 +290,49 @@ public abstract class ESIndexMapper {
         return types.toArray(new String[types.size()]);
     }
 
+    /**
+     * Set the refresh policy to apply to write operations on the given index when no policy is specified by the caller.
+     *
+     * @param indexName The name of the index.
+     * @param refreshPolicy The default refresh policy for this index.
+     */
+    public void setRefreshPolicy(String indexName, RefreshPolicy refreshPolicy) {
+        indicesRefreshPolicies.put(indexName, refreshPolicy);
+    }
+
+    /**
+     * Get the refresh policy to apply to write operations on the given index when no policy is specified by the caller.
+     *
+     * @param indexName The name of the index.
+     * @return The default refresh policy for this index.
+     */
+    public RefreshPolicy getRefreshPolicy(String indexName) {
+        return indicesRefreshPolicies.getOrDefault(indexName, RefreshPolicy.IMMEDIATE);
+    }
+
+    /**
+     * Get the refresher that coalesces the refresh of near real time indices.
+     *
+     * @return The deferred index refresher of this mapper.
+     */
+    protected synchronized DeferredIndexRefresher getDeferredIndexRefresher() {
+        if (deferredIndexRefresher == null) {
+            deferredIndexRefresher = new DeferredIndexRefresher(getClient(), nearRealTimeRefreshIntervalMs);
+        }
+        return deferredIndexRefresher;
+    }
+
+    /**
+     * Refresh all pending near real time writes before the dao is destroyed.
+     */
+    @PreDestroy
+    public synchronized void shutdownDeferredRefresh() {
+        if (deferredIndexRefresher != null) {
+            deferredIndexRefresher.shutdown();
+            deferredIndexRefresher = null;
+        }
+    }
+
     /**
      * Get the elastic search client linked to the index mapper.
      *
@@ -15,6 +15,14 @@ public interface IGenericIdDAO {
      */
     <T> void save(T entity);
 
+    /**
+     * Saves an entity into the repository
+     *
+     * @param entity the entity to save
+     * @param refreshPolicy The refresh policy to apply to this write, if null the policy configured for the entity's index is used.
+     */
+    <T> void save(T entity, RefreshPolicy refreshPolicy);
+
     /**
      * Bulk save multiple entities into the repository
      * 
@@ -22,6 +30,14 @@ public interface IGenericIdDAO {
      */
     <T> void save(T[] entities);
 
+    /**
+     * Bulk save multiple entities into the repository
+     *
+     * @param entities The entities to save.
+     * @param refreshPolicy The refresh policy to apply to this write, if null the policy configured for the entities indices is used.
+     */
+    <T> void save(T[] entities, RefreshPolicy refreshPolicy);
+
     /**
      * Find an instance from the given class.
      * 
@@ -57,4 +73,20 @@ public interface IGenericIdDAO {
      * @param id The id of the object to delete.
      */
     void delete(Class<?> clazz, String id);
+
+    /**
+     * Delete an instance from the given class.
+     *
+     * @param clazz The class of the object to delete.
+     * @param id The id of the object to delete.
+     * @param refreshPolicy The refresh policy to apply to this write, if null the policy configured for the class index is used.
+     */
+    void delete(Class<?> clazz, String id, RefreshPolicy refreshPolicy);
+
+    /**
+     * Ensure that all writes performed with the {@link RefreshPolicy#NEAR_REAL_TIME} policy on the indices of the given classes are visible to searches.
+     *
+     * @param classes The classes for which pending writes must become visible.
+     */
+    void waitUntilVisible(Class<?>... classes);
 }
\ No newline at end of file
@@ -107,6 +107,17 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
      */
     <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder);
 
+    /**
+     * Lazily iterate over all the elements of the given class that match a query. Results are fetched page by page using an elasticsearch scroll so that
+     * only a bounded number of elements is kept in memory whatever the number of matching documents.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute, if null all elements are returned.
+     * @param fetchContext The fetch context to recover only the required fields, if null the full source is fetched.
+     * @return An iterator over the matching elements, users that stop iterating before the end should call {@link ScrollIterator#clear()}.
+     */
+    <T> ScrollIterator<T> stream(Class<T> clazz, QueryBuilder query, String fetchContext);
+
     /**
      * Run a query build from a {@link QueryHelper.ISearchQueryBuilderHelper}.
      *
@@ -0,0 +1,14 @@
+package alien4cloud.dao;
+
+/**
+ * Defines when the data written by a dao operation becomes visible to searches.
+ */
+public enum RefreshPolicy {
+    /** The index is refreshed as part of the write request, data is searchable as soon as the call returns. */
+    IMMEDIATE,
+    /**
+     * The write does not trigger a refresh, the index is marked as dirty and refreshed by a background task on a bounded interval. Callers that need to read
+     * their own writes must call {@link IGenericIdDAO#waitUntilVisible(Class[])}.
+     */
+    NEAR_REAL_TIME
+}
@@ -0,0 +1,99 @@
+package alien4cloud.dao;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lazy iterator over the results of an elasticsearch scroll. Only the current page of hits is kept in memory, the next page is fetched when the current one
+ * has been consumed. The scroll context is cleared once all results have been iterated.
+ *
+ * @param <T> The type of elements returned by the iterator.
+ */
+@Slf4j
+public class ScrollIterator<T> implements Iterator<T> {
+    /** Duration for which elasticsearch keeps the scroll context alive between two page requests. */
+    public static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private final Client client;
+    private final Function<SearchHit, T> hitConverter;
+    private final long totalHits;
+    private String scrollId;
+    private SearchHit[] page;
+    private int pageIndex = 0;
+    private long consumed = 0;
+
+    /**
+     * Start a new scroll.
+     *
+     * @param client The elasticsearch client.
+     * @param searchRequestBuilder The search request to scroll, page size must have been set on the request.
+     * @param hitConverter Function to convert a hit into the element to return.
+     */
+    public ScrollIterator(Client client, SearchRequestBuilder searchRequestBuilder, Function<SearchHit, T> hitConverter) {
+        this.client = client;
+        this.hitConverter = hitConverter;
+        SearchResponse response = searchRequestBuilder.setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+        this.totalHits = response.getHits().getTotalHits();
+        this.scrollId = response.getScrollId();
+        // scan searches do not return any hit in the first response.
+        this.page = response.getHits().getHits();
+        if (totalHits == 0) {
+            clear();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pageIndex < page.length) {
+            return true;
+        }
+        if (scrollId == null || consumed >= totalHits) {
+            clear();
+            return false;
+        }
+        SearchResponse response = client.prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+        scrollId = response.getScrollId();
+        page = response.getHits().getHits();
+        pageIndex = 0;
+        if (page.length == 0) {
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        consumed++;
+        return hitConverter.apply(page[pageIndex++]);
+    }
+
+    /**
+     * Release the scroll context on elasticsearch. This is done automatically when the iterator is exhausted but should be called by users that stop
+     * iterating before the end.
+     */
+    public void clear() {
+        if (scrollId == null) {
+            return;
+        }
+        try {
+            client.prepareClearScroll().addScrollId(scrollId).execute().actionGet();
+        } catch (RuntimeException e) {
+            // the scroll context will expire anyway.
+            log.debug("Failed to clear scroll context", e);
+        }
+        scrollId = null;
+    }
+}
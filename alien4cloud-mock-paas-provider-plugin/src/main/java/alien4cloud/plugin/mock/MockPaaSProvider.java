@@ -24,6 +24,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import alien4cloud.dao.MonitorESDAO;
 import alien4cloud.deployment.DeploymentLoggingService;
 import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.IEventsPushPaaSProvider;
 import alien4cloud.paas.IPaaSCallback;
 import alien4cloud.paas.exception.PluginConfigurationException;
 import alien4cloud.paas.model.*;
@@ -35,7 +36,7 @@ import alien4cloud.utils.MapUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public abstract class MockPaaSProvider extends AbstractPaaSProvider {
+public abstract class MockPaaSProvider extends AbstractPaaSProvider implements IEventsPushPaaSProvider {
     public static final String PUBLIC_IP = "ip_address";
     public static final String TOSCA_ID = "tosca_id";
     public static final String TOSCA_NAME = "tosca_name";
@@ -50,6 +51,9 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
 
     private final List<AbstractMonitorEvent> toBeDeliveredEvents = Collections.synchronizedList(new ArrayList<AbstractMonitorEvent>());
 
+    /** Callback to which events are pushed, null while alien polls the events. */
+    private IPaaSCallback<AbstractMonitorEvent[]> eventsPushCallback;
+
     @Inject
     private IToscaTypeSearchService toscaTypeSearchService;
 
@@ -222,12 +226,11 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setDeploymentStatus(status);
                 event.setDate((new Date()).getTime());
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
-                toBeDeliveredEvents.add(event);
                 PaaSMessageMonitorEvent messageMonitorEvent = new PaaSMessageMonitorEvent();
                 messageMonitorEvent.setDate((new Date()).getTime());
                 messageMonitorEvent.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 messageMonitorEvent.setMessage("APPLICATIONS.RUNTIME.EVENTS.MESSAGE_EVENT.STATUS_DEPLOYMENT_CHANGED");
-                toBeDeliveredEvents.add(messageMonitorEvent);
+                deliver(event, messageMonitorEvent);
             }
         }, 2, TimeUnit.SECONDS);
         return oldDeploymentStatus;
@@ -257,20 +260,20 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 event.setRuntimeProperties(cloned.getRuntimeProperties());
                 event.setAttributes(cloned.getAttributes());
-                toBeDeliveredEvents.add(event);
+                deliver(event);
 
                 if (deployment.getSourceName().equals(BLOCKSTORAGE_APPLICATION) && cloned.getState().equalsIgnoreCase("created")) {
                     PaaSInstancePersistentResourceMonitorEvent prme = new PaaSInstancePersistentResourceMonitorEvent(nodeId, instanceId.toString(),
                             MapUtil.newHashMap(new String[] { NormativeBlockStorageConstants.VOLUME_ID }, new Object[] { UUID.randomUUID().toString() }));
                     prme.setDeploymentId(deployment.getId());
-                    toBeDeliveredEvents.add(prme);
+                    deliver(prme);
                 }
 
                 PaaSMessageMonitorEvent messageMonitorEvent = new PaaSMessageMonitorEvent();
                 messageMonitorEvent.setDate((new Date()).getTime());
                 messageMonitorEvent.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 messageMonitorEvent.setMessage("APPLICATIONS.RUNTIME.EVENTS.MESSAGE_EVENT.INSTANCE_STATE_CHANGED");
-                toBeDeliveredEvents.add(messageMonitorEvent);
+                deliver(messageMonitorEvent);
             }
         }, delay, TimeUnit.SECONDS);
     }
@@ -285,7 +288,7 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setNodeTemplateId(nodeId);
                 event.setDate((new Date()).getTime());
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
-                toBeDeliveredEvents.add(event);
+                deliver(event);
             }
         }, delay, TimeUnit.SECONDS);
     }
@@ -460,11 +463,51 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
 
     @Override
     public void getEventsSince(Date date, int maxEvents, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback) {
-        AbstractMonitorEvent[] events = toBeDeliveredEvents.toArray(new AbstractMonitorEvent[toBeDeliveredEvents.size()]);
-        toBeDeliveredEvents.clear();
+        AbstractMonitorEvent[] events;
+        synchronized (toBeDeliveredEvents) {
+            events = toBeDeliveredEvents.toArray(new AbstractMonitorEvent[toBeDeliveredEvents.size()]);
+            toBeDeliveredEvents.clear();
+        }
         eventsCallback.onSuccess(events);
     }
 
+    @Override
+    public void startEventsPush(Date date, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback) {
+        AbstractMonitorEvent[] pendingEvents;
+        synchronized (toBeDeliveredEvents) {
+            pendingEvents = toBeDeliveredEvents.toArray(new AbstractMonitorEvent[toBeDeliveredEvents.size()]);
+            toBeDeliveredEvents.clear();
+            eventsPushCallback = eventsCallback;
+        }
+        // events emitted while alien was not listening are pushed first, outside of the lock as the callback may take time
+        if (pendingEvents.length > 0) {
+            eventsCallback.onSuccess(pendingEvents);
+        }
+    }
+
+    @Override
+    public void stopEventsPush() {
+        synchronized (toBeDeliveredEvents) {
+            eventsPushCallback = null;
+        }
+    }
+
+    /**
+     * Push the events to alien if it listens to them or keep them until they are polled.
+     */
+    private void deliver(AbstractMonitorEvent... events) {
+        IPaaSCallback<AbstractMonitorEvent[]> callback;
+        synchronized (toBeDeliveredEvents) {
+            callback = eventsPushCallback;
+            if (callback == null) {
+                toBeDeliveredEvents.addAll(Arrays.asList(events));
+                return;
+            }
+        }
+        // the callback is not invoked under the lock so that a slow consumer does not block the other emitters nor the polling
+        callback.onSuccess(events);
+    }
+
     @Override
     protected String doExecuteOperation(NodeOperationExecRequest request) {
         List<String> allowedOperation = Arrays.asList("success", "success_param");
@@ -11,7 +11,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +25,7 @@ import alien4cloud.paas.model.AbstractPaaSWorkflowMonitorEvent;
 import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
 import alien4cloud.rest.websocket.ISecuredHandler;
+import alien4cloud.rest.websocket.MonitorEventsTopicPublisher;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.model.ApplicationEnvironmentRole;
 import alien4cloud.security.model.ApplicationRole;
@@ -49,7 +49,10 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
     private IGenericSearchDAO alienDAO;
 
     @Resource
-    private SimpMessagingTemplate template;
+    private MonitorEventsTopicPublisher topicPublisher;
+
+    @Resource
+    private DeploymentEventsCache deploymentEventsCache;
 
     protected void send(AbstractMonitorEvent event) {
         String eventType = MappingBuilder.indexTypeFromClass(event.getClass());
@@ -57,10 +60,10 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
         dispatchEvent(event, topicName);
 
         if (event instanceof PaaSDeploymentStatusMonitorEvent) {
-            Deployment deployment = alienDAO.findById(Deployment.class, event.getDeploymentId());
-            if (deployment != null && deployment.getEnvironmentId() != null) {
+            String environmentId = deploymentEventsCache.getEnvironmentId(event.getDeploymentId());
+            if (environmentId != null) {
                 // dispatch an event on the environment topic
-                topicName = ENV_TOPIC_PREFIX + "/" + deployment.getEnvironmentId();
+                topicName = ENV_TOPIC_PREFIX + "/" + environmentId;
                 dispatchEvent(event, topicName);
             }
         }
@@ -68,7 +71,7 @@ public class DeploymentEventHandler implements IPaasEventListener<AbstractMonito
 
     private void dispatchEvent(AbstractMonitorEvent event, String topicName) {
         log.debug("Send [{}] to [{}]: {}", event.getClass().getSimpleName(), topicName, event);
-        template.convertAndSend(topicName, event);
+        topicPublisher.publish(topicName, event);
     }
 
     /**
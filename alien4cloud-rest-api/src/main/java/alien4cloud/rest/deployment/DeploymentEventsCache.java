@@ -0,0 +1,100 @@
+package alien4cloud.rest.deployment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.deployment.Deployment;
+
+/**
+ * Deployment data required by the monitor events handlers, cached so that handling an event does not require an elasticsearch request.
+ */
+@Component
+public class DeploymentEventsCache {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+
+    /** Cached data by deployment id, the environment of a deployment never changes. */
+    private final Cache<String, CachedDeployment> deployments = CacheBuilder.newBuilder().maximumSize(10000).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+    /**
+     * Get the id of the environment of a deployment.
+     *
+     * @param deploymentId The id of the deployment.
+     * @return The id of the environment of the deployment or null if the deployment does not exist or is not related to an environment.
+     */
+    public String getEnvironmentId(String deploymentId) {
+        CachedDeployment cachedDeployment = getCachedDeployment(deploymentId);
+        return cachedDeployment == null ? null : cachedDeployment.environmentId;
+    }
+
+    /**
+     * Register the current execution of a workflow of a deployment, the deployment is updated only if the execution is not already known.
+     *
+     * @param deploymentId The id of the deployment.
+     * @param workflowId The id of the workflow.
+     * @param executionId The id of the execution of the workflow.
+     */
+    public void updateWorkflowExecution(String deploymentId, String workflowId, String executionId) {
+        CachedDeployment cachedDeployment = getCachedDeployment(deploymentId);
+        if (cachedDeployment == null || executionId.equals(cachedDeployment.workflowExecutions.get(workflowId))) {
+            return;
+        }
+        synchronized (cachedDeployment) {
+            if (executionId.equals(cachedDeployment.workflowExecutions.get(workflowId))) {
+                return;
+            }
+            // the cached deployment is not saved as other fields of the deployment may have been updated.
+            Deployment deployment = alienDAO.findById(Deployment.class, deploymentId);
+            if (deployment == null) {
+                deployments.invalidate(deploymentId);
+                return;
+            }
+            if (deployment.getWorkflowExecutions() == null) {
+                deployment.setWorkflowExecutions(Maps.newHashMap());
+            }
+            if (!executionId.equals(deployment.getWorkflowExecutions().put(workflowId, executionId))) {
+                alienDAO.save(deployment);
+            }
+            cachedDeployment.workflowExecutions.put(workflowId, executionId);
+        }
+    }
+
+    private CachedDeployment getCachedDeployment(String deploymentId) {
+        CachedDeployment cachedDeployment = deployments.getIfPresent(deploymentId);
+        if (cachedDeployment == null) {
+            Deployment deployment = alienDAO.findById(Deployment.class, deploymentId);
+            if (deployment != null) {
+                cachedDeployment = new CachedDeployment(deployment.getEnvironmentId());
+                if (deployment.getWorkflowExecutions() != null) {
+                    for (Map.Entry<String, String> workflowExecution : deployment.getWorkflowExecutions().entrySet()) {
+                        if (workflowExecution.getValue() != null) {
+                            cachedDeployment.workflowExecutions.put(workflowExecution.getKey(), workflowExecution.getValue());
+                        }
+                    }
+                }
+                deployments.put(deploymentId, cachedDeployment);
+            }
+        }
+        return cachedDeployment;
+    }
+
+    private static class CachedDeployment {
+        private final String environmentId;
+        /** Last known execution by workflow id. */
+        private final Map<String, String> workflowExecutions = new ConcurrentHashMap<>();
+
+        private CachedDeployment(String environmentId) {
+            this.environmentId = environmentId;
+        }
+    }
+}
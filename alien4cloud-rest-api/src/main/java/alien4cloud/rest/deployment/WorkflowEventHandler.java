@@ -1,7 +1,6 @@
 package alien4cloud.rest.deployment;
 
 import java.security.Principal;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -9,10 +8,8 @@ import javax.annotation.Resource;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.elasticsearch.common.collect.Maps;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +23,7 @@ import alien4cloud.paas.model.AbstractMonitorEvent;
 import alien4cloud.paas.model.AbstractPaaSWorkflowMonitorEvent;
 import alien4cloud.paas.model.PaaSWorkflowMonitorEvent;
 import alien4cloud.rest.websocket.ISecuredHandler;
+import alien4cloud.rest.websocket.MonitorEventsTopicPublisher;
 import alien4cloud.security.AuthorizationUtil;
 import alien4cloud.security.model.ApplicationEnvironmentRole;
 import alien4cloud.security.model.ApplicationRole;
@@ -47,7 +45,10 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
     private IGenericSearchDAO alienDAO;
 
     @Resource
-    private SimpMessagingTemplate template;
+    private MonitorEventsTopicPublisher topicPublisher;
+
+    @Resource
+    private DeploymentEventsCache deploymentEventsCache;
 
     protected void send(AbstractMonitorEvent event) {
         String eventType = MappingBuilder.indexTypeFromClass(event.getClass());
@@ -55,33 +56,17 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
         if (log.isDebugEnabled()) {
             log.debug("Send [" + event.getClass().getSimpleName() + "] to [" + topicName + "]: " + event);
         }
-        template.convertAndSend(topicName, event);
+        topicPublisher.publish(topicName, event);
         if (event instanceof PaaSWorkflowMonitorEvent) {
-            Deployment deployment = alienDAO.findById(Deployment.class, event.getDeploymentId());
-
-            if (deployment != null) {
-                PaaSWorkflowMonitorEvent pwme = (PaaSWorkflowMonitorEvent)event;
-                if (log.isDebugEnabled()) {
-                    log.debug("Workflow {} started with executionId {} (subkworkflow: {})", pwme.getWorkflowId(), pwme.getExecutionId(), pwme.getSubworkflow());
-                }
-                String workflowId = pwme.getWorkflowId();
-                if (pwme.getSubworkflow() != null) {
-                    workflowId = pwme.getSubworkflow();
-                }
-                updateDeploymentExecutionId(deployment, workflowId, pwme.getExecutionId());
+            PaaSWorkflowMonitorEvent pwme = (PaaSWorkflowMonitorEvent) event;
+            if (log.isDebugEnabled()) {
+                log.debug("Workflow {} started with executionId {} (subkworkflow: {})", pwme.getWorkflowId(), pwme.getExecutionId(), pwme.getSubworkflow());
             }
-        }
-    }
-
-    private void updateDeploymentExecutionId(Deployment deployment, String workflowId, String executionId) {
-        if (deployment.getWorkflowExecutions() == null) {
-            Map<String, String> workflowExecutions = Maps.newHashMap();
-            deployment.setWorkflowExecutions(workflowExecutions);
-        }
-        String knownExecutionId = deployment.getWorkflowExecutions().get(workflowId);
-        if (knownExecutionId == null || !executionId.equals(knownExecutionId)) {
-            deployment.getWorkflowExecutions().put(workflowId, executionId);
-            alienDAO.save(deployment);
+            String workflowId = pwme.getWorkflowId();
+            if (pwme.getSubworkflow() != null) {
+                workflowId = pwme.getSubworkflow();
+            }
+            deploymentEventsCache.updateWorkflowExecution(event.getDeploymentId(), workflowId, pwme.getExecutionId());
         }
     }
 
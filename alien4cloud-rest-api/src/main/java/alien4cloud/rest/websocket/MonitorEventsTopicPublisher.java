@@ -0,0 +1,183 @@
+package alien4cloud.rest.websocket;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batching stage between the monitor events handlers and the websocket broker.
+ * <p>
+ * Events are buffered per topic and sent as a single message (a json array of events) every batching window so that an event storm results in one message
+ * (and one serialization) per topic and window. Within a batch, the instance state events of a given instance are merged: only the latest state is sent.
+ * </p>
+ * <p>
+ * A batch of a single event is sent as the event itself (not wrapped in an array) so that the payload of a topic with a low event rate is unchanged for the
+ * clients that do not handle arrays.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MonitorEventsTopicPublisher {
+    @Resource
+    private SimpMessagingTemplate template;
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    /** Interval in milliseconds on which buffered events are sent to the websocket topics. */
+    @Value("${websocket.events_batching.window_ms:100}")
+    private long windowMs;
+    /** Number of buffered events of a topic that triggers the sending of the batch before the end of the window. */
+    @Value("${websocket.events_batching.max_batch_size:500}")
+    private int maxBatchSize;
+
+    private final Map<String, TopicBatch> batches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executorService;
+
+    /** Rate of the messages sent to the broker. */
+    @Getter
+    private final Meter publishedBatches = new Meter();
+    /** Number of events per message sent to the broker. */
+    @Getter
+    private final Histogram batchSize = new Histogram(new ExponentiallyDecayingReservoir());
+    /** Number of instance state events replaced by a more recent state of the same instance. */
+    @Getter
+    private final Counter mergedEvents = new Counter();
+    /** Number of events that could not be sent to the broker. */
+    @Getter
+    private final Counter droppedEvents = new Counter();
+
+    @PostConstruct
+    public void start() {
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(MonitorEventsTopicPublisher.class, "published-batches"), publishedBatches);
+            metricRegistry.register(MetricRegistry.name(MonitorEventsTopicPublisher.class, "batch-size"), batchSize);
+            metricRegistry.register(MetricRegistry.name(MonitorEventsTopicPublisher.class, "merged-events"), mergedEvents);
+            metricRegistry.register(MetricRegistry.name(MonitorEventsTopicPublisher.class, "dropped-events"), droppedEvents);
+        }
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-events-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send the buffered events and stop the background task.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+        flush();
+    }
+
+    /**
+     * Buffer an event to be sent to the given topic with the next batch.
+     *
+     * @param topic The topic on which to send the event.
+     * @param event The event to send.
+     */
+    public void publish(String topic, AbstractMonitorEvent event) {
+        while (true) {
+            TopicBatch batch = batches.computeIfAbsent(topic, TopicBatch::new);
+            synchronized (batch) {
+                if (batch.closed) {
+                    // the batch has been removed from the map by the flush, get a new one
+                    continue;
+                }
+                batch.add(event);
+                if (batch.events.size() >= maxBatchSize) {
+                    send(batch);
+                }
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        for (TopicBatch batch : batches.values()) {
+            synchronized (batch) {
+                if (batch.events.isEmpty()) {
+                    // release topics of deployments that are no longer active
+                    batch.closed = true;
+                    batches.remove(batch.topic, batch);
+                } else {
+                    send(batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the events of a batch, must be called while holding the lock of the batch so that the messages of a topic are sent in order.
+     */
+    private void send(TopicBatch batch) {
+        List<AbstractMonitorEvent> events = new ArrayList<>(batch.events.values());
+        batch.events.clear();
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Send {} events to [{}]", events.size(), batch.topic);
+            }
+            template.convertAndSend(batch.topic, events.size() == 1 ? events.get(0) : events);
+            publishedBatches.mark();
+            batchSize.update(events.size());
+        } catch (MessagingException e) {
+            droppedEvents.inc(events.size());
+            log.warn("Failed to send {} events to topic [{}]", events.size(), batch.topic, e);
+        }
+    }
+
+    /**
+     * Events waiting to be sent to a topic.
+     */
+    private class TopicBatch {
+        private final String topic;
+        /** Events to send by merge key, insertion order is the sending order. */
+        private final Map<Object, AbstractMonitorEvent> events = new LinkedHashMap<>();
+        private boolean closed = false;
+
+        private TopicBatch(String topic) {
+            this.topic = topic;
+        }
+
+        private void add(AbstractMonitorEvent event) {
+            if (event instanceof PaaSInstanceStateMonitorEvent) {
+                PaaSInstanceStateMonitorEvent instanceStateEvent = (PaaSInstanceStateMonitorEvent) event;
+                String key = instanceStateEvent.getDeploymentId() + '/' + instanceStateEvent.getNodeTemplateId() + '/' + instanceStateEvent.getInstanceId();
+                // the latest state is moved at the end of the batch to keep the order of the states of the different instances
+                if (events.remove(key) != null) {
+                    mergedEvents.inc();
+                }
+                events.put(key, event);
+            } else {
+                events.put(new Object(), event);
+            }
+        }
+    }
+}
@@ -2,6 +2,10 @@ package alien4cloud.servlet;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -10,17 +14,23 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 
+import alien4cloud.exception.NotFoundException;
 import alien4cloud.images.IImageDAO;
-import alien4cloud.images.ImageData;
+import alien4cloud.images.ImageFile;
 import alien4cloud.utils.ImageQuality;
 
 /**
  * A servlet that query an image by id and return's it.
- * 
+ * <p>
+ * Responses have an ETag and a Last-Modified header so that browsers can revalidate their cached icons, conditional requests for an unchanged image get a
+ * 304 response.
+ * </p>
+ *
  * @author luc boutier
  */
 @Component
@@ -36,6 +46,15 @@ public class ImageServlet extends HttpServlet {
         this.imageDAO = context.getBean(IImageDAO.class);
     }
 
+    /**
+     * Set the image DAO, used when the servlet is not initialized from a web application context.
+     *
+     * @param imageDAO The image DAO.
+     */
+    public void setImageDAO(IImageDAO imageDAO) {
+        this.imageDAO = imageDAO;
+    }
+
     @Override
     protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws ServletException, IOException {
         final String imageId = req.getParameter("id");
@@ -47,22 +66,60 @@ public class ImageServlet extends HttpServlet {
             imageQuality = ImageQuality.valueOf(quality);
         }
 
-        final ImageData imageData = this.imageDAO.readImage(imageId, imageQuality);
-        if (imageData != null) {
-            // Set content type
-            resp.setContentType(imageData.getMime());
-            // Set content size
-            resp.setContentLength(imageData.getData().length);
+        final ImageFile imageFile;
+        try {
+            imageFile = this.imageDAO.readImageFile(imageId, imageQuality);
+        } catch (NotFoundException e) {
+            resp.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String eTag = "\"" + imageFile.getId() + "-" + imageFile.getLastModified() + "\"";
+        resp.setHeader(HttpHeaders.ETAG, eTag);
+        resp.setDateHeader(HttpHeaders.LAST_MODIFIED, imageFile.getLastModified());
+        if (isNotModified(req, eTag, imageFile.getLastModified())) {
+            resp.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        // Set content type
+        resp.setContentType(imageFile.getMime());
+        // Set content size
+        resp.setContentLengthLong(imageFile.getLength());
 
-            // Open the file and output streams
-            final OutputStream out = resp.getOutputStream();
-            try {
-                out.write(imageData.getData());
-            } finally {
-                out.close();
+        final OutputStream out = resp.getOutputStream();
+        try {
+            if (imageFile.getData() != null) {
+                out.write(imageFile.getData());
+            } else {
+                // large image, transfer the file without loading it in memory
+                try (FileChannel channel = FileChannel.open(imageFile.getPath(), StandardOpenOption.READ)) {
+                    WritableByteChannel target = Channels.newChannel(out);
+                    long position = 0;
+                    long transferred;
+                    while (position < imageFile.getLength() && (transferred = channel.transferTo(position, imageFile.getLength() - position, target)) > 0) {
+                        position += transferred;
+                    }
+                }
             }
-        } else {
-            resp.setStatus(HttpStatus.NOT_FOUND.value());
+        } finally {
+            out.close();
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest req, String eTag, long lastModified) {
+        String ifNoneMatch = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since
+            return ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(eTag);
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
         }
+        // http dates have a one second precision
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
     }
-}
\ No newline at end of file
+}
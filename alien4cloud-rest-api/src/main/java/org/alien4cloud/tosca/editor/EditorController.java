@@ -28,6 +28,7 @@ import alien4cloud.git.SimpleGitHistoryEntry;
 import alien4cloud.rest.model.RestResponse;
 import alien4cloud.rest.model.RestResponseBuilder;
 import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyDeltaDTO;
 import alien4cloud.topology.TopologyValidationResult;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -62,6 +63,25 @@ public class EditorController {
         return RestResponseBuilder.<TopologyDTO> builder().data(topologyDTO).build();
     }
 
+    /**
+     * Execute an operation on a topology and get only the elements of the topology that changed.
+     *
+     * @param topologyId The id of the topology/archive under edition.
+     * @param operation The operation to execute
+     * @param baseRevision The revision of the topology known by the client (from its last topology or delta DTO), a full topology is returned if it is not
+     *            the current one.
+     * @param validate True to get the validation state of the topology in the delta DTO (the whole topology is validated).
+     */
+    @ApiIgnore
+    @RequestMapping(value = "/{topologyId:.+}/execute/delta", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public RestResponse<TopologyDeltaDTO> executeDelta(@PathVariable String topologyId, @RequestBody @Valid AbstractEditorOperation operation,
+            @RequestParam(value = "baseRevision", required = false, defaultValue = "-1") long baseRevision,
+            @RequestParam(value = "validate", required = false, defaultValue = "false") boolean validate) {
+        TopologyDeltaDTO topologyDeltaDTO = editorService.executeDelta(topologyId, operation, baseRevision, validate);
+        return RestResponseBuilder.<TopologyDeltaDTO> builder().data(topologyDeltaDTO).build();
+    }
+
     /**
      * Undo or redo operations.
      *
@@ -83,6 +103,31 @@ public class EditorController {
         return RestResponseBuilder.<TopologyDTO> builder().data(topologyDTO).build();
     }
 
+    /**
+     * Undo or redo operations and get only the elements of the topology that changed.
+     *
+     * @param topologyId The id of the topology under edition on which to undo operations.
+     * @param at The index in the operations array to reach (0 means no operations, 1 means first operation etc.).
+     * @param lastOperationId The id of the last operation from editor client point of view (for optimistic locking).
+     * @param baseRevision The revision of the topology known by the client (from its last topology or delta DTO), a full topology is returned if it is not
+     *            the current one.
+     * @param validate True to get the validation state of the topology in the delta DTO (the whole topology is validated).
+     * @return A topology delta DTO with the changes of the topology.
+     */
+    @ApiIgnore
+    @PreAuthorize("isAuthenticated()")
+    @RequestMapping(value = "/{topologyId:.+}/undo/delta", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<TopologyDeltaDTO> undoRedoDelta(@PathVariable String topologyId, @RequestParam("at") int at,
+            @RequestParam("lastOperationId") String lastOperationId,
+            @RequestParam(value = "baseRevision", required = false, defaultValue = "-1") long baseRevision,
+            @RequestParam(value = "validate", required = false, defaultValue = "false") boolean validate) {
+        if (lastOperationId != null && "null".equals(lastOperationId)) {
+            lastOperationId = null;
+        }
+        TopologyDeltaDTO topologyDeltaDTO = editorService.undoRedoDelta(topologyId, at, lastOperationId, baseRevision, validate);
+        return RestResponseBuilder.<TopologyDeltaDTO> builder().data(topologyDeltaDTO).build();
+    }
+
     /**
      * Method exposed to REST to upload a file in an archive under edition.
      *
@@ -151,6 +196,29 @@ public class EditorController {
         return RestResponseBuilder.<TopologyDTO> builder().data(topologyDTO).build();
     }
 
+    /**
+     * Save the given topology and commit to the local git repository, get only the elements of the topology that changed.
+     *
+     * @param topologyId The id of the topology/archive under edition to save.
+     * @param lastOperationId The id of the last operation from editor client point of view (for optimistic locking).
+     * @param baseRevision The revision of the topology known by the client (from its last topology or delta DTO), a full topology is returned if it is not
+     *            the current one.
+     * @param validate True to get the validation state of the topology in the delta DTO (the whole topology is validated).
+     * @return A topology delta DTO with the changes of the topology.
+     */
+    @ApiIgnore
+    @PreAuthorize("isAuthenticated()")
+    @RequestMapping(value = "/{topologyId:.+}/delta", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<TopologyDeltaDTO> saveDelta(@PathVariable String topologyId, @RequestParam("lastOperationId") String lastOperationId,
+            @RequestParam(value = "baseRevision", required = false, defaultValue = "-1") long baseRevision,
+            @RequestParam(value = "validate", required = false, defaultValue = "false") boolean validate) {
+        if (lastOperationId != null && "null".equals(lastOperationId)) {
+            lastOperationId = null;
+        }
+        TopologyDeltaDTO topologyDeltaDTO = editorService.saveDelta(topologyId, lastOperationId, baseRevision, validate);
+        return RestResponseBuilder.<TopologyDeltaDTO> builder().data(topologyDeltaDTO).build();
+    }
+
     @ApiIgnore
     @PreAuthorize("isAuthenticated()")
     @RequestMapping(value = "/{topologyId:.+}/isvalid", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
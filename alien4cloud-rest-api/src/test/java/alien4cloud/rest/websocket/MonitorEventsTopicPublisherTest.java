@@ -0,0 +1,124 @@
+package alien4cloud.rest.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Maps;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSInstanceStateMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+
+/**
+ * Check the batching of the monitor events sent to the websocket broker on the event storm of a deployment scaled to many instances.
+ */
+public class MonitorEventsTopicPublisherTest {
+    private static final String[] STATES = { "initial", "creating", "created", "configuring", "configured", "starting", "started" };
+    private static final String INSTANCES_TOPIC = "/topic/deployment-events/deployment/paasinstancestatemonitorevent";
+    private static final String MESSAGES_TOPIC = "/topic/deployment-events/deployment/paasmessagemonitorevent";
+
+    private final MonitorEventsTopicPublisher publisher = new MonitorEventsTopicPublisher();
+    private final SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+
+    @Before
+    public void prepare() {
+        ReflectionTestUtils.setField(publisher, "template", template);
+        // flush only on max batch size or shutdown so that the results are deterministic
+        ReflectionTestUtils.setField(publisher, "windowMs", 3600000L);
+        ReflectionTestUtils.setField(publisher, "maxBatchSize", 1000);
+        publisher.start();
+    }
+
+    @Test
+    public void eventStormShouldBeBatchedAndMerged() throws Exception {
+        int instances = 50;
+        // an instance state event and a message event for every install state of every instance
+        for (String state : STATES) {
+            for (int i = 0; i < instances; i++) {
+                publisher.publish(INSTANCES_TOPIC, instanceStateEvent(i, state));
+                PaaSMessageMonitorEvent message = new PaaSMessageMonitorEvent();
+                message.setDeploymentId("deployment");
+                message.setMessage("APPLICATIONS.RUNTIME.EVENTS.MESSAGE_EVENT.INSTANCE_STATE_CHANGED");
+                publisher.publish(MESSAGES_TOPIC, message);
+            }
+        }
+        publisher.shutdown();
+        List<List<AbstractMonitorEvent>> batches = sentBatches();
+
+        Map<String, String> lastStates = Maps.newHashMap();
+        int messageEvents = 0;
+        for (List<AbstractMonitorEvent> batch : batches) {
+            for (AbstractMonitorEvent event : batch) {
+                if (event instanceof PaaSInstanceStateMonitorEvent) {
+                    lastStates.put(((PaaSInstanceStateMonitorEvent) event).getInstanceId(), ((PaaSInstanceStateMonitorEvent) event).getInstanceState());
+                } else {
+                    messageEvents++;
+                }
+            }
+        }
+        // message events are never merged, instance states are merged within a batch and the latest state is always sent.
+        assertEquals(STATES.length * instances, messageEvents);
+        assertEquals(instances, lastStates.size());
+        for (String state : lastStates.values()) {
+            assertEquals("started", state);
+        }
+        assertEquals(batches.size(), publisher.getPublishedBatches().getCount());
+        assertEquals(0, publisher.getDroppedEvents().getCount());
+    }
+
+    @Test
+    public void singleEventShouldNotBeWrappedInAnArray() {
+        PaaSInstanceStateMonitorEvent event = instanceStateEvent(0, "creating");
+        publisher.publish(INSTANCES_TOPIC, event);
+        publisher.shutdown();
+        verify(template, times(1)).convertAndSend(INSTANCES_TOPIC, (Object) event);
+    }
+
+    @Test
+    public void failedSendsShouldBeCountedAsDropped() {
+        doThrow(new MessageDeliveryException("broker unavailable")).when(template).convertAndSend(anyString(), anyObject());
+        publisher.publish(INSTANCES_TOPIC, instanceStateEvent(0, "creating"));
+        publisher.publish(INSTANCES_TOPIC, instanceStateEvent(1, "creating"));
+        publisher.shutdown();
+        assertEquals(2, publisher.getDroppedEvents().getCount());
+    }
+
+    /**
+     * @return The batches sent to the broker, a batch of a single event is sent as the event itself.
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<AbstractMonitorEvent>> sentBatches() {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(template, atLeastOnce()).convertAndSend(anyString(), payloads.capture());
+        return payloads.getAllValues().stream().map(
+                payload -> payload instanceof List ? (List<AbstractMonitorEvent>) payload : Collections.singletonList((AbstractMonitorEvent) payload))
+                .collect(Collectors.toList());
+    }
+
+    private PaaSInstanceStateMonitorEvent instanceStateEvent(int instance, String state) {
+        PaaSInstanceStateMonitorEvent event = new PaaSInstanceStateMonitorEvent();
+        event.setDeploymentId("deployment");
+        event.setNodeTemplateId("Compute");
+        event.setInstanceId(String.valueOf(instance));
+        event.setInstanceState(state);
+        return event;
+    }
+}
@@ -0,0 +1,160 @@
+package alien4cloud.servlet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.images.ImageDAO;
+import alien4cloud.utils.FileUtil;
+import alien4cloud.utils.ImageQuality;
+
+/**
+ * Check the icons served by the image servlet with and without the image cache and for revalidation requests.
+ */
+public class ImageServletTest {
+    private static final int ICONS = 50;
+
+    private Path imagesPath;
+    private final List<String> iconIds = Lists.newArrayList();
+    /** Expected entity tag by icon id. */
+    private final Map<String, String> eTags = Maps.newHashMap();
+
+    @Before
+    public void prepare() throws IOException {
+        imagesPath = Files.createTempDirectory("images");
+        Random random = new Random(0);
+        for (int i = 0; i < ICONS; i++) {
+            String iconId = "icon-" + i;
+            Path iconPath = imagesPath.resolve(ImageQuality.QUALITY_64.name() + iconId + ".png");
+            writeIcon(iconPath, random);
+            iconIds.add(iconId);
+            eTags.put(iconId, "\"" + ImageQuality.QUALITY_64.name() + iconId + "-" + Files.getLastModifiedTime(iconPath).toMillis() + "\"");
+        }
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtil.delete(imagesPath);
+    }
+
+    private static void writeIcon(Path iconPath, Random random) throws IOException {
+        BufferedImage image = new BufferedImage(ImageQuality.QUALITY_64.getSize(), ImageQuality.QUALITY_64.getSize(), BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ImageIO.write(image, "png", iconPath.toFile());
+    }
+
+    private ImageServlet createServlet(long cacheSize, int maxImageSize) throws IOException {
+        ImageDAO imageDAO = new ImageDAO();
+        imageDAO.setRootPath(imagesPath.toString());
+        ReflectionTestUtils.setField(imageDAO, "cacheMaxSizePerQuality", cacheSize);
+        ReflectionTestUtils.setField(imageDAO, "cacheMaxImageSize", maxImageSize);
+        ReflectionTestUtils.invokeMethod(imageDAO, "initCache");
+        ImageServlet imageServlet = new ImageServlet();
+        imageServlet.setImageDAO(imageDAO);
+        return imageServlet;
+    }
+
+    private MockHttpServletResponse get(ImageServlet imageServlet, String iconId, String eTag) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+        request.setParameter("id", iconId);
+        request.setParameter("quality", ImageQuality.QUALITY_64.name());
+        if (eTag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageServlet.service(request, response);
+        return response;
+    }
+
+    private byte[] readIcon(String iconId) throws IOException {
+        return Files.readAllBytes(imagesPath.resolve(ImageQuality.QUALITY_64.name() + iconId + ".png"));
+    }
+
+    @Test
+    public void servedImagesShouldMatchFiles() throws Exception {
+        for (ImageServlet imageServlet : new ImageServlet[] { createServlet(8 * 1024 * 1024, 256 * 1024), createServlet(0, 0) }) {
+            MockHttpServletResponse response = get(imageServlet, iconIds.get(0), null);
+            assertEquals(200, response.getStatus());
+            assertEquals("image/png", response.getContentType());
+            assertArrayEquals(readIcon(iconIds.get(0)), response.getContentAsByteArray());
+
+            String eTag = response.getHeader(HttpHeaders.ETAG);
+            assertEquals(eTags.get(iconIds.get(0)), eTag);
+            assertEquals(304, get(imageServlet, iconIds.get(0), eTag).getStatus());
+            assertEquals(200, get(imageServlet, iconIds.get(1), eTag).getStatus());
+            assertEquals(404, get(imageServlet, "unknown", null).getStatus());
+        }
+    }
+
+    @Test
+    public void filesOutsideOfTheImagesDirectoryShouldNotBeServed() throws Exception {
+        Path outsidePath = Files.createTempDirectory("outside");
+        try {
+            writeIcon(outsidePath.resolve("secret.png"), new Random(0));
+            // the quality prefix is resolved as a directory name
+            String traversalId = "/../" + imagesPath.relativize(outsidePath.resolve("secret")).toString();
+            assertEquals(404, get(createServlet(8 * 1024 * 1024, 256 * 1024), traversalId, null).getStatus());
+        } finally {
+            FileUtil.delete(outsidePath);
+        }
+    }
+
+    @Test
+    public void concurrentRequestsShouldBeServed() throws Exception {
+        ImageServlet imageServlet = createServlet(8 * 1024 * 1024, 256 * 1024);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for (int t = 0; t < 4; t++) {
+                final int offset = t;
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String iconId = iconIds.get((i + offset) % ICONS);
+                        boolean revalidate = i % 2 == 0;
+                        MockHttpServletResponse response = get(imageServlet, iconId, revalidate ? eTags.get(iconId) : null);
+                        if (revalidate) {
+                            assertEquals(304, response.getStatus());
+                        } else {
+                            assertEquals(200, response.getStatus());
+                            assertArrayEquals(readIcon(iconId), response.getContentAsByteArray());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                // propagates assertion failures
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import cucumber.api.java.en.Then;
 import cucumber.api.java.en.When;
 
 public class AuditLogStepsDefinitions {
+    private static final long AUDIT_FLUSH_TIMEOUT_MS = 5000L;
 
     private AuditConfigurationDTO currentAuditConfiguration = null;
 
@@ -38,8 +39,16 @@ public class AuditLogStepsDefinitions {
     public void I_should_have_audit_traces_in_Alien(int numberOfResult, DataTable rawExpectedAuditTraces) throws Throwable {
         FilteredSearchRequest req = new FilteredSearchRequest("", 0, numberOfResult, null);
         String jSon = JsonUtil.toString(req);
-        String restResponse = Context.getRestClientInstance().postJSon("/rest/v1/audit/search", jSon);
-        FacetedSearchResult searchResult = JsonUtil.read(restResponse, FacetedSearchResult.class).getData();
+        // audit traces are saved asynchronously, wait for the writer to flush them.
+        long deadline = System.currentTimeMillis() + AUDIT_FLUSH_TIMEOUT_MS;
+        FacetedSearchResult searchResult;
+        do {
+            String restResponse = Context.getRestClientInstance().postJSon("/rest/v1/audit/search", jSon);
+            searchResult = JsonUtil.read(restResponse, FacetedSearchResult.class).getData();
+            if (searchResult.getTotalResults() < numberOfResult) {
+                Thread.sleep(200L);
+            }
+        } while (searchResult.getTotalResults() < numberOfResult && System.currentTimeMillis() < deadline);
         Assert.assertEquals(numberOfResult, searchResult.getTotalResults());
         Object[] searchData = searchResult.getData();
         List<AuditTrace> actualTraces = Lists.newArrayList();
@@ -0,0 +1,20 @@
+package alien4cloud.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import alien4cloud.audit.model.Method;
+
+/**
+ * Audit metadata of a controller method, computed once per method from its annotations.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditDescriptor {
+    /** The audit configuration key of the method or null if the method cannot be audited (no single http method). */
+    private final Method auditedMethod;
+    private final String category;
+    private final String action;
+    /** The description of the action from the api documentation, may be null. */
+    private final String actionDescription;
+}
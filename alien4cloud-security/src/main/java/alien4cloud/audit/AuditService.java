@@ -1,7 +1,10 @@
 package alien4cloud.audit;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
@@ -14,6 +17,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.method.HandlerMethod;
 
+import com.google.common.collect.Sets;
+
 import alien4cloud.audit.annotation.Audit;
 import alien4cloud.audit.model.AuditConfiguration;
 import alien4cloud.audit.model.AuditTrace;
@@ -22,6 +27,7 @@ import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.security.AuthorizationUtil;
+import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
@@ -32,11 +38,17 @@ public class AuditService {
 
     @Resource(name = "alien-audit-dao")
     private IGenericSearchDAO alienDAO;
+    @Resource
+    private AuditTraceWriter auditTraceWriter;
 
     /**
      * Cache the instance of audit configuration bad idea ?
      */
     private AuditConfiguration auditConfiguration;
+    /** The methods enabled in the cached audit configuration. */
+    private volatile Set<Method> enabledMethods = Collections.emptySet();
+    /** Audit metadata of the controller methods, annotations do not change at runtime. */
+    private final Map<java.lang.reflect.Method, AuditDescriptor> descriptors = new ConcurrentHashMap<>();
 
     /**
      * Get the audit configuration, this method will cache the configuration in memory
@@ -46,6 +58,7 @@ public class AuditService {
     public synchronized AuditConfiguration getAuditConfiguration() {
         if (this.auditConfiguration == null) {
             this.auditConfiguration = alienDAO.findById(AuditConfiguration.class, AuditConfiguration.ID);
+            this.enabledMethods = getEnabledMethods(this.auditConfiguration);
         }
         return this.auditConfiguration;
     }
@@ -53,10 +66,29 @@ public class AuditService {
     public synchronized void saveAuditConfiguration(AuditConfiguration auditConfiguration) {
         alienDAO.save(auditConfiguration);
         this.auditConfiguration = auditConfiguration;
+        this.enabledMethods = getEnabledMethods(auditConfiguration);
     }
 
+    private Set<Method> getEnabledMethods(AuditConfiguration auditConfiguration) {
+        if (auditConfiguration == null) {
+            return Collections.emptySet();
+        }
+        Set<Method> methods = Sets.newHashSet();
+        for (Map.Entry<Method, Boolean> auditedMethodEntry : auditConfiguration.getAuditedMethodsMap().entrySet()) {
+            if (Boolean.TRUE.equals(auditedMethodEntry.getValue())) {
+                methods.add(auditedMethodEntry.getKey());
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Submit an audit trace to be saved asynchronously.
+     *
+     * @param auditTrace The audit trace to save.
+     */
     public void saveAuditTrace(AuditTrace auditTrace) {
-        alienDAO.save(auditTrace);
+        auditTraceWriter.write(auditTrace);
     }
 
     public AuditConfiguration getMandatoryAuditConfiguration() {
@@ -68,6 +100,7 @@ public class AuditService {
     }
 
     public FacetedSearchResult searchAuditTrace(String query, Map<String, String[]> filters, int from, int size) {
+        // traces are saved asynchronously, the traces of the last calls are searchable after the writer flush interval.
         FilterBuilder authorizationFilter = AuthorizationUtil.getResourceAuthorizationFilters();
         return alienDAO.facetedSearch(AuditTrace.class, query, filters, authorizationFilter, null, from, size, "timestamp", true);
     }
@@ -87,6 +120,28 @@ public class AuditService {
     }
 
     public Method getAuditedMethod(HandlerMethod controllerMethod) {
+        return getAuditDescriptor(controllerMethod).getAuditedMethod();
+    }
+
+    /**
+     * Get the audit metadata of a controller method, computed on the first call for the method.
+     *
+     * @param controllerMethod The controller method.
+     * @return The audit descriptor of the method.
+     */
+    public AuditDescriptor getAuditDescriptor(HandlerMethod controllerMethod) {
+        return descriptors.computeIfAbsent(controllerMethod.getMethod(), method -> buildAuditDescriptor(controllerMethod));
+    }
+
+    private AuditDescriptor buildAuditDescriptor(HandlerMethod controllerMethod) {
+        Audit audit = getAuditAnnotation(controllerMethod);
+        String category = getAuditCategoryName(controllerMethod, audit);
+        String action = getAuditActionName(controllerMethod, audit);
+        ApiOperation apiDoc = controllerMethod.getMethodAnnotation(ApiOperation.class);
+        return new AuditDescriptor(buildAuditedMethod(controllerMethod, category, action), category, action, apiDoc == null ? null : apiDoc.value());
+    }
+
+    private Method buildAuditedMethod(HandlerMethod controllerMethod, String category, String action) {
         RequestMapping methodMapping = AnnotationUtils.findAnnotation(controllerMethod.getMethod(), RequestMapping.class);
         RequestMapping controllerMapping = AnnotationUtils.findAnnotation(controllerMethod.getMethod().getDeclaringClass(), RequestMapping.class);
         String httpMethod = null;
@@ -105,14 +160,18 @@ public class AuditService {
         if (httpMethod == null) {
             return null;
         }
-        Audit audit = getAuditAnnotation(controllerMethod);
-        return new Method(controllerMethod.getMethod().toGenericString(), httpMethod, getAuditCategoryName(controllerMethod, audit),
-                getAuditActionName(controllerMethod, audit));
+        return new Method(controllerMethod.getMethod().toGenericString(), httpMethod, category, action);
     }
 
     public boolean isMethodAudited(AuditConfiguration auditConfiguration, HandlerMethod controllerMethod) {
         Method method = getAuditedMethod(controllerMethod);
-        return method != null && Boolean.TRUE.equals(auditConfiguration.getAuditedMethodsMap().get(method));
+        if (method == null) {
+            return false;
+        }
+        if (auditConfiguration == this.auditConfiguration) {
+            return enabledMethods.contains(method);
+        }
+        return Boolean.TRUE.equals(auditConfiguration.getAuditedMethodsMap().get(method));
     }
 
     public String getAuditCategoryName(HandlerMethod method, Audit audit) {
@@ -0,0 +1,212 @@
+package alien4cloud.audit;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+
+import alien4cloud.audit.model.AuditTrace;
+import alien4cloud.dao.IGenericSearchDAO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous writer of the audit traces. Traces are buffered in a bounded queue and saved in bulk by a background thread when the bulk size is reached or
+ * when the flush interval expires, so that auditing does not add an elasticsearch request (and refresh) to the audited REST calls.
+ */
+@Slf4j
+@Component
+public class AuditTraceWriter {
+    private static final long SHUTDOWN_TIMEOUT_MS = 30000;
+    /** Minimum delay between two warnings about dropped traces. */
+    private static final long DROP_WARNING_INTERVAL_MS = 60000;
+
+    /** Behavior of {@link #write(AuditTrace)} when the queue is full. */
+    public enum OverflowPolicy {
+        /** The trace is dropped (and counted in the dropped traces meter), this must be explicitly configured as traces are lost. */
+        DROP,
+        /** The calling thread waits for room in the queue. */
+        BLOCK,
+        /** The trace is saved synchronously by the calling thread. */
+        CALLER_RUNS
+    }
+
+    @Resource(name = "alien-audit-dao")
+    private IGenericSearchDAO alienDAO;
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    /** Maximum number of traces waiting to be saved. */
+    @Value("${audit.writer.queue_capacity:10000}")
+    private int queueCapacity = 10000;
+    /** Maximum number of traces saved in a single bulk request. */
+    @Value("${audit.writer.bulk_size:500}")
+    private int maxBulkSize = 500;
+    /** Maximum delay in milliseconds before a trace is saved. */
+    @Value("${audit.writer.flush_interval_ms:1000}")
+    private long flushIntervalMs = 1000;
+    /** Behavior when the queue is full, by default the trace is saved synchronously so that no trace is lost. */
+    @Value("${audit.writer.overflow_policy:CALLER_RUNS}")
+    private OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_RUNS;
+
+    private BlockingQueue<AuditTrace> queue;
+    private Thread worker;
+    private volatile boolean running;
+    /** Number of traces dropped since the last warning. */
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    private final AtomicLong lastDropWarning = new AtomicLong();
+
+    /** Rate of traces saved in elasticsearch. */
+    @Getter
+    private final Meter savedTraces = new Meter();
+    /** Rate of traces dropped because the queue was full or elasticsearch failed. */
+    @Getter
+    private final Meter droppedTraces = new Meter();
+    /** Duration of the bulk requests. */
+    @Getter
+    private final Timer flushLatency = new Timer();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "audit-trace-writer");
+        worker.setDaemon(true);
+        worker.start();
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(AuditTraceWriter.class, "queue-depth"), (Gauge<Integer>) this::getQueueDepth);
+            metricRegistry.register(MetricRegistry.name(AuditTraceWriter.class, "saved"), savedTraces);
+            metricRegistry.register(MetricRegistry.name(AuditTraceWriter.class, "dropped"), droppedTraces);
+            metricRegistry.register(MetricRegistry.name(AuditTraceWriter.class, "flush-latency"), flushLatency);
+        }
+    }
+
+    /**
+     * Save the pending traces and stop the writer.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Audit trace writer stopped with {} traces not saved.", queue.size());
+        }
+        if (metricRegistry != null) {
+            metricRegistry.removeMatching((name, metric) -> name.startsWith(AuditTraceWriter.class.getName()));
+        }
+    }
+
+    /**
+     * @return The number of traces waiting to be saved.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Submit a trace to be saved.
+     *
+     * @param auditTrace The trace to save.
+     */
+    public void write(AuditTrace auditTrace) {
+        if (queue.offer(auditTrace)) {
+            return;
+        }
+        switch (overflowPolicy) {
+        case BLOCK:
+            try {
+                queue.put(auditTrace);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drop(1);
+            }
+            break;
+        case CALLER_RUNS:
+            save(Lists.newArrayList(auditTrace));
+            break;
+        default:
+            drop(1);
+            break;
+        }
+    }
+
+    private void run() {
+        List<AuditTrace> batch = Lists.newArrayListWithCapacity(maxBulkSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditTrace first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                // fill the bulk until it is full or the flush interval expires.
+                while (batch.size() < maxBulkSize) {
+                    if (queue.drainTo(batch, maxBulkSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    AuditTrace next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                save(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                log.warn("Audit trace writer has been interrupted.");
+                save(batch);
+                return;
+            }
+        }
+    }
+
+    private void save(List<AuditTrace> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timer.Context context = flushLatency.time();
+        try {
+            alienDAO.save(batch.toArray(new AuditTrace[batch.size()]));
+            savedTraces.mark(batch.size());
+        } catch (RuntimeException e) {
+            // audit must not impact the platform, traces are lost.
+            log.error("Failed to save {} audit traces.", batch.size(), e);
+            drop(batch.size());
+        } finally {
+            context.stop();
+        }
+    }
+
+    private void drop(int count) {
+        droppedTraces.mark(count);
+        unreportedDrops.addAndGet(count);
+        // warn at most once per interval so that a saturated queue does not flood the logs.
+        long now = System.currentTimeMillis();
+        long last = lastDropWarning.get();
+        if (now - last >= DROP_WARNING_INTERVAL_MS && lastDropWarning.compareAndSet(last, now)) {
+            log.warn("{} audit traces have been dropped (overflow policy is {}, queue capacity is {}).", unreportedDrops.getAndSet(0), overflowPolicy,
+                    queueCapacity);
+        }
+    }
+}
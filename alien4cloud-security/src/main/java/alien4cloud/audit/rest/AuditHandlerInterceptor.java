@@ -0,0 +1,54 @@
+package alien4cloud.audit.rest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.util.WebUtils;
+
+import alien4cloud.audit.AuditDescriptor;
+import alien4cloud.audit.AuditService;
+import alien4cloud.audit.model.AuditConfiguration;
+
+/**
+ * Resolve the audit descriptor of the controller method selected by the dispatcher and expose it to the {@link AuditLogFilter} so that the filter does not
+ * have to resolve it again from the handler mappings. As the controller has not read the request yet, the body is kept in memory for audited methods only.
+ */
+public class AuditHandlerInterceptor extends HandlerInterceptorAdapter {
+    /** Name of the request attribute that contains the {@link AuditDescriptor} of the request if it must be audited. */
+    public static final String AUDIT_DESCRIPTOR_ATTRIBUTE = AuditHandlerInterceptor.class.getName() + ".auditDescriptor";
+
+    private final AuditService auditService;
+
+    public AuditHandlerInterceptor(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        AuditConfiguration configuration = auditService.getAuditConfiguration();
+        if (configuration != null && configuration.isEnabled() && auditService.isMethodAudited(configuration, (HandlerMethod) handler)) {
+            request.setAttribute(AUDIT_DESCRIPTOR_ATTRIBUTE, auditService.getAuditDescriptor((HandlerMethod) handler));
+            MultiReadHttpServletRequest multiReadRequest = WebUtils.getNativeRequest(request, MultiReadHttpServletRequest.class);
+            if (multiReadRequest != null) {
+                multiReadRequest.enableCache();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the audit descriptor of the controller method that handled the request.
+     *
+     * @param request The request.
+     * @return The audit descriptor or null if the request was not handled by a controller method that is audited.
+     */
+    public static AuditDescriptor getAuditDescriptor(HttpServletRequest request) {
+        Object descriptor = request.getAttribute(AUDIT_DESCRIPTOR_ATTRIBUTE);
+        return descriptor instanceof AuditDescriptor ? (AuditDescriptor) descriptor : null;
+    }
+}
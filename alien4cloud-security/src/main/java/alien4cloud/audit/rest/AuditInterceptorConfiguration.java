@@ -0,0 +1,19 @@
+package alien4cloud.audit.rest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import alien4cloud.audit.AuditService;
+
+/**
+ * Register the {@link AuditHandlerInterceptor} as a mapped interceptor so that it is detected by every handler mapping, including the ones created for the
+ * child contexts (Alien main context, plugins).
+ */
+@Configuration
+public class AuditInterceptorConfiguration {
+    @Bean
+    public MappedInterceptor auditHandlerInterceptor(AuditService auditService) {
+        return new MappedInterceptor(null, new AuditHandlerInterceptor(auditService));
+    }
+}
@@ -1,9 +1,6 @@
 package alien4cloud.audit.rest;
 
-import io.swagger.annotations.ApiOperation;
-
 import java.io.IOException;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,12 +18,9 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerExecutionChain;
-import org.springframework.web.servlet.HandlerMapping;
 
+import alien4cloud.audit.AuditDescriptor;
 import alien4cloud.audit.AuditService;
-import alien4cloud.audit.annotation.Audit;
 import alien4cloud.audit.model.AuditConfiguration;
 import alien4cloud.audit.model.AuditTrace;
 import alien4cloud.security.AuthorizationUtil;
@@ -54,46 +48,6 @@ public class AuditLogFilter extends OncePerRequestFilter implements Ordered {
     @Resource
     private AuditService auditService;
 
-    @Resource
-    private List<HandlerMapping> handlerMappings;
-
-    private HandlerMethod getHandlerMethod(HttpServletRequest request) {
-        HandlerExecutionChain handlerChain;
-        try {
-
-            handlerChain = getHandler(request);
-        } catch (Exception e) {
-            logger.warn("Unable to get handler method", e);
-            return null;
-        }
-        if (handlerChain == null) {
-            return null;
-        }
-        if (!(handlerChain.getHandler() instanceof HandlerMethod)) {
-            return null;
-        }
-        HandlerMethod handlerMethod = (HandlerMethod) handlerChain.getHandler();
-        return handlerMethod;
-    }
-
-    private HandlerExecutionChain getHandler(HttpServletRequest request) {
-        for (HandlerMapping handlerMapping : handlerMappings) {
-            try {
-                HandlerExecutionChain handlerChain = handlerMapping.getHandler(request);
-                if (handlerChain != null) {
-                    return handlerChain;
-                }
-            } catch (Exception e) {
-                log.debug("Unable to get handler method", e);
-            }
-        }
-        return null;
-    }
-
-    private ApiOperation getApiDoc(HandlerMethod method) {
-        return method.getMethodAnnotation(ApiOperation.class);
-    }
-
     private boolean isRequestContainingJson(HttpServletRequest request) {
         String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
         return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
@@ -104,18 +58,13 @@ public class AuditLogFilter extends OncePerRequestFilter implements Ordered {
         return Ordered.LOWEST_PRECEDENCE - 10;
     }
 
-    private AuditTrace getAuditTrace(HttpServletRequest request, HttpServletResponse response, HandlerMethod method, User user, boolean requestContainsJson)
-            throws IOException {
-        Audit audit = auditService.getAuditAnnotation(method);
+    private AuditTrace getAuditTrace(HttpServletRequest request, HttpServletResponse response, AuditDescriptor descriptor, User user) throws IOException {
         // trace user info only when he is logged
         AuditTrace auditTrace = new AuditTrace();
         auditTrace.setTimestamp(System.currentTimeMillis());
-        auditTrace.setAction(auditService.getAuditActionName(method, audit));
-        ApiOperation apiDoc = getApiDoc(method);
-        if (apiDoc != null) {
-            auditTrace.setActionDescription(apiDoc.value());
-        }
-        auditTrace.setCategory(auditService.getAuditCategoryName(method, audit));
+        auditTrace.setAction(descriptor.getAction());
+        auditTrace.setActionDescription(descriptor.getActionDescription());
+        auditTrace.setCategory(descriptor.getCategory());
         auditTrace.setUserName(user.getUsername());
         auditTrace.setUserFirstName(user.getFirstName());
         auditTrace.setUserLastName(user.getLastName());
@@ -129,7 +78,7 @@ public class AuditLogFilter extends OncePerRequestFilter implements Ordered {
         auditTrace.setRequestParameters(request.getParameterMap());
         auditTrace.setSourceIp(request.getRemoteAddr());
         // request body
-        if (requestContainsJson) {
+        if (request instanceof MultiReadHttpServletRequest && ((MultiReadHttpServletRequest) request).isCacheEnabled()) {
             auditTrace.setRequestBody(StreamUtils.copyToString(request.getInputStream(), Charsets.UTF_8));
         }
         // response details
@@ -158,37 +107,35 @@ public class AuditLogFilter extends OncePerRequestFilter implements Ordered {
             filterChain.doFilter(request, response);
             return;
         }
-        HandlerMethod method = getHandlerMethod(request);
-        if (method == null) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-        if (!auditService.isMethodAudited(configuration, method)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-        boolean requestContainsJson = isRequestContainingJson(request);
-        if (requestContainsJson) {
+        // the controller method is known only once the request has been dispatched, the AuditHandlerInterceptor enables the body cache for audited methods.
+        if (isRequestContainingJson(request)) {
             request = new MultiReadHttpServletRequest(request);
         }
         try {
             filterChain.doFilter(request, response);
         } finally {
-            AuditTrace auditTrace = null;
+            AuditDescriptor descriptor = AuditHandlerInterceptor.getAuditDescriptor(request);
+            if (descriptor != null) {
+                saveAuditTrace(request, response, descriptor, user);
+            }
+        }
+    }
+
+    private void saveAuditTrace(HttpServletRequest request, HttpServletResponse response, AuditDescriptor descriptor, User user) {
+        AuditTrace auditTrace = null;
+        try {
+            auditTrace = getAuditTrace(request, response, descriptor, user);
+        } catch (Exception e) {
+            logger.warn("Unable to construct audit trace", e);
+        }
+        if (auditTrace != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(auditTrace.toString());
+            }
             try {
-                auditTrace = getAuditTrace(request, response, method, user, requestContainsJson);
+                auditService.saveAuditTrace(auditTrace);
             } catch (Exception e) {
-                logger.warn("Unable to construct audit trace", e);
-            }
-            if (auditTrace != null) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(auditTrace.toString());
-                }
-                try {
-                    auditService.saveAuditTrace(auditTrace);
-                } catch (Exception e) {
-                    logger.warn("Unable to save audit trace " + auditTrace, e);
-                }
+                logger.warn("Unable to save audit trace " + auditTrace, e);
             }
         }
     }
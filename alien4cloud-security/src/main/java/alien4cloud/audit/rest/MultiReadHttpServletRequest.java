@@ -13,16 +13,34 @@ import javax.servlet.http.HttpServletRequestWrapper;
 
 import org.apache.commons.io.IOUtils;
 
+/**
+ * Request wrapper that keeps the body in memory, once enabled, so that it can be read again after the request has been processed.
+ */
 public class MultiReadHttpServletRequest extends HttpServletRequestWrapper {
 
+    private boolean cacheEnabled;
     private byte[] cachedBytes;
 
     public MultiReadHttpServletRequest(HttpServletRequest request) {
         super(request);
     }
 
+    /**
+     * Keep the body in memory when it is read, must be called before the body is read for the first time.
+     */
+    public void enableCache() {
+        cacheEnabled = true;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
     @Override
     public ServletInputStream getInputStream() throws IOException {
+        if (!cacheEnabled) {
+            return super.getInputStream();
+        }
         if (cachedBytes == null) {
             cacheInputStream();
         }
@@ -31,6 +49,9 @@ public class MultiReadHttpServletRequest extends HttpServletRequestWrapper {
 
     @Override
     public BufferedReader getReader() throws IOException {
+        if (!cacheEnabled) {
+            return super.getReader();
+        }
         return new BufferedReader(new InputStreamReader(getInputStream()));
     }
 
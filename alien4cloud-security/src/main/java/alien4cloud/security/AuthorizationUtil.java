@@ -1,12 +1,16 @@
 package alien4cloud.security;
 
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -18,8 +22,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 
+import alien4cloud.security.event.GroupChangedEvent;
+import alien4cloud.security.event.GroupDeletedEvent;
+import alien4cloud.security.event.UserDeletedEvent;
 import alien4cloud.security.groups.IAlienGroupDao;
 import alien4cloud.security.model.ApplicationEnvironmentRole;
 import alien4cloud.security.model.ApplicationRole;
@@ -38,12 +47,56 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public final class AuthorizationUtil {
 
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 60;
+    private static final int MAX_CACHED_USERS = 10000;
+
     private static IAlienGroupDao alienGroupDao;
     private static Alien4CloudAccessDeniedHandler accessDeniedHandler;
 
+    /**
+     * Groups by name. Invalidated on group events, the expiration covers the changes made by other alien instances.
+     */
+    private static volatile Cache<String, Optional<Group>> groupsByName = buildCache(DEFAULT_CACHE_TTL_SECONDS);
+    /** Permission evaluators by username. */
+    private static volatile Cache<String, UserPermissionEvaluator> permissionEvaluators = buildCache(DEFAULT_CACHE_TTL_SECONDS);
+
     @Autowired
     public void setAlienGroupDao(IAlienGroupDao alienGroupDao) {
         AuthorizationUtil.alienGroupDao = alienGroupDao;
+        invalidateCaches();
+    }
+
+    @Value("${alien_security.authorization_cache_ttl_seconds:" + DEFAULT_CACHE_TTL_SECONDS + "}")
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        groupsByName = buildCache(cacheTtlSeconds);
+        permissionEvaluators = buildCache(cacheTtlSeconds);
+    }
+
+    private static <V> Cache<String, V> buildCache(long ttlSeconds) {
+        return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_USERS).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Invalidate the cached groups and permission evaluators.
+     */
+    public static void invalidateCaches() {
+        groupsByName.invalidateAll();
+        permissionEvaluators.invalidateAll();
+    }
+
+    @EventListener
+    public void groupChangedEventListener(GroupChangedEvent event) {
+        invalidateCaches();
+    }
+
+    @EventListener
+    public void groupDeletedEventListener(GroupDeletedEvent event) {
+        invalidateCaches();
+    }
+
+    @EventListener
+    public void userDeletedEventListener(UserDeletedEvent event) {
+        permissionEvaluators.invalidate(event.getUser().getUsername());
     }
 
     @Autowired
@@ -159,23 +212,14 @@ public final class AuthorizationUtil {
             return null;
         }
 
-        FilterBuilder filterBuilder;
         User user = (User) auth.getPrincipal();
-        if (user.getGroups() != null && !user.getGroups().isEmpty()) {
-            filterBuilder = FilterBuilders.boolFilter()
-                    .should(FilterBuilders.nestedFilter("userRoles", FilterBuilders.termFilter("userRoles.key", auth.getName())))
-                    .should(FilterBuilders.nestedFilter("groupRoles", FilterBuilders.inFilter("groupRoles.key", user.getGroups().toArray())));
-        } else {
-            filterBuilder = FilterBuilders.nestedFilter("userRoles", FilterBuilders.termFilter("userRoles.key", auth.getName()));
-        }
-        Group group = getAllUsersGroup();
-        if (group != null) {
-            String groupId = group.getId();
-            // add ALL_USERS group as OR filter
-            filterBuilder = FilterBuilders.orFilter(filterBuilder,
-                    FilterBuilders.nestedFilter("groupRoles", FilterBuilders.inFilter("groupRoles.key", groupId)));
+        // groups include the ALL_USERS group
+        Set<String> groups = getPermissionEvaluator(user).getGroups();
+        if (groups.isEmpty()) {
+            return FilterBuilders.nestedFilter("userRoles", FilterBuilders.termFilter("userRoles.key", auth.getName()));
         }
-        return filterBuilder;
+        return FilterBuilders.boolFilter().should(FilterBuilders.nestedFilter("userRoles", FilterBuilders.termFilter("userRoles.key", auth.getName())))
+                .should(FilterBuilders.nestedFilter("groupRoles", FilterBuilders.inFilter("groupRoles.key", groups.toArray())));
     }
 
     /**
@@ -191,25 +235,43 @@ public final class AuthorizationUtil {
         return null;
     }
 
+    /**
+     * Get the permission evaluator of the current user.
+     *
+     * @return the permission evaluator of the logged in user or null if no user is logged in
+     */
+    public static UserPermissionEvaluator getPermissionEvaluator() {
+        User user = getCurrentUser();
+        return user == null ? null : getPermissionEvaluator(user);
+    }
+
+    /**
+     * Get the permission evaluator of a user, it is cached until the groups or the roles of the user change.
+     *
+     * @param user the user
+     * @return the permission evaluator of the user
+     */
+    public static UserPermissionEvaluator getPermissionEvaluator(User user) {
+        UserPermissionEvaluator evaluator = permissionEvaluators.getIfPresent(user.getUsername());
+        if (evaluator == null || !evaluator.isUpToDate(user)) {
+            Group allUsersGroup = getAllUsersGroup();
+            evaluator = new UserPermissionEvaluator(user, allUsersGroup == null ? null : allUsersGroup.getId());
+            permissionEvaluators.put(user.getUsername(), evaluator);
+        }
+        return evaluator;
+    }
+
     /**
      * Get user's groups
      * 
      * @param user the user to get groups
-     * @return all user's groups (group all included)
+     * @return all user's groups (group all included), the returned set is not modifiable
      */
     public static Set<String> getUserGroups(User user) {
         if (user == null) {
             return null;
         }
-        Set<String> groups = user.getGroups();
-        if (groups == null) {
-            groups = new HashSet<>();
-        }
-        Group allUserGroup = getAllUsersGroup();
-        if (allUserGroup != null) {
-            groups.add(allUserGroup.getId());
-        }
-        return groups;
+        return getPermissionEvaluator(user).getGroups();
     }
 
     /**
@@ -220,68 +282,7 @@ public final class AuthorizationUtil {
      * @return all roles on the resource if any, empty set otherwise
      */
     public static Set<String> getRolesForResource(User user, ISecuredResource resource) {
-        Set<String> allRoles = Sets.newHashSet();
-        if (resource.getUserRoles() != null) {
-            Set<String> userRoles = resource.getUserRoles().get(user.getUsername());
-            if (userRoles != null && !userRoles.isEmpty()) {
-                allRoles.addAll(userRoles);
-            }
-        }
-        Set<String> groups = user.getGroups();
-        if (groups == null) {
-            groups = Sets.newHashSet();
-        }
-        Group allUserGroup = getAllUsersGroup();
-        if (allUserGroup != null) {
-            groups.add(allUserGroup.getId());
-        }
-        Map<String, Set<String>> groupRolesMap = resource.getGroupRoles();
-        if (groupRolesMap != null && !groupRolesMap.isEmpty()) {
-            for (String group : groups) {
-                Set<String> groupRoles = groupRolesMap.get(group);
-                if (groupRoles == null || groupRoles.isEmpty()) {
-                    continue;
-                } else {
-                    allRoles.addAll(groupRoles);
-                }
-            }
-        }
-        return allRoles;
-    }
-
-    /**
-     * Return all the roles of an user (Alien 4 Cloud's roles)
-     *
-     * @param user
-     * @return all user's A4C roles
-     */
-    private static Set<String> getRoles(User user) {
-        Set<String> allRoles = Sets.newHashSet();
-        String[] userRoles = user.getRoles();
-        Set<String> groupRoles = user.getGroupRoles();
-        if (userRoles != null && userRoles.length > 0) {
-            allRoles.addAll(Sets.newHashSet(userRoles));
-        }
-        if (groupRoles != null && !groupRoles.isEmpty()) {
-            allRoles.addAll(groupRoles);
-        }
-        return allRoles;
-    }
-
-    private static boolean hasAtLeastOneRole(Set<String> actualRoles, IResourceRoles adminRole, IResourceRoles... expectedRoles) {
-        if (actualRoles == null || actualRoles.isEmpty()) {
-            return false;
-        }
-        // Check admin role => true when got adminRole
-        if (adminRole != null && actualRoles.contains(adminRole.toString())) {
-            return true;
-        }
-        for (IResourceRoles expectedRole : expectedRoles) {
-            if (actualRoles.contains(expectedRole.toString())) {
-                return true;
-            }
-        }
-        return false;
+        return getPermissionEvaluator(user).getRolesForResource(resource);
     }
 
     /**
@@ -313,13 +314,7 @@ public final class AuthorizationUtil {
             // Trick for topology's template
             return true;
         }
-        Set<String> alienRoles = getRoles(user);
-        // With ADMIN role, all rights
-        if (alienRoles.contains(Role.ADMIN.toString())) {
-            return true;
-        }
-        Set<String> appRoles = getRolesForResource(user, resource);
-        return hasAtLeastOneRole(appRoles, resourceAdminRole, expectedRoles);
+        return getPermissionEvaluator(user).hasAuthorization(resource, resourceAdminRole, expectedRoles);
     }
 
     /**
@@ -340,12 +335,18 @@ public final class AuthorizationUtil {
      * @return
      */
     private static Group getAllUsersGroup() {
-        Group group = alienGroupDao.findByName(AlienConstants.GROUP_NAME_ALL_USERS);
-        if (group == null) {
+        Optional<Group> group;
+        try {
+            group = groupsByName.get(AlienConstants.GROUP_NAME_ALL_USERS,
+                    () -> Optional.ofNullable(alienGroupDao.findByName(AlienConstants.GROUP_NAME_ALL_USERS)));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        if (!group.isPresent()) {
             log.warn("Default all users group <{}> not found", AlienConstants.GROUP_NAME_ALL_USERS);
             return null;
         }
-        return group;
+        return group.get();
     }
 
     /**
@@ -0,0 +1,154 @@
+package alien4cloud.security;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import alien4cloud.security.model.Role;
+import alien4cloud.security.model.User;
+import lombok.Getter;
+
+/**
+ * Evaluate the permissions of a user on secured resources in memory.
+ * <p>
+ * The effective groups (including the ALL_USERS group) and the alien roles of the user are computed once so that checking the roles on many resources does
+ * not require any lookup nor allocation. An evaluator is immutable and reflects the user as it was when the evaluator was created, see
+ * {@link #isUpToDate(User)}.
+ */
+public final class UserPermissionEvaluator {
+    @Getter
+    private final String username;
+    /** Groups of the user, including the ALL_USERS group. */
+    @Getter
+    private final Set<String> groups;
+    /** Alien roles of the user (user roles and group roles). */
+    @Getter
+    private final Set<String> roles;
+    @Getter
+    private final boolean admin;
+
+    /** State of the user used to build the evaluator. */
+    private final Set<String> userGroups;
+    private final Set<String> userGroupRoles;
+    private final String[] userRoles;
+
+    UserPermissionEvaluator(User user, String allUsersGroupId) {
+        this.username = user.getUsername();
+        this.userGroups = copy(user.getGroups());
+        this.userGroupRoles = copy(user.getGroupRoles());
+        this.userRoles = user.getRoles() == null ? null : user.getRoles().clone();
+
+        ImmutableSet.Builder<String> groupsBuilder = ImmutableSet.builder();
+        if (userGroups != null) {
+            groupsBuilder.addAll(userGroups);
+        }
+        if (allUsersGroupId != null) {
+            groupsBuilder.add(allUsersGroupId);
+        }
+        this.groups = groupsBuilder.build();
+
+        ImmutableSet.Builder<String> rolesBuilder = ImmutableSet.builder();
+        if (userRoles != null) {
+            rolesBuilder.add(userRoles);
+        }
+        if (userGroupRoles != null) {
+            rolesBuilder.addAll(userGroupRoles);
+        }
+        this.roles = rolesBuilder.build();
+        this.admin = roles.contains(Role.ADMIN.toString());
+    }
+
+    private static Set<String> copy(Set<String> set) {
+        return set == null ? null : Collections.unmodifiableSet(Sets.newHashSet(set));
+    }
+
+    /**
+     * Check that the evaluator has been built from the current state of the user.
+     *
+     * @param user The user.
+     * @return true if the groups and roles of the user did not change since the evaluator has been built.
+     */
+    boolean isUpToDate(User user) {
+        return Objects.equals(username, user.getUsername()) && Objects.equals(userGroups, user.getGroups())
+                && Objects.equals(userGroupRoles, user.getGroupRoles()) && Arrays.equals(userRoles, user.getRoles());
+    }
+
+    /**
+     * Get the roles of the user on a resource, from its user roles and from the roles of its groups.
+     *
+     * @param resource The resource.
+     * @return all roles on the resource if any, empty set otherwise
+     */
+    public Set<String> getRolesForResource(ISecuredResource resource) {
+        Set<String> allRoles = Sets.newHashSet();
+        if (resource.getUserRoles() != null) {
+            Set<String> resourceUserRoles = resource.getUserRoles().get(username);
+            if (resourceUserRoles != null) {
+                allRoles.addAll(resourceUserRoles);
+            }
+        }
+        Map<String, Set<String>> groupRolesMap = resource.getGroupRoles();
+        if (groupRolesMap != null && !groupRolesMap.isEmpty()) {
+            for (String group : groups) {
+                Set<String> groupRoles = groupRolesMap.get(group);
+                if (groupRoles != null) {
+                    allRoles.addAll(groupRoles);
+                }
+            }
+        }
+        return allRoles;
+    }
+
+    /**
+     * Check if the user is authorized on a resource.
+     *
+     * @param resource the resource to check for
+     * @param resourceAdminRole the role which has the god/admin right on the resource
+     * @param expectedRoles the role that the user is expected to have in order to have access to the resources
+     * @return true if user has access, false otherwise
+     */
+    public boolean hasAuthorization(ISecuredResource resource, IResourceRoles resourceAdminRole, IResourceRoles... expectedRoles) {
+        if (resource == null) {
+            // Trick for topology's template
+            return true;
+        }
+        if (admin) {
+            return true;
+        }
+        if (resourceAdminRole != null && hasRole(resource, resourceAdminRole.toString())) {
+            return true;
+        }
+        for (IResourceRoles expectedRole : expectedRoles) {
+            if (hasRole(resource, expectedRole.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasRole(ISecuredResource resource, String role) {
+        Map<String, Set<String>> userRolesMap = resource.getUserRoles();
+        if (userRolesMap != null) {
+            Set<String> resourceUserRoles = userRolesMap.get(username);
+            if (resourceUserRoles != null && resourceUserRoles.contains(role)) {
+                return true;
+            }
+        }
+        Map<String, Set<String>> groupRolesMap = resource.getGroupRoles();
+        if (groupRolesMap == null || groupRolesMap.isEmpty()) {
+            return false;
+        }
+        for (String group : groups) {
+            Set<String> groupRoles = groupRolesMap.get(group);
+            if (groupRoles != null && groupRoles.contains(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
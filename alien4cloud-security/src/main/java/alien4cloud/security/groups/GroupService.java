@@ -22,6 +22,7 @@ import com.google.common.collect.Sets;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.InvalidArgumentException;
 import alien4cloud.exception.NotFoundException;
+import alien4cloud.security.event.GroupChangedEvent;
 import alien4cloud.security.event.GroupDeletedEvent;
 import alien4cloud.security.event.UserDeletedEvent;
 import alien4cloud.security.groups.rest.UpdateGroupRequest;
@@ -58,6 +59,7 @@ public class GroupService {
             checkGroupNameUniqueness(group.getName());
         }
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
     }
 
     public void deleteGroup(String groupId) throws IOException, ClassNotFoundException {
@@ -75,6 +77,7 @@ public class GroupService {
         group.setUsers(users);
 
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
 
         // update groupRoles in the user
         userService.addGroupToUser(group, user);
@@ -91,6 +94,7 @@ public class GroupService {
 
         group.getUsers().remove(user.getUsername());
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
 
         // update groupRoles in users objects
         userService.removeGroupFromUser(user, group);
@@ -123,6 +127,7 @@ public class GroupService {
         }
 
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
 
         if (CollectionUtils.isNotEmpty(usersList)) {
             for (User user : usersList) {
@@ -141,6 +146,7 @@ public class GroupService {
         group.setRoles(rolesSet);
 
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
 
         // update groupRoles in users objects
         if (CollectionUtils.isNotEmpty(group.getUsers())) {
@@ -166,6 +172,7 @@ public class GroupService {
 
         group.getRoles().remove(Role.getStringFormatedRole(role));
         alienGroupDao.save(group);
+        publisher.publishEvent(new GroupChangedEvent(this, group));
 
         // update groupRoles in users objects
         if (CollectionUtils.isNotEmpty(group.getUsers())) {
@@ -204,6 +211,7 @@ public class GroupService {
             if (safe(group.getUsers()).contains(user.getUsername())) {
                 group.getUsers().remove(user.getUsername());
                 alienGroupDao.save(group);
+                publisher.publishEvent(new GroupChangedEvent(this, group));
             }
         }
     }
@@ -1,7 +1,9 @@
 package alien4cloud.security.spring.ldap;
 
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -18,11 +20,11 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.security.users.IAlienUserDao;
-import alien4cloud.security.model.Role;
 import alien4cloud.security.model.User;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 /**
  * Provider responsible to authenticate agains LDAP.
@@ -39,49 +41,28 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
     @Resource
     private IAlienUserDao alienUserDao;
 
-    @Value("${ldap.mapping.roles.defaults}")
-    private String[] defaultRoles;
-    @Value("${ldap.mapping.roles.mapping:}")
-    private String[] roleMappings;
-    private Map<String, String> parsedRoleMappings;
+    @Resource
+    private LdapRoleMapper ldapRoleMapper;
+
+    @Resource
+    private LdapUserSynchronizer ldapUserSynchronizer;
+
+    /** Delay in seconds during which the LDAP entry of a user is reused for its next logins. */
+    @Value("${ldap.login_cache_ttl_seconds:60}")
+    private long loginCacheTtlSeconds;
+    private Cache<String, Optional<User>> ldapUsers;
 
     @PostConstruct
-    public void importLdapUsers() {
-        // parse role mappings
-        for (String roleMapping : roleMappings) {
-            String[] mapping = roleMapping.split("=");
-            if (mapping.length != 2) {
-                throw new IllegalArgumentException(
-                        "Check your alien configuration, every entry in ldap.roles.mapping must be matching the <LDAP_ROLE>=<ALIEN_ROLE> expression");
-            }
-            // check that the alien role is indeed an alien role.
-            Role.valueOf(mapping[1]);
-            if (parsedRoleMappings == null) {
-                parsedRoleMappings = Maps.newHashMap();
-            }
-            parsedRoleMappings.put(mapping[0], mapping[1]);
-        }
+    public void init() {
+        ldapUsers = CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(loginCacheTtlSeconds, TimeUnit.SECONDS).build();
+    }
 
-        if (ldapUserDao.getLdapTemplate().getContextSource() != null) {
-            List<User> users = ldapUserDao.getUsers();
-            checkRoles();
-            for (User user : users) {
-                // refresh roles based on ldap.
-                User alienUser = alienUserDao.find(user.getUsername());
-                if (alienUser == null) {
-                    // eventually update if a mapping exists for this user.
-                    mapLdapRoles(user, user);
-                    if(user.getRoles() == null || user.getRoles().length == 0) {
-                        // initialize the user with default roles.
-                        user.setRoles(defaultRoles);
-                    }
-                    alienUserDao.save(user);
-                } else {
-                    mapLdapRoles(user, alienUser);
-                    alienUserDao.save(alienUser);
-                }
-            }
-        }
+    /**
+     * Import the users created or modified in LDAP since the last import. Users are imported in background at startup and periodically, see
+     * {@link LdapUserSynchronizer}.
+     */
+    public void importLdapUsers() {
+        ldapUserSynchronizer.synchronize();
     }
 
     @Override
@@ -91,8 +72,18 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
 
         if (ldapUserDao.authenticate(login, password)) {
             List<? extends GrantedAuthority> emptyList = Lists.newArrayList();
+            User user = alienUserDao.find(login);
+            if (user == null) {
+                // the user has not been imported yet, the alien provider will create it from the ldap user (not cached as it is modified).
+                User ldapUser = ldapUserDao.getById(login);
+                if (ldapUser != null) {
+                    ldapRoleMapper.initNewUser(ldapUser);
+                    return new UsernamePasswordAuthenticationToken(ldapUser, password, emptyList);
+                }
+                return new UsernamePasswordAuthenticationToken(login, password, emptyList);
+            }
             Authentication auth = new UsernamePasswordAuthenticationToken(login, password, emptyList);
-            updateLdapUserRoles(login, auth);
+            updateLdapUserRoles(login, user, auth);
             return auth;
         } else {
             log.debug("Wrong password for user <" + login + ">");
@@ -100,44 +91,26 @@ public class LdapAuthenticationProvider implements AuthenticationProvider {
         }
     }
 
-    private void updateLdapUserRoles(String login, Authentication auth) {
-        if (auth.isAuthenticated() && parsedRoleMappings != null) {
+    private void updateLdapUserRoles(String login, User user, Authentication auth) {
+        if (auth.isAuthenticated() && ldapRoleMapper.isRoleMappingEnabled()) {
             // refresh roles if loaded from mapping
-            User ldapUser = ldapUserDao.getById(login);
-            User user = alienUserDao.find(login);
-
-            if (ldapUser != null) {
-                mapLdapRoles(ldapUser, user);
+            User ldapUser = getLdapUser(login);
+            if (ldapUser != null && ldapRoleMapper.mapLdapRoles(ldapUser, user)) {
+                alienUserDao.save(user);
             }
-            alienUserDao.save(user);
         }
     }
 
-    private void mapLdapRoles(User ldapUser, User user) {
-        if(ldapUser.getRoles() == null || parsedRoleMappings == null) {
-            return;
-        }
-
-        List<String> userRoles = Lists.newArrayList();
-        for (String role : ldapUser.getRoles()) {
-            String alienRole = parsedRoleMappings.get(role);
-            if (alienRole != null) {
-                userRoles.add(alienRole);
-            }
+    private User getLdapUser(String login) {
+        try {
+            return ldapUsers.get(login, () -> Optional.ofNullable(ldapUserDao.getById(login))).orElse(null);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
-        user.setRoles(userRoles.toArray(new String[userRoles.size()]));
-
     }
 
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
     }
-
-    private void checkRoles() {
-        for (String role : defaultRoles) {
-            // should throw an exception and fail if the role doesn't exists.
-            Role.valueOf(role);
-        }
-    }
 }
@@ -0,0 +1,99 @@
+package alien4cloud.security.spring.ldap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.security.model.Role;
+import alien4cloud.security.model.User;
+
+/**
+ * Map the roles of the LDAP users to alien roles based on the ldap.mapping.roles configuration.
+ */
+@Component
+@Conditional(LdapCondition.class)
+public class LdapRoleMapper {
+    @Value("${ldap.mapping.roles.defaults}")
+    private String[] defaultRoles;
+    @Value("${ldap.mapping.roles.mapping:}")
+    private String[] roleMappings;
+    private Map<String, String> parsedRoleMappings;
+
+    @PostConstruct
+    public void parseRoleMappings() {
+        for (String roleMapping : roleMappings) {
+            String[] mapping = roleMapping.split("=");
+            if (mapping.length != 2) {
+                throw new IllegalArgumentException(
+                        "Check your alien configuration, every entry in ldap.roles.mapping must be matching the <LDAP_ROLE>=<ALIEN_ROLE> expression");
+            }
+            // check that the alien role is indeed an alien role.
+            Role.valueOf(mapping[1]);
+            if (parsedRoleMappings == null) {
+                parsedRoleMappings = Maps.newHashMap();
+            }
+            parsedRoleMappings.put(mapping[0], mapping[1]);
+        }
+        for (String role : defaultRoles) {
+            // should throw an exception and fail if the role doesn't exists.
+            Role.valueOf(role);
+        }
+    }
+
+    /**
+     * @return true if the roles of the alien users are managed in LDAP.
+     */
+    public boolean isRoleMappingEnabled() {
+        return parsedRoleMappings != null;
+    }
+
+    /**
+     * Initialize the roles of a LDAP user that does not exist yet in alien.
+     *
+     * @param ldapUser The user read from LDAP.
+     */
+    public void initNewUser(User ldapUser) {
+        // eventually update if a mapping exists for this user.
+        mapLdapRoles(ldapUser, ldapUser);
+        if (ldapUser.getRoles() == null || ldapUser.getRoles().length == 0) {
+            // initialize the user with default roles.
+            ldapUser.setRoles(defaultRoles);
+        }
+    }
+
+    /**
+     * Update the roles of an alien user from its roles in LDAP.
+     *
+     * @param ldapUser The user read from LDAP.
+     * @param user The alien user to update.
+     * @return true if the roles of the alien user have been changed.
+     */
+    public boolean mapLdapRoles(User ldapUser, User user) {
+        if (ldapUser.getRoles() == null || parsedRoleMappings == null) {
+            return false;
+        }
+
+        List<String> userRoles = Lists.newArrayList();
+        for (String role : ldapUser.getRoles()) {
+            String alienRole = parsedRoleMappings.get(role);
+            if (alienRole != null) {
+                userRoles.add(alienRole);
+            }
+        }
+        String[] roles = userRoles.toArray(new String[userRoles.size()]);
+        if (Arrays.equals(roles, user.getRoles())) {
+            return false;
+        }
+        user.setRoles(roles);
+        return true;
+    }
+}
@@ -1,15 +1,22 @@
 package alien4cloud.security.spring.ldap;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.function.Consumer;
 
 import javax.annotation.Resource;
+import javax.naming.directory.SearchControls;
 
 import lombok.Getter;
 import lombok.Setter;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.ldap.control.PagedResultsDirContextProcessor;
 import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.support.SingleContextSource;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.security.model.User;
@@ -34,6 +41,14 @@ public class LdapUserDao {
     @Value("${ldap.mapping.id}")
     private String userIdKey;
 
+    /** Number of users read by LDAP search request, 0 to disable paging. */
+    @Value("${ldap.sync.page_size:500}")
+    private int pageSize;
+
+    /** Operational attribute that contains the last modification date of an entry, empty if not supported by the directory. */
+    @Value("${ldap.sync.modification_timestamp_attribute:modifyTimestamp}")
+    private String modificationTimestampKey;
+
     /**
      * Authenticate the user against ldap.
      * 
@@ -53,6 +68,47 @@ public class LdapUserDao {
         return ldapTemplate.search("", this.filter, userLdapAttributeMapper);
     }
 
+    /**
+     * Search the users from LDAP page by page.
+     *
+     * @param modifiedSince If not null only the users modified since this date are returned (when the modification timestamp attribute is configured).
+     * @param pageConsumer Consumer of every page of users.
+     */
+    public void searchUsers(Date modifiedSince, Consumer<List<User>> pageConsumer) {
+        String searchFilter = getSearchFilter(modifiedSince);
+        if (pageSize <= 0) {
+            pageConsumer.accept(ldapTemplate.search("", searchFilter, userLdapAttributeMapper));
+            return;
+        }
+        SearchControls searchControls = new SearchControls();
+        searchControls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        PagedResultsDirContextProcessor processor = new PagedResultsDirContextProcessor(pageSize);
+        // the paged results cookie is bound to the connection so all pages must be read with the same one.
+        SingleContextSource.doWithSingleContext(ldapTemplate.getContextSource(), operations -> {
+            do {
+                pageConsumer.accept(operations.search("", searchFilter, searchControls, userLdapAttributeMapper, processor));
+            } while (processor.hasMore());
+            return null;
+        });
+    }
+
+    private String getSearchFilter(Date modifiedSince) {
+        if (modifiedSince == null || modificationTimestampKey == null || modificationTimestampKey.isEmpty()) {
+            return this.filter;
+        }
+        // LDAP generalized time
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return "(&" + this.filter + "(" + modificationTimestampKey + ">=" + format.format(modifiedSince) + "))";
+    }
+
+    /**
+     * @return true if the LDAP search can be restricted to the users modified since a given date.
+     */
+    public boolean isIncrementalSearchSupported() {
+        return modificationTimestampKey != null && !modificationTimestampKey.isEmpty();
+    }
+
     /**
      * Find a user based on it's username/id
      * 
@@ -0,0 +1,197 @@
+package alien4cloud.security.spring.ldap;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import alien4cloud.security.model.User;
+import alien4cloud.security.users.IAlienUserDao;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import the LDAP users in alien in background so that the server does not wait for the LDAP directory to be read at startup.
+ * <p>
+ * The first synchronization reads the whole directory, next ones read only the users modified since the previous synchronization (when the directory exposes
+ * a modification timestamp). As adding a user to a LDAP group does not always update the modification timestamp of the user entry, the whole directory is
+ * read again periodically so that the roles mapped from group memberships are eventually refreshed. Users are read page by page, the existing alien users of a page are fetched in a single request and only the new or modified
+ * users are saved, in bulk.
+ */
+@Slf4j
+@Component
+@Conditional(LdapCondition.class)
+public class LdapUserSynchronizer {
+    @Resource
+    private LdapUserDao ldapUserDao;
+    @Resource
+    private IAlienUserDao alienUserDao;
+    @Resource
+    private LdapRoleMapper ldapRoleMapper;
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    /** Delay between two synchronizations, 0 to synchronize only at startup, negative to disable the background synchronization. */
+    @Value("${ldap.sync.interval_ms:900000}")
+    private long syncIntervalMs;
+    /** Delay between two synchronizations that read the whole directory, 0 to read only the modified users after the first synchronization. */
+    @Value("${ldap.sync.full_sync_interval_ms:86400000}")
+    private long fullSyncIntervalMs;
+    /** Margin applied to the last synchronization date to cover the clock differences between alien and the LDAP directory. */
+    @Value("${ldap.sync.clock_skew_ms:60000}")
+    private long clockSkewMs;
+
+    private ScheduledExecutorService executorService;
+    /** Start date of the last successful synchronization. */
+    @Getter
+    private volatile Date lastSynchronizationDate;
+    /** Start date of the last successful synchronization that read the whole directory. */
+    @Getter
+    private volatile Date lastFullSynchronizationDate;
+    /** Number of LDAP users processed by the current (or last) synchronization. */
+    private final AtomicLong processedUsers = new AtomicLong();
+    private volatile boolean running;
+
+    /** Rate of users read from LDAP. */
+    @Getter
+    private final Meter readUsers = new Meter();
+    /** Rate of users created or updated in alien. */
+    @Getter
+    private final Meter savedUsers = new Meter();
+    /** Duration of the synchronizations. */
+    @Getter
+    private final Timer synchronizationDuration = new Timer();
+
+    @PostConstruct
+    public void start() {
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "processed"), (Gauge<Long>) processedUsers::get);
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "running"), (Gauge<Boolean>) () -> running);
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "last-sync"),
+                    (Gauge<Long>) () -> lastSynchronizationDate == null ? 0L : lastSynchronizationDate.getTime());
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "read"), readUsers);
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "saved"), savedUsers);
+            metricRegistry.register(MetricRegistry.name(LdapUserSynchronizer.class, "duration"), synchronizationDuration);
+        }
+        if (syncIntervalMs < 0) {
+            log.info("Background synchronization of LDAP users is disabled");
+            return;
+        }
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ldap-user-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncIntervalMs > 0) {
+            executorService.scheduleWithFixedDelay(this::synchronizeSafely, 0, syncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            executorService.submit(this::synchronizeSafely);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        if (metricRegistry != null) {
+            metricRegistry.removeMatching((name, metric) -> name.startsWith(LdapUserSynchronizer.class.getName()));
+        }
+    }
+
+    private void synchronizeSafely() {
+        try {
+            synchronize();
+        } catch (RuntimeException e) {
+            // next synchronization will retry from the last successful one.
+            log.error("Failed to synchronize LDAP users", e);
+        }
+    }
+
+    /**
+     * Import the LDAP users created or modified since the last synchronization.
+     *
+     * @return The number of users created or updated in alien.
+     */
+    public synchronized int synchronize() {
+        if (ldapUserDao.getLdapTemplate().getContextSource() == null) {
+            return 0;
+        }
+        Date startDate = new Date();
+        Date since = isFullSynchronizationRequired(startDate) ? null : new Date(lastSynchronizationDate.getTime() - clockSkewMs);
+        running = true;
+        processedUsers.set(0);
+        Timer.Context timerContext = synchronizationDuration.time();
+        int[] savedCount = { 0 };
+        try {
+            ldapUserDao.searchUsers(since, page -> savedCount[0] += importPage(page));
+            lastSynchronizationDate = startDate;
+            if (since == null) {
+                lastFullSynchronizationDate = startDate;
+            }
+        } finally {
+            timerContext.stop();
+            running = false;
+        }
+        log.info("LDAP users synchronized{}: {} users read, {} users created or updated", since == null ? "" : " since " + since, processedUsers.get(),
+                savedCount[0]);
+        return savedCount[0];
+    }
+
+    private boolean isFullSynchronizationRequired(Date startDate) {
+        if (lastSynchronizationDate == null || lastFullSynchronizationDate == null || !ldapUserDao.isIncrementalSearchSupported()) {
+            return true;
+        }
+        return fullSyncIntervalMs > 0 && startDate.getTime() - lastFullSynchronizationDate.getTime() >= fullSyncIntervalMs;
+    }
+
+    private int importPage(List<User> ldapUsers) {
+        if (ldapUsers == null || ldapUsers.isEmpty()) {
+            return 0;
+        }
+        readUsers.mark(ldapUsers.size());
+        Map<String, User> alienUsers = Maps.newHashMap();
+        List<User> existingUsers = alienUserDao.find(ldapUsers.stream().map(User::getUsername).toArray(String[]::new));
+        if (existingUsers != null) {
+            for (User existingUser : existingUsers) {
+                alienUsers.put(existingUser.getUsername(), existingUser);
+            }
+        }
+        List<User> toSave = Lists.newArrayList();
+        for (User ldapUser : ldapUsers) {
+            User alienUser = alienUsers.get(ldapUser.getUsername());
+            if (alienUser == null) {
+                ldapRoleMapper.initNewUser(ldapUser);
+                toSave.add(ldapUser);
+            } else if (ldapRoleMapper.mapLdapRoles(ldapUser, alienUser)) {
+                // refresh roles based on ldap.
+                toSave.add(alienUser);
+            }
+        }
+        if (!toSave.isEmpty()) {
+            alienUserDao.save(toSave);
+            savedUsers.mark(toSave.size());
+        }
+        processedUsers.addAndGet(ldapUsers.size());
+        return toSave.size();
+    }
+}
@@ -44,6 +44,11 @@ public class ElasticSearchUserDao extends ESGenericSearchDAO implements IAlienUs
         super.save(user);
     }
 
+    @Override
+    public void save(List<User> users) {
+        super.save(users.toArray(new User[users.size()]));
+    }
+
     @Override
     public User find(String username) {
         return super.findById(User.class, username);
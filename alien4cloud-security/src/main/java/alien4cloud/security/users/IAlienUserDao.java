@@ -22,6 +22,13 @@ public interface IAlienUserDao {
      */
     void save(User user);
 
+    /**
+     * Create or update users in the store with a single bulk request.
+     *
+     * @param users The users to store.
+     */
+    void save(List<User> users);
+
     /**
      * Read a user from the store.
      * 
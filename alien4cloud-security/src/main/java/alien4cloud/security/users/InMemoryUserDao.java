@@ -27,6 +27,13 @@ public class InMemoryUserDao implements IAlienUserDao {
         userMap.put(user.getUsername(), user);
     }
 
+    @Override
+    public void save(List<User> users) {
+        for (User user : users) {
+            save(user);
+        }
+    }
+
     @Override
     public User find(String username) {
         return userMap.get(username);
@@ -0,0 +1,198 @@
+package alien4cloud.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.audit.model.AuditTrace;
+import alien4cloud.dao.IGenericSearchDAO;
+
+public class AuditTraceWriterTest {
+    private static final String WRITER_THREAD = "audit-trace-writer";
+
+    private final IGenericSearchDAO auditDAO = Mockito.mock(IGenericSearchDAO.class);
+    /** Released when the writer thread is blocked in a save, see {@link #blockWriterThread()}. */
+    private final CountDownLatch writerSaving = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+    private AuditTraceWriter writer;
+
+    @After
+    public void cleanup() {
+        releaseWriter.countDown();
+    }
+
+    private AuditTraceWriter newWriter(int queueCapacity, int bulkSize, AuditTraceWriter.OverflowPolicy overflowPolicy) {
+        AuditTraceWriter writer = new AuditTraceWriter();
+        ReflectionTestUtils.setField(writer, "alienDAO", auditDAO);
+        ReflectionTestUtils.setField(writer, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(writer, "maxBulkSize", bulkSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 50L);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", overflowPolicy);
+        writer.start();
+        return writer;
+    }
+
+    /**
+     * Make the saves of the writer thread wait for {@link #releaseWriter} so that the queue fills up, saves of other threads are not blocked.
+     */
+    private void blockWriterThread() {
+        Mockito.doAnswer(invocation -> {
+            if (WRITER_THREAD.equals(Thread.currentThread().getName())) {
+                writerSaving.countDown();
+                releaseWriter.await();
+            }
+            return null;
+        }).when(auditDAO).save(Mockito.any(AuditTrace[].class));
+    }
+
+    /**
+     * Fill the queue while the writer thread is blocked in the save of the first trace.
+     */
+    private void fillQueue(int queueCapacity) throws InterruptedException {
+        writer.write(new AuditTrace());
+        assertTrue(writerSaving.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < queueCapacity; i++) {
+            writer.write(new AuditTrace());
+        }
+        assertEquals(queueCapacity, writer.getQueueDepth());
+    }
+
+    private int countSavedTraces() {
+        ArgumentCaptor<AuditTrace[]> captor = ArgumentCaptor.forClass(AuditTrace[].class);
+        Mockito.verify(auditDAO, Mockito.atLeastOnce()).save(captor.capture());
+        int total = 0;
+        for (AuditTrace[] bulk : captor.getAllValues()) {
+            total += bulk.length;
+        }
+        return total;
+    }
+
+    @Test
+    public void tracesShouldBeSavedInBulks() {
+        writer = newWriter(1000, 50, AuditTraceWriter.OverflowPolicy.DROP);
+        for (int i = 0; i < 200; i++) {
+            writer.write(new AuditTrace());
+        }
+        writer.shutdown();
+
+        ArgumentCaptor<AuditTrace[]> captor = ArgumentCaptor.forClass(AuditTrace[].class);
+        Mockito.verify(auditDAO, Mockito.atLeastOnce()).save(captor.capture());
+        List<AuditTrace[]> bulks = captor.getAllValues();
+        int total = 0;
+        for (AuditTrace[] bulk : bulks) {
+            assertTrue(bulk.length <= 50);
+            total += bulk.length;
+        }
+        assertEquals(200, total);
+        assertEquals(200, writer.getSavedTraces().getCount());
+        assertEquals(0, writer.getDroppedTraces().getCount());
+    }
+
+    @Test
+    public void pendingTracesShouldBeSavedOnShutdown() throws InterruptedException {
+        blockWriterThread();
+        writer = newWriter(10, 1, AuditTraceWriter.OverflowPolicy.DROP);
+        fillQueue(10);
+
+        releaseWriter.countDown();
+        writer.shutdown();
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(11, countSavedTraces());
+        assertEquals(11, writer.getSavedTraces().getCount());
+    }
+
+    @Test
+    public void tracesShouldBeDroppedWhenTheQueueIsFull() throws InterruptedException {
+        blockWriterThread();
+        writer = newWriter(2, 1, AuditTraceWriter.OverflowPolicy.DROP);
+        fillQueue(2);
+
+        writer.write(new AuditTrace());
+        assertEquals(1, writer.getDroppedTraces().getCount());
+
+        releaseWriter.countDown();
+        writer.shutdown();
+        assertEquals(3, countSavedTraces());
+    }
+
+    @Test
+    public void callerShouldSaveTheTraceWhenTheQueueIsFull() throws InterruptedException {
+        blockWriterThread();
+        writer = newWriter(2, 1, AuditTraceWriter.OverflowPolicy.CALLER_RUNS);
+        fillQueue(2);
+
+        AuditTrace overflowTrace = new AuditTrace();
+        writer.write(overflowTrace);
+        // saved synchronously while the writer thread is still blocked
+        ArgumentCaptor<AuditTrace[]> captor = ArgumentCaptor.forClass(AuditTrace[].class);
+        Mockito.verify(auditDAO, Mockito.times(2)).save(captor.capture());
+        assertSame(overflowTrace, captor.getValue()[0]);
+        assertEquals(2, writer.getQueueDepth());
+        assertEquals(0, writer.getDroppedTraces().getCount());
+
+        releaseWriter.countDown();
+        writer.shutdown();
+        assertEquals(4, countSavedTraces());
+    }
+
+    @Test
+    public void tracesShouldNotBeDroppedByDefaultWhenTheQueueIsFull() throws InterruptedException {
+        blockWriterThread();
+        writer = newWriter(2, 1, (AuditTraceWriter.OverflowPolicy) ReflectionTestUtils.getField(new AuditTraceWriter(), "overflowPolicy"));
+        fillQueue(2);
+
+        writer.write(new AuditTrace());
+        assertEquals(0, writer.getDroppedTraces().getCount());
+
+        releaseWriter.countDown();
+        writer.shutdown();
+        assertEquals(4, countSavedTraces());
+    }
+
+    @Test
+    public void callerShouldWaitForRoomInTheQueueWhenTheQueueIsFull() throws Exception {
+        blockWriterThread();
+        writer = newWriter(2, 1, AuditTraceWriter.OverflowPolicy.BLOCK);
+        fillQueue(2);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> blockedWrite = executor.submit(() -> writer.write(new AuditTrace()));
+        executor.shutdown();
+        Thread.sleep(200);
+        assertFalse(blockedWrite.isDone());
+
+        releaseWriter.countDown();
+        blockedWrite.get(5, TimeUnit.SECONDS);
+        writer.shutdown();
+        assertEquals(4, countSavedTraces());
+        assertEquals(0, writer.getDroppedTraces().getCount());
+    }
+
+    @Test
+    public void failedSavesShouldBeCountedAsDropped() {
+        Mockito.doThrow(new RuntimeException("elasticsearch unavailable")).when(auditDAO).save(Mockito.any(AuditTrace[].class));
+        writer = newWriter(100, 10, AuditTraceWriter.OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) {
+            writer.write(new AuditTrace());
+        }
+        writer.shutdown();
+
+        assertEquals(5, writer.getDroppedTraces().getCount());
+        assertEquals(0, writer.getSavedTraces().getCount());
+    }
+}
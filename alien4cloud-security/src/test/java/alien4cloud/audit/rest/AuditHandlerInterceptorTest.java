@@ -0,0 +1,87 @@
+package alien4cloud.audit.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import com.google.common.base.Charsets;
+
+import alien4cloud.audit.AuditDescriptor;
+import alien4cloud.audit.AuditService;
+import alien4cloud.audit.model.AuditConfiguration;
+
+public class AuditHandlerInterceptorTest {
+    private static final String BODY = "{\"name\":\"test\"}";
+
+    private AuditService auditService;
+    private AuditHandlerInterceptor interceptor;
+    private AuditConfiguration configuration;
+    private HandlerMethod handlerMethod;
+    private MultiReadHttpServletRequest request;
+
+    @Before
+    public void prepare() throws NoSuchMethodException {
+        auditService = Mockito.mock(AuditService.class);
+        interceptor = new AuditHandlerInterceptor(auditService);
+        configuration = new AuditConfiguration();
+        Mockito.when(auditService.getAuditConfiguration()).thenReturn(configuration);
+        handlerMethod = new HandlerMethod(this, AuditHandlerInterceptorTest.class.getMethod("prepare"));
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("POST", "/rest/v1/test");
+        mockRequest.setContent(BODY.getBytes(Charsets.UTF_8));
+        request = new MultiReadHttpServletRequest(mockRequest);
+    }
+
+    @Test
+    public void bodyOfAuditedRequestsShouldBeReadableAfterTheController() throws Exception {
+        AuditDescriptor descriptor = new AuditDescriptor(null, "Test", "prepare", null);
+        Mockito.when(auditService.isMethodAudited(configuration, handlerMethod)).thenReturn(true);
+        Mockito.when(auditService.getAuditDescriptor(handlerMethod)).thenReturn(descriptor);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handlerMethod));
+
+        assertSame(descriptor, AuditHandlerInterceptor.getAuditDescriptor(request));
+        assertTrue(request.isCacheEnabled());
+        // read by the controller then by the audit filter
+        assertEquals(BODY, readBody());
+        assertEquals(BODY, readBody());
+    }
+
+    @Test
+    public void bodyOfRequestsThatAreNotAuditedShouldNotBeKept() throws Exception {
+        Mockito.when(auditService.isMethodAudited(configuration, handlerMethod)).thenReturn(false);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handlerMethod));
+
+        assertNull(AuditHandlerInterceptor.getAuditDescriptor(request));
+        assertFalse(request.isCacheEnabled());
+        // the body is streamed from the original request
+        assertEquals(BODY, readBody());
+    }
+
+    @Test
+    public void requestsShouldNotBeAuditedWhenAuditIsDisabled() throws Exception {
+        configuration.setEnabled(false);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handlerMethod));
+
+        assertNull(AuditHandlerInterceptor.getAuditDescriptor(request));
+        assertFalse(request.isCacheEnabled());
+        Mockito.verify(auditService, Mockito.never()).isMethodAudited(Mockito.any(AuditConfiguration.class), Mockito.any(HandlerMethod.class));
+    }
+
+    private String readBody() throws IOException {
+        return StreamUtils.copyToString(request.getInputStream(), Charsets.UTF_8);
+    }
+}
@@ -0,0 +1,125 @@
+package alien4cloud.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import alien4cloud.security.groups.IAlienGroupDao;
+import alien4cloud.security.model.ApplicationRole;
+import alien4cloud.security.model.Group;
+import alien4cloud.security.model.User;
+import alien4cloud.utils.AlienConstants;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Check that authorization checks do not look up the groups for every resource.
+ */
+public class AuthorizationUtilTest {
+    private static final int RESOURCES_COUNT = 500;
+    private static final String ALL_USERS_GROUP_ID = "all-users-id";
+
+    private IAlienGroupDao alienGroupDao;
+    private User user;
+    private List<SecuredResource> resources;
+
+    @Before
+    public void prepare() throws Exception {
+        alienGroupDao = Mockito.mock(IAlienGroupDao.class);
+        Group allUsers = new Group(AlienConstants.GROUP_NAME_ALL_USERS);
+        allUsers.setId(ALL_USERS_GROUP_ID);
+        Mockito.when(alienGroupDao.findByName(AlienConstants.GROUP_NAME_ALL_USERS)).thenReturn(allUsers);
+        setGroupDao(alienGroupDao);
+
+        user = new User("user", "last", "first", null);
+        user.setGroups(Sets.newHashSet("developers"));
+        resources = Lists.newArrayList();
+        for (int i = 0; i < RESOURCES_COUNT; i++) {
+            SecuredResource resource = new SecuredResource();
+            switch (i % 4) {
+            case 0:
+                resource.getUserRoles().put("user", Sets.newHashSet(ApplicationRole.APPLICATION_USER.toString()));
+                break;
+            case 1:
+                resource.getGroupRoles().put("developers", Sets.newHashSet(ApplicationRole.APPLICATION_DEVOPS.toString()));
+                break;
+            case 2:
+                resource.getGroupRoles().put(ALL_USERS_GROUP_ID, Sets.newHashSet(ApplicationRole.APPLICATION_MANAGER.toString()));
+                break;
+            default:
+                resource.getUserRoles().put("other", Sets.newHashSet(ApplicationRole.APPLICATION_MANAGER.toString()));
+                break;
+            }
+            resources.add(resource);
+        }
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        setGroupDao(null);
+    }
+
+    private void setGroupDao(IAlienGroupDao groupDao) throws Exception {
+        Field field = AuthorizationUtil.class.getDeclaredField("alienGroupDao");
+        field.setAccessible(true);
+        field.set(null, groupDao);
+        AuthorizationUtil.invalidateCaches();
+    }
+
+    @Test
+    public void checksShouldUseCachedGroups() {
+        int authorized = 0;
+        for (SecuredResource resource : resources) {
+            if (AuthorizationUtil.hasAuthorization(user, resource, ApplicationRole.APPLICATION_MANAGER, ApplicationRole.values())) {
+                authorized++;
+            }
+        }
+        assertEquals(RESOURCES_COUNT * 3 / 4, authorized);
+        assertEquals(Sets.newHashSet(ApplicationRole.APPLICATION_MANAGER.toString()), AuthorizationUtil.getRolesForResource(user, resources.get(2)));
+        assertEquals(Sets.newHashSet("developers", ALL_USERS_GROUP_ID), AuthorizationUtil.getUserGroups(user));
+        // the principal must not be modified
+        assertEquals(Sets.newHashSet("developers"), user.getGroups());
+        Mockito.verify(alienGroupDao, Mockito.times(1)).findByName(AlienConstants.GROUP_NAME_ALL_USERS);
+
+        // group events invalidate the cache
+        AuthorizationUtil.invalidateCaches();
+        AuthorizationUtil.getUserGroups(user);
+        Mockito.verify(alienGroupDao, Mockito.times(2)).findByName(AlienConstants.GROUP_NAME_ALL_USERS);
+    }
+
+    @Test
+    public void evaluatorShouldFollowUserChanges() {
+        SecuredResource developersResource = resources.get(1);
+        assertTrue(AuthorizationUtil.hasAuthorization(user, developersResource, null, ApplicationRole.APPLICATION_DEVOPS));
+        user.setGroups(Sets.newHashSet("testers"));
+        assertFalse(AuthorizationUtil.hasAuthorization(user, developersResource, null, ApplicationRole.APPLICATION_DEVOPS));
+        user.setRoles(new String[] { "ADMIN" });
+        assertTrue(AuthorizationUtil.hasAuthorization(user, developersResource, null, ApplicationRole.APPLICATION_DEVOPS));
+    }
+
+    @Getter
+    @Setter
+    private static class SecuredResource implements ISecuredResource {
+        private Map<String, Set<String>> userRoles = Maps.newHashMap();
+        private Map<String, Set<String>> groupRoles = Maps.newHashMap();
+
+        @Override
+        public Class<ApplicationRole> roleEnum() {
+            return ApplicationRole.class;
+        }
+    }
+}
@@ -1,57 +1,148 @@
 package alien4cloud.security;
 
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import javax.annotation.Resource;
+import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
+import javax.naming.directory.BasicAttributes;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsResponseControl;
+
+import com.google.common.collect.Lists;
 
 import alien4cloud.security.model.User;
 import alien4cloud.security.users.IAlienUserDao;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.LdapTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import alien4cloud.security.spring.ldap.LdapAuthenticationProvider;
+import alien4cloud.security.spring.ldap.LdapUserSynchronizer;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration("classpath:ldap-authentication-provider-security-test.xml")
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class LdapAuthenticationProviderTest extends AbstractLdapTest {
+    private static final String FILTER = "(&(objectClass=person)(objectClass=hordePerson)(!(objectClass=CalendarResource))(accountStatus=active))";
+
     @Resource
     private IAlienUserDao alienUserDao;
     @Resource
     private LdapTemplate ldapTemplate;
     @Resource
     private LdapAuthenticationProvider ldapAuthenticationProvider;
+    @Resource
+    private LdapUserSynchronizer ldapUserSynchronizer;
+
+    @Before
+    public void prepare() {
+        // the background synchronization is disabled in the test configuration so the mocks are only used by the test.
+        Mockito.reset(alienUserDao, ldapTemplate);
+        ReflectionTestUtils.setField(ldapUserSynchronizer, "lastSynchronizationDate", null);
+        ReflectionTestUtils.setField(ldapUserSynchronizer, "lastFullSynchronizationDate", null);
+        ReflectionTestUtils.setField(ldapUserSynchronizer, "fullSyncIntervalMs", 0L);
+        // the mocked template does not support paged searches
+        ldapUserDao.setPageSize(0);
+    }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void testLdapUserImport() throws NamingException {
         Mockito.when(ldapTemplate.getContextSource()).thenReturn(Mockito.mock(ContextSource.class));
         int userCount = 10;
         List<User> users = prepareGetAllUserMock(userCount);
 
-        // for each user we should check if it exists in the user repository and only if not then we add it.
-        for (int i = 0; i < users.size(); i++) {
-            User user = users.get(i);
-            if (i % 2 == 0) {
-                user.setLastName("test");
-                Mockito.when(alienUserDao.find(user.getUsername())).thenReturn(user);
-            } else {
-                Mockito.when(alienUserDao.find(user.getUsername())).thenReturn(user);
-            }
+        // existing users are fetched in a single request and only the new ones are saved.
+        List<User> existingUsers = Lists.newArrayList();
+        for (int i = 0; i < users.size(); i += 2) {
+            existingUsers.add(users.get(i));
         }
+        Mockito.when(alienUserDao.find(Mockito.<String> anyVararg())).thenReturn(existingUsers);
 
         ldapAuthenticationProvider.importLdapUsers();
 
-        Mockito.verify(alienUserDao, Mockito.times(users.size())).save(Mockito.any(User.class));
+        ArgumentCaptor<List> savedUsers = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(alienUserDao, Mockito.times(1)).find(Mockito.<String> anyVararg());
+        Mockito.verify(alienUserDao, Mockito.times(1)).save(savedUsers.capture());
+        Mockito.verify(alienUserDao, Mockito.never()).save(Mockito.any(User.class));
+        Assert.assertEquals(userCount / 2, savedUsers.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLdapUserImportShouldReadAllPages() throws Exception {
+        ldapUserDao.setPageSize(2);
+        ContextSource contextSource = Mockito.mock(ContextSource.class);
+        LdapContext ldapContext = Mockito.mock(LdapContext.class);
+        Mockito.when(ldapTemplate.getContextSource()).thenReturn(contextSource);
+        Mockito.when(contextSource.getReadWriteContext()).thenReturn(ldapContext);
+        Mockito.when(contextSource.getReadOnlyContext()).thenReturn(ldapContext);
+        // 5 users read in 3 pages, the last page has an empty cookie.
+        NamingEnumeration<SearchResult> firstPage = searchResults(0, 2);
+        NamingEnumeration<SearchResult> secondPage = searchResults(2, 2);
+        NamingEnumeration<SearchResult> lastPage = searchResults(4, 1);
+        Mockito.when(ldapContext.search(Mockito.eq(""), Mockito.eq(FILTER), Mockito.any(SearchControls.class))).thenReturn(firstPage, secondPage, lastPage);
+        Mockito.when(ldapContext.getResponseControls()).thenReturn(pagedResponse("p1"), pagedResponse("p2"), pagedResponse(""));
+
+        Assert.assertEquals(5, ldapUserSynchronizer.synchronize());
+
+        Mockito.verify(ldapContext, Mockito.times(3)).search(Mockito.eq(""), Mockito.eq(FILTER), Mockito.any(SearchControls.class));
+        ArgumentCaptor<List> savedUsers = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(alienUserDao, Mockito.times(3)).save(savedUsers.capture());
+        Assert.assertEquals(2, savedUsers.getAllValues().get(0).size());
+        Assert.assertEquals(2, savedUsers.getAllValues().get(1).size());
+        Assert.assertEquals("id_4", ((User) savedUsers.getAllValues().get(2).get(0)).getUsername());
+    }
+
+    @Test
+    public void testLdapUserImportShouldOnlyReadModifiedUsersAfterFirstImport() throws NamingException {
+        Mockito.when(ldapTemplate.getContextSource()).thenReturn(Mockito.mock(ContextSource.class));
+        prepareGetAllUserMock(2);
+
+        ldapUserSynchronizer.synchronize();
+        Assert.assertNotNull(ldapUserSynchronizer.getLastFullSynchronizationDate());
+        ldapUserSynchronizer.synchronize();
+
+        ArgumentCaptor<String> filters = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(ldapTemplate, Mockito.times(2)).search(Mockito.eq(""), filters.capture(), Mockito.eq(attributeMapper));
+        Assert.assertEquals(FILTER, filters.getAllValues().get(0));
+        String incrementalFilter = filters.getAllValues().get(1);
+        Assert.assertTrue(incrementalFilter, incrementalFilter.matches("\\(&" + Pattern.quote(FILTER) + "\\(modifyTimestamp>=\\d{14}Z\\)\\)"));
+    }
+
+    @Test
+    public void testLdapUserImportShouldReadAllUsersWhenFullSyncIsDue() throws NamingException {
+        Mockito.when(ldapTemplate.getContextSource()).thenReturn(Mockito.mock(ContextSource.class));
+        prepareGetAllUserMock(2);
+        ReflectionTestUtils.setField(ldapUserSynchronizer, "fullSyncIntervalMs", 1L);
+
+        ldapUserSynchronizer.synchronize();
+        // group memberships may have changed without updating the users modification timestamp.
+        ReflectionTestUtils.setField(ldapUserSynchronizer, "lastFullSynchronizationDate", new Date(0));
+        ldapUserSynchronizer.synchronize();
+
+        Mockito.verify(ldapTemplate, Mockito.times(2)).search("", FILTER, attributeMapper);
     }
 
     @Test
@@ -63,6 +154,21 @@ public class LdapAuthenticationProviderTest extends AbstractLdapTest {
         ldapAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
     }
 
+    @Test
+    public void testAuthenticateShouldCreateUserNotImportedYet() throws NamingException {
+        User ldapUser = createUserList(1).get(0);
+        String userName = ldapUser.getUsername();
+        String password = "password";
+        Mockito.when(ldapTemplate.authenticate("", getUserIdKey() + "=" + userName, password)).thenReturn(true);
+        Mockito.when(ldapTemplate.search("", "(" + getUserIdKey() + "=" + userName + ")", attributeMapper)).thenReturn(Lists.newArrayList(ldapUser));
+
+        Authentication authentication = ldapAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
+
+        Mockito.verify(alienUserDao).find(userName);
+        Assert.assertSame(ldapUser, authentication.getPrincipal());
+        Assert.assertArrayEquals(new String[] { "COMPONENTS_BROWSER" }, ldapUser.getRoles());
+    }
+
     @Test(expected = BadCredentialsException.class)
     public void testAuthenticateShouldFailIfWrontPassword() {
         String userName = "admin";
@@ -71,4 +177,36 @@ public class LdapAuthenticationProviderTest extends AbstractLdapTest {
         Mockito.when(ldapTemplate.authenticate("", getUserIdKey() + "=" + userName, password)).thenReturn(false);
         ldapAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
     }
+
+    @SuppressWarnings("unchecked")
+    private NamingEnumeration<SearchResult> searchResults(int firstIndex, int count) throws NamingException {
+        NamingEnumeration<SearchResult> results = Mockito.mock(NamingEnumeration.class);
+        List<SearchResult> searchResults = Lists.newArrayList();
+        for (int i = firstIndex; i < firstIndex + count; i++) {
+            BasicAttributes attributes = new BasicAttributes();
+            attributes.put(getUserIdKey(), "id_" + i);
+            searchResults.add(new SearchResult("uid=id_" + i, null, attributes));
+        }
+        Iterator<SearchResult> iterator = searchResults.iterator();
+        Mockito.when(results.hasMore()).thenAnswer(invocation -> iterator.hasNext());
+        Mockito.when(results.next()).thenAnswer(invocation -> iterator.next());
+        return results;
+    }
+
+    /**
+     * Build the paged results response control returned by the directory (BER encoded sequence of the result size and the cookie).
+     */
+    private Control[] pagedResponse(String cookie) throws IOException {
+        byte[] cookieBytes = cookie.getBytes("UTF-8");
+        byte[] value = new byte[7 + cookieBytes.length];
+        value[0] = 0x30;
+        value[1] = (byte) (5 + cookieBytes.length);
+        value[2] = 0x02;
+        value[3] = 0x01;
+        value[4] = 0x00;
+        value[5] = 0x04;
+        value[6] = (byte) cookieBytes.length;
+        System.arraycopy(cookieBytes, 0, value, 7, cookieBytes.length);
+        return new Control[] { new PagedResultsResponseControl(PagedResultsResponseControl.OID, false, value) };
+    }
 }
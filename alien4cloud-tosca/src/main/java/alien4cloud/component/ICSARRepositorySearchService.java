@@ -1,11 +1,15 @@
 package alien4cloud.component;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
 
+import com.google.common.collect.Lists;
+
 import alien4cloud.exception.NotFoundException;
 
 /**
@@ -52,6 +56,25 @@ public interface ICSARRepositorySearchService {
      */
     <T extends AbstractToscaType> T getElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies);
 
+    /**
+     * Get the definitions of an element in each of the given dependencies.
+     *
+     * @param elementClass The element class.
+     * @param elementId The TOSCA element id of the element (without archive version).
+     * @param dependencies A list of CSAR in which the element may be defined.
+     * @return The definitions of the element, at most one per dependency.
+     */
+    default <T extends AbstractToscaType> List<T> getElementsInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies) {
+        List<T> elements = Lists.newArrayList();
+        for (CSARDependency dependency : dependencies) {
+            T element = getElementInDependencies(elementClass, elementId, Collections.singleton(dependency));
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
     /**
      * Get an element from defined dependencies.
      *
@@ -1,6 +1,5 @@
 package alien4cloud.paas.wf;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -186,7 +185,7 @@ public abstract class AbstractWorkflowBuilder {
     }
 
     public void removeStep(Workflow wf, String stepId, boolean force) {
-        AbstractStep step = wf.getSteps().remove(stepId);
+        AbstractStep step = wf.removeStep(stepId);
         if (step == null) {
             throw new InconsistentWorkflowException(String.format(
                     "Inconsistent workflow: a step nammed '%s' can not be found while it's referenced else where ...", stepId));
@@ -222,9 +221,9 @@ public abstract class AbstractWorkflowBuilder {
         if (wf.getSteps().containsKey(newStepName)) {
             throw new AlreadyExistException(String.format("A step named ''{0}'' already exists in workflow '%s'", newStepName, wf.getName()));
         }
-        AbstractStep step = wf.getSteps().remove(stepId);
+        AbstractStep step = wf.removeStep(stepId);
         step.setName(newStepName);
-        wf.getSteps().put(newStepName, step);
+        wf.addStep(step);
         // now explore the links
         if (step.getPrecedingSteps() != null) {
             for (String precedingId : step.getPrecedingSteps()) {
@@ -243,12 +242,8 @@ public abstract class AbstractWorkflowBuilder {
     }
 
     public void removeNode(Workflow wf, String nodeName) {
-        AbstractStep[] steps = new AbstractStep[wf.getSteps().size()];
-        steps = wf.getSteps().values().toArray(steps);
-        for (AbstractStep step : steps) {
-            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(nodeName)) {
-                removeStep(wf, step.getName(), true);
-            }
+        for (AbstractStep step : wf.getNodeSteps(nodeName)) {
+            removeStep(wf, step.getName(), true);
         }
     }
 
@@ -262,26 +257,22 @@ public abstract class AbstractWorkflowBuilder {
      * @param relationhipTarget
      */
     public void removeRelationship(Workflow wf, String nodeId, String relationhipTarget) {
-        Iterator<AbstractStep> steps = wf.getSteps().values().iterator();
-        while(steps.hasNext()) {
-            AbstractStep step = steps.next();
-            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(nodeId)) {
-                if (step.getFollowingSteps() != null) {
-                    Object[] followingStepIds = step.getFollowingSteps().toArray();
-                    for (Object followingId : followingStepIds) {
-                        AbstractStep followingStep = wf.getSteps().get(followingId);
-                        if (followingStep instanceof NodeActivityStep && ((NodeActivityStep) followingStep).getNodeId().equals(relationhipTarget)) {
-                            unlinkSteps(step, followingStep);
-                        }
+        for (AbstractStep step : wf.getNodeSteps(nodeId)) {
+            if (step.getFollowingSteps() != null) {
+                Object[] followingStepIds = step.getFollowingSteps().toArray();
+                for (Object followingId : followingStepIds) {
+                    AbstractStep followingStep = wf.getSteps().get(followingId);
+                    if (followingStep instanceof NodeActivityStep && ((NodeActivityStep) followingStep).getNodeId().equals(relationhipTarget)) {
+                        unlinkSteps(step, followingStep);
                     }
                 }
-                if (step.getPrecedingSteps() != null) {
-                    Object precedings[] = step.getPrecedingSteps().toArray();
-                    for (Object precedingId : precedings) {
-                        AbstractStep precedingStep = wf.getSteps().get(precedingId);
-                        if (precedingStep instanceof NodeActivityStep && ((NodeActivityStep) precedingStep).getNodeId().equals(relationhipTarget)) {
-                            unlinkSteps(precedingStep, step);
-                        }
+            }
+            if (step.getPrecedingSteps() != null) {
+                Object precedings[] = step.getPrecedingSteps().toArray();
+                for (Object precedingId : precedings) {
+                    AbstractStep precedingStep = wf.getSteps().get(precedingId);
+                    if (precedingStep instanceof NodeActivityStep && ((NodeActivityStep) precedingStep).getNodeId().equals(relationhipTarget)) {
+                        unlinkSteps(precedingStep, step);
                     }
                 }
             }
@@ -354,12 +345,11 @@ public abstract class AbstractWorkflowBuilder {
 
     public void renameNode(Workflow wf, String oldName, String newName) {
         if (wf.getSteps() != null) {
-            for (AbstractStep step : wf.getSteps().values()) {
-                if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(oldName)) {
-                    ((NodeActivityStep) step).setNodeId(newName);
-                    ((NodeActivityStep) step).getActivity().setNodeId(newName);
-                }
+            for (NodeActivityStep step : wf.getNodeSteps(oldName)) {
+                step.setNodeId(newName);
+                step.getActivity().setNodeId(newName);
             }
+            wf.reindexNodeSteps(oldName, newName);
         }
     }
 
@@ -1,17 +1,23 @@
 package alien4cloud.paas.wf;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import org.apache.commons.collections4.CollectionUtils;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import alien4cloud.paas.wf.validation.AbstractWorkflowError;
 
 @Getter
@@ -28,11 +34,136 @@ public class Workflow {
      */
     private Map<String, AbstractStep> steps = new LinkedHashMap<String, AbstractStep>();
 
+    /**
+     * Names of the steps of each node, lazily built so that the steps of a node can be found without browsing the whole workflow.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, Set<String>> nodeStepsIndex;
+
+    /**
+     * Names of the steps impacted by the changes applied since the last validation of the workflow.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> dirtySteps = new HashSet<String>();
+
+    public void setSteps(Map<String, AbstractStep> steps) {
+        this.steps = steps;
+        this.nodeStepsIndex = null;
+    }
+
     public <S extends AbstractStep> S addStep(S step) {
         steps.put(step.getName(), step);
+        if (nodeStepsIndex != null) {
+            indexStep(step);
+        }
         return step;
     }
 
+    public AbstractStep removeStep(String stepName) {
+        AbstractStep step = steps.remove(stepName);
+        if (step instanceof NodeActivityStep && nodeStepsIndex != null) {
+            Set<String> nodeSteps = nodeStepsIndex.get(((NodeActivityStep) step).getNodeId());
+            if (nodeSteps != null) {
+                nodeSteps.remove(stepName);
+            }
+        }
+        return step;
+    }
+
+    /**
+     * Get the steps related to a node.
+     *
+     * @param nodeId The id of the node.
+     * @return The steps of the node in the order of the workflow steps.
+     */
+    public List<NodeActivityStep> getNodeSteps(String nodeId) {
+        if (nodeStepsIndex == null) {
+            buildNodeStepsIndex();
+        }
+        Set<String> stepNames = nodeStepsIndex.get(nodeId);
+        if (stepNames == null) {
+            return Collections.emptyList();
+        }
+        List<NodeActivityStep> nodeSteps = new ArrayList<NodeActivityStep>(stepNames.size());
+        for (String stepName : stepNames) {
+            AbstractStep step = steps.get(stepName);
+            if (!(step instanceof NodeActivityStep) || !nodeId.equals(((NodeActivityStep) step).getNodeId())) {
+                // the steps map has been changed directly, the index must be rebuilt
+                buildNodeStepsIndex();
+                return getNodeSteps(nodeId);
+            }
+            nodeSteps.add((NodeActivityStep) step);
+        }
+        return nodeSteps;
+    }
+
+    /**
+     * Update the index of the node steps once the steps of a node have been renamed.
+     *
+     * @param oldNodeId The previous id of the node.
+     * @param newNodeId The new id of the node.
+     */
+    public void reindexNodeSteps(String oldNodeId, String newNodeId) {
+        if (nodeStepsIndex != null) {
+            Set<String> nodeSteps = nodeStepsIndex.remove(oldNodeId);
+            if (nodeSteps != null) {
+                nodeStepsIndex.put(newNodeId, nodeSteps);
+            }
+        }
+    }
+
+    private void buildNodeStepsIndex() {
+        nodeStepsIndex = new HashMap<String, Set<String>>();
+        for (AbstractStep step : steps.values()) {
+            indexStep(step);
+        }
+    }
+
+    private void indexStep(AbstractStep step) {
+        if (step instanceof NodeActivityStep) {
+            String nodeId = ((NodeActivityStep) step).getNodeId();
+            Set<String> nodeSteps = nodeStepsIndex.get(nodeId);
+            if (nodeSteps == null) {
+                nodeSteps = new LinkedHashSet<String>();
+                nodeStepsIndex.put(nodeId, nodeSteps);
+            }
+            nodeSteps.add(step.getName());
+        }
+    }
+
+    /**
+     * Mark the steps of a node and their direct neighbours as impacted by a change, the next incremental validation will check the region of the workflow
+     * that depends on them.
+     *
+     * @param nodeId The id of the node that is changed.
+     */
+    public void markNodeDirty(String nodeId) {
+        for (NodeActivityStep step : getNodeSteps(nodeId)) {
+            dirtySteps.add(step.getName());
+            if (step.getPrecedingSteps() != null) {
+                dirtySteps.addAll(step.getPrecedingSteps());
+            }
+            if (step.getFollowingSteps() != null) {
+                dirtySteps.addAll(step.getFollowingSteps());
+            }
+        }
+    }
+
+    /**
+     * Get and clear the names of the steps impacted by the changes since the last validation.
+     *
+     * @return The names of the dirty steps (some of them may have been removed from the workflow).
+     */
+    public Set<String> pollDirtySteps() {
+        Set<String> polled = dirtySteps;
+        dirtySteps = new HashSet<String>();
+        return polled;
+    }
+
     public void clearErrors() {
         errors = new ArrayList<AbstractWorkflowError>();
     }
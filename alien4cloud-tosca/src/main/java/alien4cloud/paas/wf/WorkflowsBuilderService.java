@@ -14,6 +14,8 @@ import org.alien4cloud.tosca.model.templates.NodeTemplate;
 import org.alien4cloud.tosca.model.templates.RelationshipTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
+import org.alien4cloud.tosca.model.types.RelationshipType;
+import org.alien4cloud.tosca.normative.constants.NormativeRelationshipConstants;
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.common.collect.Maps;
 import org.springframework.stereotype.Component;
@@ -27,6 +29,12 @@ import alien4cloud.topology.task.TaskCode;
 import alien4cloud.topology.task.WorkflowTask;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Maintains the workflows of a topology.
+ * <p>
+ * Node and relationship changes are applied incrementally: only the steps of the impacted nodes are patched and marked as dirty, then only the region of the
+ * workflow that depends on them is validated again. Host ids are computed for the whole workflow only when the hosting of other nodes may change.
+ */
 @Component
 @Slf4j
 public class WorkflowsBuilderService {
@@ -132,8 +140,10 @@ public class WorkflowsBuilderService {
         for (Workflow wf : topologyContext.getTopology().getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.addNode(wf, nodeName, topologyContext, forceOperation);
-            WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            // a new node does not host any other node yet
+            WorkflowUtils.fillHostId(wf, topologyContext, nodeName);
+            wf.markNodeDirty(nodeName);
+            workflowValidator.validateIncrementally(topologyContext, wf);
         }
         debugWorkflow(topologyContext.getTopology());
     }
@@ -142,9 +152,13 @@ public class WorkflowsBuilderService {
         TopologyContext topologyContext = buildTopologyContext(topology);
         for (Workflow wf : topology.getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
+            // the neighbours of the node steps are linked together when the steps are removed
+            wf.markNodeDirty(nodeName);
+            String removedHostId = WorkflowUtils.getHostId(wf, nodeName);
             builder.removeNode(wf, nodeName);
-            WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            // the removed node may have been on the hosting path of the nodes that share its host
+            WorkflowUtils.fillHostIdAfterRemoval(wf, topologyContext, removedHostId);
+            workflowValidator.validateIncrementally(topologyContext, wf);
         }
         debugWorkflow(topology);
     }
@@ -152,11 +166,16 @@ public class WorkflowsBuilderService {
     public void addRelationship(TopologyContext topologyContext, String nodeTemplateName, String relationshipName) {
         NodeTemplate nodeTemplate = topologyContext.getTopology().getNodeTemplates().get(nodeTemplateName);
         RelationshipTemplate relationshipTemplate = nodeTemplate.getRelationships().get(relationshipName);
+        boolean hostingChange = isHostedOn(topologyContext, relationshipTemplate);
         for (Workflow wf : topologyContext.getTopology().getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.addRelationship(wf, nodeTemplateName, nodeTemplate, relationshipTemplate, topologyContext);
-            WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            if (hostingChange) {
+                WorkflowUtils.fillHostId(wf, topologyContext);
+            }
+            wf.markNodeDirty(nodeTemplateName);
+            wf.markNodeDirty(relationshipTemplate.getTarget());
+            workflowValidator.validateIncrementally(topologyContext, wf);
         }
         debugWorkflow(topologyContext.getTopology());
     }
@@ -164,14 +183,24 @@ public class WorkflowsBuilderService {
     public void removeRelationship(Topology topology, String nodeTemplateName, String relationshipName, RelationshipTemplate relationshipTemplate) {
         TopologyContext topologyContext = buildTopologyContext(topology);
         String relationhipTarget = relationshipTemplate.getTarget();
+        boolean hostingChange = isHostedOn(topologyContext, relationshipTemplate);
         for (Workflow wf : topology.getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
+            wf.markNodeDirty(nodeTemplateName);
+            wf.markNodeDirty(relationhipTarget);
             builder.removeRelationship(wf, nodeTemplateName, relationhipTarget);
-            WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            if (hostingChange) {
+                WorkflowUtils.fillHostId(wf, topologyContext);
+            }
+            workflowValidator.validateIncrementally(topologyContext, wf);
         }
     }
 
+    private boolean isHostedOn(TopologyContext topologyContext, RelationshipTemplate relationshipTemplate) {
+        RelationshipType relationshipType = topologyContext.findElement(RelationshipType.class, relationshipTemplate.getType());
+        return WorkflowUtils.isOfType(relationshipType, NormativeRelationshipConstants.HOSTED_ON);
+    }
+
     public Workflow removeEdge(Topology topology, String workflowName, String from, String to) {
         TopologyContext topologyContext = buildTopologyContext(topology);
         Workflow wf = topology.getWorkflows().get(workflowName);
@@ -248,6 +277,8 @@ public class WorkflowsBuilderService {
         if (log.isDebugEnabled()) {
             log.debug(WorkflowUtils.debugWorkflow(wf));
         }
+        // errors may reference the previous name of the step
+        workflowValidator.validate(buildTopologyContext(topology), wf);
         return wf;
     }
 
@@ -291,8 +322,12 @@ public class WorkflowsBuilderService {
         for (Workflow wf : topology.getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.renameNode(wf, nodeTemplateName, newNodeTemplateName);
-            WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            if (wf.getHosts().contains(nodeTemplateName)) {
+                // the renamed node is the host of some steps
+                WorkflowUtils.fillHostId(wf, topologyContext);
+            }
+            wf.markNodeDirty(newNodeTemplateName);
+            workflowValidator.validateIncrementally(topologyContext, wf);
         }
     }
 
@@ -0,0 +1,282 @@
+package alien4cloud.paas.wf.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.Workflow;
+
+/**
+ * Compact index of the graph of a workflow used by the validation rules.
+ * <p>
+ * Steps are given integer ids (in the order of the workflow steps map) and the graph is stored as adjacency arrays. Strongly connected components are computed
+ * once (Tarjan) so that cycles can be reported without enumerating the paths of the graph, reachability between steps is computed lazily on the condensation
+ * of the graph (which is a DAG) and stored as bitsets.
+ * <p>
+ * An index can also be built on a sub-graph of the workflow (for incremental validations), links to steps outside of the sub-graph are then ignored.
+ */
+public class WorkflowGraphIndex {
+    private final AbstractStep[] steps;
+    private final Map<String, Integer> ids;
+    private final int[][] successors;
+    private final boolean[] selfLoops;
+    /** Component of each step, components are numbered in reverse topological order (a component has only edges to components with a lower id). */
+    private final int[] componentOf;
+    private final int[][] components;
+    private BitSet[] componentReachability;
+
+    public WorkflowGraphIndex(Workflow workflow) {
+        this(workflow, workflow.getSteps().values().toArray(new AbstractStep[workflow.getSteps().size()]), false);
+    }
+
+    /**
+     * Index the sub-graph of a workflow.
+     *
+     * @param workflow The workflow.
+     * @param stepNames The names of the steps of the sub-graph, unknown steps are ignored.
+     */
+    public WorkflowGraphIndex(Workflow workflow, Collection<String> stepNames) {
+        this(workflow, getSteps(workflow, stepNames), true);
+    }
+
+    private static AbstractStep[] getSteps(Workflow workflow, Collection<String> stepNames) {
+        List<AbstractStep> steps = new ArrayList<AbstractStep>(stepNames.size());
+        for (String stepName : stepNames) {
+            AbstractStep step = workflow.getSteps().get(stepName);
+            if (step != null) {
+                steps.add(step);
+            }
+        }
+        return steps.toArray(new AbstractStep[steps.size()]);
+    }
+
+    private WorkflowGraphIndex(Workflow workflow, AbstractStep[] steps, boolean subGraph) {
+        int size = steps.length;
+        this.steps = steps;
+        ids = new HashMap<String, Integer>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ids.put(steps[i].getName(), i);
+        }
+        successors = new int[size][];
+        selfLoops = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (steps[i].getFollowingSteps() == null) {
+                successors[i] = new int[0];
+                continue;
+            }
+            int[] following = new int[steps[i].getFollowingSteps().size()];
+            int count = 0;
+            for (String followingId : steps[i].getFollowingSteps()) {
+                Integer id = ids.get(followingId);
+                if (id == null) {
+                    if (subGraph) {
+                        continue;
+                    }
+                    // throws the same error as the graph browsing would
+                    WorkflowGraphUtils.getRequiredStep(workflow, followingId);
+                }
+                following[count++] = id;
+                selfLoops[i] |= id == i;
+            }
+            successors[i] = count == following.length ? following : Arrays.copyOf(following, count);
+        }
+        componentOf = new int[size];
+        components = computeComponents();
+    }
+
+    /**
+     * Iterative Tarjan algorithm (recursion would overflow the stack on deep workflows).
+     */
+    private int[][] computeComponents() {
+        int size = steps.length;
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(index, -1);
+        int[] stack = new int[size];
+        int stackSize = 0;
+        // call stack of the depth first search: the step and the position in its successors
+        int[] callStack = new int[size];
+        int[] successorPosition = new int[size];
+        List<int[]> result = new ArrayList<int[]>();
+        int nextIndex = 0;
+        for (int root = 0; root < size; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            successorPosition[0] = 0;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int step = callStack[depth];
+                if (successorPosition[depth] < successors[step].length) {
+                    int next = successors[step][successorPosition[depth]++];
+                    if (index[next] < 0) {
+                        index[next] = lowLink[next] = nextIndex++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        depth++;
+                        callStack[depth] = next;
+                        successorPosition[depth] = 0;
+                    } else if (onStack[next]) {
+                        lowLink[step] = Math.min(lowLink[step], index[next]);
+                    }
+                    continue;
+                }
+                if (lowLink[step] == index[step]) {
+                    // step is the root of a component, pop it
+                    int start = stackSize;
+                    do {
+                        start--;
+                    } while (stack[start] != step);
+                    int[] component = Arrays.copyOfRange(stack, start, stackSize);
+                    for (int member : component) {
+                        onStack[member] = false;
+                        componentOf[member] = result.size();
+                    }
+                    Arrays.sort(component);
+                    result.add(component);
+                    stackSize = start;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[step]);
+                }
+            }
+        }
+        return result.toArray(new int[result.size()][]);
+    }
+
+    /**
+     * @return The number of steps in the workflow.
+     */
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+     * @param stepName The name of a step.
+     * @return The id of the step or -1 if the step is not in the indexed graph.
+     */
+    public int getId(String stepName) {
+        Integer id = ids.get(stepName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id The id of a step.
+     * @return The step with the given id.
+     */
+    public AbstractStep getStep(int id) {
+        return steps[id];
+    }
+
+    /**
+     * Get the rank of a step in a topological order of the graph. Steps that are in the same cycle share the same rank.
+     *
+     * @param id The id of a step.
+     * @return The topological rank of the step, if a step can reach another step then its rank is lower or equal to the other step rank.
+     */
+    public int getTopologicalRank(int id) {
+        return components.length - 1 - componentOf[id];
+    }
+
+    /**
+     * Get the cycles of the workflow, one per strongly connected component (or step linked to itself). Each cycle is described as the ordered names of its
+     * steps starting and ending with the same step.
+     *
+     * @return The cycles of the workflow graph.
+     */
+    public List<List<String>> getCycles() {
+        List<List<String>> cycles = new ArrayList<List<String>>();
+        // report the cycles in topological order
+        for (int c = components.length - 1; c >= 0; c--) {
+            int[] component = components[c];
+            if (component.length > 1) {
+                cycles.add(findCycle(component));
+            } else if (selfLoops[component[0]]) {
+                String name = steps[component[0]].getName();
+                cycles.add(Arrays.asList(name, name));
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Find the shortest cycle going through the first step of a strongly connected component (breadth first search limited to the component).
+     */
+    private List<String> findCycle(int[] component) {
+        int start = component[0];
+        int componentId = componentOf[start];
+        Map<Integer, Integer> parents = new HashMap<Integer, Integer>();
+        Deque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(start);
+        parents.put(start, -1);
+        int last = -1;
+        while (last < 0 && !queue.isEmpty()) {
+            int step = queue.poll();
+            for (int next : successors[step]) {
+                if (next == start) {
+                    last = step;
+                    break;
+                }
+                if (componentOf[next] == componentId && !parents.containsKey(next)) {
+                    parents.put(next, step);
+                    queue.add(next);
+                }
+            }
+        }
+        Deque<String> cycle = new ArrayDeque<String>();
+        cycle.add(steps[start].getName());
+        for (int step = last; step >= 0; step = parents.get(step)) {
+            cycle.addFirst(steps[step].getName());
+        }
+        return new ArrayList<String>(cycle);
+    }
+
+    /**
+     * Check if a step can be reached from another one.
+     *
+     * @param from The id of the origin step.
+     * @param to The id of the target step.
+     * @return True if there is a path (possibly empty) from the origin step to the target step.
+     */
+    public boolean isReachable(int from, int to) {
+        if (componentReachability == null) {
+            componentReachability = computeReachability();
+        }
+        return componentReachability[componentOf[from]].get(componentOf[to]);
+    }
+
+    /**
+     * Components are numbered in reverse topological order so the reachability of a component can be computed from the one of the lower components.
+     */
+    private BitSet[] computeReachability() {
+        BitSet[] reachability = new BitSet[components.length];
+        for (int c = 0; c < components.length; c++) {
+            BitSet reachable = new BitSet(c + 1);
+            reachable.set(c);
+            for (int step : components[c]) {
+                for (int next : successors[step]) {
+                    int nextComponent = componentOf[next];
+                    if (nextComponent != c && !reachable.get(nextComponent)) {
+                        reachable.or(reachability[nextComponent]);
+                    }
+                }
+            }
+            reachability[c] = reachable;
+        }
+        return reachability;
+    }
+}
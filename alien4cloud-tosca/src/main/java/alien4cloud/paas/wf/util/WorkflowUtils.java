@@ -5,6 +5,7 @@ import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameCon
 import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.START;
 import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.STOP;
 
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -18,6 +19,8 @@ import org.alien4cloud.tosca.model.types.RelationshipType;
 import org.alien4cloud.tosca.normative.constants.NormativeComputeConstants;
 import org.alien4cloud.tosca.normative.constants.NormativeRelationshipConstants;
 
+import com.google.common.collect.Maps;
+
 import alien4cloud.exception.InvalidNameException;
 import alien4cloud.paas.wf.AbstractStep;
 import alien4cloud.paas.wf.DelegateWorkflowActivity;
@@ -78,6 +81,52 @@ public class WorkflowUtils {
         }
     }
 
+    /**
+     * Tag the steps of a single node with the hostId property, to be used when a change does not impact the hosts of the other nodes.
+     */
+    public static void fillHostId(Workflow wf, TopologyContext topologyContext, String nodeId) {
+        String hostId = WorkflowUtils.getRootHostNode(nodeId, topologyContext);
+        for (NodeActivityStep step : wf.getNodeSteps(nodeId)) {
+            step.setHostId(hostId);
+        }
+        if (hostId != null) {
+            wf.getHosts().add(hostId);
+        }
+    }
+
+    /**
+     * Tag again the steps of the nodes that were sharing the host of a removed node: the removed node may have been on their hosting path, the hosts of the
+     * other nodes cannot be impacted by the removal.
+     *
+     * @param removedHostId The hostId of the steps of the removed node.
+     */
+    public static void fillHostIdAfterRemoval(Workflow wf, TopologyContext topologyContext, String removedHostId) {
+        wf.getHosts().clear();
+        Map<String, String> hostIds = Maps.newHashMap();
+        for (AbstractStep step : wf.getSteps().values()) {
+            if (step instanceof NodeActivityStep) {
+                NodeActivityStep dstep = (NodeActivityStep) step;
+                if (removedHostId != null && removedHostId.equals(dstep.getHostId())) {
+                    if (!hostIds.containsKey(dstep.getNodeId())) {
+                        hostIds.put(dstep.getNodeId(), WorkflowUtils.getRootHostNode(dstep.getNodeId(), topologyContext));
+                    }
+                    dstep.setHostId(hostIds.get(dstep.getNodeId()));
+                }
+                if (dstep.getHostId() != null) {
+                    wf.getHosts().add(dstep.getHostId());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The hostId of the steps of a node, null if the node is not hosted or has no steps in the workflow.
+     */
+    public static String getHostId(Workflow wf, String nodeId) {
+        List<NodeActivityStep> nodeSteps = wf.getNodeSteps(nodeId);
+        return nodeSteps.isEmpty() ? null : nodeSteps.get(0).getHostId();
+    }
+
     /**
      * @return the parentId of the node : the id of the node it's hostedOn (if exists).
      */
@@ -295,24 +344,18 @@ public class WorkflowUtils {
     }
 
     public static AbstractStep getDelegateWorkflowStepByNode(Workflow wf, String nodeName) {
-        for (AbstractStep step : wf.getSteps().values()) {
-            if (step instanceof NodeActivityStep) {
-                NodeActivityStep defaultStep = (NodeActivityStep) step;
-                if (defaultStep.getNodeId().equals(nodeName) && (defaultStep.getActivity() instanceof DelegateWorkflowActivity)) {
-                    return defaultStep;
-                }
+        for (NodeActivityStep defaultStep : wf.getNodeSteps(nodeName)) {
+            if (defaultStep.getActivity() instanceof DelegateWorkflowActivity) {
+                return defaultStep;
             }
         }
         return null;
     }
 
     public static NodeActivityStep getStateStepByNode(Workflow wf, String nodeName, String stateName) {
-        for (AbstractStep step : wf.getSteps().values()) {
-            if (step instanceof NodeActivityStep) {
-                NodeActivityStep defaultStep = (NodeActivityStep) step;
-                if (defaultStep.getActivity().getNodeId().equals(nodeName) && isStateStep(defaultStep, stateName)) {
-                    return defaultStep;
-                }
+        for (NodeActivityStep defaultStep : wf.getNodeSteps(nodeName)) {
+            if (isStateStep(defaultStep, stateName)) {
+                return defaultStep;
             }
         }
         return null;
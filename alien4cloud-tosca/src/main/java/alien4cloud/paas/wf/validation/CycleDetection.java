@@ -1,19 +1,17 @@
 package alien4cloud.paas.wf.validation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.elasticsearch.common.collect.Lists;
 
-import alien4cloud.paas.wf.Path;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
-import alien4cloud.paas.wf.util.WorkflowGraphUtils;
+import alien4cloud.paas.wf.util.WorkflowGraphIndex;
 
 /**
  * A cycle in the workflow is not permit.
  * <p>
- * 
+ * Cycles are detected as the strongly connected components of the workflow graph, a single error is reported per component.
  */
 public class CycleDetection implements Rule {
 
@@ -23,33 +21,33 @@ public class CycleDetection implements Rule {
             return null;
         }
         List<AbstractWorkflowError> result = Lists.newArrayList();
-        // get all the paths
-        List<Path> paths = WorkflowGraphUtils.getWorkflowGraphPaths(workflow);
-        for (Path path : paths) {
-            // isolate cycles
-            if (path.isCycle()) {
-                result.add(new WorkflowHasCycleError(extractCycle(path.getStepNames())));
-            }
+        for (List<String> cycle : new WorkflowGraphIndex(workflow).getCycles()) {
+            result.add(new WorkflowHasCycleError(cycle));
         }
         return result;
     }
 
-    private List<String> extractCycle(List<String> path) {
-        List<String> cycle = new ArrayList<String>();
-        // this is in fact the step that generate the cycle
-        // it's present 2 times in the path
-        String incriminedStep = path.get(path.size() - 1);
-        boolean detected = false;
-        for (String step : path) {
-            // iterate unil we find the first occurence of incriminedStep
-            if (!detected && step.equals(incriminedStep)) {
-                detected = true;
-            }
-            if (detected) {
-                cycle.add(step);
+    @Override
+    public List<AbstractWorkflowError> validate(TopologyContext topologyContext, Workflow workflow, WorkflowDirtyRegion region) {
+        List<AbstractWorkflowError> result = Lists.newArrayList();
+        // a cycle impacted by the change goes through a dirty step
+        for (List<String> cycle : new WorkflowGraphIndex(workflow, region.getCycleScope()).getCycles()) {
+            result.add(new WorkflowHasCycleError(cycle));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isOutdated(AbstractWorkflowError error, WorkflowDirtyRegion region) {
+        if (!(error instanceof WorkflowHasCycleError)) {
+            return false;
+        }
+        for (String stepName : ((WorkflowHasCycleError) error).getCycle()) {
+            if (region.isRemoved(stepName) || region.getCycleScope().contains(stepName)) {
+                return true;
             }
         }
-        return cycle;
+        return false;
     }
 
 }
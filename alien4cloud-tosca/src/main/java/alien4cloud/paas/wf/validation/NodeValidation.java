@@ -25,21 +25,43 @@ public class NodeValidation implements Rule {
         }
         List<AbstractWorkflowError> errors = Lists.newArrayList();
         for (AbstractStep step : workflow.getSteps().values()) {
-            if (step instanceof NodeActivityStep) {
-                String nodeId = ((NodeActivityStep) step).getNodeId();
-                NodeTemplate nodeTemplate = null;
-                if (topologyContext.getTopology().getNodeTemplates() != null) {
-                    nodeTemplate = topologyContext.getTopology().getNodeTemplates().get(nodeId);
-                }
-                if (nodeTemplate == null) {
-                    errors.add(new UnknownNodeError(step.getName(), nodeId));
-                } else {
-                    // TODO: here we should check interface & operation
-                }
-            }
+            validateStep(topologyContext, step, errors);
+        }
+        return errors;
+    }
+
+    @Override
+    public List<AbstractWorkflowError> validate(TopologyContext topologyContext, Workflow workflow, WorkflowDirtyRegion region) {
+        List<AbstractWorkflowError> errors = Lists.newArrayList();
+        for (String stepName : region.getDirtySteps()) {
+            validateStep(topologyContext, workflow.getSteps().get(stepName), errors);
         }
         return errors;
     }
 
+    @Override
+    public boolean isOutdated(AbstractWorkflowError error, WorkflowDirtyRegion region) {
+        if (!(error instanceof UnknownNodeError)) {
+            return false;
+        }
+        String stepName = ((UnknownNodeError) error).getStepId();
+        return region.isRemoved(stepName) || region.getDirtySteps().contains(stepName);
+    }
+
+    private void validateStep(TopologyContext topologyContext, AbstractStep step, List<AbstractWorkflowError> errors) {
+        if (step instanceof NodeActivityStep) {
+            String nodeId = ((NodeActivityStep) step).getNodeId();
+            NodeTemplate nodeTemplate = null;
+            if (topologyContext.getTopology().getNodeTemplates() != null) {
+                nodeTemplate = topologyContext.getTopology().getNodeTemplates().get(nodeId);
+            }
+            if (nodeTemplate == null) {
+                errors.add(new UnknownNodeError(step.getName(), nodeId));
+            } else {
+                // TODO: here we should check interface & operation
+            }
+        }
+    }
+
     
 }
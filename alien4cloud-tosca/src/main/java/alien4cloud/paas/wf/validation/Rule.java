@@ -9,4 +9,17 @@ public interface Rule {
 
     List<AbstractWorkflowError> validate(TopologyContext topologyContext, Workflow workflow);
 
+    /**
+     * Validate only the region of the workflow impacted by a change.
+     *
+     * @return The errors found in the region, they replace the previous errors of the rule that are outdated (see
+     *         {@link #isOutdated(AbstractWorkflowError, WorkflowDirtyRegion)}).
+     */
+    List<AbstractWorkflowError> validate(TopologyContext topologyContext, Workflow workflow, WorkflowDirtyRegion region);
+
+    /**
+     * @return True if the error is an error of this rule that must be checked again (or dropped) because of the change.
+     */
+    boolean isOutdated(AbstractWorkflowError error, WorkflowDirtyRegion region);
+
 }
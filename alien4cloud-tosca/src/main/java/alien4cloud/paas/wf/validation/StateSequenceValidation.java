@@ -5,26 +5,25 @@ import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameCon
 import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.START;
 import static org.alien4cloud.tosca.normative.constants.NormativeWorkflowNameConstants.STOP;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.common.collect.Maps;
-import org.elasticsearch.common.collect.Sets;
 
 import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
 import alien4cloud.paas.wf.AbstractStep;
 import alien4cloud.paas.wf.NodeActivityStep;
-import alien4cloud.paas.wf.Path;
 import alien4cloud.paas.wf.SetStateActivity;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
 import alien4cloud.paas.wf.exception.WorkflowException;
-import alien4cloud.paas.wf.util.WorkflowGraphUtils;
+import alien4cloud.paas.wf.util.WorkflowGraphIndex;
+import alien4cloud.paas.wf.util.WorkflowUtils;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -43,14 +42,13 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * Actually the rule is: for each node, all set state steps must be <b>at least on a same path</b> and they should be in the <b>correct order</b> on this path.
  * <p>
- * To achieve such check, for each node we:
+ * To achieve such check without enumerating the paths of the workflow, for each node we:
  * <ul>
- * <li>list the state step states and the paths they are found on (a step can be on several paths).
- * <li>get the intersection of all these path : this way we should have at least 1 path containing all steps.
- * <li>check the order on these paths.
+ * <li>sort the set state steps in the topological order of the workflow graph.
+ * <li>check that each step can reach the next one : this is true if and only if there is a path containing all steps.
+ * <li>check the order of the states in this sorted list.
  * </ul>
- * <p>
- * Maybe a more efficient algo can be found (1 pass ?) ... Feel free to have fun !
+ * When validated incrementally, only the nodes whose steps may have changed of relative order are checked again (see {@link WorkflowDirtyRegion}).
  */
 @Slf4j
 public class StateSequenceValidation implements Rule {
@@ -95,111 +93,147 @@ public class StateSequenceValidation implements Rule {
             return null;
         }
         List<AbstractWorkflowError> errors = Lists.newArrayList();
-        List<Path> paths = WorkflowGraphUtils.getWorkflowGraphPaths(workflow);
-        Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap = getPathsPerNodePerStepMap(paths);
-        Map<String, Set<Path>> pathsPerNodeMap = getPathsPerNodeIntersectionMap(pathsPerNodePerStepMap);
-        // now we have to ensure that for the remaining paths, the order is correct between steps
-        for (Entry<String, Set<Path>> pathSetEntry : pathsPerNodeMap.entrySet()) {
-            String nodeId = pathSetEntry.getKey();
-            if (pathSetEntry.getValue().isEmpty()) {
-                // the intersection is empty : this means that step are in parallel
+        final WorkflowGraphIndex graph = new WorkflowGraphIndex(workflow);
+        for (Entry<String, List<Integer>> stateStepsEntry : getStateStepsPerNodeMap(graph).entrySet()) {
+            String nodeId = stateStepsEntry.getKey();
+            List<Integer> stateSteps = stateStepsEntry.getValue();
+            // sort the steps in the topological order, if they are on a common path this is the order of the path
+            Collections.sort(stateSteps, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer left, Integer right) {
+                    int rankComparison = Integer.compare(graph.getTopologicalRank(left), graph.getTopologicalRank(right));
+                    return rankComparison == 0 ? Integer.compare(left, right) : rankComparison;
+                }
+            });
+            if (!isOnCommonPath(graph, stateSteps)) {
+                // the steps are not all on a same path : this means that some steps are in parallel
                 // TODO: which one ?
                 errors.add(new ParallelSetStatesError(nodeId));
-            }
-            for (Path path : pathSetEntry.getValue()) {
-                ensureOrderIsCorrect(nodeId, path, stateSequence, errors);
+            } else {
+                // now we have to ensure that the order is correct between steps
+                List<NodeActivityStep> sortedSteps = Lists.newArrayListWithCapacity(stateSteps.size());
+                for (Integer stepId : stateSteps) {
+                    sortedSteps.add((NodeActivityStep) graph.getStep(stepId));
+                }
+                ensureOrderIsCorrect(sortedSteps, stateSequence, errors);
             }
         }
         return errors;
     }
 
-    private void ensureOrderIsCorrect(String nodeId, Path path, Map<String, Integer> stateSequence, List<AbstractWorkflowError> errors) {
-        Iterator<AbstractStep> steps = path.iterator();
-        NodeActivityStep lastDetectedStep = null;
-        while (steps.hasNext()) {
-            AbstractStep step = steps.next();
-            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(nodeId)
-                    && ((NodeActivityStep) step).getActivity() instanceof SetStateActivity) {
-                String stateName = ((SetStateActivity) ((NodeActivityStep) step).getActivity()).getStateName();
-                Integer stateIdx = stateSequence.get(stateName);
-                if (stateIdx == null) {
-                    // if the state is null, it can be a custom state, we don't care about it
-                    continue;
+    @Override
+    public List<AbstractWorkflowError> validate(TopologyContext topologyContext, Workflow workflow, WorkflowDirtyRegion region) {
+        Map<String, Integer> stateSequence = getStateSequence(workflow);
+        if (stateSequence == null) {
+            return null;
+        }
+        List<AbstractWorkflowError> errors = Lists.newArrayList();
+        for (String nodeId : region.getAffectedNodes()) {
+            final List<NodeActivityStep> stateSteps = Lists.newArrayList();
+            for (NodeActivityStep step : workflow.getNodeSteps(nodeId)) {
+                if (WorkflowUtils.isStateStep(step)) {
+                    stateSteps.add(step);
                 }
-                if (lastDetectedStep == null) {
-                    lastDetectedStep = (NodeActivityStep) step;
-                } else {
-                    String lastDetectedState = ((SetStateActivity) ((NodeActivityStep) lastDetectedStep).getActivity()).getStateName();
-                    Integer lastDetectedStateIdx = stateSequence.get(lastDetectedState);
-                    Integer currentDetectedStateIdx = stateSequence.get(stateName);
-                    if (lastDetectedStateIdx.compareTo(currentDetectedStateIdx) > 0) {
-                        errors.add(new BadStateSequenceError(lastDetectedStep.getName(), step.getName()));
-                        // throw new BadStateOrderException(String.format("Issue in the state sequence for node '%s': '%s' can not be set after the state '%s'",
-                        // nodeId, stateName,
-                        // lastDetectedState));
-                    } else {
-                        lastDetectedStep = (NodeActivityStep) step;
+            }
+            // if the steps are on a common path, the first step of the path reaches all the others, the second all but one etc.
+            final Map<NodeActivityStep, Integer> reachedCounts = Maps.newHashMap();
+            for (NodeActivityStep step : stateSteps) {
+                int reachedCount = 0;
+                for (NodeActivityStep other : stateSteps) {
+                    if (region.isReachable(step.getName(), other.getName())) {
+                        reachedCount++;
                     }
                 }
+                reachedCounts.put(step, reachedCount);
+            }
+            // stable sort: steps in a same cycle keep the order of the workflow
+            Collections.sort(stateSteps, new Comparator<NodeActivityStep>() {
+                @Override
+                public int compare(NodeActivityStep left, NodeActivityStep right) {
+                    return Integer.compare(reachedCounts.get(right), reachedCounts.get(left));
+                }
+            });
+            boolean onCommonPath = true;
+            for (int i = 1; i < stateSteps.size() && onCommonPath; i++) {
+                onCommonPath = region.isReachable(stateSteps.get(i - 1).getName(), stateSteps.get(i).getName());
+            }
+            if (!onCommonPath) {
+                errors.add(new ParallelSetStatesError(nodeId));
+            } else {
+                ensureOrderIsCorrect(stateSteps, stateSequence, errors);
             }
         }
+        return errors;
+    }
+
+    @Override
+    public boolean isOutdated(AbstractWorkflowError error, WorkflowDirtyRegion region) {
+        if (error instanceof ParallelSetStatesError) {
+            String nodeId = ((ParallelSetStatesError) error).getNodeId();
+            return region.getAffectedNodes().contains(nodeId) || region.getWorkflow().getNodeSteps(nodeId).isEmpty();
+        }
+        if (error instanceof BadStateSequenceError) {
+            return isOutdated(((BadStateSequenceError) error).getFrom(), region) || isOutdated(((BadStateSequenceError) error).getTo(), region);
+        }
+        return false;
+    }
+
+    private boolean isOutdated(String stepName, WorkflowDirtyRegion region) {
+        AbstractStep step = region.getWorkflow().getSteps().get(stepName);
+        return !(step instanceof NodeActivityStep) || region.getAffectedNodes().contains(((NodeActivityStep) step).getNodeId());
     }
 
     /**
-     * Per node, just keep the intersection between all the {@link Path} sets.
+     * Steps sorted in topological order are on a same path if and only if each step can reach the next one.
      */
-    private Map<String, Set<Path>> getPathsPerNodeIntersectionMap(Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap) {
-        Map<String, Set<Path>> pathsPerNodeIntersectionMap = Maps.newHashMap();
-        for (Entry<String, Map<NodeActivityStep, Set<Path>>> entry : pathsPerNodePerStepMap.entrySet()) {
-            String nodeId = entry.getKey();
-            Map<NodeActivityStep, Set<Path>> pathsPerStep = entry.getValue();
-            Iterator<Set<Path>> paths = pathsPerStep.values().iterator();
-            if (pathsPerStep.size() == 1) {
-                pathsPerNodeIntersectionMap.put(nodeId, paths.next());
-                paths.remove();
+    private boolean isOnCommonPath(WorkflowGraphIndex graph, List<Integer> sortedSteps) {
+        for (int i = 1; i < sortedSteps.size(); i++) {
+            if (!graph.isReachable(sortedSteps.get(i - 1), sortedSteps.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureOrderIsCorrect(List<NodeActivityStep> sortedSteps, Map<String, Integer> stateSequence, List<AbstractWorkflowError> errors) {
+        NodeActivityStep lastDetectedStep = null;
+        Integer lastDetectedStateIdx = null;
+        for (NodeActivityStep step : sortedSteps) {
+            String stateName = ((SetStateActivity) step.getActivity()).getStateName();
+            Integer stateIdx = stateSequence.get(stateName);
+            if (stateIdx == null) {
+                // if the state is null, it can be a custom state, we don't care about it
+                continue;
+            }
+            if (lastDetectedStep != null && lastDetectedStateIdx.compareTo(stateIdx) > 0) {
+                errors.add(new BadStateSequenceError(lastDetectedStep.getName(), step.getName()));
             } else {
-                Set<Path> lastPaths = paths.next();
-                paths.remove();
-                while (paths.hasNext()) {
-                    Set<Path> intersection = Sets.intersection(lastPaths, paths.next());
-                    paths.remove();
-                    lastPaths = intersection;
-                }
-                pathsPerNodeIntersectionMap.put(nodeId, lastPaths);
+                lastDetectedStep = step;
+                lastDetectedStateIdx = stateIdx;
             }
         }
-        return pathsPerNodeIntersectionMap;
     }
 
     /**
-     * For each node / step, constitute a set containing all the paths in which this node has steps of type 'set state'.
+     * For each node, list the ids of the steps of type 'set state'.
      * 
-     * @return a map using nodeId as key and the list of concerned {@link Path}s as value.
+     * @return a map using nodeId as key and the list of concerned step ids as value.
      */
-    private Map<String, Map<NodeActivityStep, Set<Path>>> getPathsPerNodePerStepMap(List<Path> paths) {
-        Map<String, Map<NodeActivityStep, Set<Path>>> pathsPerNodePerStepMap = Maps.newHashMap();
-        for (Path path : paths) {
-            Iterator<AbstractStep> steps = path.iterator();
-            while (steps.hasNext()) {
-                AbstractStep step = steps.next();
-                if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getActivity() instanceof SetStateActivity) {
-                    NodeActivityStep nodeActivityStep = (NodeActivityStep) step;
-                    String node = nodeActivityStep.getNodeId();
-                    Map<NodeActivityStep, Set<Path>> pathsPerStepMap = pathsPerNodePerStepMap.get(node);
-                    if (pathsPerStepMap == null) {
-                        pathsPerStepMap = Maps.newHashMap();
-                        pathsPerNodePerStepMap.put(node, pathsPerStepMap);
-                    }
-                    Set<Path> pathsPerStep = pathsPerStepMap.get(nodeActivityStep);
-                    if (pathsPerStep == null) {
-                        pathsPerStep = Sets.newHashSet();
-                        pathsPerStepMap.put(nodeActivityStep, pathsPerStep);
-                    }
-                    pathsPerStep.add(path);
+    private Map<String, List<Integer>> getStateStepsPerNodeMap(WorkflowGraphIndex graph) {
+        Map<String, List<Integer>> stateStepsPerNodeMap = Maps.newLinkedHashMap();
+        for (int i = 0; i < graph.size(); i++) {
+            AbstractStep step = graph.getStep(i);
+            if (WorkflowUtils.isStateStep(step)) {
+                String node = ((NodeActivityStep) step).getNodeId();
+                List<Integer> stateSteps = stateStepsPerNodeMap.get(node);
+                if (stateSteps == null) {
+                    stateSteps = Lists.newArrayList();
+                    stateStepsPerNodeMap.put(node, stateSteps);
                 }
+                stateSteps.add(i);
             }
         }
-        return pathsPerNodePerStepMap;
+        return stateStepsPerNodeMap;
     }
 
     private Map<String, Integer> getStateSequence(Workflow workflow) {
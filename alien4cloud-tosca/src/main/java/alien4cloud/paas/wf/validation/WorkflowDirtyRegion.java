@@ -0,0 +1,146 @@
+package alien4cloud.paas.wf.validation;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.NodeActivityStep;
+import alien4cloud.paas.wf.Workflow;
+import alien4cloud.paas.wf.util.WorkflowGraphIndex;
+import lombok.Getter;
+
+/**
+ * Region of a workflow that may be impacted by a change, computed from the steps that have been changed (dirty steps). All the links that have been added or
+ * removed by the change must have their both ends in the dirty steps.
+ * <p>
+ * The region is used by the incremental validation of the workflow:
+ * <ul>
+ * <li>a cycle created or broken by the change goes through a dirty step, so it is in the steps that are both reachable from and reaching dirty steps (cycle
+ * scope).</li>
+ * <li>the reachability between two steps can only change if the first one reaches a dirty step and the second one is reachable from a dirty step, the nodes
+ * having steps in both sets (and the nodes of the dirty steps) are the affected nodes.</li>
+ * </ul>
+ * Computing the region browses all the steps upstream and downstream of the change. In the standard install and uninstall workflows (that have a single
+ * start and a single end) this is most of the workflow so the computation is linear in the size of the workflow, what the incremental validation saves is
+ * the validation of the nodes that are not affected. The browsing cannot stop at the steps of the nodes that are not affected as the paths that go through
+ * them may reach affected nodes or close a cycle. The reachability between the steps of the affected nodes is computed on a {@link WorkflowGraphIndex}
+ * restricted to the steps that are on a path between two of these steps, which is built once per region.
+ */
+@Getter
+public class WorkflowDirtyRegion {
+    private final Workflow workflow;
+    /** Names of the dirty steps that are still in the workflow. */
+    private final Set<String> dirtySteps;
+    /** Names of the steps that are both reachable from and reaching a dirty step. */
+    private final Set<String> cycleScope;
+    /** Ids of the nodes for which the relative order of the steps may have changed. */
+    private final Set<String> affectedNodes;
+
+    /** Index of the sub-graph that contains all the paths between the steps of the affected nodes, built on the first reachability check. */
+    private WorkflowGraphIndex affectedGraph;
+
+    public WorkflowDirtyRegion(Workflow workflow, Collection<String> changedSteps) {
+        this.workflow = workflow;
+        this.dirtySteps = new LinkedHashSet<String>();
+        for (String stepName : changedSteps) {
+            if (workflow.getSteps().containsKey(stepName)) {
+                dirtySteps.add(stepName);
+            }
+        }
+        Set<String> descendants = browse(dirtySteps, true, null);
+        Set<String> ancestors = browse(dirtySteps, false, null);
+        this.cycleScope = browse(dirtySteps, false, descendants);
+        this.affectedNodes = new HashSet<String>();
+        Set<String> ancestorNodes = new HashSet<String>();
+        for (String stepName : ancestors) {
+            String nodeId = getNodeId(stepName);
+            if (nodeId != null) {
+                ancestorNodes.add(nodeId);
+            }
+        }
+        for (String stepName : descendants) {
+            String nodeId = getNodeId(stepName);
+            if (nodeId != null && (dirtySteps.contains(stepName) || ancestorNodes.contains(nodeId))) {
+                affectedNodes.add(nodeId);
+            }
+        }
+    }
+
+    private String getNodeId(String stepName) {
+        AbstractStep step = workflow.getSteps().get(stepName);
+        return step instanceof NodeActivityStep ? ((NodeActivityStep) step).getNodeId() : null;
+    }
+
+    /**
+     * Browse the graph from the given steps (included).
+     *
+     * @param from The names of the steps to start from.
+     * @param forward True to follow the links, false to browse them backward.
+     * @param limit If not null, the browsing is limited to these steps.
+     * @return The names of the steps that have been reached.
+     */
+    private Set<String> browse(Set<String> from, boolean forward, Set<String> limit) {
+        Set<String> reached = new LinkedHashSet<String>(from);
+        Deque<String> queue = new ArrayDeque<String>(from);
+        while (!queue.isEmpty()) {
+            AbstractStep step = workflow.getSteps().get(queue.poll());
+            Set<String> nextSteps = forward ? step.getFollowingSteps() : step.getPrecedingSteps();
+            if (nextSteps == null) {
+                continue;
+            }
+            for (String next : nextSteps) {
+                if ((limit == null || limit.contains(next)) && workflow.getSteps().containsKey(next) && reached.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * @param stepName The name of a step.
+     * @return True if the step is not in the workflow anymore.
+     */
+    public boolean isRemoved(String stepName) {
+        return !workflow.getSteps().containsKey(stepName);
+    }
+
+    /**
+     * Check if a step can be reached from another one.
+     *
+     * @param from The name of the origin step.
+     * @param to The name of the target step.
+     * @return True if there is a path (possibly empty) from the origin step to the target step.
+     */
+    public boolean isReachable(String from, String to) {
+        if (affectedGraph == null) {
+            affectedGraph = new WorkflowGraphIndex(workflow, getAffectedSubGraph());
+        }
+        int fromId = affectedGraph.getId(from);
+        int toId = affectedGraph.getId(to);
+        if (fromId < 0 || toId < 0) {
+            // not a step of an affected node, browse the whole workflow
+            return browse(Collections.singleton(from), true, null).contains(to);
+        }
+        return affectedGraph.isReachable(fromId, toId);
+    }
+
+    /**
+     * A step is on a path between two steps of the affected nodes if and only if it is both reachable from and reaching these steps, all the steps of such a
+     * path are then reachable from the first one.
+     */
+    private Set<String> getAffectedSubGraph() {
+        Set<String> affectedSteps = new HashSet<String>();
+        for (String nodeId : affectedNodes) {
+            for (NodeActivityStep step : workflow.getNodeSteps(nodeId)) {
+                affectedSteps.add(step.getName());
+            }
+        }
+        return browse(affectedSteps, false, browse(affectedSteps, true, null));
+    }
+}
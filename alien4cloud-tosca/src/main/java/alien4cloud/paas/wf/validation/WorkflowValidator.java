@@ -22,6 +22,8 @@ public class WorkflowValidator {
     }
 
     public int validate(TopologyContext topologyContext, Workflow workflow) {
+        // the whole workflow is checked so there is no pending change to validate
+        workflow.pollDirtySteps();
         workflow.clearErrors();
         int errorCount = 0;
         for (Rule rule : rules) {
@@ -34,4 +36,44 @@ public class WorkflowValidator {
         return errorCount;
     }
 
+    /**
+     * Validate only the region of the workflow impacted by the changes since the last validation (see {@link Workflow#markNodeDirty(String)}), the errors of
+     * the rest of the workflow are kept.
+     *
+     * @param topologyContext The topology context.
+     * @param workflow The workflow to validate.
+     * @return The number of errors of the workflow.
+     */
+    public int validateIncrementally(TopologyContext topologyContext, Workflow workflow) {
+        if (workflow.getErrors() == null) {
+            // the workflow has never been validated, there is no previous result to update
+            return validate(topologyContext, workflow);
+        }
+        WorkflowDirtyRegion region = new WorkflowDirtyRegion(workflow, workflow.pollDirtySteps());
+        List<AbstractWorkflowError> errors = new ArrayList<AbstractWorkflowError>();
+        for (AbstractWorkflowError error : workflow.getErrors()) {
+            if (!isOutdated(error, region)) {
+                errors.add(error);
+            }
+        }
+        for (Rule rule : rules) {
+            List<AbstractWorkflowError> ruleErrors = rule.validate(topologyContext, workflow, region);
+            if (ruleErrors != null) {
+                errors.addAll(ruleErrors);
+            }
+        }
+        workflow.clearErrors();
+        workflow.addErrors(errors);
+        return errors.size();
+    }
+
+    private boolean isOutdated(AbstractWorkflowError error, WorkflowDirtyRegion region) {
+        for (Rule rule : rules) {
+            if (rule.isOutdated(error, region)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
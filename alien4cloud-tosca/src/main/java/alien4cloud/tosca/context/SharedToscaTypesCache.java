@@ -0,0 +1,209 @@
+package alien4cloud.tosca.context;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import alien4cloud.utils.VersionUtil;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-wide cache of the TOSCA types defined in released (non SNAPSHOT) archives. Released archives cannot be modified so their types can be shared by all
+ * {@link ToscaContext} instances. Lookups that do not find any element are cached too so that a type resolution over many dependencies does not query the
+ * repository for each dependency again. The elements that are not in the cache are loaded from all the dependencies at once.
+ * <p>
+ * Types are cached in their serialized form and every lookup returns a new instance: callers (for example the parser post-processors that merge parent types
+ * in their children) are free to modify the returned type without altering the cache.
+ * </p>
+ * <p>
+ * Every invalidation of an archive increments its generation which is part of the cache keys, so that a lookup that started before an invalidation and
+ * completes after it cannot be served to the lookups started after the invalidation.
+ * </p>
+ * <p>
+ * The cache is bounded by the memory used by the serialized types.
+ * </p>
+ */
+@Slf4j
+public class SharedToscaTypesCache {
+    /** Estimated memory used by a cache entry besides the serialized type (key, entry and lookups that do not find any element). */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final ObjectMapper mapper;
+    private final Cache<TypeKey, CachedType> cache;
+    /** Generation of the archives (by name:version) that have been invalidated at least once. */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new cache.
+     *
+     * @param maximumMemory The maximum memory (in bytes) used by the cached lookups.
+     * @param mapper The mapper used to serialize cached types and to deserialize a copy of them for every lookup.
+     */
+    public SharedToscaTypesCache(long maximumMemory, ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.cache = CacheBuilder.newBuilder().maximumWeight(maximumMemory).weigher(
+                (TypeKey key, CachedType cachedType) -> cachedType.content == null ? ENTRY_OVERHEAD : ENTRY_OVERHEAD + cachedType.content.length).build();
+    }
+
+    /**
+     * Check if the types of the given dependency can be served by this cache.
+     *
+     * @param dependency The dependency to check.
+     * @return True if the dependency is a released archive.
+     */
+    public boolean isCacheable(CSARDependency dependency) {
+        return !VersionUtil.isSnapshot(dependency.getVersion());
+    }
+
+    /**
+     * Get a copy of an element from the given released dependency, load it if not in the cache.
+     *
+     * @param elementClass The class of the element to look for.
+     * @param elementId The id of the element to look for.
+     * @param dependency The released archive in which to look for the element.
+     * @param loader The loader to use to retrieve the element in the dependency if not in the cache.
+     * @param <T> The type of element.
+     * @return A copy of the requested element or null if the dependency does not define it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AbstractToscaType> T get(Class<T> elementClass, String elementId, CSARDependency dependency, Supplier<T> loader) {
+        TypeKey key = new TypeKey(dependency.getName(), dependency.getVersion(), generation(dependency.getName(), dependency.getVersion()),
+                dependency.getHash(), elementClass, elementId);
+        try {
+            return (T) cache.get(key, () -> serialize(loader.get())).read();
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    /**
+     * Get copies of an element from the given released dependencies, the dependencies for which the lookup is not in the cache are given to a single call of
+     * the loader.
+     *
+     * @param elementClass The class of the element to look for.
+     * @param elementId The id of the element to look for.
+     * @param dependencies The released archives in which to look for the element.
+     * @param loader The loader to use to retrieve the elements defined in the dependencies that are not in the cache.
+     * @param <T> The type of element.
+     * @return Copies of the requested element for each dependency that defines it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AbstractToscaType> List<T> getAll(Class<T> elementClass, String elementId, Collection<CSARDependency> dependencies,
+            Function<Set<CSARDependency>, List<T>> loader) {
+        List<T> elements = Lists.newArrayList();
+        Map<CSARDependency, TypeKey> missingKeys = Maps.newHashMap();
+        for (CSARDependency dependency : dependencies) {
+            TypeKey key = new TypeKey(dependency.getName(), dependency.getVersion(), generation(dependency.getName(), dependency.getVersion()),
+                    dependency.getHash(), elementClass, elementId);
+            CachedType cachedType = cache.getIfPresent(key);
+            if (cachedType == null) {
+                missingKeys.put(dependency, key);
+            } else if (cachedType.elementClass != null) {
+                elements.add((T) cachedType.read());
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return elements;
+        }
+        Map<String, T> loadedElements = Maps.newHashMap();
+        for (T element : loader.apply(missingKeys.keySet())) {
+            loadedElements.put(element.getArchiveName() + ":" + element.getArchiveVersion(), element);
+        }
+        for (Map.Entry<CSARDependency, TypeKey> missingKey : missingKeys.entrySet()) {
+            T element = loadedElements.get(missingKey.getKey().getName() + ":" + missingKey.getKey().getVersion());
+            CachedType cachedType = serialize(element);
+            cache.put(missingKey.getValue(), cachedType);
+            if (element != null) {
+                elements.add((T) cachedType.read());
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Remove all cached elements of an archive.
+     *
+     * @param archiveName The name of the archive.
+     * @param archiveVersion The version of the archive.
+     */
+    public void invalidate(String archiveName, String archiveVersion) {
+        log.debug("Invalidate shared tosca types of archive {}:{}", archiveName, archiveVersion);
+        generations.computeIfAbsent(archiveName + ":" + archiveVersion, id -> new AtomicLong()).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.archiveName.equals(archiveName) && key.archiveVersion.equals(archiveVersion));
+    }
+
+    /**
+     * Remove all cached elements.
+     */
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return The number of lookups currently cached.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private long generation(String archiveName, String archiveVersion) {
+        AtomicLong generation = generations.get(archiveName + ":" + archiveVersion);
+        return generation == null ? 0 : generation.get();
+    }
+
+    @SneakyThrows
+    private CachedType serialize(AbstractToscaType element) {
+        if (element == null) {
+            return new CachedType(null, null);
+        }
+        return new CachedType(element.getClass(), mapper.writeValueAsBytes(element));
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private static class TypeKey {
+        private final String archiveName;
+        private final String archiveVersion;
+        private final long archiveGeneration;
+        private final String archiveHash;
+        private final Class<?> elementClass;
+        private final String elementId;
+    }
+
+    /**
+     * Serialized form of a cached element, a null class means that the dependency does not define the element.
+     */
+    @AllArgsConstructor(suppressConstructorProperties = true)
+    private class CachedType {
+        private final Class<? extends AbstractToscaType> elementClass;
+        private final byte[] content;
+
+        @SneakyThrows
+        private AbstractToscaType read() {
+            return elementClass == null ? null : mapper.readValue(content, elementClass);
+        }
+    }
+}
@@ -21,9 +21,12 @@ import org.alien4cloud.tosca.model.types.RelationshipType;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.exception.NotFoundException;
 import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.utils.VersionUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +39,10 @@ public class ToscaContext {
     @Setter
     @Getter
     private static ICSARRepositorySearchService csarRepositorySearchService;
+    /** Cache of released types shared by all contexts, if null every context loads its types from the repository. */
+    @Setter
+    @Getter
+    private static SharedToscaTypesCache sharedTypesCache;
     private final static ThreadLocal<Context> contextThreadLocal = new ThreadLocal<>();
 
     /**
@@ -288,8 +295,17 @@ public class ToscaContext {
                 }
             }
 
-            T element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
-                    : csarRepositorySearchService.getElementInDependencies(elementClass, elementId, dependencies);
+            T element;
+            if (sharedTypesCache == null) {
+                element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
+                        : csarRepositorySearchService.getElementInDependencies(elementClass, elementId, dependencies);
+            } else {
+                element = findInDependencies(sharedTypesCache, elementClass, elementId);
+                if (element == null && required) {
+                    throw new NotFoundException("Element elementId: [" + elementId + "] of type [" + elementClass.getSimpleName()
+                            + "] cannot be found in dependencies " + dependencies);
+                }
+            }
             if (element != null) {
                 typeElements.put(elementId, element);
             }
@@ -297,6 +313,44 @@ public class ToscaContext {
             return element;
         }
 
+        /**
+         * Find an element in the dependencies, released dependencies are served by the shared cache while SNAPSHOT dependencies are always queried from the
+         * repository. As for the repository, if the element is defined in multiple dependencies the one with the highest archive version is returned.
+         */
+        private <T extends AbstractToscaType> T findInDependencies(SharedToscaTypesCache cache, Class<T> elementClass, String elementId) {
+            Set<CSARDependency> releasedDependencies = Sets.newHashSet();
+            Set<CSARDependency> snapshotDependencies = Sets.newHashSet();
+            for (CSARDependency dependency : dependencies) {
+                if (cache.isCacheable(dependency)) {
+                    releasedDependencies.add(dependency);
+                } else {
+                    snapshotDependencies.add(dependency);
+                }
+            }
+            T element = null;
+            if (!releasedDependencies.isEmpty()) {
+                // the released dependencies that are not in the cache are queried at once
+                for (T candidate : cache.getAll(elementClass, elementId, releasedDependencies,
+                        missingDependencies -> csarRepositorySearchService.getElementsInDependencies(elementClass, elementId, missingDependencies))) {
+                    element = mostRecent(element, candidate);
+                }
+            }
+            if (!snapshotDependencies.isEmpty()) {
+                element = mostRecent(element, csarRepositorySearchService.getElementInDependencies(elementClass, elementId, snapshotDependencies));
+            }
+            return element;
+        }
+
+        private <T extends AbstractToscaType> T mostRecent(T left, T right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            return VersionUtil.parseVersion(left.getArchiveVersion()).compareTo(VersionUtil.parseVersion(right.getArchiveVersion())) < 0 ? right : left;
+        }
+
         public <T extends AbstractToscaType> Optional<AbstractToscaType> getElement(Class<T> elementClass, Predicate<AbstractToscaType> filter) {
             String elementType = elementClass.getSimpleName();
             Map<String, AbstractToscaType> typeElements = toscaTypesCache.get(elementType);
@@ -7,15 +7,13 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
 import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.ConversionNotSupportedException;
 import org.springframework.beans.NotWritablePropertyException;
+import org.springframework.util.Assert;
 import org.yaml.snakeyaml.nodes.Node;
 
 import alien4cloud.tosca.parser.impl.ErrorCode;
 
-import static org.aspectj.weaver.tools.cache.SimpleCacheFactory.path;
-
 /**
  * Abstract class to work with Type Node Parsing.
  */
@@ -35,8 +33,8 @@ public abstract class AbstractTypeNodeParser {
             // if the path is null, we just to do nothing with the stuff
             return;
         }
-        Entry<BeanWrapper, String> entry = findWrapperPropertyByPath(context.getRoot(), target, mappingTarget.getPath());
-        BeanWrapper realTarget = entry.getKey();
+        Entry<Object, String> entry = findPropertyByPath(context.getRoot(), target.getWrappedInstance(), mappingTarget.getPath());
+        Object realTarget = entry.getKey();
         String propertyName = entry.getValue();
 
         Object value = ((INodeParser<?>) mappingTarget.getParser()).parse(valueNode, context);
@@ -44,7 +42,7 @@ public abstract class AbstractTypeNodeParser {
         if (!propertyName.equals("void")) {
             // property named 'void' means : process the parsing but do not set anything
             try {
-                realTarget.setPropertyValue(propertyName, value);
+                PropertyAccessor.setPropertyValue(realTarget, propertyName, value);
             } catch (ConversionNotSupportedException e) {
                 context.getParsingErrors().add(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.SYNTAX_ERROR, "Invalid yaml type for property",
                         valueNode.getStartMark(), "", valueNode.getEndMark(), toscaType));
@@ -57,10 +55,9 @@ public abstract class AbstractTypeNodeParser {
 
         if (mappingTarget instanceof KeyValueMappingTarget) {
             KeyValueMappingTarget kvmt = (KeyValueMappingTarget) mappingTarget;
-            BeanWrapper keyBeanWrapper = realTarget;
             try {
-                if (!(keyBeanWrapper.getPropertyValue(kvmt.getKeyPath()) != null && propertyName.equals(key))) {
-                    keyBeanWrapper.setPropertyValue(kvmt.getKeyPath(), key);
+                if (!(PropertyAccessor.getPropertyValue(realTarget, kvmt.getKeyPath()) != null && propertyName.equals(key))) {
+                    PropertyAccessor.setPropertyValue(realTarget, kvmt.getKeyPath(), key);
                 }
             } catch (ConversionNotSupportedException e) {
                 context.getParsingErrors().add(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.SYNTAX_ERROR, "Invalid yaml type for property",
@@ -79,27 +76,29 @@ public abstract class AbstractTypeNodeParser {
      * <li>.something : the value will be set to the property of root named 'something'
      * <li>child1.child2.prop : the value will be mapped u getChild1().getChild2().setProp()
      * </ul>
+     * Properties are navigated using compiled {@link PropertyAccessor}s rather than bean wrappers, a null intermediate object is rejected as a bean wrapper
+     * would.
      */
-    private Entry<BeanWrapper, String> findWrapperPropertyByPath(BeanWrapper root, BeanWrapper current, String path) {
+    private Entry<Object, String> findPropertyByPath(BeanWrapper root, Object current, String path) {
         int dotIdx = path.indexOf(".");
         if (dotIdx < 0) {
-            return new DefaultMapEntry<BeanWrapper, String>(current, path);
+            return new DefaultMapEntry<Object, String>(current, path);
         }
-        BeanWrapper base = current;
-        String nextPath = path;
+        Object base;
+        String nextPath;
         if (path.startsWith("../")) {
-            base = new BeanWrapperImpl(ParsingContextExecution.getParent(current));
+            base = ParsingContextExecution.getParent(current);
             nextPath = path.substring(3);
         } else if (path.startsWith(".")) {
-            base = root;
+            base = root.getWrappedInstance();
             nextPath = path.substring(1);
         } else {
-            String wrapperCandidateName = path.substring(0, path.indexOf("."));
-            Object wrapperCandidate = current.getPropertyValue(wrapperCandidateName);
-            base = new BeanWrapperImpl(wrapperCandidate);
-            nextPath = path.substring(path.indexOf(".") + 1);
+            String candidateName = path.substring(0, dotIdx);
+            base = PropertyAccessor.getPropertyValue(current, candidateName);
+            nextPath = path.substring(dotIdx + 1);
         }
-        return findWrapperPropertyByPath(root, base, nextPath);
+        Assert.notNull(base, "Target object must not be null");
+        return findPropertyByPath(root, base, nextPath);
     }
 
 }
@@ -0,0 +1,202 @@
+package alien4cloud.tosca.parser;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled (method handle based) accessor to a simple property of a bean. Accessors are cached per class and property name so that the introspection is done
+ * only once while parsing archives, values that require a type conversion (including the conversion of the elements of generic collections and maps) are not
+ * managed and must be set through a spring BeanWrapper. Accessors are stored in a {@link ClassValue} so that they do not prevent plugin classes from being
+ * unloaded.
+ */
+@Slf4j
+public class PropertyAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<Map<String, Optional<PropertyAccessor>>> ACCESSORS = new ClassValue<Map<String, Optional<PropertyAccessor>>>() {
+        @Override
+        protected Map<String, Optional<PropertyAccessor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /** Type of the property (wrapper type for primitives). */
+    @Getter
+    private final Class<?> propertyType;
+    private final boolean primitive;
+    /** Types of the elements of a collection property or of the keys and values of a map property, null if elements do not have to be checked. */
+    private final Class<?>[] elementTypes;
+    /** True if the elements of the property are themselves generic types, values are then always set through a BeanWrapper. */
+    private final boolean genericElements;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private PropertyAccessor(Class<?> beanClass, PropertyDescriptor descriptor) throws IllegalAccessException {
+        this.primitive = descriptor.getPropertyType().isPrimitive();
+        this.propertyType = ClassUtils.resolvePrimitiveIfNecessary(descriptor.getPropertyType());
+        ResolvableType[] generics = new ResolvableType[0];
+        if (descriptor.getWriteMethod() != null) {
+            ResolvableType type = ResolvableType.forMethodParameter(descriptor.getWriteMethod(), 0, beanClass);
+            if (Collection.class.isAssignableFrom(propertyType)) {
+                generics = type.asCollection().getGenerics();
+            } else if (Map.class.isAssignableFrom(propertyType)) {
+                generics = type.asMap().getGenerics();
+            }
+        }
+        Class<?>[] resolvedTypes = new Class<?>[generics.length];
+        boolean checkElements = false;
+        boolean nestedGenerics = false;
+        for (int i = 0; i < generics.length; i++) {
+            resolvedTypes[i] = generics[i].resolve(Object.class);
+            checkElements |= resolvedTypes[i] != Object.class;
+            nestedGenerics |= generics[i].hasGenerics();
+        }
+        this.elementTypes = checkElements ? resolvedTypes : null;
+        this.genericElements = nestedGenerics;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.getter = descriptor.getReadMethod() == null ? null : lookup.unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE);
+        this.setter = descriptor.getWriteMethod() == null ? null : lookup.unreflect(descriptor.getWriteMethod()).asType(SETTER_TYPE);
+    }
+
+    /**
+     * Get the accessor of a property.
+     *
+     * @param beanClass The class of the bean.
+     * @param propertyName The name of the property, nested or indexed property paths are not supported.
+     * @return The accessor or null if the class has no such public property.
+     */
+    public static PropertyAccessor get(Class<?> beanClass, String propertyName) {
+        return ACCESSORS.get(beanClass).computeIfAbsent(propertyName, name -> Optional.ofNullable(create(beanClass, name))).orElse(null);
+    }
+
+    /**
+     * Set the value of a bean property, uses the compiled accessor when no conversion is required and a spring BeanWrapper otherwise.
+     *
+     * @param bean The bean in which to set the property.
+     * @param propertyName The name or path of the property.
+     * @param value The value to set.
+     */
+    public static void setPropertyValue(Object bean, String propertyName, Object value) {
+        PropertyAccessor accessor = get(bean.getClass(), propertyName);
+        if (accessor != null && accessor.isAssignable(value)) {
+            accessor.set(bean, value);
+        } else {
+            new BeanWrapperImpl(bean).setPropertyValue(propertyName, value);
+        }
+    }
+
+    /**
+     * Get the value of a bean property, uses the compiled accessor when available and a spring BeanWrapper otherwise.
+     *
+     * @param bean The bean from which to get the property.
+     * @param propertyName The name or path of the property.
+     * @return The value of the property.
+     */
+    public static Object getPropertyValue(Object bean, String propertyName) {
+        PropertyAccessor accessor = get(bean.getClass(), propertyName);
+        if (accessor != null && accessor.isReadable()) {
+            return accessor.get(bean);
+        }
+        return new BeanWrapperImpl(bean).getPropertyValue(propertyName);
+    }
+
+    private static PropertyAccessor create(Class<?> beanClass, String propertyName) {
+        if (propertyName.indexOf('.') >= 0 || propertyName.indexOf('[') >= 0) {
+            return null;
+        }
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(beanClass, propertyName);
+        if (descriptor == null || descriptor.getPropertyType() == null) {
+            return null;
+        }
+        try {
+            return new PropertyAccessor(beanClass, descriptor);
+        } catch (IllegalAccessException e) {
+            log.debug("Property {} of class {} is not accessible, bean wrapper will be used.", propertyName, beanClass.getName());
+            return null;
+        }
+    }
+
+    /**
+     * @return True if the property can be read.
+     */
+    public boolean isReadable() {
+        return getter != null;
+    }
+
+    /**
+     * Check if the value can be set without any conversion.
+     *
+     * @param value The value to set.
+     * @return True if the property has a setter that accepts the given value (and its elements for collections and maps) as is.
+     */
+    public boolean isAssignable(Object value) {
+        if (setter == null) {
+            return false;
+        }
+        if (value == null) {
+            return !primitive;
+        }
+        return !genericElements && propertyType.isInstance(value) && areElementsAssignable(value);
+    }
+
+    private boolean areElementsAssignable(Object value) {
+        if (elementTypes == null) {
+            return true;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!isInstance(elementTypes[0], entry.getKey()) || !isInstance(elementTypes[1], entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Object element : (Collection<?>) value) {
+            if (!isInstance(elementTypes[0], element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInstance(Class<?> type, Object element) {
+        return element == null || type.isInstance(element);
+    }
+
+    /**
+     * Get the value of the property.
+     *
+     * @param bean The bean from which to read the property.
+     * @return The value of the property.
+     */
+    @SneakyThrows
+    public Object get(Object bean) {
+        return (Object) getter.invokeExact(bean);
+    }
+
+    /**
+     * Set the value of the property, the value must be assignable (see {@link #isAssignable(Object)}).
+     *
+     * @param bean The bean in which to set the property.
+     * @param value The value to set.
+     */
+    @SneakyThrows
+    public void set(Object bean, Object value) {
+        setter.invokeExact(bean, value);
+    }
+}
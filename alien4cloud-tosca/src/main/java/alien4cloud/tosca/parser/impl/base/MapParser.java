@@ -5,8 +5,6 @@ import java.util.Map;
 import javax.annotation.Resource;
 
 import lombok.Setter;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -71,8 +69,7 @@ public class MapParser<T> implements INodeParser<Map<String, T>> {
             value = valueParser.parse(entry.getValueNode(), context);
             if (value != null) {
                 if (keyPath != null) {
-                    BeanWrapper valueWrapper = new BeanWrapperImpl(value);
-                    valueWrapper.setPropertyValue(keyPath, key);
+                    PropertyAccessor.setPropertyValue(value, keyPath, key);
                 }
                 if (value == null) {
                     ParsingError err = new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.SYNTAX_ERROR,
@@ -184,6 +184,7 @@ public class MappingGenerator implements INodeParser<Map<String, INodeParser>> {
         } else { // if not just process a standard mapping where key is the yaml key.
             MappingTarget mappingTarget = getMappingTarget(tuple.getValueNode(), context);
             if (mappingTarget != null) {
+                compileAccessors(parser, mappingTarget);
                 parser.getYamlToObjectMapping().put(key, mappingTarget);
             }
         }
@@ -233,17 +234,34 @@ public class MappingGenerator implements INodeParser<Map<String, INodeParser>> {
             if (valueMappingTarget == null) {
                 return;
             }
-            if (key == null) {
-                parser.getYamlOrderedToObjectMapping().put(index, valueMappingTarget);
-            } else {
-                parser.getYamlOrderedToObjectMapping().put(index, new KeyValueMappingTarget(key, valueMappingTarget.getPath(), valueMappingTarget.getParser()));
+            if (key != null) {
+                valueMappingTarget = new KeyValueMappingTarget(key, valueMappingTarget.getPath(), valueMappingTarget.getParser());
             }
+            compileAccessors(parser, valueMappingTarget);
+            parser.getYamlOrderedToObjectMapping().put(index, valueMappingTarget);
         } else {
             context.getParsingErrors().add(new ParsingError(ErrorCode.SYNTAX_ERROR, "Position mapping must be a mapping node with key and value fields.",
                     positionMapping.getStartMark(), "", positionMapping.getEndMark(), ""));
         }
     }
 
+    /**
+     * Compile the accessors of the properties of the parsed type that are set by a mapping target so that they are ready when archives are parsed. Nested paths
+     * are resolved against the parsed instances and are not compiled.
+     */
+    private void compileAccessors(TypeNodeParser<?> parser, MappingTarget mappingTarget) {
+        String path = mappingTarget.getPath();
+        if (path == null || path.indexOf('.') >= 0 || path.equals("null")) {
+            return;
+        }
+        if (!path.equals("void")) {
+            PropertyAccessor.get(parser.getType(), path);
+        }
+        if (mappingTarget instanceof KeyValueMappingTarget && ((KeyValueMappingTarget) mappingTarget).getKeyPath() != null) {
+            PropertyAccessor.get(parser.getType(), ((KeyValueMappingTarget) mappingTarget).getKeyPath());
+        }
+    }
+
     private MappingTarget mapMappingNode(MappingNode mappingNode, ParsingContextExecution context) {
         String key = ParserUtils.getScalar(mappingNode.getValue().get(0).getKeyNode(), context);
         IMappingBuilder mappingBuilder = mappingBuilders.get(key);
@@ -0,0 +1,146 @@
+package alien4cloud.tosca.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class SharedToscaTypesCacheTest {
+
+    @Test
+    public void releasedTypesShouldBeLoadedOnce() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(1024 * 1024, new ObjectMapper());
+        CSARDependency dependency = new CSARDependency("tosca-normative-types", "1.0.0");
+        NodeType nodeType = nodeType("tosca.nodes.Root");
+        AtomicInteger loads = new AtomicInteger();
+
+        NodeType first = cache.get(NodeType.class, "tosca.nodes.Root", dependency, () -> {
+            loads.incrementAndGet();
+            return nodeType;
+        });
+        NodeType second = cache.get(NodeType.class, "tosca.nodes.Root", dependency, () -> {
+            loads.incrementAndGet();
+            return nodeType;
+        });
+        assertEquals("tosca.nodes.Root", first.getElementId());
+        assertEquals("tosca.nodes.Root", second.getElementId());
+        assertEquals(1, loads.get());
+
+        // missing elements are cached too
+        assertNull(cache.get(NodeType.class, "missing", dependency, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get(NodeType.class, "missing", dependency, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(2, loads.get());
+
+        cache.invalidate("tosca-normative-types", "1.0.0");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cachedTypesShouldNotBeModifiedByCallers() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(1024 * 1024, new ObjectMapper());
+        CSARDependency dependency = new CSARDependency("tosca-normative-types", "1.0.0");
+        NodeType nodeType = nodeType("tosca.nodes.Root");
+
+        NodeType first = cache.get(NodeType.class, "tosca.nodes.Root", dependency, () -> nodeType);
+        assertNotSame(nodeType, first);
+        first.setElementId("modified");
+        nodeType.setElementId("modified");
+
+        NodeType second = cache.get(NodeType.class, "tosca.nodes.Root", dependency, () -> nodeType);
+        assertNotSame(first, second);
+        assertEquals("tosca.nodes.Root", second.getElementId());
+    }
+
+    @Test
+    public void loadsCompletedAfterAnInvalidationShouldNotBeServed() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(1024 * 1024, new ObjectMapper());
+        CSARDependency dependency = new CSARDependency("archive", "1.0.0");
+
+        // the archive is re-indexed while the type is being loaded: the loader returns the previous content.
+        NodeType stale = cache.get(NodeType.class, "type", dependency, () -> {
+            cache.invalidate("archive", "1.0.0");
+            return nodeType("stale");
+        });
+        assertEquals("stale", stale.getElementId());
+
+        NodeType fresh = cache.get(NodeType.class, "type", dependency, () -> nodeType("fresh"));
+        assertEquals("fresh", fresh.getElementId());
+    }
+
+    @Test
+    public void missingDependenciesShouldBeLoadedAtOnce() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(1024 * 1024, new ObjectMapper());
+        CSARDependency normativeTypes = new CSARDependency("tosca-normative-types", "1.0.0");
+        CSARDependency otherTypes = new CSARDependency("other-types", "1.0.0");
+        CSARDependency missingTypes = new CSARDependency("missing-types", "1.0.0");
+        List<Set<CSARDependency>> loads = Lists.newArrayList();
+
+        cache.get(NodeType.class, "tosca.nodes.Root", normativeTypes, () -> nodeType("tosca.nodes.Root", normativeTypes));
+        List<NodeType> elements = cache.getAll(NodeType.class, "tosca.nodes.Root", Lists.newArrayList(normativeTypes, otherTypes, missingTypes),
+                dependencies -> {
+                    loads.add(dependencies);
+                    return Lists.newArrayList(nodeType("tosca.nodes.Root", otherTypes));
+                });
+        assertEquals(2, elements.size());
+        assertEquals(1, loads.size());
+        assertEquals(Sets.newHashSet(otherTypes, missingTypes), loads.get(0));
+
+        // found and missing elements are now cached
+        elements = cache.getAll(NodeType.class, "tosca.nodes.Root", Lists.newArrayList(normativeTypes, otherTypes, missingTypes), dependencies -> {
+            loads.add(dependencies);
+            return Lists.newArrayList();
+        });
+        assertEquals(2, elements.size());
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void cacheShouldBeBoundedByTheMemoryOfTheTypes() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(16 * 1024, new ObjectMapper());
+        for (int i = 0; i < 100; i++) {
+            NodeType nodeType = nodeType("type" + i);
+            nodeType.setDescription(new String(new char[1024]).replace('\0', 'x'));
+            cache.get(NodeType.class, "type" + i, new CSARDependency("archive", "1.0.0"), () -> nodeType);
+        }
+        assertTrue(cache.size() < 16);
+    }
+
+    @Test
+    public void snapshotDependenciesShouldNotBeCacheable() {
+        SharedToscaTypesCache cache = new SharedToscaTypesCache(1024 * 1024, new ObjectMapper());
+        assertTrue(cache.isCacheable(new CSARDependency("archive", "1.0.0")));
+        assertFalse(cache.isCacheable(new CSARDependency("archive", "1.0.0-SNAPSHOT")));
+    }
+
+    private NodeType nodeType(String elementId) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        return nodeType;
+    }
+
+    private NodeType nodeType(String elementId, CSARDependency dependency) {
+        NodeType nodeType = nodeType(elementId);
+        nodeType.setArchiveName(dependency.getName());
+        nodeType.setArchiveVersion(dependency.getVersion());
+        return nodeType;
+    }
+}
@@ -0,0 +1,77 @@
+package alien4cloud.tosca.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Map;
+
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class PropertyAccessorTest {
+    @Test
+    public void compiledAccessorsShouldSetTheSameValuesAsBeanWrapper() {
+        List<String> derivedFrom = Lists.newArrayList("tosca.nodes.Root");
+        NodeType wrapped = new NodeType();
+        BeanWrapper wrapper = new BeanWrapperImpl(wrapped);
+        wrapper.setPropertyValue("elementId", "alien.nodes.Type");
+        wrapper.setPropertyValue("description", "A node type");
+        wrapper.setPropertyValue("abstract", true);
+        wrapper.setPropertyValue("derivedFrom", derivedFrom);
+        wrapper.setPropertyValue("archiveVersion", "1.0.0");
+        NodeType compiled = new NodeType();
+        PropertyAccessor.setPropertyValue(compiled, "elementId", "alien.nodes.Type");
+        PropertyAccessor.setPropertyValue(compiled, "description", "A node type");
+        PropertyAccessor.setPropertyValue(compiled, "abstract", true);
+        PropertyAccessor.setPropertyValue(compiled, "derivedFrom", derivedFrom);
+        PropertyAccessor.setPropertyValue(compiled, "archiveVersion", "1.0.0");
+
+        assertEquals(wrapped.getElementId(), compiled.getElementId());
+        assertEquals(wrapped.getDescription(), compiled.getDescription());
+        assertEquals(wrapped.isAbstract(), compiled.isAbstract());
+        assertEquals(wrapped.getDerivedFrom(), compiled.getDerivedFrom());
+        assertEquals(wrapped.getArchiveVersion(), compiled.getArchiveVersion());
+        // values that do not require any conversion are set as is.
+        assertSame(derivedFrom, compiled.getDerivedFrom());
+    }
+
+    @Test
+    public void valuesRequiringConversionShouldBeDelegatedToBeanWrapper() {
+        NodeType nodeType = new NodeType();
+        PropertyAccessor.setPropertyValue(nodeType, "abstract", "true");
+        assertEquals(true, nodeType.isAbstract());
+        PropertyAccessor.setPropertyValue(nodeType, "abstract", "false");
+        assertEquals(false, nodeType.isAbstract());
+    }
+
+    @Test
+    public void collectionElementsRequiringConversionShouldBeDelegatedToBeanWrapper() {
+        NodeType nodeType = new NodeType();
+        PropertyAccessor.setPropertyValue(nodeType, "derivedFrom", Lists.newArrayList(1));
+        assertEquals(Lists.newArrayList("1"), nodeType.getDerivedFrom());
+    }
+
+    @Test
+    public void mapKeysRequiringConversionShouldBeDelegatedToBeanWrapper() {
+        PropertyDefinition propertyDefinition = new PropertyDefinition();
+        Map<Integer, PropertyDefinition> properties = Maps.newHashMap();
+        properties.put(1, propertyDefinition);
+        NodeType nodeType = new NodeType();
+        PropertyAccessor.setPropertyValue(nodeType, "properties", properties);
+        assertEquals(1, nodeType.getProperties().size());
+        assertSame(propertyDefinition, nodeType.getProperties().get("1"));
+    }
+
+    @Test
+    public void nestedPathsShouldNotBeCompiled() {
+        assertNull(PropertyAccessor.get(NodeType.class, "nestedVersion.majorVersion"));
+    }
+}
@@ -21,12 +21,18 @@ define(function (require) {
 
         var listenerFactory = function(type, listeners) {
           return function(event) {
-            var parsedEvent = JSON.parse(event.body);
-            for (var listenerId in listeners) {
-              if (listeners.hasOwnProperty(listenerId)) {
-                listeners[listenerId](type, parsedEvent);
-              }
+            // events are sent in batches
+            var parsedEvents = JSON.parse(event.body);
+            if (!_.isArray(parsedEvents)) {
+              parsedEvents = [parsedEvents];
             }
+            _.each(parsedEvents, function(parsedEvent) {
+              for (var listenerId in listeners) {
+                if (listeners.hasOwnProperty(listenerId)) {
+                  listeners[listenerId](type, parsedEvent);
+                }
+              }
+            });
           };
         };
 
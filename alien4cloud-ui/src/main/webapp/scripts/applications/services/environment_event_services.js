@@ -2,6 +2,7 @@ define(function (require) {
   'use strict';
 
   var modules = require('modules');
+  var _ = require('lodash');
 
   require('scripts/common/services/websocket_services');
 
@@ -13,7 +14,14 @@ define(function (require) {
       // subscribe to environment status related events
       if (!webSocketServices.isTopicSubscribed(topicName)) {
         webSocketServices.subscribe(topicName, function(event) {
-          callback(environment, JSON.parse(event.body));
+          // events are sent in batches
+          var parsedEvents = JSON.parse(event.body);
+          if (!_.isArray(parsedEvents)) {
+            parsedEvents = [parsedEvents];
+          }
+          _.each(parsedEvents, function(parsedEvent) {
+            callback(environment, parsedEvent);
+          });
         });
       }
 